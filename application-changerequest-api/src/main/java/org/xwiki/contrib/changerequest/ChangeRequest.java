@@ -20,6 +20,7 @@
 package org.xwiki.contrib.changerequest;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Deque;
 import java.util.HashSet;
@@ -30,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -55,9 +57,13 @@ public class ChangeRequest
     private Date updateDate;
     private ChangeRequestStatus status;
     private final Map<DocumentReference, Deque<FileChange>> fileChanges;
+    private final Map<String, FileChange> fileChangesById;
+    private volatile List<FileChange> allFileChanges;
     private Set<UserReference> authors;
     private final LinkedList<ChangeRequestReview> reviews;
     private Date staleDate;
+    // Instance whose file changes, authors and reviews are copied on first access, see #copyOnWrite().
+    private volatile ChangeRequest sharedContent;
 
     /**
      * Default constructor.
@@ -68,6 +74,7 @@ public class ChangeRequest
         this.updateDate = new Date();
         this.status = ChangeRequestStatus.DRAFT;
         this.fileChanges = new LinkedHashMap<>();
+        this.fileChangesById = new ConcurrentHashMap<>();
         this.authors = new HashSet<>();
         this.reviews = new LinkedList<>();
     }
@@ -116,6 +123,7 @@ public class ChangeRequest
      */
     public ChangeRequest addFileChange(FileChange fileChange)
     {
+        this.copySharedContent();
         DocumentReference documentReference = fileChange.getTargetEntity();
         synchronized (this.fileChanges) {
             Deque<FileChange> fileChangeList;
@@ -127,6 +135,10 @@ public class ChangeRequest
             }
             this.authors.add(fileChange.getAuthor());
             fileChangeList.add(fileChange);
+            if (fileChange.getId() != null) {
+                this.fileChangesById.put(fileChange.getId(), fileChange);
+            }
+            this.allFileChanges = null;
         }
         return this;
     }
@@ -137,6 +149,7 @@ public class ChangeRequest
      */
     public Set<DocumentReference> getModifiedDocuments()
     {
+        this.copySharedContent();
         return this.fileChanges.keySet();
     }
 
@@ -147,6 +160,7 @@ public class ChangeRequest
      */
     public List<FileChange> getLastFileChanges()
     {
+        this.copySharedContent();
         List<FileChange> result = new ArrayList<>();
         for (Map.Entry<DocumentReference, Deque<FileChange>> entry : this.fileChanges.entrySet()) {
             result.add(entry.getValue().getLast());
@@ -155,17 +169,28 @@ public class ChangeRequest
     }
 
     /**
+     * Note that the returned list is computed once and reused until a new file change is added: it cannot be
+     * modified.
+     *
      * @return all file changes of the current change request.
      */
     public List<FileChange> getAllFileChanges()
     {
-        return new ArrayList<>(this.fileChanges
-            .values()
-            .stream()
-            .reduce(new LinkedList<>(), (list1, list2) -> {
-                list1.addAll(list2);
-                return list1;
-            }));
+        this.copySharedContent();
+        List<FileChange> result = this.allFileChanges;
+        if (result == null) {
+            synchronized (this.fileChanges) {
+                if (this.allFileChanges == null) {
+                    List<FileChange> fileChangeList = new ArrayList<>();
+                    for (Deque<FileChange> fileChangeDeque : this.fileChanges.values()) {
+                        fileChangeList.addAll(fileChangeDeque);
+                    }
+                    this.allFileChanges = Collections.unmodifiableList(fileChangeList);
+                }
+                result = this.allFileChanges;
+            }
+        }
+        return result;
     }
 
     /**
@@ -178,6 +203,7 @@ public class ChangeRequest
      */
     public Optional<FileChange> getFileChangeImmediatelyBefore(FileChange fileChange)
     {
+        this.copySharedContent();
         Optional<FileChange> result = Optional.empty();
         if (this.fileChanges.containsKey(fileChange.getTargetEntity())) {
             Iterator<FileChange> fileChangeIterator =
@@ -207,6 +233,7 @@ public class ChangeRequest
      */
     public Optional<FileChange> getFileChangeWithChangeBefore(FileChange fileChange)
     {
+        this.copySharedContent();
         Optional<FileChange> result = Optional.empty();
         if (fileChange.getType() == FileChange.FileChangeType.NO_CHANGE) {
             Deque<FileChange> fileChangeDeque = this.fileChanges.get(fileChange.getTargetEntity());
@@ -232,6 +259,7 @@ public class ChangeRequest
      */
     public Set<UserReference> getAuthors()
     {
+        this.copySharedContent();
         return authors;
     }
 
@@ -242,6 +270,7 @@ public class ChangeRequest
      */
     public ChangeRequest setAuthors(Set<UserReference> authors)
     {
+        this.copySharedContent();
         this.authors = authors;
         return this;
     }
@@ -287,6 +316,7 @@ public class ChangeRequest
      */
     public Map<DocumentReference, Deque<FileChange>> getFileChanges()
     {
+        this.copySharedContent();
         return fileChanges;
     }
 
@@ -300,6 +330,7 @@ public class ChangeRequest
      */
     public Optional<FileChange> getLatestFileChangeFor(DocumentReference documentReference)
     {
+        this.copySharedContent();
         Optional<FileChange> result = Optional.empty();
         Deque<FileChange> fileChangeList = this.fileChanges.getOrDefault(documentReference, new LinkedList<>());
         if (!fileChangeList.isEmpty()) {
@@ -350,6 +381,7 @@ public class ChangeRequest
      */
     public List<ChangeRequestReview> getReviews()
     {
+        this.copySharedContent();
         return reviews;
     }
 
@@ -373,9 +405,20 @@ public class ChangeRequest
      */
     public Optional<FileChange> getFileChangeById(String fileChangeId)
     {
-        return this.getAllFileChanges().stream()
-            .filter(fileChange -> fileChange.getId().equals(fileChangeId))
-            .findFirst();
+        this.copySharedContent();
+        FileChange result = (fileChangeId == null) ? null : this.fileChangesById.get(fileChangeId);
+        // The identifier of a file change is only set when it's saved, so it might not be indexed yet.
+        if (fileChangeId != null && (result == null || !fileChangeId.equals(result.getId()))) {
+            result = null;
+            for (FileChange fileChange : getAllFileChanges()) {
+                if (fileChangeId.equals(fileChange.getId())) {
+                    result = fileChange;
+                    this.fileChangesById.put(fileChangeId, fileChange);
+                    break;
+                }
+            }
+        }
+        return Optional.ofNullable(result);
     }
 
     /**
@@ -408,6 +451,7 @@ public class ChangeRequest
      */
     public ChangeRequest addReview(ChangeRequestReview review)
     {
+        this.copySharedContent();
         Optional<ChangeRequestReview> optionalPrevious = getLatestReviewFrom(review.getAuthor());
         optionalPrevious.ifPresent(changeRequestReview -> changeRequestReview.setLastFromAuthor(false));
         this.reviews.addFirst(review);
@@ -478,6 +522,7 @@ public class ChangeRequest
      */
     public ChangeRequest cloneWithoutFileChanges()
     {
+        this.copySharedContent();
         return new ChangeRequest()
             .setTitle(this.title)
             .setStatus(this.status)
@@ -486,6 +531,102 @@ public class ChangeRequest
             .setAuthors(this.authors);
     }
 
+    /**
+     * Create a full copy of the current change request: the file changes and reviews are copied and attached to the
+     * copy, so that modifying the copy never impacts the current instance. Note that the loaded modified documents of
+     * the file changes are shared with the copy, and that the ones which are not loaded yet are loaded separately by
+     * the copy.
+     *
+     * @return a copy of the current instance, equal to it
+     * @since 1.20
+     */
+    public ChangeRequest copy()
+    {
+        ChangeRequest copy = this.copyWithoutContent();
+        synchronized (copy.fileChanges) {
+            this.copyContentTo(copy, false);
+        }
+        return copy;
+    }
+
+    /**
+     * Create a copy of the current change request which shares its file changes, authors and reviews until the first
+     * time one of them is accessed: they are then copied as with {@link #copy()}. The modified documents of the file
+     * changes are loaded only once by the current instance, and shared with all its copies. This makes the copy cheap
+     * when only the metadata of the change request are used, but it requires that the current instance is never
+     * modified anymore, which is typically the case of a snapshot.
+     *
+     * @return a copy of the current instance, equal to it
+     * @since 1.20
+     */
+    public ChangeRequest copyOnWrite()
+    {
+        ChangeRequest copy = this.copyWithoutContent();
+        copy.sharedContent = this;
+        return copy;
+    }
+
+    private ChangeRequest copyWithoutContent()
+    {
+        return new ChangeRequest()
+            .setId(this.id)
+            .setTitle(this.title)
+            .setDescription(this.description)
+            .setCreator(this.creator)
+            .setStatus(this.status)
+            .setCreationDate(copyDate(this.creationDate))
+            .setUpdateDate(copyDate(this.updateDate))
+            .setStaleDate(copyDate(this.staleDate));
+    }
+
+    private void copySharedContent()
+    {
+        if (this.sharedContent != null) {
+            synchronized (this.fileChanges) {
+                ChangeRequest source = this.sharedContent;
+                if (source != null) {
+                    source.copyContentTo(this, true);
+                    this.sharedContent = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fill the file changes, authors and reviews of the given copy, whose lock on the file changes must be held.
+     */
+    private void copyContentTo(ChangeRequest copy, boolean shareDocumentLoading)
+    {
+        // The fields of the copy are filled directly since its public methods would copy its shared content again.
+        synchronized (this.fileChanges) {
+            for (FileChange fileChange : this.getAllFileChanges()) {
+                FileChange fileChangeCopy = fileChange.copyWithChangeRequest(copy, shareDocumentLoading);
+                copy.fileChanges.computeIfAbsent(fileChange.getTargetEntity(), key -> new LinkedList<>())
+                    .add(fileChangeCopy);
+                if (fileChangeCopy.getId() != null) {
+                    copy.fileChangesById.put(fileChangeCopy.getId(), fileChangeCopy);
+                }
+            }
+            copy.allFileChanges = null;
+            // Authors are computed when adding the file changes, but they might have been set explicitly.
+            copy.authors = new HashSet<>(this.getAuthors());
+        }
+        for (ChangeRequestReview review : this.getReviews()) {
+            ChangeRequestReview reviewCopy = review.cloneWithChangeRequest(copy)
+                .setId(review.getId())
+                .setSaved(review.isSaved())
+                .setNew(review.isNew());
+            reviewCopy.setOriginalApprover(review.getOriginalApprover());
+            reviewCopy.setLastFromAuthor(review.isLastFromAuthor());
+            copy.reviews.add(reviewCopy);
+        }
+    }
+
+    private static Date copyDate(Date date)
+    {
+        return (date == null) ? null : new Date(date.getTime());
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -498,6 +639,8 @@ public class ChangeRequest
         }
 
         ChangeRequest that = (ChangeRequest) o;
+        this.copySharedContent();
+        that.copySharedContent();
 
         return new EqualsBuilder()
             .append(id, that.id)
@@ -515,6 +658,7 @@ public class ChangeRequest
     @Override
     public int hashCode()
     {
+        this.copySharedContent();
         return new HashCodeBuilder(17, 37)
             .append(id)
             .append(title)
@@ -531,6 +675,7 @@ public class ChangeRequest
     @Override
     public String toString()
     {
+        this.copySharedContent();
         return new ToStringBuilder(this)
             .append("id", id)
             .append("title", title)
@@ -223,4 +223,67 @@ public interface ChangeRequestConfiguration
     {
         return false;
     }
+
+    /**
+     * Define the delay during which the updates of a same document are gathered before computing the merging status
+     * of the change requests targeting that document: this computation is performed asynchronously, only once per
+     * delay whatever the number of updates.
+     *
+     * @return the delay in milliseconds
+     * @since 1.20
+     */
+    default long getMergingStatusComputationDelay()
+    {
+        return 1000;
+    }
+
+    /**
+     * Define the maximum number of entries of one of the caches used by the application.
+     *
+     * @param cacheName the name of the cache, e.g. {@code titles}
+     * @param defaultSize the size to use when nothing is configured, {@code 0} meaning the default cache size
+     * @return the maximum number of entries of the cache
+     * @since 1.20
+     */
+    default int getCacheSize(String cacheName, int defaultSize)
+    {
+        return defaultSize;
+    }
+
+    /**
+     * Define the duration after which the entries of one of the caches used by the application expire.
+     *
+     * @param cacheName the name of the cache, e.g. {@code titles}
+     * @return the lifespan of the entries in seconds, or {@code 0} if they never expire
+     * @since 1.20
+     */
+    default int getCacheLifespan(String cacheName)
+    {
+        return 0;
+    }
+
+    /**
+     * Define the maximum number of documents of a same change request whose conflicts are checked in parallel.
+     * The thread pool used for those checks is recreated when this value changes.
+     *
+     * @return the number of threads used to check the conflicts, {@code 1} meaning that the documents are checked
+     *         sequentially
+     * @since 1.20
+     */
+    default int getConflictCheckThreads()
+    {
+        return 4;
+    }
+
+    /**
+     * Define the maximum number of change requests retrieved at once by the scheduler jobs handling the stale change
+     * requests.
+     *
+     * @return the number of change requests handled by each page of the scheduler jobs
+     * @since 1.20
+     */
+    default int getSchedulerJobPageSize()
+    {
+        return 100;
+    }
 }
@@ -83,6 +83,38 @@ public interface ChangeRequestManager
     {
     }
 
+    /**
+     * Check if the given change request is ready for merging after an update of its reviews or of its approvers, and
+     * change its status accordingly. Contrary to {@link #computeReadyForMergingStatus(ChangeRequest)} this method
+     * assumes that the conflict status of the change request didn't change since the last computation.
+     *
+     * @param changeRequest the change request to be checked
+     * @throws ChangeRequestException in case of problem during the checks.
+     * @since 1.20
+     */
+    default void computeReadyForMergingStatusAfterApprovalUpdate(ChangeRequest changeRequest)
+        throws ChangeRequestException
+    {
+        computeReadyForMergingStatus(changeRequest);
+    }
+
+    /**
+     * Check if the given change request is ready for merging after an update of one of the documents it targets, and
+     * change its status accordingly. Contrary to {@link #computeReadyForMergingStatus(ChangeRequest)} this method
+     * assumes that the approvals of the change request and the conflict status of the other documents didn't change
+     * since the last computation.
+     *
+     * @param changeRequest the change request to be checked
+     * @param documentReference the reference of the updated document
+     * @throws ChangeRequestException in case of problem during the checks.
+     * @since 1.20
+     */
+    default void computeReadyForMergingStatusAfterDocumentUpdate(ChangeRequest changeRequest,
+        DocumentReference documentReference) throws ChangeRequestException
+    {
+        computeReadyForMergingStatus(changeRequest);
+    }
+
     /**
      * Update the status of the given change request with the new status, only if it's not set yet.
      * This method also triggers {@link #computeReadyForMergingStatus(ChangeRequest)} after the status change and
@@ -21,6 +21,7 @@ package org.xwiki.contrib.changerequest;
 
 import java.util.Date;
 import java.util.List;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -47,6 +48,8 @@ public class ChangeRequestMergeDocumentResult
     private MergeDocumentResult wrappedResult;
 
     private MergeDocumentResult wrappedResultWithCRFallback;
+
+    private Supplier<MergeDocumentResult> wrappedResultWithCRFallbackSupplier;
     private final boolean isConflicting;
     private String documentTitle;
     private final String previousVersion;
@@ -162,8 +165,12 @@ public class ChangeRequestMergeDocumentResult
      *       request, or {@code null} in case there was no conflict
      * @since 1.10
      */
-    public MergeDocumentResult getWrappedResultWithCRFallback()
+    public synchronized MergeDocumentResult getWrappedResultWithCRFallback()
     {
+        if (this.wrappedResultWithCRFallback == null && this.wrappedResultWithCRFallbackSupplier != null) {
+            this.wrappedResultWithCRFallback = this.wrappedResultWithCRFallbackSupplier.get();
+            this.wrappedResultWithCRFallbackSupplier = null;
+        }
         return wrappedResultWithCRFallback;
     }
 
@@ -174,10 +181,29 @@ public class ChangeRequestMergeDocumentResult
      * @return the current instance
      * @since 1.10
      */
-    public ChangeRequestMergeDocumentResult setWrappedResultWithCRFallback(
+    public synchronized ChangeRequestMergeDocumentResult setWrappedResultWithCRFallback(
         MergeDocumentResult wrappedResultWithCRFallback)
     {
         this.wrappedResultWithCRFallback = wrappedResultWithCRFallback;
+        this.wrappedResultWithCRFallbackSupplier = null;
+        return this;
+    }
+
+    /**
+     * Set the way to compute the result of the merge when conflicts are solved using the change request version. This
+     * merge is only needed to fix the conflicts: it's only performed the first time
+     * {@link #getWrappedResultWithCRFallback()} is called.
+     *
+     * @param wrappedResultWithCRFallbackSupplier the supplier computing the result of the merge when there was
+     *                                            conflicts and they're solved with the change request version
+     * @return the current instance
+     * @since 1.20
+     */
+    public synchronized ChangeRequestMergeDocumentResult setWrappedResultWithCRFallbackSupplier(
+        Supplier<MergeDocumentResult> wrappedResultWithCRFallbackSupplier)
+    {
+        this.wrappedResultWithCRFallback = null;
+        this.wrappedResultWithCRFallbackSupplier = wrappedResultWithCRFallbackSupplier;
         return this;
     }
 
@@ -19,6 +19,7 @@
  */
 package org.xwiki.contrib.changerequest;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -97,6 +98,23 @@ public interface ChangeRequestRightsManager
      */
     void applyChanges(ChangeRequest changeRequest, List<SecurityRuleDiff> ruleDiffList) throws ChangeRequestException;
 
+    /**
+     * Apply the provided right changes to all the given change requests. Implementations should compute the changes
+     * to perform only once, and avoid saving the rights of the change requests which are not impacted.
+     *
+     * @param changeRequests the change requests on which to apply the right changes.
+     * @param ruleDiffList a list of diff changes of rights.
+     * @throws ChangeRequestException in case of problem when applying the changes.
+     * @since 1.20
+     */
+    default void applyChanges(Collection<ChangeRequest> changeRequests, List<SecurityRuleDiff> ruleDiffList)
+        throws ChangeRequestException
+    {
+        for (ChangeRequest changeRequest : changeRequests) {
+            this.applyChanges(changeRequest, ruleDiffList);
+        }
+    }
+
     /**
      * Check if the given user is authorized to merge the given change request.
      *
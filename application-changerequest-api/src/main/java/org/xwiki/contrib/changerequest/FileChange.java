@@ -20,6 +20,8 @@
 package org.xwiki.contrib.changerequest;
 
 import java.util.Date;
+import java.util.Objects;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -82,6 +84,7 @@ public class FileChange
     private UserReference author;
     private Date creationDate;
     private DocumentModelBridge modifiedDocument;
+    private volatile Supplier<DocumentModelBridge> modifiedDocumentSupplier;
     private boolean saved;
     private final FileChangeType type;
     private boolean minorChange;
@@ -229,10 +232,18 @@ public class FileChange
     }
 
     /**
-     * @return an instance of the document with the changes.
+     * @return an instance of the document with the changes, or {@code null} if it cannot be loaded.
      */
     public DocumentModelBridge getModifiedDocument()
     {
+        if (this.modifiedDocumentSupplier != null) {
+            synchronized (this) {
+                if (this.modifiedDocumentSupplier != null) {
+                    this.modifiedDocument = this.modifiedDocumentSupplier.get();
+                    this.modifiedDocumentSupplier = null;
+                }
+            }
+        }
         return modifiedDocument;
     }
 
@@ -242,7 +253,28 @@ public class FileChange
      */
     public FileChange setModifiedDocument(DocumentModelBridge modifiedDocument)
     {
-        this.modifiedDocument = modifiedDocument;
+        synchronized (this) {
+            this.modifiedDocument = modifiedDocument;
+            this.modifiedDocumentSupplier = null;
+        }
+        return this;
+    }
+
+    /**
+     * Allow to provide the document with the changes lazily: the supplier is only called once, the first time
+     * {@link #getModifiedDocument()} is called. This avoids keeping in memory the documents of all file changes when
+     * only some of them are used.
+     *
+     * @param modifiedDocumentSupplier the supplier of the instance of the document with the changes.
+     * @return the current instance.
+     * @since 1.20
+     */
+    public FileChange setModifiedDocumentSupplier(Supplier<DocumentModelBridge> modifiedDocumentSupplier)
+    {
+        synchronized (this) {
+            this.modifiedDocument = null;
+            this.modifiedDocumentSupplier = modifiedDocumentSupplier;
+        }
         return this;
     }
 
@@ -365,16 +397,45 @@ public class FileChange
      */
     public FileChange cloneWithChangeRequestAndType(ChangeRequest changeRequest, FileChangeType type)
     {
-        return new FileChange(changeRequest, type)
+        FileChange clone = new FileChange(changeRequest, type)
             .setId(this.id)
             .setVersion(this.version)
             .setCreationDate(this.creationDate)
             .setAuthor(this.author)
-            .setModifiedDocument(this.modifiedDocument)
             .setTargetEntity(this.targetEntity)
             .setPreviousPublishedVersion(this.previousPublishedVersion, this.previousPublishedVersionDate)
             .setPreviousVersion(this.previousVersion)
             .setMinorChange(this.minorChange);
+        // Don't load the document if it's not been loaded yet: it will be loaded once for both instances if needed.
+        if (this.modifiedDocumentSupplier != null) {
+            clone.setModifiedDocumentSupplier(this::getModifiedDocument);
+        } else {
+            clone.setModifiedDocument(this.modifiedDocument);
+        }
+        return clone;
+    }
+
+    /**
+     * Copy the current instance, attach it to the given change request and keep its saved flag. As with
+     * {@link #cloneWithChangeRequestAndType(ChangeRequest, FileChangeType)} a loaded modified document is shared with
+     * the copy.
+     *
+     * @param changeRequest the change request the copy is attached to
+     * @param shareDocumentLoading {@code true} if a modified document not loaded yet should be loaded once by the
+     *     current instance and shared with the copy, {@code false} if it should be loaded separately by the copy
+     * @return the copy of the file change
+     */
+    FileChange copyWithChangeRequest(ChangeRequest changeRequest, boolean shareDocumentLoading)
+    {
+        FileChange copy = this.cloneWithChangeRequestAndType(changeRequest, this.type).setSaved(this.saved);
+        if (!shareDocumentLoading) {
+            synchronized (this) {
+                if (this.modifiedDocumentSupplier != null) {
+                    copy.setModifiedDocumentSupplier(this.modifiedDocumentSupplier);
+                }
+            }
+        }
+        return copy;
     }
 
     /**
@@ -402,7 +463,7 @@ public class FileChange
 
         FileChange that = (FileChange) o;
 
-        return new EqualsBuilder()
+        boolean result = new EqualsBuilder()
             .append(id, that.id)
             .append(targetEntity, that.targetEntity)
             .append(previousVersion, that.previousVersion)
@@ -410,11 +471,13 @@ public class FileChange
             .append(previousPublishedVersionDate, that.previousPublishedVersionDate)
             .append(author, that.author)
             .append(creationDate, that.creationDate)
-            .append(modifiedDocument, that.modifiedDocument)
             .append(version, that.version)
             .append(type, that.type)
             .append(minorChange, that.minorChange)
             .isEquals();
+
+        // Only compare the modified documents when needed, since it might imply to load them.
+        return result && Objects.equals(getModifiedDocument(), that.getModifiedDocument());
     }
 
     @Override
@@ -428,7 +491,7 @@ public class FileChange
             .append(previousPublishedVersionDate)
             .append(author)
             .append(creationDate)
-            .append(modifiedDocument)
+            // The modified document is not part of the hash on purpose, to avoid loading it.
             .append(version)
             .append(type)
             .append(minorChange)
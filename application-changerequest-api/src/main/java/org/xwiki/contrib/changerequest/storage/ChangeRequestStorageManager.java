@@ -19,11 +19,15 @@
  */
 package org.xwiki.contrib.changerequest.storage;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.xwiki.component.annotation.Role;
 import org.xwiki.contrib.changerequest.ChangeRequest;
@@ -71,6 +75,43 @@ public interface ChangeRequestStorageManager
      */
     Optional<ChangeRequest> load(String changeRequestId) throws ChangeRequestException;
 
+    /**
+     * Load all change requests matching the given identifiers. The default implementation relies on
+     * {@link #load(String)} for each of them: change requests which are not cached thus still cost one document fetch
+     * each.
+     *
+     * @param changeRequestIds the identifiers of the change requests to load
+     * @return the list of change requests found, in the order of the given identifiers and without duplicates: the
+     *         identifiers that don't match any change request are ignored
+     * @throws ChangeRequestException in case of errors while loading
+     * @since 1.20
+     */
+    default List<ChangeRequest> loadAll(Collection<String> changeRequestIds) throws ChangeRequestException
+    {
+        List<ChangeRequest> result = new ArrayList<>();
+        for (String changeRequestId : new LinkedHashSet<>(changeRequestIds)) {
+            load(changeRequestId).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    /**
+     * Load only the metadata of a change request: its title, description, creator, status and dates. Implementations
+     * might still return the full change request when it's cheap to do so, e.g. when it's cached, but callers should
+     * not rely on its file changes, authors or reviews, and must never save the returned instance with
+     * {@link #save(ChangeRequest, String)} since it would lose them. The default implementation relies on
+     * {@link #load(String)}.
+     *
+     * @param changeRequestId the id of a change request to find
+     * @return a change request instance containing at least the metadata, or an empty optional if it cannot be found
+     * @throws ChangeRequestException in case of errors while loading
+     * @since 1.20
+     */
+    default Optional<ChangeRequest> loadMetadata(String changeRequestId) throws ChangeRequestException
+    {
+        return load(changeRequestId);
+    }
+
     /**
      * Merge the given change request changes.
      * Note that merging a change request will trigger
@@ -96,6 +137,24 @@ public interface ChangeRequestStorageManager
         return Collections.emptyList();
     }
 
+    /**
+     * Find all open change requests (i.e. not merged, or closed) that contains a file change for the given reference.
+     * This method should be preferred to {@link #findChangeRequestTargeting(DocumentReference)} when only the open
+     * change requests are needed, since implementations might be able to answer it without performing any query.
+     *
+     * @param documentReference the file targeted by a change request.
+     * @return a list of open change requests.
+     * @throws ChangeRequestException in case of problem to find the change requests.
+     * @since 1.20
+     */
+    default List<ChangeRequest> findOpenChangeRequestTargeting(DocumentReference documentReference)
+        throws ChangeRequestException
+    {
+        return findChangeRequestTargeting(documentReference).stream()
+            .filter(changeRequest -> changeRequest.getStatus().isOpen())
+            .collect(Collectors.toList());
+    }
+
     /**
      * Find all change requests that contains a file change inside the given reference.
      *
@@ -207,6 +266,82 @@ public interface ChangeRequestStorageManager
         return Collections.emptyList();
     }
 
+    /**
+     * Find a page of the identifiers of the change requests that are opened, that have been created or updated before
+     * the given limit date and that have not been marked as staled yet. Contrary to
+     * {@link #findOpenChangeRequestsByDate(Date, boolean)} this method doesn't load the change requests.
+     * The results are ordered in a stable way, so that a caller marking all the change requests of a page as staled
+     * only needs to increase the offset by the number of change requests it didn't mark.
+     *
+     * @param limitDate the date to consider in the query for getting change requests.
+     * @param considerCreationDate {@code true} to use the creation date in the query, {@code false} to use the update
+     *                             date.
+     * @param offset the index of the first result to return
+     * @param limit the maximum number of results to return
+     * @return a list of change request identifiers matching the criteria.
+     * @throws ChangeRequestException in case of problem to find the change requests.
+     * @since 1.20
+     */
+    default List<String> findNotStaledChangeRequestIdsByDate(Date limitDate, boolean considerCreationDate,
+        int offset, int limit) throws ChangeRequestException
+    {
+        return findOpenChangeRequestsByDate(limitDate, considerCreationDate).stream()
+            .filter(changeRequest -> changeRequest.getStaleDate() == null)
+            .map(ChangeRequest::getId)
+            .sorted()
+            .skip(offset)
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Find a page of the identifiers of the change requests that are opened and that have been created or updated
+     * before the given limit date. Contrary to {@link #findOpenChangeRequestsByDate(Date, boolean)} this method
+     * doesn't load the change requests. The results are ordered in a stable way.
+     *
+     * @param limitDate the date to consider in the query for getting change requests.
+     * @param considerCreationDate {@code true} to use the creation date in the query, {@code false} to use the update
+     *                             date.
+     * @param offset the index of the first result to return
+     * @param limit the maximum number of results to return
+     * @return a list of change request identifiers matching the criteria.
+     * @throws ChangeRequestException in case of problem to find the change requests.
+     * @since 1.20
+     */
+    default List<String> findOpenChangeRequestIdsByDate(Date limitDate, boolean considerCreationDate, int offset,
+        int limit) throws ChangeRequestException
+    {
+        return findOpenChangeRequestsByDate(limitDate, considerCreationDate).stream()
+            .map(ChangeRequest::getId)
+            .sorted()
+            .skip(offset)
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Find a page of the identifiers of the change requests that are opened and that have been marked as staled
+     * before the given date. Contrary to {@link #findChangeRequestsStaledBefore(Date)} this method doesn't load the
+     * change requests. The results are ordered in a stable way.
+     *
+     * @param limitDate the date before which the change request should have been flagged as staled.
+     * @param offset the index of the first result to return
+     * @param limit the maximum number of results to return
+     * @return a list of change request identifiers matching the criteria.
+     * @throws ChangeRequestException in case of problem to find the change requests.
+     * @since 1.20
+     */
+    default List<String> findChangeRequestIdsStaledBefore(Date limitDate, int offset, int limit)
+        throws ChangeRequestException
+    {
+        return findChangeRequestsStaledBefore(limitDate).stream()
+            .map(ChangeRequest::getId)
+            .sorted()
+            .skip(offset)
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+
     /**
      * Search for change requests document references that are matching the given title.
      *
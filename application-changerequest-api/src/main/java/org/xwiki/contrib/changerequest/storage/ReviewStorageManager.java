@@ -19,6 +19,7 @@
  */
 package org.xwiki.contrib.changerequest.storage;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.xwiki.component.annotation.Role;
@@ -45,6 +46,24 @@ public interface ReviewStorageManager
      */
     void save(ChangeRequestReview review) throws ChangeRequestException;
 
+    /**
+     * Save all the given reviews. Implementations should save together the reviews of a same change request, to
+     * avoid creating a new version of the change request for each review. Contrary to
+     * {@link #save(ChangeRequestReview)} which saves a review on behalf of its author, the reviews are saved on behalf
+     * of the current user, whatever their number: this method is meant to be used when the reviews are updated by a
+     * change of this user, e.g. when they're invalidated.
+     *
+     * @param reviews the reviews to be saved.
+     * @throws ChangeRequestException in case of problem during the save.
+     * @since 1.20
+     */
+    default void saveAll(Collection<ChangeRequestReview> reviews) throws ChangeRequestException
+    {
+        for (ChangeRequestReview review : reviews) {
+            save(review);
+        }
+    }
+
     /**
      * Load all reviews related to the given change request. Note that the method should also set the reviews in
      * the change request object so that {@link ChangeRequest#getReviews()} then returns the loaded reviews.
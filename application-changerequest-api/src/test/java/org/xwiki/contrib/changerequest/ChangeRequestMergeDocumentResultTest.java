@@ -20,12 +20,15 @@
 package org.xwiki.contrib.changerequest;
 
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 import org.xwiki.store.merge.MergeDocumentResult;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -102,4 +105,26 @@ class ChangeRequestMergeDocumentResultTest
         assertEquals("This constructor should only be used for deletion or creation file changes.",
             illegalArgumentException.getMessage());
     }
+
+    @Test
+    void getWrappedResultWithCRFallback()
+    {
+        MergeDocumentResult mergeDocumentResult = mock(MergeDocumentResult.class, "currentFallback");
+        MergeDocumentResult mergeDocumentResultWithCRFallback = mock(MergeDocumentResult.class, "nextFallback");
+        FileChange fileChange = mock(FileChange.class);
+        ChangeRequestMergeDocumentResult changeRequestMergeDocumentResult =
+            new ChangeRequestMergeDocumentResult(mergeDocumentResult, fileChange, "1.3", new Date(45));
+        assertNull(changeRequestMergeDocumentResult.getWrappedResultWithCRFallback());
+
+        AtomicInteger computations = new AtomicInteger();
+        changeRequestMergeDocumentResult.setWrappedResultWithCRFallbackSupplier(() -> {
+            computations.incrementAndGet();
+            return mergeDocumentResultWithCRFallback;
+        });
+        assertEquals(0, computations.get());
+        MergeDocumentResult result = changeRequestMergeDocumentResult.getWrappedResultWithCRFallback();
+        assertSame(mergeDocumentResultWithCRFallback, result);
+        assertSame(result, changeRequestMergeDocumentResult.getWrappedResultWithCRFallback());
+        assertEquals(1, computations.get());
+    }
 }
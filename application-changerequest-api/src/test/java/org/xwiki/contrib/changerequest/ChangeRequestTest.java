@@ -25,17 +25,22 @@ import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.Test;
+import org.xwiki.bridge.DocumentModelBridge;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.user.UserReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -195,6 +200,54 @@ class ChangeRequestTest
             changeRequest.getAllFileChanges());
     }
 
+    @Test
+    void getAllFileChangesIsCached()
+    {
+        ChangeRequest changeRequest = new ChangeRequest();
+        DocumentReference ref1 = new DocumentReference("xwiki", "Space", "Page1");
+        for (int i = 0; i < 1000; i++) {
+            changeRequest.addFileChange(new FileChange(changeRequest).setTargetEntity(ref1).setId("id" + i));
+        }
+
+        List<FileChange> allFileChanges = changeRequest.getAllFileChanges();
+        assertEquals(1000, allFileChanges.size());
+        assertSame(allFileChanges, changeRequest.getAllFileChanges());
+        assertThrows(UnsupportedOperationException.class, () -> allFileChanges.add(mock(FileChange.class)));
+
+        FileChange fileChange = new FileChange(changeRequest).setTargetEntity(ref1).setId("id1000");
+        changeRequest.addFileChange(fileChange);
+        List<FileChange> updatedFileChanges = changeRequest.getAllFileChanges();
+        assertNotSame(allFileChanges, updatedFileChanges);
+        assertEquals(1001, updatedFileChanges.size());
+        assertSame(fileChange, updatedFileChanges.get(1000));
+    }
+
+    @Test
+    void getFileChangeById()
+    {
+        ChangeRequest changeRequest = new ChangeRequest();
+        DocumentReference ref1 = new DocumentReference("xwiki", "Space", "Page1");
+        DocumentReference ref2 = new DocumentReference("xwiki", "Space", "Page2");
+        FileChange fileChange1 = new FileChange(changeRequest).setTargetEntity(ref1).setId("id1");
+        FileChange fileChange2 = new FileChange(changeRequest).setTargetEntity(ref2).setId("id2");
+        // The identifier is only set when saving the file change, after adding it to the change request.
+        FileChange fileChange3 = new FileChange(changeRequest).setTargetEntity(ref1);
+        changeRequest.addFileChange(fileChange1).addFileChange(fileChange2).addFileChange(fileChange3);
+
+        assertEquals(Optional.of(fileChange1), changeRequest.getFileChangeById("id1"));
+        assertEquals(Optional.of(fileChange2), changeRequest.getFileChangeById("id2"));
+        assertEquals(Optional.empty(), changeRequest.getFileChangeById("id3"));
+        assertEquals(Optional.empty(), changeRequest.getFileChangeById(null));
+
+        fileChange3.setId("id3");
+        assertEquals(Optional.of(fileChange3), changeRequest.getFileChangeById("id3"));
+
+        // A file change whose identifier changed is not returned anymore with its old identifier.
+        fileChange1.setId("id4");
+        assertEquals(Optional.empty(), changeRequest.getFileChangeById("id1"));
+        assertEquals(Optional.of(fileChange1), changeRequest.getFileChangeById("id4"));
+    }
+
     @Test
     void getLatestFileChangeFor()
     {
@@ -344,6 +397,105 @@ class ChangeRequestTest
         assertNotEquals(otherChangeRequest, clone);
     }
 
+    @Test
+    void copy()
+    {
+        UserReference userReference = mock(UserReference.class);
+        UserReference reviewer = mock(UserReference.class);
+        ChangeRequest changeRequest = new ChangeRequest()
+            .setCreator(userReference)
+            .setDescription("Some description")
+            .setId("4242")
+            .setStatus(ChangeRequestStatus.READY_FOR_REVIEW)
+            .setCreationDate(new Date(48))
+            .setStaleDate(new Date(50))
+            .setTitle("A title");
+        DocumentReference ref1 = new DocumentReference("xwiki", "Space", "Page1");
+        FileChange fileChange = new FileChange(changeRequest)
+            .setTargetEntity(ref1)
+            .setId("fc1")
+            .setAuthor(userReference)
+            .setSaved(true);
+        changeRequest.addFileChange(fileChange);
+        ChangeRequestReview review = new ChangeRequestReview(changeRequest, true, reviewer).setId("xobject_0");
+        changeRequest.addReview(review);
+
+        ChangeRequest copy = changeRequest.copy();
+        assertEquals(changeRequest, copy);
+        assertEquals(changeRequest.getStaleDate(), copy.getStaleDate());
+        assertEquals(changeRequest.getAuthors(), copy.getAuthors());
+
+        FileChange copiedFileChange = copy.getFileChangeById("fc1").get();
+        assertNotSame(fileChange, copiedFileChange);
+        assertSame(copy, copiedFileChange.getChangeRequest());
+        assertTrue(copiedFileChange.isSaved());
+        ChangeRequestReview copiedReview = copy.getLatestReviewFrom(reviewer).get();
+        assertNotSame(review, copiedReview);
+        assertSame(copy, copiedReview.getChangeRequest());
+        assertEquals("xobject_0", copiedReview.getId());
+        assertTrue(copiedReview.isSaved());
+        assertTrue(copiedReview.isLastFromAuthor());
+
+        // Modifying the copy doesn't impact the original instance.
+        copy.setStatus(ChangeRequestStatus.MERGED);
+        copy.addFileChange(new FileChange(copy).setTargetEntity(ref1).setId("fc2"));
+        copy.addReview(new ChangeRequestReview(copy, false, reviewer));
+        copy.getAuthors().add(reviewer);
+        assertEquals(ChangeRequestStatus.READY_FOR_REVIEW, changeRequest.getStatus());
+        assertEquals(List.of(fileChange), changeRequest.getAllFileChanges());
+        assertEquals(List.of(review), changeRequest.getReviews());
+        assertTrue(review.isLastFromAuthor());
+        assertEquals(Set.of(userReference), changeRequest.getAuthors());
+    }
+
+    @Test
+    void copyOnWrite()
+    {
+        UserReference userReference = mock(UserReference.class);
+        ChangeRequest changeRequest = new ChangeRequest()
+            .setId("4242")
+            .setTitle("A title");
+        DocumentReference ref1 = new DocumentReference("xwiki", "Space", "Page1");
+        DocumentReference ref2 = new DocumentReference("xwiki", "Space", "Page2");
+        DocumentModelBridge loadedDocument = mock(DocumentModelBridge.class);
+        FileChange loadedFileChange = new FileChange(changeRequest)
+            .setTargetEntity(ref1)
+            .setId("fc1")
+            .setAuthor(userReference)
+            .setModifiedDocument(loadedDocument);
+        List<DocumentModelBridge> lazyDocuments = new LinkedList<>();
+        FileChange lazyFileChange = new FileChange(changeRequest)
+            .setTargetEntity(ref2)
+            .setId("fc2")
+            .setAuthor(userReference)
+            .setModifiedDocumentSupplier(() -> {
+                DocumentModelBridge document = mock(DocumentModelBridge.class);
+                lazyDocuments.add(document);
+                return document;
+            });
+        changeRequest.addFileChange(loadedFileChange).addFileChange(lazyFileChange);
+
+        ChangeRequest copy = changeRequest.copyOnWrite();
+        ChangeRequest otherCopy = changeRequest.copyOnWrite();
+        copy.setTitle("Other title");
+        assertEquals("A title", changeRequest.getTitle());
+
+        // The content is copied on first access, and the documents are loaded only once and shared.
+        assertEquals(changeRequest, copy.setTitle("A title"));
+        FileChange copiedLoadedFileChange = copy.getFileChangeById("fc1").get();
+        assertNotSame(loadedFileChange, copiedLoadedFileChange);
+        assertSame(copy, copiedLoadedFileChange.getChangeRequest());
+        assertSame(loadedDocument, copiedLoadedFileChange.getModifiedDocument());
+        DocumentModelBridge copyLazyDocument = copy.getFileChangeById("fc2").get().getModifiedDocument();
+        assertSame(copyLazyDocument, otherCopy.getFileChangeById("fc2").get().getModifiedDocument());
+        assertSame(copyLazyDocument, lazyFileChange.getModifiedDocument());
+        assertEquals(List.of(copyLazyDocument), lazyDocuments);
+
+        copy.addFileChange(new FileChange(copy).setTargetEntity(ref1).setId("fc3"));
+        assertEquals(List.of(loadedFileChange, lazyFileChange), changeRequest.getAllFileChanges());
+        assertEquals(3, copy.getAllFileChanges().size());
+    }
+
     @Test
     void getFileChangeImmediatelyBefore()
     {
@@ -20,13 +20,16 @@
 package org.xwiki.contrib.changerequest;
 
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
+import org.xwiki.bridge.DocumentModelBridge;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.user.UserReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.mock;
 
 /**
@@ -227,4 +230,28 @@ class FileChangeTest
         assertEquals("someId", fileChange1.getId());
         assertEquals(changeRequest, fileChange1.getChangeRequest());
     }
+
+    @Test
+    void modifiedDocumentSupplier()
+    {
+        DocumentModelBridge document = mock(DocumentModelBridge.class);
+        AtomicInteger supplierCalls = new AtomicInteger();
+        FileChange fileChange = new FileChange(mock(ChangeRequest.class))
+            .setId("someId")
+            .setModifiedDocumentSupplier(() -> {
+                supplierCalls.incrementAndGet();
+                return document;
+            });
+        FileChange clone = fileChange.clone();
+        assertEquals(0, supplierCalls.get());
+
+        assertSame(document, clone.getModifiedDocument());
+        assertSame(document, fileChange.getModifiedDocument());
+        assertEquals(1, supplierCalls.get());
+
+        DocumentModelBridge otherDocument = mock(DocumentModelBridge.class);
+        fileChange.setModifiedDocument(otherDocument);
+        assertSame(otherDocument, fileChange.getModifiedDocument());
+        assertEquals(1, supplierCalls.get());
+    }
 }
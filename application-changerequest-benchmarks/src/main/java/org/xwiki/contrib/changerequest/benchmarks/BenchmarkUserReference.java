@@ -0,0 +1,69 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.benchmarks;
+
+import java.util.Objects;
+
+import org.xwiki.user.UserReference;
+
+/**
+ * Minimal {@link UserReference} used by the benchmarks: it only relies on a name for equality.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+public class BenchmarkUserReference implements UserReference
+{
+    private final String name;
+
+    /**
+     * Default constructor.
+     *
+     * @param name the name of the user
+     */
+    public BenchmarkUserReference(String name)
+    {
+        this.name = name;
+    }
+
+    @Override
+    public boolean isGlobal()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        return (o instanceof BenchmarkUserReference) && Objects.equals(this.name, ((BenchmarkUserReference) o).name);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hashCode(this.name);
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.name;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.benchmarks;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.contrib.changerequest.ChangeRequest;
+import org.xwiki.contrib.changerequest.ChangeRequestReview;
+import org.xwiki.contrib.changerequest.FileChange;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.user.UserReference;
+
+/**
+ * Benchmarks of the lookups performed on the file changes and reviews of a {@link ChangeRequest}.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChangeRequestBenchmark
+{
+    private static final int NUMBER_OF_DOCUMENTS = 10;
+
+    @Param({ "10", "100", "1000" })
+    int numberOfFileChanges;
+
+    private ChangeRequest changeRequest;
+
+    private String fileChangeId;
+
+    private UserReference reviewer;
+
+    /**
+     * Build a change request with the requested number of file changes spread over a few documents, and with one
+     * review for every ten file changes.
+     */
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        this.changeRequest = new ChangeRequest().setId("benchmark");
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < this.numberOfFileChanges; i++) {
+            DocumentReference target = new DocumentReference("xwiki", "Space", "Page" + (i % NUMBER_OF_DOCUMENTS));
+            FileChange fileChange = new FileChange(this.changeRequest)
+                .setId(FileChange.FILECHANGE_VERSION_PREFIX + i)
+                .setTargetEntity(target)
+                .setAuthor(new BenchmarkUserReference("Author" + (i % NUMBER_OF_DOCUMENTS)))
+                .setCreationDate(new Date(now + i))
+                .setVersion(FileChange.FILECHANGE_VERSION_PREFIX + "1." + (i / NUMBER_OF_DOCUMENTS + 1));
+            this.changeRequest.addFileChange(fileChange);
+        }
+        int numberOfReviews = Math.max(1, this.numberOfFileChanges / NUMBER_OF_DOCUMENTS);
+        for (int i = 0; i < numberOfReviews; i++) {
+            ChangeRequestReview review =
+                new ChangeRequestReview(this.changeRequest, i % 2 == 0, new BenchmarkUserReference("Reviewer" + i));
+            review.setReviewDate(new Date(now + i));
+            this.changeRequest.addReview(review);
+        }
+        this.fileChangeId = FileChange.FILECHANGE_VERSION_PREFIX + (this.numberOfFileChanges / 2);
+        // The oldest review is the worst case of the lookup.
+        this.reviewer = new BenchmarkUserReference("Reviewer0");
+    }
+
+    /**
+     * @return all the file changes of the change request
+     */
+    @Benchmark
+    public List<FileChange> getAllFileChanges()
+    {
+        return this.changeRequest.getAllFileChanges();
+    }
+
+    /**
+     * @return the file change located in the middle of the change request
+     */
+    @Benchmark
+    public Optional<FileChange> getFileChangeById()
+    {
+        return this.changeRequest.getFileChangeById(this.fileChangeId);
+    }
+
+    /**
+     * @return the latest review of the author of the oldest review
+     */
+    @Benchmark
+    public Optional<ChangeRequestReview> getLatestReviewFrom()
+    {
+        return this.changeRequest.getLatestReviewFrom(this.reviewer);
+    }
+}
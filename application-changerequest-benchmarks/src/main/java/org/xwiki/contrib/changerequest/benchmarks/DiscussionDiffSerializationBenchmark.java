@@ -0,0 +1,126 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.contrib.changerequest.discussions.internal.ChangeRequestDiscussionDiffUtils;
+import org.xwiki.diff.display.InlineDiffChunk;
+import org.xwiki.diff.display.UnifiedDiffBlock;
+import org.xwiki.diff.display.UnifiedDiffElement;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Benchmarks of the JSON serialization of the diff blocks stored along with the line diff discussions, performed by
+ * {@link ChangeRequestDiscussionDiffUtils}.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiscussionDiffSerializationBenchmark
+{
+    private static final String LINE = "A line of content with some {{info}}macro{{/info}} and some **bold** text ";
+
+    @Param({ "10", "100", "1000" })
+    int numberOfLines;
+
+    private ChangeRequestDiscussionDiffUtils diffUtils;
+
+    private UnifiedDiffBlock<String, Character> block;
+
+    private String serializedBlock;
+
+    /**
+     * Build a diff block of the requested number of lines, mixing context, deleted and added lines.
+     *
+     * @throws JsonProcessingException in case of problem when serializing the block
+     */
+    @Setup(Level.Trial)
+    public void setup() throws JsonProcessingException
+    {
+        this.diffUtils = new ChangeRequestDiscussionDiffUtils();
+        this.block = new UnifiedDiffBlock<>();
+        for (int i = 0; i < this.numberOfLines; i++) {
+            String value = LINE + i;
+            UnifiedDiffElement.Type type = UnifiedDiffElement.Type.values()[i % 3];
+            UnifiedDiffElement<String, Character> element = new UnifiedDiffElement<>(i, type, value);
+            if (type != UnifiedDiffElement.Type.CONTEXT) {
+                List<InlineDiffChunk<Character>> chunks = new ArrayList<>();
+                chunks.add(new InlineDiffChunk<>(InlineDiffChunk.Type.UNMODIFIED, toCharacters(LINE)));
+                InlineDiffChunk.Type chunkType = (type == UnifiedDiffElement.Type.ADDED)
+                    ? InlineDiffChunk.Type.ADDED : InlineDiffChunk.Type.DELETED;
+                chunks.add(new InlineDiffChunk<>(chunkType, toCharacters(String.valueOf(i))));
+                element.setChunks(chunks);
+            }
+            this.block.add(element);
+        }
+        this.serializedBlock = this.diffUtils.serialize(this.block);
+    }
+
+    private List<Character> toCharacters(String value)
+    {
+        List<Character> result = new ArrayList<>(value.length());
+        for (char character : value.toCharArray()) {
+            result.add(character);
+        }
+        return result;
+    }
+
+    /**
+     * @return the JSON serialization of the diff block
+     * @throws JsonProcessingException in case of problem during serialization
+     */
+    @Benchmark
+    public String serialize() throws JsonProcessingException
+    {
+        return this.diffUtils.serialize(this.block);
+    }
+
+    /**
+     * @return the diff block parsed from its JSON serialization
+     * @throws JsonProcessingException in case of problem during deserialization
+     */
+    @Benchmark
+    public UnifiedDiffBlock<String, Character> deserialize() throws JsonProcessingException
+    {
+        return this.diffUtils.deserialize(this.serializedBlock);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.contrib.changerequest.internal.storage.DefaultFileChangeStorageManager;
+import org.xwiki.test.annotation.AllComponents;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.test.MockitoOldcore;
+
+/**
+ * Benchmarks of the XML (de)serialization of large documents, as performed by
+ * {@link DefaultFileChangeStorageManager} when storing and loading the file changes. The XWiki components are
+ * provided by an in-memory oldcore environment so that no database is needed.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@AllComponents
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileChangeXMLBenchmark
+{
+    // Special characters are already escaped since the paragraph is directly put in the XML content.
+    private static final String PARAGRAPH = "A paragraph of a large page with some **bold** text, a "
+        + "[[link&gt;&gt;Main.WebHome]] and a macro: {{info}}An usual macro with &lt;some&gt; &amp; \"special\" "
+        + "characters{{/info}}\n\n";
+
+    @Param({ "100", "10000" })
+    int numberOfParagraphs;
+
+    private MockitoOldcore oldcore;
+
+    private XWikiContext context;
+
+    private byte[] serializedDocument;
+
+    private XWikiDocument document;
+
+    /**
+     * Initialize the in-memory oldcore environment and build a document of the requested size.
+     *
+     * @throws Exception in case of problem when initializing the components or parsing the document
+     */
+    @Setup(Level.Trial)
+    public void setup() throws Exception
+    {
+        MockitoComponentManager componentManager = new MockitoComponentManager();
+        componentManager.initializeTest(this);
+        this.oldcore = new MockitoOldcore(componentManager);
+        this.oldcore.before(FileChangeXMLBenchmark.class);
+        this.context = this.oldcore.getXWikiContext();
+
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < this.numberOfParagraphs; i++) {
+            content.append(PARAGRAPH);
+        }
+        String xml = "<?xml version='1.1' encoding='UTF-8'?>\n"
+            + "<xwikidoc version=\"1.4\" reference=\"SomePage.WebHome\" locale=\"\">\n"
+            + "  <web>SomePage</web>\n"
+            + "  <name>WebHome</name>\n"
+            + "  <language/>\n"
+            + "  <defaultLanguage>en</defaultLanguage>\n"
+            + "  <translation>0</translation>\n"
+            + "  <creator>XWiki.Admin</creator>\n"
+            + "  <creationDate>1624961158000</creationDate>\n"
+            + "  <parent>Main.WebHome</parent>\n"
+            + "  <author>XWiki.Admin</author>\n"
+            + "  <contentAuthor>XWiki.Admin</contentAuthor>\n"
+            + "  <date>1624961158000</date>\n"
+            + "  <contentUpdateDate>1624961293000</contentUpdateDate>\n"
+            + "  <version>3.1</version>\n"
+            + "  <title>A large page</title>\n"
+            + "  <comment/>\n"
+            + "  <minorEdit>false</minorEdit>\n"
+            + "  <syntaxId>xwiki/2.1</syntaxId>\n"
+            + "  <hidden>false</hidden>\n"
+            + "  <content>" + content + "</content>\n"
+            + "</xwikidoc>\n";
+        this.serializedDocument = xml.getBytes(StandardCharsets.UTF_8);
+        this.document = parse();
+    }
+
+    /**
+     * Release the in-memory oldcore environment.
+     *
+     * @throws Exception in case of problem when disposing the components
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        this.oldcore.after();
+    }
+
+    /**
+     * @return the document parsed from its XML serialization
+     * @throws Exception in case of problem when parsing the document
+     */
+    @Benchmark
+    public XWikiDocument parse() throws Exception
+    {
+        XWikiDocument result = new XWikiDocument(null);
+        result.fromXML(new ByteArrayInputStream(this.serializedDocument));
+        return result;
+    }
+
+    /**
+     * @return the XML serialization of the document
+     * @throws Exception in case of problem when serializing the document
+     */
+    @Benchmark
+    public byte[] serialize() throws Exception
+    {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        this.document.toXML(outputStream, true, true, true, false, this.context);
+        return outputStream.toByteArray();
+    }
+}
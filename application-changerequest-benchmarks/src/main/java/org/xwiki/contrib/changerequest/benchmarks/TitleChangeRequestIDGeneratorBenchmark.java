@@ -0,0 +1,118 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.benchmarks;
+
+import java.text.Normalizer;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import javax.inject.Provider;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.contrib.changerequest.ChangeRequest;
+import org.xwiki.contrib.changerequest.internal.storage.id.TitleChangeRequestIDGenerator;
+import org.xwiki.model.validation.EntityNameValidation;
+
+/**
+ * Benchmarks of {@link TitleChangeRequestIDGenerator#generateId(ChangeRequest)}.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TitleChangeRequestIDGeneratorBenchmark
+{
+    /**
+     * In-memory stand-in of the slug entity name validation, performing the same kind of work: removing the
+     * accents and replacing all the special characters.
+     */
+    private static final class SlugEntityNameValidation implements EntityNameValidation
+    {
+        private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+        private static final Pattern FORBIDDEN_CHARACTERS = Pattern.compile("[^\\p{Alnum}]+");
+
+        @Override
+        public String transform(String name)
+        {
+            String result = DIACRITICS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+            return StringUtils.strip(FORBIDDEN_CHARACTERS.matcher(result).replaceAll("-"), "-");
+        }
+
+        @Override
+        public boolean isValid(String name)
+        {
+            return StringUtils.equals(name, transform(name));
+        }
+    }
+
+    @Param({ "20", "200" })
+    int titleLength;
+
+    private TitleChangeRequestIDGenerator generator;
+
+    private ChangeRequest changeRequest;
+
+    /**
+     * Create the generator with the slug stand-in, and a change request with a title of the requested length.
+     */
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        this.generator = new TitleChangeRequestIDGenerator();
+        EntityNameValidation slugValidation = new SlugEntityNameValidation();
+        Provider<EntityNameValidation> provider = () -> slugValidation;
+        ReflectionUtils.setFieldValue(this.generator, "slugEntityNameValidation", provider);
+
+        StringBuilder title = new StringBuilder();
+        String words = "Modification de la page d'accueil: réécriture complète! ";
+        while (title.length() < this.titleLength) {
+            title.append(words);
+        }
+        this.changeRequest = new ChangeRequest().setTitle(title.substring(0, this.titleLength));
+    }
+
+    /**
+     * @return a new identifier for the change request
+     */
+    @Benchmark
+    public String generateId()
+    {
+        return this.generator.generateId(this.changeRequest);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.inject.Singleton;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.xwiki.bridge.DocumentModelBridge;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+
+import com.xpn.xwiki.doc.XWikiAttachment;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseProperty;
+import com.xpn.xwiki.objects.PropertyInterface;
+
+/**
+ * Compute a fingerprint of the inputs of a 3-way merge that identifies its conflict status.
+ * <p>
+ * A conflict can only occur on the parts of a document (content, title, xobjects of a given class, etc.) modified
+ * by the change request: so the fingerprint only takes into account those parts, and any update of the current
+ * document not touching them, such as adding a comment, leads to the same fingerprint. Since the merge also depends on
+ * the conflict decisions taken by a user for a given document, the fingerprint also takes into account the user
+ * performing the merge and the concerned document.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@Component(roles = ConflictFingerprintComputer.class)
+@Singleton
+public class ConflictFingerprintComputer
+{
+    private static final String OBJECTS_PART_PREFIX = "objects:";
+
+    private static final char SEPARATOR = '\n';
+
+    /**
+     * Compute the fingerprint of the given merge inputs.
+     *
+     * @param previousDoc the version of the document the change request is based on
+     * @param nextDoc the version of the document in the change request
+     * @param currentDoc the current version of the document
+     * @param userReference the reference of the user performing the merge
+     * @return the fingerprint, or {@link Optional#empty()} if it cannot be computed for those documents, e.g. if the
+     *         change request modifies the xclass of the document
+     */
+    public Optional<String> computeFingerprint(DocumentModelBridge previousDoc, DocumentModelBridge nextDoc,
+        DocumentModelBridge currentDoc, DocumentReference userReference)
+    {
+        Optional<String> result = Optional.empty();
+        if (previousDoc instanceof XWikiDocument && nextDoc instanceof XWikiDocument
+            && currentDoc instanceof XWikiDocument) {
+            XWikiDocument previous = (XWikiDocument) previousDoc;
+            XWikiDocument next = (XWikiDocument) nextDoc;
+            // We don't try to compare the xclass properties: we always perform the merge in such case.
+            if (Objects.equals(previous.getXClass(), next.getXClass())) {
+                Map<String, String> previousParts = getParts(previous);
+                Map<String, String> nextParts = getParts(next);
+                Map<String, String> currentParts = getParts((XWikiDocument) currentDoc);
+
+                Set<String> partNames = new TreeSet<>(previousParts.keySet());
+                partNames.addAll(nextParts.keySet());
+                MessageDigest digest = DigestUtils.getSha256Digest();
+                update(digest, Objects.toString(userReference, null));
+                update(digest, Objects.toString(next.getDocumentReference(), null));
+                for (String partName : partNames) {
+                    String previousPart = previousParts.get(partName);
+                    String nextPart = nextParts.get(partName);
+                    if (!Objects.equals(previousPart, nextPart)) {
+                        update(digest, partName);
+                        update(digest, previousPart);
+                        update(digest, nextPart);
+                        update(digest, currentParts.get(partName));
+                    }
+                }
+                result = Optional.of(Hex.encodeHexString(digest.digest()));
+            }
+        }
+        return result;
+    }
+
+    private void update(MessageDigest digest, String value)
+    {
+        // Distinguish null values from empty ones.
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) ((value == null) ? 0 : 1));
+        digest.update((byte) SEPARATOR);
+    }
+
+    private Map<String, String> getParts(XWikiDocument document)
+    {
+        Map<String, String> parts = new TreeMap<>();
+        parts.put("title", document.getTitle());
+        parts.put("content", document.getContent());
+        parts.put("syntax", String.valueOf(document.getSyntax()));
+        parts.put("parent", String.valueOf(document.getParentReference()));
+        parts.put("hidden", String.valueOf(document.isHidden()));
+        parts.put("defaultLocale", String.valueOf(document.getDefaultLocale()));
+        parts.put("attachments", getAttachmentsPart(document.getAttachmentList()));
+        for (Map.Entry<DocumentReference, List<BaseObject>> entry : document.getXObjects().entrySet()) {
+            parts.put(OBJECTS_PART_PREFIX + entry.getKey(), getObjectsPart(entry.getValue()));
+        }
+        return parts;
+    }
+
+    private String getAttachmentsPart(List<XWikiAttachment> attachments)
+    {
+        Set<String> result = new TreeSet<>();
+        for (XWikiAttachment attachment : attachments) {
+            result.add(String.format("%s:%s:%s", attachment.getFilename(), attachment.getVersion(),
+                attachment.getLongSize()));
+        }
+        return result.toString();
+    }
+
+    private String getObjectsPart(List<BaseObject> objects)
+    {
+        StringBuilder result = new StringBuilder();
+        for (BaseObject object : objects) {
+            // The list of objects contains null values for the deleted objects.
+            if (object != null) {
+                result.append('#').append(object.getNumber()).append(SEPARATOR);
+                for (String propertyName : new TreeSet<>(object.getPropertyList())) {
+                    PropertyInterface property = object.getField(propertyName);
+                    String value = (property instanceof BaseProperty) ? ((BaseProperty<?>) property).toText()
+                        : String.valueOf(property);
+                    result.append(propertyName).append('=').append(value).append(SEPARATOR);
+                }
+            }
+        }
+        return result.toString();
+    }
+}
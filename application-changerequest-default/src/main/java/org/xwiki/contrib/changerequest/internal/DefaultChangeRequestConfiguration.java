@@ -65,6 +65,10 @@ public class DefaultChangeRequestConfiguration implements ChangeRequestConfigura
      */
     public static final String DELEGATE_ENABLED_PROPERTY = "delegateEnabled";
 
+    static final String XWIKI_PROPERTIES_PREFIX = "changerequest.";
+
+    private static final String CACHE_PROPERTY_FORMAT = XWIKI_PROPERTIES_PREFIX + "cache.%s.%s";
+
     static final String DEFAULT_APPROVAL_STRATEGY = AcceptAllMergeApprovalStrategy.NAME;
     private static final List<String> CHANGE_REQUEST_SPACE_LOCATION = Arrays.asList("ChangeRequest", "Data");
 
@@ -75,6 +79,10 @@ public class DefaultChangeRequestConfiguration implements ChangeRequestConfigura
     @Named("changerequest")
     private ConfigurationSource configurationSource;
 
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource xwikiPropertiesSource;
+
     @Inject
     private SpaceReferenceResolver<String> spaceReferenceResolver;
 
@@ -232,4 +240,36 @@ public class DefaultChangeRequestConfiguration implements ChangeRequestConfigura
     {
         return this.configurationSource.getProperty("acceptOnlyAllowedApprovers", false);
     }
+
+    @Override
+    public long getMergingStatusComputationDelay()
+    {
+        return this.xwikiPropertiesSource.getProperty(XWIKI_PROPERTIES_PREFIX + "mergingStatusComputationDelay",
+            1000L);
+    }
+
+    @Override
+    public int getConflictCheckThreads()
+    {
+        return this.xwikiPropertiesSource.getProperty(XWIKI_PROPERTIES_PREFIX + "conflictCheckThreads", 4);
+    }
+
+    @Override
+    public int getSchedulerJobPageSize()
+    {
+        return this.xwikiPropertiesSource.getProperty(XWIKI_PROPERTIES_PREFIX + "schedulerJobPageSize", 100);
+    }
+
+    @Override
+    public int getCacheSize(String cacheName, int defaultSize)
+    {
+        return this.xwikiPropertiesSource.getProperty(String.format(CACHE_PROPERTY_FORMAT, cacheName, "size"),
+            defaultSize);
+    }
+
+    @Override
+    public int getCacheLifespan(String cacheName)
+    {
+        return this.xwikiPropertiesSource.getProperty(String.format(CACHE_PROPERTY_FORMAT, cacheName, "lifespan"), 0);
+    }
 }
@@ -19,6 +19,7 @@
  */
 package org.xwiki.contrib.changerequest.internal;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -137,25 +138,65 @@ public class DefaultChangeRequestManager implements ChangeRequestManager, Initia
 
     @Override
     public void computeReadyForMergingStatus(ChangeRequest changeRequest) throws ChangeRequestException
+    {
+        if (isReadinessStatus(changeRequest.getStatus())) {
+            boolean readyForMerging = getMergeApprovalStrategy().canBeMerged(changeRequest)
+                && !this.changeRequestMergeManager.hasConflict(changeRequest);
+            updateReadyForMergingStatus(changeRequest, readyForMerging);
+        }
+    }
+
+    @Override
+    public void computeReadyForMergingStatusAfterApprovalUpdate(ChangeRequest changeRequest)
+        throws ChangeRequestException
     {
         ChangeRequestStatus status = changeRequest.getStatus();
-        boolean readyForMerging = false;
-        if (status == ChangeRequestStatus.READY_FOR_REVIEW || status == ChangeRequestStatus.READY_FOR_MERGING) {
-            MergeApprovalStrategy mergeApprovalStrategy = getMergeApprovalStrategy();
-            if (mergeApprovalStrategy.canBeMerged(changeRequest)) {
-                readyForMerging = !this.changeRequestMergeManager.hasConflict(changeRequest);
-            }
+        if (status == ChangeRequestStatus.READY_FOR_MERGING) {
+            // The change request didn't have any conflict when it has been marked as ready for merging and the
+            // conflicts are recomputed on each update of the documents: only the approvals need to be checked.
+            updateReadyForMergingStatus(changeRequest, getMergeApprovalStrategy().canBeMerged(changeRequest));
+        } else {
+            computeReadyForMergingStatus(changeRequest);
         }
-        boolean update = false;
-        ChangeRequestStatus newStatus = null;
-        if (status == ChangeRequestStatus.READY_FOR_REVIEW && readyForMerging) {
-            newStatus = ChangeRequestStatus.READY_FOR_MERGING;
-            update = true;
-        } else if (status == ChangeRequestStatus.READY_FOR_MERGING && !readyForMerging) {
-            newStatus = ChangeRequestStatus.READY_FOR_REVIEW;
-            update = true;
+    }
+
+    @Override
+    public void computeReadyForMergingStatusAfterDocumentUpdate(ChangeRequest changeRequest,
+        DocumentReference documentReference) throws ChangeRequestException
+    {
+        ChangeRequestStatus status = changeRequest.getStatus();
+        if (isReadinessStatus(status)) {
+            boolean documentHasConflict = hasConflict(changeRequest, documentReference);
+            if (status == ChangeRequestStatus.READY_FOR_MERGING) {
+                // The approvals and the other documents were fine when the change request has been marked as ready
+                // for merging: only the updated document needs to be checked.
+                updateReadyForMergingStatus(changeRequest, !documentHasConflict);
+            } else if (!documentHasConflict) {
+                computeReadyForMergingStatus(changeRequest);
+            }
         }
-        if (update) {
+    }
+
+    private boolean hasConflict(ChangeRequest changeRequest, DocumentReference documentReference)
+        throws ChangeRequestException
+    {
+        Optional<FileChange> fileChangeOptional = changeRequest.getLatestFileChangeFor(documentReference);
+        return fileChangeOptional.isPresent() && this.changeRequestMergeManager.hasConflict(fileChangeOptional.get());
+    }
+
+    private boolean isReadinessStatus(ChangeRequestStatus status)
+    {
+        return status == ChangeRequestStatus.READY_FOR_REVIEW || status == ChangeRequestStatus.READY_FOR_MERGING;
+    }
+
+    private void updateReadyForMergingStatus(ChangeRequest changeRequest, boolean readyForMerging)
+        throws ChangeRequestException
+    {
+        ChangeRequestStatus status = changeRequest.getStatus();
+        ChangeRequestStatus newStatus =
+            (readyForMerging) ? ChangeRequestStatus.READY_FOR_MERGING : ChangeRequestStatus.READY_FOR_REVIEW;
+        // Don't save the change request nor notify anything if the status is not changed.
+        if (status != newStatus) {
             changeRequest
                 .setStatus(newStatus)
                 .updateDate();
@@ -237,7 +278,7 @@ public class DefaultChangeRequestManager implements ChangeRequestManager, Initia
         // In theory this should never be needed with the default storage as it already update the CR document.
         this.changeRequestStorageManager.save(changeRequest, "changerequest.save.addReview");
         this.observationManager.notify(new ChangeRequestReviewAddedEvent(), changeRequest.getId(), review);
-        this.computeReadyForMergingStatus(changeRequest);
+        this.computeReadyForMergingStatusAfterApprovalUpdate(changeRequest);
         return review;
     }
 
@@ -356,15 +397,19 @@ public class DefaultChangeRequestManager implements ChangeRequestManager, Initia
     public void invalidateReviews(ChangeRequest changeRequest, ReviewInvalidationReason invalidationReason)
         throws ChangeRequestException
     {
-        List<ChangeRequestReview> reviews = changeRequest.getReviews();
-        for (ChangeRequestReview review : reviews) {
+        List<ChangeRequestReview> reviewsToInvalidate = new ArrayList<>();
+        for (ChangeRequestReview review : changeRequest.getReviews()) {
             if (review.isApproved() && review.isValid()) {
                 review.setValid(false);
                 review.setSaved(false);
                 review.setReviewInvalidationReason(invalidationReason);
-                this.reviewStorageManager.save(review);
+                reviewsToInvalidate.add(review);
             }
         }
+        // Save all the reviews at once to only create a single version of the change request.
+        if (!reviewsToInvalidate.isEmpty()) {
+            this.reviewStorageManager.saveAll(reviewsToInvalidate);
+        }
     }
 
     @Override
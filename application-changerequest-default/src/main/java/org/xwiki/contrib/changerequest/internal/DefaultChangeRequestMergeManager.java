@@ -28,17 +28,30 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.slf4j.Logger;
 import org.xwiki.bridge.DocumentModelBridge;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.context.ExecutionContextManager;
 import org.xwiki.contrib.changerequest.ChangeRequest;
+import org.xwiki.contrib.changerequest.ChangeRequestConfiguration;
 import org.xwiki.contrib.changerequest.ChangeRequestException;
 import org.xwiki.contrib.changerequest.ChangeRequestManager;
 import org.xwiki.contrib.changerequest.ChangeRequestMergeDocumentResult;
@@ -48,6 +61,7 @@ import org.xwiki.contrib.changerequest.FileChange;
 import org.xwiki.contrib.changerequest.events.ChangeRequestConflictsFixedEvent;
 import org.xwiki.contrib.changerequest.events.ChangeRequestUpdatedFileChangeEvent;
 import org.xwiki.contrib.changerequest.events.ChangeRequestUpdatingFileChangeEvent;
+import org.xwiki.contrib.changerequest.internal.cache.ChangeRequestCacheMetrics;
 import org.xwiki.contrib.changerequest.internal.cache.MergeCacheManager;
 import org.xwiki.contrib.changerequest.storage.ChangeRequestStorageManager;
 import org.xwiki.contrib.changerequest.storage.FileChangeStorageManager;
@@ -55,6 +69,7 @@ import org.xwiki.diff.Conflict;
 import org.xwiki.diff.ConflictDecision;
 import org.xwiki.localization.ContextualLocalizationManager;
 import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.WikiReference;
 import org.xwiki.observation.ObservationManager;
 import org.xwiki.store.merge.MergeConflictDecisionsManager;
 import org.xwiki.store.merge.MergeDocumentResult;
@@ -74,7 +89,7 @@ import com.xpn.xwiki.doc.merge.MergeConfiguration;
  */
 @Component
 @Singleton
-public class DefaultChangeRequestMergeManager implements ChangeRequestMergeManager
+public class DefaultChangeRequestMergeManager implements ChangeRequestMergeManager, Disposable
 {
     private static final String PREVIOUS_DOC_NOT_FOUND_LOGGER_MSG = "Cannot access the real previous version of "
         + "document for file change [{}]. "
@@ -110,12 +125,41 @@ public class DefaultChangeRequestMergeManager implements ChangeRequestMergeManag
     @Inject
     private MergeCacheManager mergeCacheManager;
 
+    @Inject
+    private ConflictFingerprintComputer conflictFingerprintComputer;
+
+    @Inject
+    private ChangeRequestCacheMetrics cacheMetrics;
+
     @Inject
     private ContextualLocalizationManager contextualLocalizationManager;
 
+    @Inject
+    private ChangeRequestConfiguration configuration;
+
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
+    @Inject
+    private Execution execution;
+
     @Inject
     private Logger logger;
 
+    private ExecutorService conflictCheckExecutor;
+
+    private int conflictCheckExecutorThreads;
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        synchronized (this) {
+            if (this.conflictCheckExecutor != null) {
+                this.conflictCheckExecutor.shutdownNow();
+            }
+        }
+    }
+
     @Override
     public boolean hasConflict(FileChange fileChange) throws ChangeRequestException
     {
@@ -124,25 +168,34 @@ public class DefaultChangeRequestMergeManager implements ChangeRequestMergeManag
         if (optional.isPresent()) {
             result = optional.get();
         } else {
-            switch (fileChange.getType()) {
-                case DELETION:
-                    result = deletionHasConflict(fileChange);
-                    break;
+            result = computeConflict(fileChange);
+        }
+        return result;
+    }
 
-                case CREATION:
-                    result = creationHasConflict(fileChange);
-                    break;
+    private boolean computeConflict(FileChange fileChange) throws ChangeRequestException
+    {
+        boolean result;
+        long start = System.nanoTime();
+        switch (fileChange.getType()) {
+            case DELETION:
+                result = deletionHasConflict(fileChange);
+                break;
 
-                case EDITION:
-                    result = editionHasConflict(fileChange);
-                    break;
+            case CREATION:
+                result = creationHasConflict(fileChange);
+                break;
 
-                default:
-                case NO_CHANGE:
-                    result = false;
-            }
-            this.mergeCacheManager.setConflictStatus(fileChange, result);
+            case EDITION:
+                result = editionHasConflict(fileChange);
+                break;
+
+            default:
+            case NO_CHANGE:
+                result = false;
         }
+        this.mergeCacheManager.setConflictStatus(fileChange, result);
+        this.cacheMetrics.recordLoadTime(MergeCacheManager.CONFLICT_CACHE_NAME, System.nanoTime() - start);
         return result;
     }
 
@@ -178,7 +231,17 @@ public class DefaultChangeRequestMergeManager implements ChangeRequestMergeManag
             this.fileChangeStorageManager.getPreviousDocumentFromFileChange(fileChange);
         if (!optionalPreviousDoc.isEmpty()) {
             previousDoc = optionalPreviousDoc.get();
+            // Updates of the document which are not related to the changes of the change request, e.g. adding a
+            // comment, cannot change the conflict status: in such case we avoid performing again the merge.
+            // The fingerprint includes the user and the concerned document since they identify the conflict
+            // decisions taken into account by the merge.
             XWikiContext context = this.contextProvider.get();
+            Optional<String> fingerprint = this.conflictFingerprintComputer.computeFingerprint(previousDoc,
+                modifiedDoc, originalDoc, context.getUserReference());
+            Optional<Boolean> cachedStatus = fingerprint.flatMap(this.mergeCacheManager::getFingerprintConflictStatus);
+            if (cachedStatus.isPresent()) {
+                return cachedStatus.get();
+            }
             MergeConfiguration mergeConfiguration = new MergeConfiguration();
 
             // We need the reference of the user and the document in the config to retrieve
@@ -189,7 +252,9 @@ public class DefaultChangeRequestMergeManager implements ChangeRequestMergeManag
 
             MergeDocumentResult mergeDocumentResult =
                 mergeManager.mergeDocument(previousDoc, originalDoc, modifiedDoc, mergeConfiguration);
-            return mergeDocumentResult.hasConflicts();
+            boolean result = mergeDocumentResult.hasConflicts();
+            fingerprint.ifPresent(key -> this.mergeCacheManager.setFingerprintConflictStatus(key, result));
+            return result;
         } else {
             return true;
         }
@@ -199,21 +264,104 @@ public class DefaultChangeRequestMergeManager implements ChangeRequestMergeManag
     public boolean hasConflict(ChangeRequest changeRequest) throws ChangeRequestException
     {
         boolean result = false;
-        Set<DocumentReference> documentReferences = changeRequest.getFileChanges().keySet();
-        for (DocumentReference documentReference : documentReferences) {
-            Optional<FileChange> fileChangeOptional =
-                changeRequest.getLatestFileChangeFor(documentReference);
+        List<FileChange> uncheckedFileChanges = new ArrayList<>();
+        for (DocumentReference documentReference : changeRequest.getFileChanges().keySet()) {
+            Optional<FileChange> fileChangeOptional = changeRequest.getLatestFileChangeFor(documentReference);
             if (fileChangeOptional.isPresent()) {
                 FileChange fileChange = fileChangeOptional.get();
-                if (this.hasConflict(fileChange)) {
+                // Checks whose result is already known are performed first to avoid useless computations.
+                Optional<Boolean> optional = this.mergeCacheManager.hasConflict(fileChange);
+                if (optional.isEmpty()) {
+                    uncheckedFileChanges.add(fileChange);
+                } else if (Boolean.TRUE.equals(optional.get())) {
                     result = true;
                     break;
                 }
             }
         }
+        if (!result && !uncheckedFileChanges.isEmpty()) {
+            int threads = this.configuration.getConflictCheckThreads();
+            if (threads <= 1 || uncheckedFileChanges.size() == 1) {
+                for (FileChange fileChange : uncheckedFileChanges) {
+                    if (this.computeConflict(fileChange)) {
+                        result = true;
+                        break;
+                    }
+                }
+            } else {
+                result = this.hasConflictInParallel(uncheckedFileChanges, threads);
+            }
+        }
+        return result;
+    }
+
+    private synchronized ExecutorService getConflictCheckExecutor(int threads)
+    {
+        // Recreate the pool when the configured number of threads changed: the previous pool finishes the checks it
+        // already received before stopping.
+        if (this.conflictCheckExecutor != null && this.conflictCheckExecutorThreads != threads) {
+            this.conflictCheckExecutor.shutdown();
+            this.conflictCheckExecutor = null;
+        }
+        if (this.conflictCheckExecutor == null) {
+            this.conflictCheckExecutorThreads = threads;
+            this.conflictCheckExecutor = Executors.newFixedThreadPool(threads, new BasicThreadFactory.Builder()
+                .namingPattern("ChangeRequest conflict check-%d")
+                .daemon(true)
+                .build());
+        }
+        return this.conflictCheckExecutor;
+    }
+
+    private boolean hasConflictInParallel(List<FileChange> fileChanges, int threads) throws ChangeRequestException
+    {
+        boolean result = false;
+        XWikiContext context = this.contextProvider.get();
+        WikiReference wikiReference = context.getWikiReference();
+        DocumentReference userReference = context.getUserReference();
+
+        CompletionService<Boolean> completionService =
+            new ExecutorCompletionService<>(this.getConflictCheckExecutor(threads));
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (FileChange fileChange : fileChanges) {
+            futures.add(
+                completionService.submit(() -> this.computeConflict(fileChange, wikiReference, userReference)));
+        }
+        try {
+            // Stop as soon as a conflict is found.
+            for (int i = 0; i < futures.size() && !result; i++) {
+                result = completionService.take().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ChangeRequestException("Interrupted while checking the conflicts", e);
+        } catch (ExecutionException e) {
+            throw new ChangeRequestException("Error while checking the conflicts", e.getCause());
+        } finally {
+            // Don't interrupt the running checks to not break their storage access: their result is cached anyway.
+            futures.forEach(future -> future.cancel(false));
+        }
         return result;
     }
 
+    private boolean computeConflict(FileChange fileChange, WikiReference wikiReference,
+        DocumentReference userReference)
+        throws ChangeRequestException
+    {
+        try {
+            this.executionContextManager.initialize(new ExecutionContext());
+            XWikiContext context = this.contextProvider.get();
+            context.setWikiReference(wikiReference);
+            context.setUserReference(userReference);
+            return this.computeConflict(fileChange);
+        } catch (ExecutionContextException e) {
+            throw new ChangeRequestException(
+                String.format("Error while initializing the context to check conflicts of [%s]", fileChange), e);
+        } finally {
+            this.execution.removeContext();
+        }
+    }
+
     @Override
     public ChangeRequestMergeDocumentResult getMergeDocumentResult(FileChange fileChange)
         throws ChangeRequestException
@@ -224,6 +372,7 @@ public class DefaultChangeRequestMergeManager implements ChangeRequestMergeManag
         if (optionalResult.isPresent()) {
             result = optionalResult.get();
         } else {
+            long start = System.nanoTime();
             DocumentModelBridge currentDoc =
                 this.fileChangeStorageManager.getCurrentDocumentFromFileChange(fileChange);
             XWikiDocument xwikiCurrentDoc = (XWikiDocument) currentDoc;
@@ -275,6 +424,8 @@ public class DefaultChangeRequestMergeManager implements ChangeRequestMergeManag
                     throw new ChangeRequestException(String.format("Unknown file change type: [%s]", fileChange));
             }
             this.mergeCacheManager.setChangeRequestMergeDocumentResult(fileChange, result);
+            this.cacheMetrics.recordLoadTime(MergeCacheManager.MERGE_DOCUMENT_RESULT_CACHE_NAME,
+                System.nanoTime() - start);
         }
         return result;
     }
@@ -295,16 +446,9 @@ public class DefaultChangeRequestMergeManager implements ChangeRequestMergeManag
         DocumentModelBridge nextDoc =
             this.fileChangeStorageManager.getModifiedDocumentFromFileChange(fileChange);
 
-        MergeConfiguration mergeConfiguration = new MergeConfiguration();
         DocumentReference documentReference = fileChange.getTargetEntity();
-
-        XWikiContext context = this.contextProvider.get();
-        // We need the reference of the user and the document in the config to retrieve
-        // the conflict decision in the MergeManager.
-        mergeConfiguration.setUserReference(context.getUserReference());
-        mergeConfiguration.setConcernedDocument(documentReference);
-
-        mergeConfiguration.setProvidedVersionsModifiables(false);
+        DocumentReference userReference = this.contextProvider.get().getUserReference();
+        MergeConfiguration mergeConfiguration = createEditionMergeConfiguration(userReference, documentReference);
         MergeDocumentResult mergeDocumentResult =
             mergeManager.mergeDocument(previousDoc, nextDoc, xwikiCurrentDoc, mergeConfiguration);
         // We never want to merge the author so let's display an accurate author in diff
@@ -319,20 +463,40 @@ public class DefaultChangeRequestMergeManager implements ChangeRequestMergeManag
         result.setDocumentTitle(getTitle((XWikiDocument) nextDoc));
 
         if (mergeDocumentResult.hasConflicts()) {
-            mergeConfiguration.setConflictFallbackVersion(MergeConfiguration.ConflictFallbackVersion.NEXT);
-            MergeDocumentResult mergeDocumentResultWithCRFallback =
-                mergeManager.mergeDocument(previousDoc, nextDoc, xwikiCurrentDoc, mergeConfiguration);
-            // We never want to merge the author so let's display an accurate author in diff
-            mergeDocumentResultWithCRFallback
-                .getMergeResult()
-                .getAuthors()
-                .setOriginalMetadataAuthor(fileChange.getAuthor());
-            result.setWrappedResultWithCRFallback(mergeDocumentResultWithCRFallback);
+            // The merge solving the conflicts with the change request version is only needed to fix the conflicts:
+            // it's performed only when requested, to not double the cost of displaying a change request. Its
+            // configuration is created now so that it doesn't depend on the context of the caller of the supplier.
+            MergeConfiguration fallbackMergeConfiguration =
+                createEditionMergeConfiguration(userReference, documentReference);
+            fallbackMergeConfiguration.setConflictFallbackVersion(MergeConfiguration.ConflictFallbackVersion.NEXT);
+            result.setWrappedResultWithCRFallbackSupplier(() -> {
+                MergeDocumentResult mergeDocumentResultWithCRFallback =
+                    mergeManager.mergeDocument(previousDoc, nextDoc, xwikiCurrentDoc, fallbackMergeConfiguration);
+                // We never want to merge the author so let's display an accurate author in diff
+                mergeDocumentResultWithCRFallback
+                    .getMergeResult()
+                    .getAuthors()
+                    .setOriginalMetadataAuthor(fileChange.getAuthor());
+                return mergeDocumentResultWithCRFallback;
+            });
         }
 
         return result;
     }
 
+    private static MergeConfiguration createEditionMergeConfiguration(DocumentReference userReference,
+        DocumentReference documentReference)
+    {
+        MergeConfiguration mergeConfiguration = new MergeConfiguration();
+        // We need the reference of the user and the document in the config to retrieve
+        // the conflict decision in the MergeManager.
+        mergeConfiguration.setUserReference(userReference);
+        mergeConfiguration.setConcernedDocument(documentReference);
+
+        mergeConfiguration.setProvidedVersionsModifiables(false);
+        return mergeConfiguration;
+    }
+
     private String getTitle(XWikiDocument document)
     {
         XWikiContext context = this.contextProvider.get();
@@ -20,15 +20,18 @@
 package org.xwiki.contrib.changerequest.internal;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -138,7 +141,10 @@ public class DefaultChangeRequestRightsManager implements ChangeRequestRightsMan
                     writableSecurityRules.add(actualRule);
                 }
             }
-            this.rightsWriter.saveRules(writableSecurityRules, targetDocReference.getLastSpaceReference());
+            SpaceReference targetSpaceReference = targetDocReference.getLastSpaceReference();
+            if (!this.isSameRules(this.rightsReader.getRules(targetSpaceReference, false), writableSecurityRules)) {
+                this.rightsWriter.saveRules(writableSecurityRules, targetSpaceReference);
+            }
         } catch (AuthorizationException | XWikiException e) {
             throw new ChangeRequestException(
                 String.format("Error while trying to retrieve or save rights between [%s] and [%s]",
@@ -181,11 +187,14 @@ public class DefaultChangeRequestRightsManager implements ChangeRequestRightsMan
     }
 
     private boolean isViewAccessConsistent(Set<DocumentReference> documentReferences,
-        Set<DocumentReference> subjectReferences)
+        Set<DocumentReference> subjectReferences) throws ChangeRequestException
     {
+        // Documents sharing the same rules have the same view access for any subject: it's enough to evaluate the
+        // access of each subject on one document of each of those groups.
+        Collection<DocumentReference> evaluatedDocuments = this.getDocumentsWithDistinctRules(documentReferences);
         for (DocumentReference subject : subjectReferences) {
             Boolean hasAccess = null;
-            for (DocumentReference modifiedDocument : documentReferences) {
+            for (DocumentReference modifiedDocument : evaluatedDocuments) {
                 boolean currentHasAccess =
                     this.authorizationManager.hasAccess(Right.VIEW, subject, modifiedDocument);
 
@@ -199,6 +208,77 @@ public class DefaultChangeRequestRightsManager implements ChangeRequestRightsMan
         return true;
     }
 
+    private Collection<DocumentReference> getDocumentsWithDistinctRules(Set<DocumentReference> documentReferences)
+        throws ChangeRequestException
+    {
+        Map<List<Object>, DocumentReference> result = new LinkedHashMap<>();
+        // The documents usually share most levels of their hierarchy: the keys of each level are computed only once.
+        Map<EntityReference, Map<List<Object>, Long>> levelRulesKeys = new HashMap<>();
+        for (DocumentReference documentReference : documentReferences) {
+            result.putIfAbsent(this.getHierarchyRulesKey(documentReference, levelRulesKeys), documentReference);
+        }
+        return result.values();
+    }
+
+    /**
+     * Compute a key representing the rules applying to the given document: two documents with the same key have the
+     * same rules defined on each level of their hierarchy, and thus the same access rights. The implied rules, such as
+     * the rights of a user on its own profile page, are taken into account.
+     */
+    private List<Object> getHierarchyRulesKey(DocumentReference documentReference,
+        Map<EntityReference, Map<List<Object>, Long>> levelRulesKeys) throws ChangeRequestException
+    {
+        List<Object> result = new ArrayList<>();
+        result.add(documentReference.getWikiReference());
+        EntityReference entityReference = documentReference;
+        try {
+            while (entityReference != null) {
+                Map<List<Object>, Long> rulesKeys = levelRulesKeys.get(entityReference);
+                if (rulesKeys == null) {
+                    rulesKeys = this.getRulesKeys(this.rightsReader.getRules(entityReference, true));
+                    levelRulesKeys.put(entityReference, rulesKeys);
+                }
+                // Levels without rules don't have any impact on the access rights.
+                if (!rulesKeys.isEmpty()) {
+                    result.add(rulesKeys);
+                }
+                entityReference = entityReference.getParent();
+            }
+        } catch (AuthorizationException e) {
+            throw new ChangeRequestException(
+                String.format("Error while trying to access rights for [%s]", entityReference), e);
+        }
+        return result;
+    }
+
+    /**
+     * Compute a key representing the given rule, to compare rules independently of their implementation.
+     */
+    private List<Object> getRuleKey(ReadableSecurityRule rule)
+    {
+        // The collections are copied since the rights of a rule might be modified afterwards.
+        return Arrays.asList(rule.getState(), copy(rule.getRights()), copy(rule.getUsers()), copy(rule.getGroups()));
+    }
+
+    private <T> Set<T> copy(Collection<T> collection)
+    {
+        return (collection == null) ? Collections.emptySet() : new HashSet<>(collection);
+    }
+
+    /**
+     * Compute the keys of the given rules with their number of occurrences, independently of their order.
+     */
+    private Map<List<Object>, Long> getRulesKeys(Collection<? extends ReadableSecurityRule> rules)
+    {
+        return rules.stream().collect(Collectors.groupingBy(this::getRuleKey, Collectors.counting()));
+    }
+
+    private boolean isSameRules(Collection<? extends ReadableSecurityRule> actualRules,
+        Collection<? extends ReadableSecurityRule> rules)
+    {
+        return this.getRulesKeys(actualRules).equals(this.getRulesKeys(rules));
+    }
+
     @Override
     public void copyViewRights(ChangeRequest changeRequest, EntityReference newChange)
         throws ChangeRequestException
@@ -226,7 +306,9 @@ public class DefaultChangeRequestRightsManager implements ChangeRequestRightsMan
                 }
             }
 
-            this.rightsWriter.saveRules(rules, changeRequestSpaceReference);
+            if (!this.isSameRules(actualRules, rules)) {
+                this.rightsWriter.saveRules(rules, changeRequestSpaceReference);
+            }
         } catch (AuthorizationException | XWikiException e) {
             throw new ChangeRequestException(
                 String.format("Error while copying rights from [%s] for change request [%s]", changeRequest, newChange),
@@ -380,6 +462,9 @@ public class DefaultChangeRequestRightsManager implements ChangeRequestRightsMan
             // we create a copy of the list to allow modifying it when iterating on the original
             List<ReadableSecurityRule> updatedRules = new ArrayList<>(normalizedRules);
 
+            // we keep the keys of the original rules since updating them might modify their rights
+            Map<List<Object>, Long> normalizedRulesKeys = this.getRulesKeys(normalizedRules);
+
             for (ReadableSecurityRule normalizedRule : normalizedRules) {
                 // the rule applies on the given target
                 DocumentReference target = (this.isAboutUser(normalizedRule))
@@ -424,8 +509,10 @@ public class DefaultChangeRequestRightsManager implements ChangeRequestRightsMan
                 }
             }
 
-            // finally we write all rules
-            this.rightsWriter.saveRules(updatedRules, changeRequestSpaceReference);
+            // finally we write all rules, if the actions changed any of them
+            if (!normalizedRulesKeys.equals(this.getRulesKeys(updatedRules))) {
+                this.rightsWriter.saveRules(updatedRules, changeRequestSpaceReference);
+            }
         } catch (AuthorizationException | XWikiException e) {
             throw new ChangeRequestException(String.format("Error while applying rights changes for change request "
                 + "[%s] with diff [%s]", changeRequest, ruleDiffList),
@@ -470,18 +557,30 @@ public class DefaultChangeRequestRightsManager implements ChangeRequestRightsMan
     @Override
     public void applyChanges(ChangeRequest changeRequest, List<SecurityRuleDiff> ruleDiffList)
         throws ChangeRequestException
+    {
+        this.applyChanges(Collections.singletonList(changeRequest), ruleDiffList);
+    }
+
+    @Override
+    public void applyChanges(Collection<ChangeRequest> changeRequests, List<SecurityRuleDiff> ruleDiffList)
+        throws ChangeRequestException
     {
         // This methods works in two main steps:
-        //   1. we compute a list of actions to perform on rights, indexed by the reference of the group or user
+        //   1. we compute once a list of actions to perform on rights, indexed by the reference of the group or user
         //      targeted by the right rule. This data structure is chosen because of the way rules are normalized
         //      with the SecurityRuleAbacus.
-        //   2. we apply the map of actions on the change request rights.
+        //   2. we apply the map of actions on the rights of each change request, which are only saved if they changed.
 
         Map<DocumentReference, List<SecurityRuleAction>> actionsToPerform =
             this.computeActionsMap(ruleDiffList);
 
         if (!actionsToPerform.isEmpty()) {
-            this.applyActions(changeRequest, actionsToPerform, ruleDiffList);
+            for (ChangeRequest changeRequest : changeRequests) {
+                // the actions are consumed when applied, so each change request needs its own copy
+                Map<DocumentReference, List<SecurityRuleAction>> changeRequestActions = new HashMap<>();
+                actionsToPerform.forEach((key, value) -> changeRequestActions.put(key, new ArrayList<>(value)));
+                this.applyActions(changeRequest, changeRequestActions, ruleDiffList);
+            }
         }
     }
 
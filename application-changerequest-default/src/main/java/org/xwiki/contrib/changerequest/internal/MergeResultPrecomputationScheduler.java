@@ -0,0 +1,155 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.contrib.changerequest.ChangeRequestConfiguration;
+import org.xwiki.contrib.changerequest.ChangeRequestException;
+import org.xwiki.contrib.changerequest.ChangeRequestMergeManager;
+import org.xwiki.contrib.changerequest.FileChange;
+import org.xwiki.model.reference.DocumentReference;
+
+import com.xpn.xwiki.XWikiContext;
+
+/**
+ * Component in charge of computing in background the merge results of file changes, so that they are already in
+ * {@link org.xwiki.contrib.changerequest.internal.cache.MergeCacheManager} when a reviewer opens the change request.
+ * Several requests for a same file change received during {@link
+ * ChangeRequestConfiguration#getMergingStatusComputationDelay()} are gathered to perform a single computation.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@Component(roles = MergeResultPrecomputationScheduler.class)
+@Singleton
+public class MergeResultPrecomputationScheduler implements Initializable, Disposable
+{
+    @Inject
+    private Provider<ChangeRequestMergeManager> mergeManagerProvider;
+
+    @Inject
+    private ChangeRequestConfiguration configuration;
+
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    @Inject
+    private Logger logger;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * File changes waiting for the computation indexed by their change request and file change identifiers, and
+     * associated to the reference of the user to use for the computation.
+     */
+    private final Map<String, Pair<FileChange, DocumentReference>> pendingFileChanges = new ConcurrentHashMap<>();
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        this.executor = Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder()
+            .namingPattern("ChangeRequest merge result precomputation")
+            .daemon(true)
+            .priority(Thread.MIN_PRIORITY)
+            .build());
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.executor.shutdownNow();
+        this.pendingFileChanges.clear();
+    }
+
+    /**
+     * Schedule the computation of the merge result of the given file change. This method never blocks: if a
+     * computation is already scheduled for the same file change, it's reused.
+     *
+     * @param fileChange the saved file change for which to compute the merge result
+     * @param userReference the reference of the user to use to perform the computation
+     */
+    public void schedule(FileChange fileChange, DocumentReference userReference)
+    {
+        String key = String.format("%s-%s", fileChange.getChangeRequest().getId(), fileChange.getId());
+        if (this.pendingFileChanges.put(key, Pair.of(fileChange, userReference)) == null) {
+            try {
+                this.executor.schedule(() -> this.compute(key),
+                    this.configuration.getMergingStatusComputationDelay(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                this.pendingFileChanges.remove(key);
+                this.logger.warn("Cannot schedule the merge result computation for [{}]: [{}]", fileChange,
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+
+    private void compute(String key)
+    {
+        // Remove the entry before starting the computation: any request performed from now needs a new computation.
+        Pair<FileChange, DocumentReference> pending = this.pendingFileChanges.remove(key);
+        FileChange fileChange = pending.getLeft();
+        try {
+            this.executionContextManager.initialize(new ExecutionContext());
+            XWikiContext context = this.contextProvider.get();
+            context.setWikiReference(fileChange.getTargetEntity().getWikiReference());
+            context.setUserReference(pending.getRight());
+
+            // The result is kept in cache by the merge manager.
+            this.mergeManagerProvider.get().getMergeDocumentResult(fileChange);
+        } catch (ExecutionContextException | ChangeRequestException e) {
+            this.logger.warn("Error while computing the merge result of [{}]: [{}]", fileChange,
+                ExceptionUtils.getRootCauseMessage(e));
+        } catch (RuntimeException e) {
+            // Never let an exception kill the worker thread.
+            this.logger.error("Unexpected error while computing the merge result of [{}]", fileChange, e);
+        } finally {
+            this.execution.removeContext();
+        }
+    }
+}
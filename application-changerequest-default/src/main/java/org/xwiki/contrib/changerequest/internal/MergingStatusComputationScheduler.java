@@ -0,0 +1,170 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.contrib.changerequest.ChangeRequest;
+import org.xwiki.contrib.changerequest.ChangeRequestConfiguration;
+import org.xwiki.contrib.changerequest.ChangeRequestException;
+import org.xwiki.contrib.changerequest.ChangeRequestManager;
+import org.xwiki.contrib.changerequest.storage.ChangeRequestStorageManager;
+import org.xwiki.model.reference.DocumentReference;
+
+import com.xpn.xwiki.XWikiContext;
+
+/**
+ * Component in charge of computing asynchronously the merging status of the change requests targeting an updated
+ * document. All updates of a same document received during {@link
+ * ChangeRequestConfiguration#getMergingStatusComputationDelay()} are gathered to perform a single computation, and
+ * the computations are performed one after the other by a single dedicated thread, so that they never impact the
+ * request which performed the update.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@Component(roles = MergingStatusComputationScheduler.class)
+@Singleton
+public class MergingStatusComputationScheduler implements Initializable, Disposable
+{
+    @Inject
+    private Provider<ChangeRequestStorageManager> storageManagerProvider;
+
+    @Inject
+    private Provider<ChangeRequestManager> changeRequestManagerProvider;
+
+    @Inject
+    private Provider<MergeResultPrecomputationScheduler> mergeResultPrecomputationSchedulerProvider;
+
+    @Inject
+    private ChangeRequestConfiguration configuration;
+
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    @Inject
+    private Logger logger;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * Documents waiting for the computation, associated to the reference of the user who performed the last update.
+     */
+    private final Map<DocumentReference, DocumentReference> pendingDocuments = new ConcurrentHashMap<>();
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        this.executor = Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder()
+            .namingPattern("ChangeRequest merging status computation")
+            .daemon(true)
+            .priority(Thread.MIN_PRIORITY)
+            .build());
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.executor.shutdownNow();
+        this.pendingDocuments.clear();
+    }
+
+    /**
+     * Schedule the computation of the merging status of the open change requests targeting the given document. This
+     * method never blocks: if a computation is already scheduled for the same document, it's reused.
+     *
+     * @param documentReference the reference of the document which has been updated
+     * @param userReference the reference of the user who performed the update, used to perform the computation
+     */
+    public void schedule(DocumentReference documentReference, DocumentReference userReference)
+    {
+        if (this.pendingDocuments.put(documentReference, userReference) == null) {
+            try {
+                this.executor.schedule(() -> this.compute(documentReference),
+                    this.configuration.getMergingStatusComputationDelay(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                this.pendingDocuments.remove(documentReference);
+                this.logger.warn("Cannot schedule the merging status computation for [{}]: [{}]", documentReference,
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+
+    private void compute(DocumentReference documentReference)
+    {
+        // Remove the entry before starting the computation: any update performed from now needs a new computation.
+        DocumentReference userReference = this.pendingDocuments.remove(documentReference);
+        try {
+            this.executionContextManager.initialize(new ExecutionContext());
+            XWikiContext context = this.contextProvider.get();
+            context.setWikiReference(documentReference.getWikiReference());
+            context.setUserReference(userReference);
+
+            List<ChangeRequest> changeRequests =
+                this.storageManagerProvider.get().findOpenChangeRequestTargeting(documentReference);
+            for (ChangeRequest changeRequest : changeRequests) {
+                if (changeRequest.getStatus().isOpen()) {
+                    this.changeRequestManagerProvider.get()
+                        .computeReadyForMergingStatusAfterDocumentUpdate(changeRequest, documentReference);
+                    // The merge result has been invalidated by the update: compute it before a reviewer needs it.
+                    changeRequest.getLatestFileChangeFor(documentReference).ifPresent(fileChange ->
+                        this.mergeResultPrecomputationSchedulerProvider.get().schedule(fileChange, userReference));
+                }
+            }
+        } catch (ExecutionContextException | ChangeRequestException e) {
+            this.logger.warn("Error while computing the merging status of change requests after update of [{}]: [{}]",
+                documentReference, ExceptionUtils.getRootCauseMessage(e));
+        } catch (RuntimeException e) {
+            // Never let an exception kill the worker thread.
+            this.logger.error("Unexpected error while computing the merging status of change requests after update "
+                + "of [{}]", documentReference, e);
+        } finally {
+            this.execution.removeContext();
+        }
+    }
+}
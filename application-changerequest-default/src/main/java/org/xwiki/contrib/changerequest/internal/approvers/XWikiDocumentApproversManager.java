@@ -37,6 +37,7 @@ import org.xwiki.contrib.changerequest.ApproversManager;
 import org.xwiki.contrib.changerequest.ChangeRequestException;
 import org.xwiki.contrib.changerequest.DelegateApproverManager;
 import org.xwiki.contrib.changerequest.internal.UserReferenceConverter;
+import org.xwiki.contrib.changerequest.internal.cache.ApproversCacheManager;
 import org.xwiki.contrib.changerequest.rights.ChangeRequestApproveRight;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.DocumentReferenceResolver;
@@ -107,6 +108,9 @@ public class XWikiDocumentApproversManager implements ApproversManager<XWikiDocu
     @Inject
     private DelegateApproverManager<XWikiDocument> documentDelegateApproverManager;
 
+    @Inject
+    private ApproversCacheManager approversCacheManager;
+
     private Optional<BaseObject> getApproversObject(XWikiDocument document, boolean create)
         throws ChangeRequestException
     {
@@ -214,32 +218,59 @@ public class XWikiDocumentApproversManager implements ApproversManager<XWikiDocu
         Set<UserReference> result = new LinkedHashSet<>();
         if (approversObjectOpt.isPresent()) {
             BaseObject baseObject = approversObjectOpt.get();
-            String[] stringUsersApprovers = getValues(baseObject, USERS_APPROVERS_PROPERTY);
-            for (String stringUsersApprover : stringUsersApprovers) {
-                result.add(this.stringUserReferenceResolver.resolve(stringUsersApprover));
-            }
-
             if (recursive) {
-                String[] stringGroupsApprovers = getValues(baseObject, GROUPS_APPROVERS_PROPERTY);
-                Set<DocumentReference> members = new LinkedHashSet<>();
-                for (String stringGroupsApprover : stringGroupsApprovers) {
-                    DocumentReference groupReference = this.documentReferenceResolver.resolve(stringGroupsApprover);
-                    try {
-                        members.addAll(this.groupManager.getMembers(groupReference, true));
-                    } catch (GroupException e) {
-                        throw new ChangeRequestException(
-                            String.format("Error when getting members of group [%s].", groupReference), e);
-                    }
-                }
-                for (DocumentReference member : members) {
-                    result.add(this.documentReferenceUserReferenceResolver.resolve(member));
+                // Computing the members of the groups is costly: the result is kept in cache as long as the approvers
+                // and the groups are not modified.
+                String usersApprovers = baseObject.getLargeStringValue(USERS_APPROVERS_PROPERTY);
+                String groupsApprovers = baseObject.getLargeStringValue(GROUPS_APPROVERS_PROPERTY);
+                Optional<Set<UserReference>> cachedApprovers = this.approversCacheManager
+                    .getApprovers(entity.getDocumentReference(), usersApprovers, groupsApprovers);
+                if (cachedApprovers.isPresent()) {
+                    result.addAll(cachedApprovers.get());
+                } else {
+                    result.addAll(this.getUsersApprovers(baseObject));
+                    result.addAll(this.getGroupsMembers(baseObject));
+                    this.approversCacheManager.setApprovers(entity.getDocumentReference(), usersApprovers,
+                        groupsApprovers, result);
                 }
+            } else {
+                result.addAll(this.getUsersApprovers(baseObject));
             }
         }
 
         return result;
     }
 
+    private Set<UserReference> getUsersApprovers(BaseObject baseObject)
+    {
+        Set<UserReference> result = new LinkedHashSet<>();
+        String[] stringUsersApprovers = getValues(baseObject, USERS_APPROVERS_PROPERTY);
+        for (String stringUsersApprover : stringUsersApprovers) {
+            result.add(this.stringUserReferenceResolver.resolve(stringUsersApprover));
+        }
+        return result;
+    }
+
+    private Set<UserReference> getGroupsMembers(BaseObject baseObject) throws ChangeRequestException
+    {
+        String[] stringGroupsApprovers = getValues(baseObject, GROUPS_APPROVERS_PROPERTY);
+        Set<DocumentReference> members = new LinkedHashSet<>();
+        for (String stringGroupsApprover : stringGroupsApprovers) {
+            DocumentReference groupReference = this.documentReferenceResolver.resolve(stringGroupsApprover);
+            try {
+                members.addAll(this.groupManager.getMembers(groupReference, true));
+            } catch (GroupException e) {
+                throw new ChangeRequestException(
+                    String.format("Error when getting members of group [%s].", groupReference), e);
+            }
+        }
+        Set<UserReference> result = new LinkedHashSet<>();
+        for (DocumentReference member : members) {
+            result.add(this.documentReferenceUserReferenceResolver.resolve(member));
+        }
+        return result;
+    }
+
     @Override
     public Set<DocumentReference> getGroupsApprovers(XWikiDocument entity) throws ChangeRequestException
     {
@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -35,7 +36,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.xwiki.cache.Cache;
 import org.xwiki.cache.CacheException;
 import org.xwiki.cache.CacheManager;
-import org.xwiki.cache.config.LRUCacheConfiguration;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLifecycleException;
 import org.xwiki.component.phase.Disposable;
@@ -46,6 +46,9 @@ import org.xwiki.contrib.changerequest.ChangeRequestConfiguration;
 import org.xwiki.contrib.changerequest.ChangeRequestException;
 import org.xwiki.contrib.changerequest.DelegateApproverManager;
 import org.xwiki.contrib.changerequest.internal.UserReferenceConverter;
+import org.xwiki.contrib.changerequest.internal.cache.ChangeRequestCacheMetrics;
+import org.xwiki.contrib.changerequest.internal.cache.DelegateApproversIndexManager;
+import org.xwiki.contrib.changerequest.internal.cache.MonitoredCache;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.user.CurrentUserReference;
 import org.xwiki.user.UserReference;
@@ -72,6 +75,8 @@ import com.xpn.xwiki.objects.PropertyInterface;
 public class XWikiDocumentDelegateApproverManager implements DelegateApproverManager<XWikiDocument>, Initializable,
     Disposable
 {
+    static final String CACHE_NAME = "delegate";
+
     @Inject
     private ChangeRequestConfiguration configuration;
 
@@ -97,13 +102,20 @@ public class XWikiDocumentDelegateApproverManager implements DelegateApproverMan
     @Inject
     private CacheManager cacheManager;
 
+    @Inject
+    private ChangeRequestCacheMetrics cacheMetrics;
+
+    @Inject
+    private DelegateApproversIndexManager delegateApproversIndexManager;
+
     private Cache<Set<UserReference>> delegateCache;
 
     @Override
     public void initialize() throws InitializationException
     {
         try {
-            this.delegateCache = this.cacheManager.createNewCache(new LRUCacheConfiguration("changerequest.delegate"));
+            this.delegateCache =
+                MonitoredCache.create(this.cacheManager, this.configuration, this.cacheMetrics, CACHE_NAME, 0);
         } catch (CacheException e) {
             throw new InitializationException("Error while initializing delegate cache", e);
         }
@@ -131,17 +143,10 @@ public class XWikiDocumentDelegateApproverManager implements DelegateApproverMan
                 XWikiDocument userDoc = context.getWiki().getDocument(userDocReference, context);
                 if (!userDoc.isNew()) {
                     result = this.getDelegatesFromProperties(userDoc);
-                    userDoc.removeXObjects(DelegateApproversXClassInitializer.DELEGATE_APPROVERS_XCLASS);
-                    int objectNumber =
-                        userDoc.createXObject(DelegateApproversXClassInitializer.DELEGATE_APPROVERS_XCLASS, context);
-                    BaseObject delegateObject =
-                        userDoc.getXObject(DelegateApproversXClassInitializer.DELEGATE_APPROVERS_XCLASS, objectNumber);
-                    List<String> serializedList = result.stream()
-                        .map(this.userReferenceSerializer::serialize)
-                        .collect(Collectors.toList());
-                    delegateObject.setLargeStringValue(DelegateApproversXClassInitializer.DELEGATED_USERS_PROPERTY,
-                        StringUtils.join(serializedList, ApproversXClassInitializer.SEPARATOR_CHARACTER));
-                    context.getWiki().saveDocument(userDoc, "Computation of delegate approvers", context);
+                    // Don't save the user document when the delegates didn't change, e.g. during a global computation.
+                    if (!result.equals(this.getStoredDelegates(userDoc))) {
+                        this.saveDelegates(userDocReference, userDoc, result, context);
+                    }
                 }
             } catch (XWikiException e) {
                 throw new ChangeRequestException(
@@ -152,6 +157,49 @@ public class XWikiDocumentDelegateApproverManager implements DelegateApproverMan
         return result;
     }
 
+    private void saveDelegates(DocumentReference userDocReference, XWikiDocument userDoc,
+        Set<UserReference> delegates, XWikiContext context) throws XWikiException
+    {
+        userDoc.removeXObjects(DelegateApproversXClassInitializer.DELEGATE_APPROVERS_XCLASS);
+        int objectNumber = userDoc.createXObject(DelegateApproversXClassInitializer.DELEGATE_APPROVERS_XCLASS, context);
+        BaseObject delegateObject =
+            userDoc.getXObject(DelegateApproversXClassInitializer.DELEGATE_APPROVERS_XCLASS, objectNumber);
+        List<String> serializedList = delegates.stream()
+            .map(this.userReferenceSerializer::serialize)
+            .collect(Collectors.toList());
+        String serializedDelegates = StringUtils.join(serializedList, ApproversXClassInitializer.SEPARATOR_CHARACTER);
+        delegateObject.setLargeStringValue(DelegateApproversXClassInitializer.DELEGATED_USERS_PROPERTY,
+            serializedDelegates);
+        context.getWiki().saveDocument(userDoc, "Computation of delegate approvers", context);
+        this.delegateApproversIndexManager.update(userDocReference, serializedDelegates);
+    }
+
+    private Set<UserReference> getStoredDelegates(XWikiDocument userDoc)
+    {
+        Set<UserReference> result = null;
+        List<BaseObject> delegateObjects =
+            userDoc.getXObjects(DelegateApproversXClassInitializer.DELEGATE_APPROVERS_XCLASS).stream()
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        // Several objects need to be cleaned up by a new save.
+        if (delegateObjects.size() == 1) {
+            result = this.getDelegates(delegateObjects.get(0));
+        }
+        return result;
+    }
+
+    private Set<UserReference> getDelegates(BaseObject delegateObject)
+    {
+        Set<UserReference> result = Collections.emptySet();
+        String value = delegateObject.getLargeStringValue(DelegateApproversXClassInitializer.DELEGATED_USERS_PROPERTY);
+        if (!StringUtils.isEmpty(value)) {
+            result = Arrays.stream(StringUtils.split(value, ApproversXClassInitializer.SEPARATOR_CHARACTER))
+                .map(this.stringUserReferenceResolver::resolve)
+                .collect(Collectors.toSet());
+        }
+        return result;
+    }
+
     private Set<UserReference> getDelegatesFromProperties(XWikiDocument userDoc) throws ChangeRequestException
     {
         Set<UserReference> result = new HashSet<>();
@@ -192,8 +240,10 @@ public class XWikiDocumentDelegateApproverManager implements DelegateApproverMan
             String serializedReference = this.userReferenceSerializer.serialize(userReference);
             result = this.delegateCache.get(serializedReference);
             if (result == null) {
+                long start = System.nanoTime();
                 result = getDelegateWithoutCache(userReference);
                 this.delegateCache.set(serializedReference, result);
+                this.cacheMetrics.recordLoadTime(CACHE_NAME, System.nanoTime() - start);
             }
         }
         return result;
@@ -209,15 +259,7 @@ public class XWikiDocumentDelegateApproverManager implements DelegateApproverMan
             BaseObject delegateObject =
                 userDoc.getXObject(DelegateApproversXClassInitializer.DELEGATE_APPROVERS_XCLASS);
             if (delegateObject != null) {
-                String value =
-                    delegateObject.getLargeStringValue(
-                        DelegateApproversXClassInitializer.DELEGATED_USERS_PROPERTY);
-                if (!StringUtils.isEmpty(value)) {
-                    result =
-                        Arrays.stream(StringUtils.split(value, ApproversXClassInitializer.SEPARATOR_CHARACTER))
-                            .map(this.stringUserReferenceResolver::resolve)
-                            .collect(Collectors.toSet());
-                }
+                result = this.getDelegates(delegateObject);
             }
         } catch (XWikiException e) {
             throw new ChangeRequestException(
@@ -230,6 +272,7 @@ public class XWikiDocumentDelegateApproverManager implements DelegateApproverMan
     public boolean isDelegateApproverOf(UserReference userReference, XWikiDocument entity)
         throws ChangeRequestException
     {
+        boolean result = false;
         if (this.configuration.isDelegateEnabled()) {
             Set<UserReference> allApprovers = this.approversManagerProvider.get().getAllApprovers(entity, false);
 
@@ -239,13 +282,10 @@ public class XWikiDocumentDelegateApproverManager implements DelegateApproverMan
             } else {
                 user = userReference;
             }
-            for (UserReference approver : allApprovers) {
-                if (this.getDelegates(approver).contains(user)) {
-                    return true;
-                }
-            }
+            // Rely on the reverse index rather than on the delegates of each approver to avoid loading their document.
+            result = !this.delegateApproversIndexManager.getPrincipals(user, allApprovers).isEmpty();
         }
-        return false;
+        return result;
     }
 
     @Override
@@ -256,7 +296,8 @@ public class XWikiDocumentDelegateApproverManager implements DelegateApproverMan
         if (this.configuration.isDelegateEnabled()) {
             Set<UserReference> allApprovers = this.approversManagerProvider.get().getAllApprovers(entity, false);
             if (allApprovers.contains(originalApprover)) {
-                result = this.getDelegates(originalApprover).contains(userReference);
+                result = !this.delegateApproversIndexManager.getPrincipals(userReference, Set.of(originalApprover))
+                    .isEmpty();
             }
         }
         return result;
@@ -269,12 +310,7 @@ public class XWikiDocumentDelegateApproverManager implements DelegateApproverMan
         Set<UserReference> result = new HashSet<>();
         if (this.configuration.isDelegateEnabled()) {
             Set<UserReference> allApprovers = this.approversManagerProvider.get().getAllApprovers(entity, false);
-
-            for (UserReference approver : allApprovers) {
-                if (this.getDelegates(approver).contains(userReference)) {
-                    result.add(approver);
-                }
-            }
+            result.addAll(this.delegateApproversIndexManager.getPrincipals(userReference, allApprovers));
         }
         return result;
     }
@@ -0,0 +1,167 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.cache;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.contrib.changerequest.ChangeRequestConfiguration;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.user.UserReference;
+
+/**
+ * Cache of the approvers of the documents, including the members of the approvers groups, to avoid computing again
+ * the members of the groups each time we need to know if a user is an approver.
+ * <p>
+ * The entries are stored along with the raw values of the approvers properties they have been computed from, so that
+ * an entry is never used for a version of the document with different approvers (e.g. the version of a document
+ * in a change request). The entries are invalidated whenever the approvers of a document, or the members of any
+ * group, are updated.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@Component(roles = ApproversCacheManager.class)
+@Singleton
+public class ApproversCacheManager implements Initializable, Disposable
+{
+    static final String CACHE_NAME = "approvers";
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private ChangeRequestConfiguration configuration;
+
+    @Inject
+    private ChangeRequestCacheMetrics cacheMetrics;
+
+    @Inject
+    private EntityReferenceSerializer<String> entityReferenceSerializer;
+
+    private Cache<ApproversEntry> approversCache;
+
+    private static final class ApproversEntry
+    {
+        private final String usersApprovers;
+
+        private final String groupsApprovers;
+
+        private final Set<UserReference> approvers;
+
+        ApproversEntry(String usersApprovers, String groupsApprovers, Set<UserReference> approvers)
+        {
+            this.usersApprovers = usersApprovers;
+            this.groupsApprovers = groupsApprovers;
+            this.approvers = Collections.unmodifiableSet(new LinkedHashSet<>(approvers));
+        }
+
+        boolean matches(String usersApprovers, String groupsApprovers)
+        {
+            return Objects.equals(this.usersApprovers, usersApprovers)
+                && Objects.equals(this.groupsApprovers, groupsApprovers);
+        }
+    }
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        try {
+            this.approversCache =
+                MonitoredCache.create(this.cacheManager, this.configuration, this.cacheMetrics, CACHE_NAME, 1000);
+        } catch (CacheException e) {
+            throw new InitializationException("Error while creating cache", e);
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.approversCache.dispose();
+    }
+
+    /**
+     * Retrieve the approvers of the given document, including the members of the groups, if they have been computed
+     * from the same values of the approvers properties.
+     *
+     * @param documentReference the reference of the document for which to retrieve the approvers
+     * @param usersApprovers the raw value of the users approvers property
+     * @param groupsApprovers the raw value of the groups approvers property
+     * @return the cached approvers or {@link Optional#empty()} if they need to be computed
+     */
+    public Optional<Set<UserReference>> getApprovers(DocumentReference documentReference, String usersApprovers,
+        String groupsApprovers)
+    {
+        Optional<Set<UserReference>> result = Optional.empty();
+        ApproversEntry entry = this.approversCache.get(this.entityReferenceSerializer.serialize(documentReference));
+        if (entry != null && entry.matches(usersApprovers, groupsApprovers)) {
+            result = Optional.of(entry.approvers);
+        }
+        return result;
+    }
+
+    /**
+     * Store the approvers computed for the given document.
+     *
+     * @param documentReference the reference of the document for which the approvers have been computed
+     * @param usersApprovers the raw value of the users approvers property used for the computation
+     * @param groupsApprovers the raw value of the groups approvers property used for the computation
+     * @param approvers the computed approvers, including the members of the groups
+     */
+    public void setApprovers(DocumentReference documentReference, String usersApprovers, String groupsApprovers,
+        Set<UserReference> approvers)
+    {
+        this.approversCache.set(this.entityReferenceSerializer.serialize(documentReference),
+            new ApproversEntry(usersApprovers, groupsApprovers, approvers));
+    }
+
+    /**
+     * Invalidate the approvers of the given document.
+     *
+     * @param documentReference the reference of the document whose approvers have been updated
+     */
+    public void invalidate(DocumentReference documentReference)
+    {
+        this.approversCache.remove(this.entityReferenceSerializer.serialize(documentReference));
+    }
+
+    /**
+     * Invalidate all entries contained in this cache, e.g. when the members of a group have been updated.
+     */
+    public void invalidateAll()
+    {
+        this.approversCache.removeAll();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * Counters of the accesses performed on one of the caches of the application.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+public class CacheStatistics
+{
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadTime = new LongAdder();
+
+    void recordHit()
+    {
+        this.hits.increment();
+    }
+
+    void recordMiss()
+    {
+        this.misses.increment();
+    }
+
+    void recordEviction()
+    {
+        this.evictions.increment();
+    }
+
+    void recordLoad(long duration)
+    {
+        this.loads.increment();
+        this.loadTime.add(duration);
+    }
+
+    /**
+     * @return the number of lookups which found a value in the cache
+     */
+    public long getHitCount()
+    {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return the number of lookups which didn't find any value in the cache
+     */
+    public long getMissCount()
+    {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return the ratio of lookups which found a value in the cache, or {@code 0} if no lookup has been performed
+     */
+    public double getHitRatio()
+    {
+        long hitCount = getHitCount();
+        long total = hitCount + getMissCount();
+        return (total == 0) ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * @return the number of entries removed because the cache was full or because they expired: the explicit
+     *         invalidations are not counted
+     */
+    public long getEvictionCount()
+    {
+        return this.evictions.sum();
+    }
+
+    /**
+     * @return the number of values computed to be put in the cache
+     */
+    public long getLoadCount()
+    {
+        return this.loads.sum();
+    }
+
+    /**
+     * @return the total time spent to compute the values to be put in the cache, in nanoseconds
+     */
+    public long getTotalLoadTime()
+    {
+        return this.loadTime.sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return new ToStringBuilder(this)
+            .append("hits", getHitCount())
+            .append("misses", getMissCount())
+            .append("evictions", getEvictionCount())
+            .append("loads", getLoadCount())
+            .append("loadTime", getTotalLoadTime())
+            .toString();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.cache;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+
+/**
+ * Single entry point to query the statistics of all the caches used by the application. The caches register their
+ * statistics when they're created with {@link MonitoredCache#create}.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@Component(roles = ChangeRequestCacheMetrics.class)
+@Singleton
+public class ChangeRequestCacheMetrics
+{
+    private final Map<String, CacheStatistics> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * Register the statistics of a cache.
+     *
+     * @param cacheName the name of the cache
+     * @param cacheStatistics the statistics of the cache
+     */
+    public void register(String cacheName, CacheStatistics cacheStatistics)
+    {
+        this.statistics.put(cacheName, cacheStatistics);
+    }
+
+    /**
+     * Record the time spent to compute a value that has then been put in the given cache.
+     *
+     * @param cacheName the name of the cache
+     * @param duration the time spent in nanoseconds
+     */
+    public void recordLoadTime(String cacheName, long duration)
+    {
+        CacheStatistics cacheStatistics = this.statistics.get(cacheName);
+        if (cacheStatistics != null) {
+            cacheStatistics.recordLoad(duration);
+        }
+    }
+
+    /**
+     * @param cacheName the name of the cache
+     * @return the statistics of the given cache or {@link Optional#empty()} if no such cache has been created
+     */
+    public Optional<CacheStatistics> getStatistics(String cacheName)
+    {
+        return Optional.ofNullable(this.statistics.get(cacheName));
+    }
+
+    /**
+     * @return the statistics of all caches indexed by their names
+     */
+    public Map<String, CacheStatistics> getAllStatistics()
+    {
+        return Collections.unmodifiableMap(new TreeMap<>(this.statistics));
+    }
+}
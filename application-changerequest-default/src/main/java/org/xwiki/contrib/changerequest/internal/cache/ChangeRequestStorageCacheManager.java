@@ -27,16 +27,20 @@ import javax.inject.Singleton;
 import org.xwiki.cache.Cache;
 import org.xwiki.cache.CacheException;
 import org.xwiki.cache.CacheManager;
-import org.xwiki.cache.config.LRUCacheConfiguration;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLifecycleException;
 import org.xwiki.component.phase.Disposable;
 import org.xwiki.component.phase.Initializable;
 import org.xwiki.component.phase.InitializationException;
 import org.xwiki.contrib.changerequest.ChangeRequest;
+import org.xwiki.contrib.changerequest.ChangeRequestConfiguration;
 
 /**
  * Dedicated cache for change request, to avoid having to reload them from xobjects all the time.
+ * The cache only holds snapshots of the change requests which are never handed out nor modified: each reader gets a
+ * copy-on-write view of the snapshot that it can freely modify, and writers publish a new snapshot to replace the
+ * previous one. The modified documents of the file changes are loaded only once by the snapshot and then shared in
+ * read-only mode with all its views.
  *
  * @version $Id$
  * @since 0.11
@@ -46,9 +50,20 @@ import org.xwiki.contrib.changerequest.ChangeRequest;
 @Singleton
 public class ChangeRequestStorageCacheManager implements Initializable, Disposable
 {
+    /**
+     * Name of the cache used for its configuration and its statistics.
+     */
+    public static final String CACHE_NAME = "changerequests";
+
     @Inject
     private CacheManager cacheManager;
 
+    @Inject
+    private ChangeRequestConfiguration configuration;
+
+    @Inject
+    private ChangeRequestCacheMetrics cacheMetrics;
+
     private Cache<ChangeRequest> changeRequestCache;
 
     @Override
@@ -56,7 +71,7 @@ public class ChangeRequestStorageCacheManager implements Initializable, Disposab
     {
         try {
             this.changeRequestCache =
-                this.cacheManager.createNewCache(new LRUCacheConfiguration("changerequest.changerequests", 100));
+                MonitoredCache.create(this.cacheManager, this.configuration, this.cacheMetrics, CACHE_NAME, 100);
         } catch (CacheException e) {
             throw new InitializationException("Error when initializing the cache for change requests.");
         }
@@ -72,7 +87,8 @@ public class ChangeRequestStorageCacheManager implements Initializable, Disposab
      * Retrieve a change request from the cache with its identifier.
      * @param id the identifier of the change request as used for loading it.
      * @return a {@link Optional#empty()} if the change request is not cached, else an optional containing
-     *         the change request.
+     *         a copy-on-write view of the cached change request: the modified documents of its file changes are
+     *         loaded only once and shared between all views, so they must be cloned before being modified.
      */
     public Optional<ChangeRequest> getChangeRequest(String id)
     {
@@ -80,18 +96,19 @@ public class ChangeRequestStorageCacheManager implements Initializable, Disposab
         if (changeRequest == null) {
             return Optional.empty();
         } else {
-            return Optional.of(changeRequest);
+            return Optional.of(changeRequest.copyOnWrite());
         }
     }
 
     /**
-     * Cache the given change request so that it's quickly loaded later.
+     * Cache a snapshot of the given change request so that it's quickly loaded later. Further modifications of the
+     * given instance are not visible in the cache.
      *
      * @param changeRequest the change request to be cached.
      */
     public void cacheChangeRequest(ChangeRequest changeRequest)
     {
-        this.changeRequestCache.set(changeRequest.getId(), changeRequest);
+        this.changeRequestCache.set(changeRequest.getId(), changeRequest.copy());
     }
 
     /**
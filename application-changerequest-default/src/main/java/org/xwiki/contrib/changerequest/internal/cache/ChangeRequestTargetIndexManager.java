@@ -0,0 +1,318 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.EnumUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.changerequest.ChangeRequestException;
+import org.xwiki.contrib.changerequest.ChangeRequestStatus;
+import org.xwiki.contrib.changerequest.internal.storage.ChangeRequestXClassInitializer;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.SpaceReference;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+
+/**
+ * In-memory reverse index of the documents and spaces targeted by change requests, so that finding which change
+ * requests concern a given document or space doesn't require to perform a query.
+ * The index is built lazily for each wiki the first time it's needed, with a single query, and is then maintained
+ * by the storage manager and by the listeners of change request xobjects. It can be dropped at any time with
+ * {@link #invalidateAll()}: it will then be rebuilt on next access.
+ * <p>
+ * Note that the index holds every change request ever created in the wiki, whatever its status: its memory footprint
+ * thus grows with the history of change requests.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@Component(roles = ChangeRequestTargetIndexManager.class)
+@Singleton
+public class ChangeRequestTargetIndexManager
+{
+    private static final String REBUILD_STATEMENT = "select doc.fullName, obj_status.value, list "
+        + "from XWikiDocument as doc, BaseObject as obj, StringProperty as obj_status, "
+        + "DBStringListProperty as prop join prop.list list "
+        + "where obj.name=doc.fullName and obj.className=:className and obj_status.id.id=obj.id "
+        + "and obj_status.id.name=:statusField and obj.id=prop.id.id and prop.id.name=:changedDocumentsField";
+
+    @Inject
+    private Provider<QueryManager> queryManagerProvider;
+
+    @Inject
+    private EntityReferenceSerializer<String> entityReferenceSerializer;
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<String> documentReferenceResolver;
+
+    private final Map<String, WikiIndex> wikiIndexes = new ConcurrentHashMap<>();
+
+    private static final class WikiIndex
+    {
+        private final Map<DocumentReference, Set<String>> changeRequestsByTarget = new ConcurrentHashMap<>();
+
+        /**
+         * Change requests indexed by all the spaces containing, directly or not, one of their targets.
+         */
+        private final Map<SpaceReference, Set<String>> changeRequestsBySpace = new ConcurrentHashMap<>();
+
+        /**
+         * Status of the indexed change requests: change requests without status are not part of this map.
+         */
+        private final Map<String, ChangeRequestStatus> statuses = new ConcurrentHashMap<>();
+
+        private final Map<String, Set<DocumentReference>> targetsByChangeRequest = new ConcurrentHashMap<>();
+
+        private Set<String> get(DocumentReference target)
+        {
+            return this.changeRequestsByTarget.getOrDefault(target, Collections.emptySet());
+        }
+
+        private Set<String> get(SpaceReference space)
+        {
+            return this.changeRequestsBySpace.getOrDefault(space, Collections.emptySet());
+        }
+
+        private boolean isOpen(String changeRequestId)
+        {
+            ChangeRequestStatus status = this.statuses.get(changeRequestId);
+            return status != null && status.isOpen();
+        }
+
+        private void add(String changeRequestId, ChangeRequestStatus status, DocumentReference target)
+        {
+            if (status != null) {
+                this.statuses.put(changeRequestId, status);
+            }
+            this.targetsByChangeRequest.computeIfAbsent(changeRequestId, key -> new HashSet<>()).add(target);
+            addEntry(this.changeRequestsByTarget, target, changeRequestId);
+            for (SpaceReference space : target.getSpaceReferences()) {
+                addEntry(this.changeRequestsBySpace, space, changeRequestId);
+            }
+        }
+
+        private void remove(String changeRequestId)
+        {
+            this.statuses.remove(changeRequestId);
+            Set<DocumentReference> targets = this.targetsByChangeRequest.remove(changeRequestId);
+            if (targets != null) {
+                for (DocumentReference target : targets) {
+                    removeEntry(this.changeRequestsByTarget, target, changeRequestId);
+                    for (SpaceReference space : target.getSpaceReferences()) {
+                        removeEntry(this.changeRequestsBySpace, space, changeRequestId);
+                    }
+                }
+            }
+        }
+
+        private static <K> void addEntry(Map<K, Set<String>> map, K key, String changeRequestId)
+        {
+            // Values are replaced rather than modified so that readers never see a set being updated.
+            map.compute(key, (k, value) -> {
+                Set<String> ids = (value == null) ? new HashSet<>() : new HashSet<>(value);
+                ids.add(changeRequestId);
+                return Collections.unmodifiableSet(ids);
+            });
+        }
+
+        private static <K> void removeEntry(Map<K, Set<String>> map, K key, String changeRequestId)
+        {
+            map.computeIfPresent(key, (k, value) -> {
+                Set<String> ids = new HashSet<>(value);
+                ids.remove(changeRequestId);
+                return (ids.isEmpty()) ? null : Collections.unmodifiableSet(ids);
+            });
+        }
+    }
+
+    /**
+     * Retrieve the identifiers of the open change requests containing changes for the given document.
+     * Note that the locale of the given reference is not taken into account.
+     *
+     * @param target the reference of a document that might be targeted by change requests
+     * @return the identifiers of the open change requests targeting that document, or an empty set
+     * @throws ChangeRequestException in case of problem when building the index for the wiki of the given document
+     */
+    public Set<String> getOpenChangeRequestIds(DocumentReference target) throws ChangeRequestException
+    {
+        WikiIndex wikiIndex = this.getWikiIndex(target.getWikiReference());
+        return wikiIndex.get(normalize(target)).stream()
+            .filter(wikiIndex::isOpen)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * Retrieve the identifiers of the change requests containing changes for the given document, whatever their
+     * status. Note that the locale of the given reference is not taken into account.
+     *
+     * @param target the reference of a document that might be targeted by change requests
+     * @return the identifiers of the change requests targeting that document, or an empty set
+     * @throws ChangeRequestException in case of problem when building the index for the wiki of the given document
+     */
+    public Set<String> getChangeRequestIds(DocumentReference target) throws ChangeRequestException
+    {
+        return this.getWikiIndex(target.getWikiReference()).get(normalize(target));
+    }
+
+    /**
+     * Retrieve the identifiers of the change requests containing changes for documents located in the given space or
+     * in one of its children spaces, whatever their status.
+     *
+     * @param space the reference of a space that might contain documents targeted by change requests
+     * @return the identifiers of the change requests targeting documents of that space, or an empty set
+     * @throws ChangeRequestException in case of problem when building the index for the wiki of the given space
+     */
+    public Set<String> getChangeRequestIds(SpaceReference space) throws ChangeRequestException
+    {
+        return this.getWikiIndex(space.getWikiReference()).get(space);
+    }
+
+    /**
+     * Update the index for the given change request.
+     *
+     * @param wikiReference the wiki where the change request is stored
+     * @param changeRequestId the identifier of the change request
+     * @param status the current status of the change request
+     * @param targets the documents currently targeted by the change request
+     */
+    public synchronized void update(WikiReference wikiReference, String changeRequestId, ChangeRequestStatus status,
+        Collection<DocumentReference> targets)
+    {
+        // If the index is not built yet for that wiki, the change will be taken into account when building it.
+        WikiIndex wikiIndex = this.wikiIndexes.get(wikiReference.getName());
+        if (wikiIndex != null) {
+            wikiIndex.remove(changeRequestId);
+            for (DocumentReference target : targets) {
+                wikiIndex.add(changeRequestId, status, normalize(target));
+            }
+        }
+    }
+
+    /**
+     * Remove all entries of the given change request from the index.
+     *
+     * @param wikiReference the wiki where the change request is stored
+     * @param changeRequestId the identifier of the change request to remove from the index
+     */
+    public synchronized void remove(WikiReference wikiReference, String changeRequestId)
+    {
+        WikiIndex wikiIndex = this.wikiIndexes.get(wikiReference.getName());
+        if (wikiIndex != null) {
+            wikiIndex.remove(changeRequestId);
+        }
+    }
+
+    /**
+     * Drop the index of the given wiki: it will be rebuilt on next access.
+     *
+     * @param wikiReference the wiki for which to drop the index
+     */
+    public synchronized void invalidate(WikiReference wikiReference)
+    {
+        this.wikiIndexes.remove(wikiReference.getName());
+    }
+
+    /**
+     * Drop the index of all wikis: they will be rebuilt on next access.
+     */
+    public synchronized void invalidateAll()
+    {
+        this.wikiIndexes.clear();
+    }
+
+    private WikiIndex getWikiIndex(WikiReference wikiReference) throws ChangeRequestException
+    {
+        WikiIndex result = this.wikiIndexes.get(wikiReference.getName());
+        if (result == null) {
+            synchronized (this) {
+                result = this.wikiIndexes.get(wikiReference.getName());
+                if (result == null) {
+                    result = this.buildWikiIndex(wikiReference);
+                    this.wikiIndexes.put(wikiReference.getName(), result);
+                }
+            }
+        }
+        return result;
+    }
+
+    private WikiIndex buildWikiIndex(WikiReference wikiReference) throws ChangeRequestException
+    {
+        WikiIndex result = new WikiIndex();
+        try {
+            Query query = this.queryManagerProvider.get().createQuery(REBUILD_STATEMENT, Query.HQL);
+            query.setWiki(wikiReference.getName());
+            query.bindValue("className",
+                this.entityReferenceSerializer.serialize(ChangeRequestXClassInitializer.CHANGE_REQUEST_XCLASS));
+            query.bindValue("statusField", ChangeRequestXClassInitializer.STATUS_FIELD);
+            query.bindValue("changedDocumentsField", ChangeRequestXClassInitializer.CHANGED_DOCUMENTS_FIELD);
+            List<Object[]> rows = query.execute();
+            for (Object[] row : rows) {
+                DocumentReference changeRequestReference =
+                    this.documentReferenceResolver.resolve((String) row[0], wikiReference);
+                DocumentReference target = this.documentReferenceResolver.resolve((String) row[2], wikiReference);
+                result.add(changeRequestReference.getLastSpaceReference().getName(), getStatus((String) row[1]),
+                    normalize(target));
+            }
+        } catch (QueryException e) {
+            throw new ChangeRequestException(
+                String.format("Error while building the index of change request targets for wiki [%s]",
+                    wikiReference), e);
+        }
+        return result;
+    }
+
+    /**
+     * Parse the status stored in a change request xobject, without failing on unexpected values.
+     *
+     * @param value the stored value of the status
+     * @return the status, or {@code null} if the value is empty or unknown: such change requests are indexed without
+     *         status
+     */
+    public static ChangeRequestStatus getStatus(String value)
+    {
+        return (StringUtils.isEmpty(value)) ? null
+            : EnumUtils.getEnum(ChangeRequestStatus.class, value.toUpperCase(Locale.ROOT));
+    }
+
+    private static DocumentReference normalize(DocumentReference reference)
+    {
+        return (reference.getLocale() == null) ? reference : new DocumentReference(reference, (Locale) null);
+    }
+}
@@ -33,13 +33,13 @@ import org.xwiki.bridge.DocumentModelBridge;
 import org.xwiki.cache.Cache;
 import org.xwiki.cache.CacheException;
 import org.xwiki.cache.CacheManager;
-import org.xwiki.cache.config.LRUCacheConfiguration;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLifecycleException;
 import org.xwiki.component.phase.Disposable;
 import org.xwiki.component.phase.Initializable;
 import org.xwiki.component.phase.InitializationException;
 import org.xwiki.contrib.changerequest.ChangeRequest;
+import org.xwiki.contrib.changerequest.ChangeRequestConfiguration;
 import org.xwiki.contrib.changerequest.ChangeRequestException;
 import org.xwiki.contrib.changerequest.FileChange;
 import org.xwiki.contrib.changerequest.storage.ChangeRequestStorageManager;
@@ -59,9 +59,17 @@ import com.xpn.xwiki.doc.XWikiDocument;
 @Singleton
 public class ChangeRequestTitleCacheManager implements Initializable, Disposable
 {
+    static final String CACHE_NAME = "titles";
+
     @Inject
     private CacheManager cacheManager;
 
+    @Inject
+    private ChangeRequestConfiguration configuration;
+
+    @Inject
+    private ChangeRequestCacheMetrics cacheMetrics;
+
     @Inject
     private Provider<ChangeRequestStorageManager> changeRequestStorageManagerProvider;
 
@@ -87,7 +95,7 @@ public class ChangeRequestTitleCacheManager implements Initializable, Disposable
     {
         try {
             this.titleCache =
-                this.cacheManager.createNewCache(new LRUCacheConfiguration("changerequest.titles", 1000));
+                MonitoredCache.create(this.cacheManager, this.configuration, this.cacheMetrics, CACHE_NAME, 1000);
         } catch (CacheException e) {
             throw new InitializationException("Error while creating cache", e);
         }
@@ -110,7 +118,9 @@ public class ChangeRequestTitleCacheManager implements Initializable, Disposable
             this.titleCache.set(changeRequestId, mapTitle);
         }
         if (!mapTitle.containsKey(fileChangeId)) {
+            long start = System.nanoTime();
             result = loadTitle(changeRequestId, fileChangeId);
+            this.cacheMetrics.recordLoadTime(CACHE_NAME, System.nanoTime() - start);
             mapTitle.put(fileChangeId, result);
         } else {
             result = mapTitle.get(fileChangeId);
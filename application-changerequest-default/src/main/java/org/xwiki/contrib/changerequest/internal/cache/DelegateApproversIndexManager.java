@@ -0,0 +1,241 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.changerequest.ChangeRequestException;
+import org.xwiki.contrib.changerequest.internal.UserReferenceConverter;
+import org.xwiki.contrib.changerequest.internal.approvers.ApproversXClassInitializer;
+import org.xwiki.contrib.changerequest.internal.approvers.DelegateApproversXClassInitializer;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+import org.xwiki.user.UserReference;
+import org.xwiki.user.UserReferenceResolver;
+import org.xwiki.user.UserReferenceSerializer;
+
+/**
+ * In-memory reverse index of the delegate approvers, giving for each delegate the users they are delegate of, so
+ * that finding if a user is the delegate of one of the approvers of a document doesn't require to load the document
+ * of each approver.
+ * The index is built lazily for each wiki containing users, the first time it's needed, with a single query on the
+ * delegate approvers xobjects, and is then maintained whenever the delegates of a user are computed or their xobject
+ * is modified. It can be dropped at any time with {@link #invalidateAll()}: it will then be rebuilt on next access.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@Component(roles = DelegateApproversIndexManager.class)
+@Singleton
+public class DelegateApproversIndexManager
+{
+    private static final String REBUILD_STATEMENT = "select doc.fullName, prop.value "
+        + "from XWikiDocument as doc, BaseObject as obj, LargeStringProperty as prop "
+        + "where obj.name=doc.fullName and obj.className=:className and obj.id=prop.id.id "
+        + "and prop.id.name=:delegatedUsersField";
+
+    @Inject
+    private Provider<QueryManager> queryManagerProvider;
+
+    @Inject
+    private EntityReferenceSerializer<String> entityReferenceSerializer;
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<String> documentReferenceResolver;
+
+    @Inject
+    @Named("document")
+    private UserReferenceResolver<DocumentReference> documentReferenceUserReferenceResolver;
+
+    @Inject
+    @Named("current")
+    private UserReferenceResolver<String> stringUserReferenceResolver;
+
+    @Inject
+    private UserReferenceSerializer<String> userReferenceSerializer;
+
+    @Inject
+    private UserReferenceConverter userReferenceConverter;
+
+    private final Map<String, WikiIndex> wikiIndexes = new ConcurrentHashMap<>();
+
+    private static final class WikiIndex
+    {
+        /**
+         * The serialized references of the users indexed by the serialized references of their delegates.
+         */
+        private final Map<String, Set<String>> principalsByDelegate = new ConcurrentHashMap<>();
+
+        private final Map<String, Set<String>> delegatesByPrincipal = new HashMap<>();
+
+        private Set<String> getPrincipals(String delegate)
+        {
+            return this.principalsByDelegate.getOrDefault(delegate, Collections.emptySet());
+        }
+
+        private void set(String principal, Set<String> delegates)
+        {
+            Set<String> previousDelegates = this.delegatesByPrincipal.remove(principal);
+            if (previousDelegates != null) {
+                for (String delegate : previousDelegates) {
+                    // Values are replaced rather than modified so that readers never see a set being updated.
+                    this.principalsByDelegate.computeIfPresent(delegate, (key, value) -> {
+                        Set<String> principals = new HashSet<>(value);
+                        principals.remove(principal);
+                        return (principals.isEmpty()) ? null : Collections.unmodifiableSet(principals);
+                    });
+                }
+            }
+            if (!delegates.isEmpty()) {
+                this.delegatesByPrincipal.put(principal, delegates);
+                for (String delegate : delegates) {
+                    this.principalsByDelegate.compute(delegate, (key, value) -> {
+                        Set<String> principals = (value == null) ? new HashSet<>() : new HashSet<>(value);
+                        principals.add(principal);
+                        return Collections.unmodifiableSet(principals);
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieve among the given users, the ones for which the given user is a delegate approver.
+     *
+     * @param delegate the user who might be a delegate approver
+     * @param users the users for which to check if the given user is a delegate approver
+     * @return the users for which the given user is a delegate approver, or an empty set
+     * @throws ChangeRequestException in case of problem when building the index for the wikis of the given users
+     */
+    public Set<UserReference> getPrincipals(UserReference delegate, Collection<UserReference> users)
+        throws ChangeRequestException
+    {
+        Set<UserReference> result = new LinkedHashSet<>();
+        String serializedDelegate = this.userReferenceSerializer.serialize(delegate);
+        for (UserReference user : users) {
+            DocumentReference userDocReference = this.userReferenceConverter.convert(user);
+            // Users which are not backed by a document cannot have delegates.
+            if (userDocReference != null && this.getWikiIndex(userDocReference.getWikiReference())
+                .getPrincipals(serializedDelegate).contains(this.userReferenceSerializer.serialize(user))) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Update the index for the given user.
+     *
+     * @param userDocReference the reference of the document of the user whose delegates have been updated
+     * @param serializedDelegates the value of the delegate approvers property of the user, or {@code null} if the
+     *     user doesn't have delegate approvers anymore
+     */
+    public synchronized void update(DocumentReference userDocReference, String serializedDelegates)
+    {
+        // If the index is not built yet for that wiki, the change will be taken into account when building it.
+        WikiIndex wikiIndex = this.wikiIndexes.get(userDocReference.getWikiReference().getName());
+        if (wikiIndex != null) {
+            this.update(wikiIndex, userDocReference, serializedDelegates);
+        }
+    }
+
+    /**
+     * Drop the index of all wikis: they will be rebuilt on next access.
+     */
+    public synchronized void invalidateAll()
+    {
+        this.wikiIndexes.clear();
+    }
+
+    private void update(WikiIndex wikiIndex, DocumentReference userDocReference, String serializedDelegates)
+    {
+        String principal = this.userReferenceSerializer.serialize(
+            this.documentReferenceUserReferenceResolver.resolve(userDocReference));
+        Set<String> delegates = new HashSet<>();
+        if (!StringUtils.isEmpty(serializedDelegates)) {
+            for (String serializedDelegate : StringUtils.split(serializedDelegates,
+                ApproversXClassInitializer.SEPARATOR_CHARACTER)) {
+                // Use the same serialization than when checking the delegate.
+                delegates.add(this.userReferenceSerializer.serialize(
+                    this.stringUserReferenceResolver.resolve(serializedDelegate)));
+            }
+        }
+        wikiIndex.set(principal, delegates);
+    }
+
+    private WikiIndex getWikiIndex(WikiReference wikiReference) throws ChangeRequestException
+    {
+        WikiIndex result = this.wikiIndexes.get(wikiReference.getName());
+        if (result == null) {
+            synchronized (this) {
+                result = this.wikiIndexes.get(wikiReference.getName());
+                if (result == null) {
+                    result = this.buildWikiIndex(wikiReference);
+                    this.wikiIndexes.put(wikiReference.getName(), result);
+                }
+            }
+        }
+        return result;
+    }
+
+    private WikiIndex buildWikiIndex(WikiReference wikiReference) throws ChangeRequestException
+    {
+        WikiIndex result = new WikiIndex();
+        try {
+            Query query = this.queryManagerProvider.get().createQuery(REBUILD_STATEMENT, Query.HQL);
+            query.setWiki(wikiReference.getName());
+            query.bindValue("className", this.entityReferenceSerializer
+                .serialize(DelegateApproversXClassInitializer.DELEGATE_APPROVERS_XCLASS));
+            query.bindValue("delegatedUsersField", DelegateApproversXClassInitializer.DELEGATED_USERS_PROPERTY);
+            List<Object[]> rows = query.execute();
+            for (Object[] row : rows) {
+                DocumentReference userDocReference =
+                    this.documentReferenceResolver.resolve((String) row[0], wikiReference);
+                this.update(result, userDocReference, (String) row[1]);
+            }
+        } catch (QueryException e) {
+            throw new ChangeRequestException(
+                String.format("Error while building the index of delegate approvers for wiki [%s]", wikiReference),
+                e);
+        }
+        return result;
+    }
+}
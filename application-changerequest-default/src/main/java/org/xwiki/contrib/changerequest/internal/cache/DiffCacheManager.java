@@ -29,13 +29,13 @@ import javax.inject.Singleton;
 import org.xwiki.cache.Cache;
 import org.xwiki.cache.CacheException;
 import org.xwiki.cache.CacheManager;
-import org.xwiki.cache.config.LRUCacheConfiguration;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLifecycleException;
 import org.xwiki.component.phase.Disposable;
 import org.xwiki.component.phase.Initializable;
 import org.xwiki.component.phase.InitializationException;
 import org.xwiki.contrib.changerequest.ChangeRequest;
+import org.xwiki.contrib.changerequest.ChangeRequestConfiguration;
 import org.xwiki.contrib.changerequest.FileChange;
 import org.xwiki.model.reference.DocumentReference;
 
@@ -49,9 +49,20 @@ import org.xwiki.model.reference.DocumentReference;
 @Singleton
 public class DiffCacheManager implements Initializable, Disposable
 {
+    /**
+     * Name of the cache used for its configuration and its statistics.
+     */
+    public static final String CACHE_NAME = "renderedDiff";
+
     @Inject
     private CacheManager cacheManager;
 
+    @Inject
+    private ChangeRequestConfiguration configuration;
+
+    @Inject
+    private ChangeRequestCacheMetrics cacheMetrics;
+
     private Cache<Map<DocumentReference, String>> renderedDiffCache;
 
     @Override
@@ -59,7 +70,7 @@ public class DiffCacheManager implements Initializable, Disposable
     {
         try {
             this.renderedDiffCache =
-                this.cacheManager.createNewCache(new LRUCacheConfiguration("changerequest.renderedDiff", 100));
+                MonitoredCache.create(this.cacheManager, this.configuration, this.cacheMetrics, CACHE_NAME, 100);
         } catch (CacheException e) {
             throw new InitializationException("Error while creating cache", e);
         }
@@ -32,7 +32,6 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.xwiki.cache.Cache;
 import org.xwiki.cache.CacheException;
 import org.xwiki.cache.CacheManager;
-import org.xwiki.cache.config.LRUCacheConfiguration;
 import org.xwiki.cache.event.CacheEntryEvent;
 import org.xwiki.cache.event.CacheEntryListener;
 import org.xwiki.component.annotation.Component;
@@ -40,6 +39,7 @@ import org.xwiki.component.manager.ComponentLifecycleException;
 import org.xwiki.component.phase.Disposable;
 import org.xwiki.component.phase.Initializable;
 import org.xwiki.component.phase.InitializationException;
+import org.xwiki.contrib.changerequest.ChangeRequestConfiguration;
 import org.xwiki.contrib.changerequest.ChangeRequestMergeDocumentResult;
 import org.xwiki.contrib.changerequest.FileChange;
 import org.xwiki.model.reference.DocumentReference;
@@ -55,15 +55,44 @@ import org.xwiki.model.reference.EntityReferenceSerializer;
 @Singleton
 public class MergeCacheManager implements Initializable, Disposable
 {
+    /**
+     * Name of the cache of conflict status, used for its configuration and its statistics.
+     */
+    public static final String CONFLICT_CACHE_NAME = "hasConflictCache";
+
+    /**
+     * Name of the cache of merge document results, used for its configuration and its statistics.
+     */
+    public static final String MERGE_DOCUMENT_RESULT_CACHE_NAME = "crMergeDocumentResult";
+
+    /**
+     * Name of the cache of conflict status indexed by fingerprints of the merge inputs, used for its configuration
+     * and its statistics.
+     *
+     * @since 1.20
+     */
+    public static final String CONFLICT_FINGERPRINT_CACHE_NAME = "conflictFingerprints";
+
     @Inject
     private CacheManager cacheManager;
 
+    @Inject
+    private ChangeRequestConfiguration configuration;
+
+    @Inject
+    private ChangeRequestCacheMetrics cacheMetrics;
+
     @Inject
     private EntityReferenceSerializer<String> entityReferenceSerializer;
 
     private Cache<Pair<DocumentReference, Boolean>> hasConflictCache;
     private Cache<ChangeRequestMergeDocumentResult> crMergeDocumentResultCache;
 
+    /**
+     * The keys of this cache identify the merge inputs: its entries never need to be invalidated.
+     */
+    private Cache<Boolean> conflictFingerprintCache;
+
     private final Map<DocumentReference, Set<String>> cacheKeysMap = new ConcurrentHashMap<>();
 
     private final class ConflictCacheEntryListener implements CacheEntryListener<Pair<DocumentReference, Boolean>>
@@ -144,12 +173,14 @@ public class MergeCacheManager implements Initializable, Disposable
     public void initialize() throws InitializationException
     {
         try {
-            this.hasConflictCache =
-                this.cacheManager.createNewCache(new LRUCacheConfiguration("changerequest.hasConflictCache", 1000));
+            this.hasConflictCache = MonitoredCache.create(this.cacheManager, this.configuration, this.cacheMetrics,
+                CONFLICT_CACHE_NAME, 1000);
             this.hasConflictCache.addCacheEntryListener(new ConflictCacheEntryListener());
-            this.crMergeDocumentResultCache =
-                this.cacheManager.createNewCache(new LRUCacheConfiguration("changerequest.crMergeDocumentResult", 100));
+            this.crMergeDocumentResultCache = MonitoredCache.create(this.cacheManager, this.configuration,
+                this.cacheMetrics, MERGE_DOCUMENT_RESULT_CACHE_NAME, 100);
             this.crMergeDocumentResultCache.addCacheEntryListener(new CRMergeDocumentResultCacheEntryListener());
+            this.conflictFingerprintCache = MonitoredCache.create(this.cacheManager, this.configuration,
+                this.cacheMetrics, CONFLICT_FINGERPRINT_CACHE_NAME, 1000);
         } catch (CacheException e) {
             throw new InitializationException("Error when initializing the cache for merge results.", e);
         }
@@ -160,6 +191,7 @@ public class MergeCacheManager implements Initializable, Disposable
     {
         this.hasConflictCache.dispose();
         this.crMergeDocumentResultCache.dispose();
+        this.conflictFingerprintCache.dispose();
     }
 
     private String getCacheKey(FileChange fileChange)
@@ -195,6 +227,30 @@ public class MergeCacheManager implements Initializable, Disposable
         this.hasConflictCache.set(getCacheKey(fileChange), Pair.of(fileChange.getTargetEntity(), status));
     }
 
+    /**
+     * Look in the cache if there is a conflict value for the merge inputs identified by the given fingerprint.
+     *
+     * @param fingerprint the fingerprint of the merge inputs
+     * @return {@link Optional#empty()} if there's no value in cache, else an optional containing the boolean result.
+     * @since 1.20
+     */
+    public Optional<Boolean> getFingerprintConflictStatus(String fingerprint)
+    {
+        return Optional.ofNullable(this.conflictFingerprintCache.get(fingerprint));
+    }
+
+    /**
+     * Put in cache the conflict value of the merge inputs identified by the given fingerprint.
+     *
+     * @param fingerprint the fingerprint of the merge inputs
+     * @param status the conflict value of the merge
+     * @since 1.20
+     */
+    public void setFingerprintConflictStatus(String fingerprint, boolean status)
+    {
+        this.conflictFingerprintCache.set(fingerprint, status);
+    }
+
     /**
      * Search in cache if there's already a {@link ChangeRequestMergeDocumentResult} for the given filechange.
      *
@@ -259,5 +315,6 @@ public class MergeCacheManager implements Initializable, Disposable
     {
         this.crMergeDocumentResultCache.removeAll();
         this.hasConflictCache.removeAll();
+        this.conflictFingerprintCache.removeAll();
     }
 }
@@ -0,0 +1,167 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.cache;
+
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.cache.event.CacheEntryEvent;
+import org.xwiki.cache.event.CacheEntryListener;
+import org.xwiki.contrib.changerequest.ChangeRequestConfiguration;
+
+/**
+ * Wrapper of a {@link Cache} which records the accesses in {@link CacheStatistics}.
+ *
+ * @param <T> the type of the cached values
+ * @version $Id$
+ * @since 1.20
+ */
+public final class MonitoredCache<T> implements Cache<T>
+{
+    private static final String CONFIGURATION_PREFIX = "changerequest.";
+
+    private final Cache<T> cache;
+
+    private final CacheStatistics statistics;
+
+    /**
+     * Flag allowing to distinguish the removals performed explicitly from the evictions, since both are notified
+     * the same way to the listeners.
+     */
+    private final ThreadLocal<Boolean> explicitRemoval = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final class EvictionListener implements CacheEntryListener<T>
+    {
+        @Override
+        public void cacheEntryAdded(CacheEntryEvent<T> event)
+        {
+            // Nothing to do.
+        }
+
+        @Override
+        public void cacheEntryRemoved(CacheEntryEvent<T> event)
+        {
+            if (!MonitoredCache.this.explicitRemoval.get()) {
+                MonitoredCache.this.statistics.recordEviction();
+            }
+        }
+
+        @Override
+        public void cacheEntryModified(CacheEntryEvent<T> event)
+        {
+            // Nothing to do.
+        }
+    }
+
+    private MonitoredCache(Cache<T> cache, CacheStatistics statistics)
+    {
+        this.cache = cache;
+        this.statistics = statistics;
+        this.cache.addCacheEntryListener(new EvictionListener());
+    }
+
+    /**
+     * Create a new LRU cache whose size and lifespan are taken from the configuration, and register its statistics.
+     *
+     * @param cacheManager the manager used to create the actual cache
+     * @param configuration the configuration holding the size and lifespan of the cache
+     * @param metrics the component where to register the statistics of the cache
+     * @param cacheName the name of the cache, used both for the configuration and the statistics
+     * @param defaultSize the size of the cache when it's not configured, {@code 0} meaning the default cache size
+     * @param <T> the type of the cached values
+     * @return a cache recording its statistics
+     * @throws CacheException in case of problem when creating the cache
+     */
+    public static <T> Cache<T> create(CacheManager cacheManager, ChangeRequestConfiguration configuration,
+        ChangeRequestCacheMetrics metrics, String cacheName, int defaultSize) throws CacheException
+    {
+        String configurationId = CONFIGURATION_PREFIX + cacheName;
+        int size = configuration.getCacheSize(cacheName, defaultSize);
+        LRUCacheConfiguration cacheConfiguration = (size > 0)
+            ? new LRUCacheConfiguration(configurationId, size) : new LRUCacheConfiguration(configurationId);
+        int lifespan = configuration.getCacheLifespan(cacheName);
+        if (lifespan > 0) {
+            cacheConfiguration.getLRUEvictionConfiguration().setLifespan(lifespan);
+        }
+        CacheStatistics statistics = new CacheStatistics();
+        metrics.register(cacheName, statistics);
+        return new MonitoredCache<>(cacheManager.createNewCache(cacheConfiguration), statistics);
+    }
+
+    @Override
+    public void set(String key, T value)
+    {
+        this.cache.set(key, value);
+    }
+
+    @Override
+    public T get(String key)
+    {
+        T result = this.cache.get(key);
+        if (result == null) {
+            this.statistics.recordMiss();
+        } else {
+            this.statistics.recordHit();
+        }
+        return result;
+    }
+
+    @Override
+    public void remove(String key)
+    {
+        this.explicitRemoval.set(Boolean.TRUE);
+        try {
+            this.cache.remove(key);
+        } finally {
+            this.explicitRemoval.set(Boolean.FALSE);
+        }
+    }
+
+    @Override
+    public void removeAll()
+    {
+        this.explicitRemoval.set(Boolean.TRUE);
+        try {
+            this.cache.removeAll();
+        } finally {
+            this.explicitRemoval.set(Boolean.FALSE);
+        }
+    }
+
+    @Override
+    public void addCacheEntryListener(CacheEntryListener<T> listener)
+    {
+        this.cache.addCacheEntryListener(listener);
+    }
+
+    @Override
+    public void removeCacheEntryListener(CacheEntryListener<T> listener)
+    {
+        this.cache.removeCacheEntryListener(listener);
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.cache.dispose();
+        this.explicitRemoval.remove();
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.changerequest.ChangeRequest;
+import org.xwiki.contrib.changerequest.FileChange;
+import org.xwiki.environment.Environment;
+
+/**
+ * Persistent storage of the rendered diffs, used as a second level for {@link DiffCacheManager}: the diffs are kept in
+ * the permanent directory so that they survive the eviction of the memory cache and restarts.
+ * A diff is stored for a file change identifier and the hint of the component used to render it, and is kept until
+ * the file change or the configuration is updated.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@Component(roles = RenderedDiffStore.class)
+@Singleton
+public class RenderedDiffStore
+{
+    private static final String STORE_DIRECTORY = "changerequest/diffs";
+
+    private static final String DEFAULT_HINT = "default";
+
+    private static final String EXTENSION = ".html";
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Retrieve the stored diff for the given file change.
+     *
+     * @param fileChange the file change for which to retrieve the rendered diff
+     * @param renderingHint the hint of the component used to render the diff
+     * @return an {@link Optional#empty()} if no diff is stored, else the stored rendered diff
+     */
+    public Optional<String> get(FileChange fileChange, String renderingHint)
+    {
+        Optional<String> result = Optional.empty();
+        if (fileChange.getId() != null) {
+            Path diffFile = getDiffFile(fileChange, renderingHint);
+            try {
+                result = Optional.of(Files.readString(diffFile, StandardCharsets.UTF_8));
+            } catch (NoSuchFileException e) {
+                // Nothing stored yet.
+            } catch (IOException e) {
+                this.logger.warn("Error while reading the stored diff [{}]: [{}]", diffFile,
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Store the rendered diff of the given file change. Nothing is stored if the file change is not saved yet.
+     *
+     * @param fileChange the file change for which the diff has been computed
+     * @param renderingHint the hint of the component used to render the diff
+     * @param renderedDiff the computed diff
+     */
+    public void store(FileChange fileChange, String renderingHint, String renderedDiff)
+    {
+        if (fileChange.getId() != null) {
+            Path diffFile = getDiffFile(fileChange, renderingHint);
+            try {
+                Files.createDirectories(diffFile.getParent());
+                // Write first in a temporary file so that a concurrent read never sees a partial diff.
+                Path temporaryFile = Files.createTempFile(diffFile.getParent(), null, null);
+                Files.writeString(temporaryFile, renderedDiff, StandardCharsets.UTF_8);
+                Files.move(temporaryFile, diffFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                this.logger.warn("Error while storing the diff [{}]: [{}]", diffFile,
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+
+    /**
+     * Remove the stored diffs of the given file change, whatever the component used to render them.
+     *
+     * @param fileChange the file change for which the stored diffs should be removed
+     */
+    public void invalidate(FileChange fileChange)
+    {
+        if (fileChange.getId() != null) {
+            delete(getChangeRequestDirectory(getWiki(fileChange), fileChange.getChangeRequest().getId())
+                .resolve(encode(fileChange.getId())).toFile());
+        }
+    }
+
+    /**
+     * Remove all stored diffs of the given change request.
+     *
+     * @param changeRequest the change request for which the stored diffs should be removed
+     */
+    public void invalidate(ChangeRequest changeRequest)
+    {
+        Set<String> wikis = changeRequest.getAllFileChanges().stream()
+            .map(this::getWiki)
+            .collect(Collectors.toSet());
+        for (String wiki : wikis) {
+            delete(getChangeRequestDirectory(wiki, changeRequest.getId()).toFile());
+        }
+    }
+
+    /**
+     * Remove all stored diffs.
+     */
+    public void invalidateAll()
+    {
+        delete(getStoreDirectory().toFile());
+    }
+
+    private void delete(File directory)
+    {
+        try {
+            FileUtils.deleteDirectory(directory);
+        } catch (IOException e) {
+            this.logger.warn("Error while deleting the stored diffs [{}]: [{}]", directory,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private String getWiki(FileChange fileChange)
+    {
+        return fileChange.getTargetEntity().getWikiReference().getName();
+    }
+
+    private Path getStoreDirectory()
+    {
+        return this.environment.getPermanentDirectory().toPath().resolve(STORE_DIRECTORY);
+    }
+
+    private Path getChangeRequestDirectory(String wiki, String changeRequestId)
+    {
+        return getStoreDirectory().resolve(encode(wiki)).resolve(encode(changeRequestId));
+    }
+
+    private Path getDiffFile(FileChange fileChange, String renderingHint)
+    {
+        return getChangeRequestDirectory(getWiki(fileChange), fileChange.getChangeRequest().getId())
+            .resolve(encode(fileChange.getId()))
+            .resolve(encode(StringUtils.defaultIfBlank(renderingHint, DEFAULT_HINT)) + EXTENSION);
+    }
+
+    private String encode(String pathElement)
+    {
+        return URLEncoder.encode(pathElement, StandardCharsets.UTF_8);
+    }
+}
@@ -19,7 +19,11 @@
  */
 package org.xwiki.contrib.changerequest.internal.diff;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -37,12 +41,23 @@ import org.xwiki.contrib.changerequest.ChangeRequestException;
 import org.xwiki.contrib.changerequest.FileChange;
 import org.xwiki.contrib.changerequest.diff.ChangeRequestDiffManager;
 import org.xwiki.contrib.changerequest.diff.ChangeRequestDiffRenderContent;
+import org.xwiki.contrib.changerequest.internal.cache.ChangeRequestCacheMetrics;
 import org.xwiki.contrib.changerequest.internal.cache.DiffCacheManager;
+import org.xwiki.contrib.changerequest.internal.cache.RenderedDiffStore;
 import org.xwiki.contrib.changerequest.storage.FileChangeStorageManager;
 import org.xwiki.diff.DiffException;
 import org.xwiki.diff.xml.XMLDiffConfiguration;
 import org.xwiki.diff.xml.XMLDiffManager;
+import org.xwiki.model.reference.AttachmentReference;
+import org.xwiki.model.reference.AttachmentReferenceResolver;
 import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.ImageBlock;
+import org.xwiki.rendering.block.LinkBlock;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
 import org.xwiki.store.TemporaryAttachmentException;
 import org.xwiki.store.TemporaryAttachmentSessionsManager;
 
@@ -78,6 +93,16 @@ public class DefaultChangeRequestDiffManager implements ChangeRequestDiffManager
     @Inject
     private DiffCacheManager diffCacheManager;
 
+    @Inject
+    private RenderedDiffStore renderedDiffStore;
+
+    @Inject
+    @Named("current")
+    private AttachmentReferenceResolver<String> attachmentReferenceResolver;
+
+    @Inject
+    private ChangeRequestCacheMetrics cacheMetrics;
+
     @Inject
     @Named("context")
     private ComponentManager componentManager;
@@ -95,14 +120,18 @@ public class DefaultChangeRequestDiffManager implements ChangeRequestDiffManager
     public String getHtmlDiff(FileChange fileChange) throws ChangeRequestException
     {
         String result = "";
+        String renderingHint = this.changeRequestConfiguration.getRenderedDiffComponent();
         Optional<String> renderedDiff = this.diffCacheManager.getRenderedDiff(fileChange);
+        if (renderedDiff.isEmpty()) {
+            // Fallback on the persisted diffs, which survive the eviction of the memory cache.
+            renderedDiff = this.renderedDiffStore.get(fileChange, renderingHint);
+            renderedDiff.ifPresent(diff -> this.diffCacheManager.setRenderedDiff(fileChange, diff));
+        }
         if (renderedDiff.isPresent()) {
-            if (fileChange.getType() == FileChange.FileChangeType.EDITION) {
-                this.handleAttachments((XWikiDocument)
-                    this.fileChangeStorageManager.getModifiedDocumentFromFileChange(fileChange));
-            }
+            // The attachments are only needed when rendering the diff, since the rendered diff embeds the images.
             result = renderedDiff.get();
         } else {
+            long start = System.nanoTime();
             XWikiDocument modifiedDoc;
             Optional<DocumentModelBridge> previousDocumentFromFileChange;
             XWikiDocument previousDoc;
@@ -116,7 +145,9 @@ public class DefaultChangeRequestDiffManager implements ChangeRequestDiffManager
                         result = null;
                     } else {
                         previousDoc = (XWikiDocument) previousDocumentFromFileChange.get();
-                        this.handleAttachments(modifiedDoc);
+                        // Only the attachments referenced by the content need to be available for the rendering:
+                        // we avoid copying all attachments of the document.
+                        this.handleAttachments(modifiedDoc, this.getReferencedAttachments(modifiedDoc));
                         result = this.getHtmlDiff(previousDoc, modifiedDoc, fileChange);
                         this.temporaryAttachmentSessionsManagerProvider.get()
                             .removeUploadedAttachments(modifiedDoc.getDocumentReference());
@@ -147,6 +178,8 @@ public class DefaultChangeRequestDiffManager implements ChangeRequestDiffManager
             }
             if (result != null) {
                 this.diffCacheManager.setRenderedDiff(fileChange, result);
+                this.renderedDiffStore.store(fileChange, renderingHint, result);
+                this.cacheMetrics.recordLoadTime(DiffCacheManager.CACHE_NAME, System.nanoTime() - start);
             }
         }
         return result;
@@ -163,12 +196,66 @@ public class DefaultChangeRequestDiffManager implements ChangeRequestDiffManager
         }
     }
 
-    private void handleAttachments(XWikiDocument modifiedDoc)
+    private List<XWikiAttachment> getReferencedAttachments(XWikiDocument modifiedDoc)
+    {
+        List<XWikiAttachment> result = new ArrayList<>();
+        XDOM xdom = (modifiedDoc.getAttachmentList().isEmpty()) ? null : modifiedDoc.getXDOM();
+        if (xdom != null) {
+            DocumentReference documentReference = modifiedDoc.getDocumentReference();
+            Set<String> referencedNames = new HashSet<>();
+            List<String> macroContents = new ArrayList<>();
+            List<Block> blocks = xdom.getBlocks(block -> block instanceof ImageBlock || block instanceof LinkBlock
+                || block instanceof MacroBlock, Block.Axes.DESCENDANT);
+            for (Block block : blocks) {
+                if (block instanceof MacroBlock) {
+                    // Macros are not expanded in the XDOM: any of their parameters might be a reference to an
+                    // attachment (e.g. the image macro) and their content might contain some (e.g. the gallery macro).
+                    MacroBlock macroBlock = (MacroBlock) block;
+                    for (String parameter : macroBlock.getParameters().values()) {
+                        this.addReferencedAttachmentName(parameter, documentReference, referencedNames);
+                    }
+                    if (macroBlock.getContent() != null) {
+                        macroContents.add(macroBlock.getContent());
+                    }
+                } else {
+                    ResourceReference reference = (block instanceof ImageBlock)
+                        ? ((ImageBlock) block).getReference() : ((LinkBlock) block).getReference();
+                    if (ResourceType.ATTACHMENT.equals(reference.getType())) {
+                        this.addReferencedAttachmentName(reference.getReference(), documentReference,
+                            referencedNames);
+                    }
+                }
+            }
+            for (XWikiAttachment attachment : modifiedDoc.getAttachmentList()) {
+                String filename = attachment.getFilename();
+                if (referencedNames.contains(filename)
+                    || macroContents.stream().anyMatch(content -> content.contains(filename))) {
+                    result.add(attachment);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void addReferencedAttachmentName(String reference, DocumentReference documentReference,
+        Set<String> referencedNames)
+    {
+        if (reference != null) {
+            AttachmentReference attachmentReference =
+                this.attachmentReferenceResolver.resolve(reference, documentReference);
+            if (attachmentReference != null
+                && documentReference.equals(attachmentReference.getDocumentReference())) {
+                referencedNames.add(attachmentReference.getName());
+            }
+        }
+    }
+
+    private void handleAttachments(XWikiDocument modifiedDoc, List<XWikiAttachment> attachments)
     {
         TemporaryAttachmentSessionsManager temporaryAttachmentSessionsManager =
             this.temporaryAttachmentSessionsManagerProvider.get();
         DocumentReference reference = modifiedDoc.getDocumentReference();
-        for (XWikiAttachment attachment : modifiedDoc.getAttachmentList()) {
+        for (XWikiAttachment attachment : attachments) {
             XWikiAttachment clonedAttachment = attachment.clone();
             // Ensure to not delete the file related to the attachment when it's removed from temporary attachments
             clonedAttachment.getAttachment_content().setContentDirty(false);
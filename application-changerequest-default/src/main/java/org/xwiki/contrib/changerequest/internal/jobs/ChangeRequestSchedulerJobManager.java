@@ -19,9 +19,11 @@
  */
 package org.xwiki.contrib.changerequest.internal.jobs;
 
-import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -76,6 +78,26 @@ public class ChangeRequestSchedulerJobManager
     @Inject
     private Logger logger;
 
+    /**
+     * Supplier of the pages of identifiers of change requests to process.
+     */
+    @FunctionalInterface
+    private interface ChangeRequestIdsPageSupplier
+    {
+        List<String> getPage(int offset, int limit) throws ChangeRequestException;
+    }
+
+    /**
+     * Processor of a change request identifier: it loads the change request data it needs and returns {@code true} if
+     * the change request doesn't match anymore the query of the {@link ChangeRequestIdsPageSupplier} after being
+     * processed.
+     */
+    @FunctionalInterface
+    private interface ChangeRequestProcessor
+    {
+        boolean process(String changeRequestId) throws ChangeRequestException;
+    }
+
     /**
      * Automatically close the stale change requests when needed.
      */
@@ -85,21 +107,18 @@ public class ChangeRequestSchedulerJobManager
         long durationForNotifying = this.configuration.getStaleChangeRequestDurationForNotifying();
 
         if (durationForClosing > 0) {
+            Date limitDate = getLimitDate(durationForClosing);
+            ChangeRequestIdsPageSupplier pageSupplier;
+            if (durationForNotifying > 0) {
+                pageSupplier = (offset, limit) ->
+                    this.changeRequestStorageManager.findChangeRequestIdsStaledBefore(limitDate, offset, limit);
+            } else {
+                boolean useCreationDate = this.configuration.useCreationDateForStaleDurations();
+                pageSupplier = (offset, limit) -> this.changeRequestStorageManager
+                    .findOpenChangeRequestIdsByDate(limitDate, useCreationDate, offset, limit);
+            }
             try {
-                List<ChangeRequest> changeRequests;
-                if (durationForNotifying > 0) {
-                    Date limitDate = getLimitDate(durationForClosing);
-                    changeRequests = this.changeRequestStorageManager.findChangeRequestsStaledBefore(limitDate);
-                } else {
-                    changeRequests = this.retrieveStaleChangeRequests(durationForClosing);
-                }
-
-                if (!changeRequests.isEmpty()) {
-                    this.setContextUser();
-                    for (ChangeRequest changeRequest : changeRequests) {
-                        this.changeRequestManager.updateStatus(changeRequest, ChangeRequestStatus.STALE);
-                    }
-                }
+                this.processChangeRequests(pageSupplier, this::closeChangeRequest);
             } catch (ChangeRequestException e) {
                 this.logger.error("Error while trying to close stale change requests.", e);
             }
@@ -112,20 +131,67 @@ public class ChangeRequestSchedulerJobManager
     public void notifyStaleChangeRequests()
     {
         long durationLimit = this.configuration.getStaleChangeRequestDurationForNotifying();
-        List<ChangeRequest> changeRequests = null;
-        try {
-            changeRequests = this.retrieveStaleChangeRequests(durationLimit);
-        } catch (ChangeRequestException e) {
-            this.logger.error("Error while retrieving stale change requests.", e);
-            changeRequests = Collections.emptyList();
+        if (durationLimit > 0) {
+            Date limitDate = getLimitDate(durationLimit);
+            boolean useCreationDate = this.configuration.useCreationDateForStaleDurations();
+            try {
+                this.processChangeRequests((offset, limit) -> this.changeRequestStorageManager
+                        .findNotStaledChangeRequestIdsByDate(limitDate, useCreationDate, offset, limit),
+                    this::handleChangeRequestNotification);
+            } catch (ChangeRequestException e) {
+                this.logger.error("Error while retrieving stale change requests.", e);
+            }
         }
+    }
+
+    /**
+     * Process the change requests page by page, so that only one change request is loaded at a time.
+     * The processed change requests are expected to not match the query anymore: so the offset of the next page only
+     * needs to take into account the change requests that couldn't be processed. Since this expectation might not
+     * hold, e.g. if the storage is not updated yet, the processed identifiers are tracked: a change request returned
+     * again is skipped instead of being processed again, so that the offset always moves forward and the processing
+     * ends.
+     */
+    private void processChangeRequests(ChangeRequestIdsPageSupplier pageSupplier, ChangeRequestProcessor processor)
+        throws ChangeRequestException
+    {
+        int pageSize = Math.max(1, this.configuration.getSchedulerJobPageSize());
+        int skipped = 0;
+        boolean contextUserSet = false;
+        Set<String> processedIds = new HashSet<>();
+        List<String> changeRequestIds;
+        do {
+            changeRequestIds = pageSupplier.getPage(skipped, pageSize);
+            if (!contextUserSet && !changeRequestIds.isEmpty()) {
+                this.setContextUser();
+                contextUserSet = true;
+            }
+            for (String changeRequestId : changeRequestIds) {
+                if (processedIds.add(changeRequestId)) {
+                    if (!processor.process(changeRequestId)) {
+                        skipped++;
+                    }
+                } else {
+                    skipped++;
+                }
+            }
+        } while (changeRequestIds.size() == pageSize);
+    }
 
-        if (!changeRequests.isEmpty()) {
-            this.setContextUser();
-            for (ChangeRequest changeRequest : changeRequests) {
-                this.handleChangeRequestNotification(changeRequest);
+    private boolean closeChangeRequest(String changeRequestId) throws ChangeRequestException
+    {
+        boolean result = false;
+        // The full change request is needed since it's saved when its status is updated.
+        Optional<ChangeRequest> changeRequest = this.changeRequestStorageManager.load(changeRequestId);
+        if (changeRequest.isPresent()) {
+            try {
+                this.changeRequestManager.updateStatus(changeRequest.get(), ChangeRequestStatus.STALE);
+                result = true;
+            } catch (ChangeRequestException e) {
+                this.logger.error("Error while trying to close stale change request [{}].", changeRequestId, e);
             }
         }
+        return result;
     }
 
     private void setContextUser()
@@ -139,17 +205,22 @@ public class ChangeRequestSchedulerJobManager
         }
     }
 
-    private void handleChangeRequestNotification(ChangeRequest changeRequest)
+    private boolean handleChangeRequestNotification(String changeRequestId) throws ChangeRequestException
     {
-        if (changeRequest.getStaleDate() == null) {
+        boolean result = false;
+        // Only the stale date is needed, and it's saved without saving the change request.
+        ChangeRequest changeRequest = this.changeRequestStorageManager.loadMetadata(changeRequestId).orElse(null);
+        if (changeRequest != null && changeRequest.getStaleDate() == null) {
             this.observationManager.notify(new StaleChangeRequestEvent(), changeRequest.getId(), changeRequest);
             changeRequest.setStaleDate(new Date());
             try {
                 this.changeRequestStorageManager.saveStaleDate(changeRequest);
+                result = true;
             } catch (ChangeRequestException e) {
                 this.logger.error("Error while saving the change request stale date", e);
             }
         }
+        return result;
     }
 
     private Date getLimitDate(long durationLimit)
@@ -157,15 +228,4 @@ public class ChangeRequestSchedulerJobManager
         Date now = new Date();
         return Date.from(now.toInstant().minus(durationLimit, this.configuration.getDurationUnit()));
     }
-
-    private List<ChangeRequest> retrieveStaleChangeRequests(long durationLimit) throws ChangeRequestException
-    {
-        if (durationLimit > 0) {
-            boolean useCreationDate = this.configuration.useCreationDateForStaleDurations();
-            return this.changeRequestStorageManager
-                .findOpenChangeRequestsByDate(getLimitDate(durationLimit), useCreationDate);
-        } else {
-            return Collections.emptyList();
-        }
-    }
 }
@@ -23,18 +23,14 @@ import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.xwiki.component.annotation.Component;
-import org.xwiki.contrib.changerequest.ChangeRequestException;
-import org.xwiki.contrib.changerequest.DelegateApproverManager;
-import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.refactoring.internal.job.AbstractEntityJob;
 import org.xwiki.refactoring.job.EntityJobStatus;
-import org.xwiki.user.UserReference;
-import org.xwiki.user.UserReferenceResolver;
 
 /**
  * Job implementation for the computation of delegate approvers based on XWikiUsers fields.
- * This job is only a proxy to {@link DelegateApproverManager#computeDelegates(UserReference)}.
+ * This job is only a proxy to {@link DelegateApproversComputationManager}, which processes the users by parallel
+ * batches.
  *
  * @version $Id$
  * @since 0.13
@@ -45,24 +41,21 @@ public class DelegateApproversComputationJob extends
     AbstractEntityJob<DelegateApproversComputationRequest, EntityJobStatus<DelegateApproversComputationRequest>>
 {
     @Inject
-    @Named("document")
-    private UserReferenceResolver<DocumentReference> documentReferenceUserReferenceResolver;
+    private DelegateApproversComputationManager computationManager;
 
-    @Inject
-    private DelegateApproverManager<DocumentReference> delegateApproverManager;
+    @Override
+    protected void runInternal() throws Exception
+    {
+        if (!this.computationManager.computeDelegates(getRequest(), this.status::isCanceled)) {
+            this.logger.warn("The computation of delegate approvers has been stopped before the end: "
+                + "it will be resumed on next startup.");
+        }
+    }
 
     @Override
     protected void process(EntityReference entityReference)
     {
-        if (entityReference instanceof DocumentReference) {
-            UserReference userReference =
-                this.documentReferenceUserReferenceResolver.resolve((DocumentReference) entityReference);
-            try {
-                this.delegateApproverManager.computeDelegates(userReference);
-            } catch (ChangeRequestException e) {
-                this.logger.error("Error while computing delegate for [{}]", userReference, e);
-            }
-        }
+        // Never called: the entities are all processed by the computation manager in runInternal.
     }
 
     @Override
@@ -0,0 +1,307 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.jobs;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.contrib.changerequest.ChangeRequestException;
+import org.xwiki.contrib.changerequest.DelegateApproverManager;
+import org.xwiki.environment.Environment;
+import org.xwiki.job.event.status.JobProgressManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.user.UserReference;
+import org.xwiki.user.UserReferenceResolver;
+
+import com.xpn.xwiki.XWikiContext;
+
+/**
+ * Component in charge of the global computation of delegate approvers performed by
+ * {@link DelegateApproversComputationJob}.
+ * The users are processed by batches whose users are computed in parallel. The users remaining to be processed are
+ * stored in the permanent directory after each batch, in a file dedicated to the computation together with the user on
+ * behalf of whom it's performed, so that a computation interrupted, e.g. by a restart, can be resumed from the last
+ * processed batch with {@link #getPendingComputations()}.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@Component(roles = DelegateApproversComputationManager.class)
+@Singleton
+public class DelegateApproversComputationManager
+{
+    static final int BATCH_SIZE = 100;
+
+    private static final int THREAD_NUMBER = 4;
+
+    private static final String PENDING_COMPUTATIONS_DIRECTORY = "changerequest/delegateComputation";
+
+    private static final String PENDING_USERS_FILE_EXTENSION = ".txt";
+
+    @Inject
+    private DelegateApproverManager<DocumentReference> delegateApproverManager;
+
+    @Inject
+    @Named("document")
+    private UserReferenceResolver<DocumentReference> documentReferenceUserReferenceResolver;
+
+    @Inject
+    private EntityReferenceSerializer<String> entityReferenceSerializer;
+
+    @Inject
+    private DocumentReferenceResolver<String> documentReferenceResolver;
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private JobProgressManager progressManager;
+
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Compute the delegate approvers of the users of the given request.
+     *
+     * @param request the request containing the references of the documents of the users for which to compute the
+     *     delegates, the identifier of the computation and the user on behalf of whom the delegates are computed:
+     *     the current user is used if it's not set
+     * @param canceled supplier used between each batch to know if the computation should be stopped
+     * @return {@code true} if the delegates of all users have been computed, {@code false} if the computation has been
+     *     stopped before the end: it's then returned by {@link #getPendingComputations()}
+     */
+    public boolean computeDelegates(DelegateApproversComputationRequest request, BooleanSupplier canceled)
+    {
+        boolean result = true;
+        List<DocumentReference> users = new ArrayList<>();
+        for (EntityReference entityReference : request.getEntityReferences()) {
+            if (entityReference instanceof DocumentReference) {
+                users.add((DocumentReference) entityReference);
+            }
+        }
+        String computationId = StringUtils.defaultIfEmpty(request.getComputationId(), UUID.randomUUID().toString());
+        DocumentReference author = request.getAuthor();
+        if (author == null) {
+            author = this.contextProvider.get().getUserReference();
+        }
+        Path pendingUsersFile = this.getPendingUsersFile(computationId);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_NUMBER, new BasicThreadFactory.Builder()
+            .namingPattern("ChangeRequest delegate approvers computation-%d")
+            .daemon(true)
+            .build());
+        int batchNumber = (users.size() + BATCH_SIZE - 1) / BATCH_SIZE;
+        this.progressManager.pushLevelProgress(batchNumber, this);
+        try {
+            this.savePendingUsers(pendingUsersFile, author, users);
+            for (int start = 0; start < users.size() && result; start += BATCH_SIZE) {
+                if (canceled.getAsBoolean()) {
+                    result = false;
+                } else {
+                    this.progressManager.startStep(this);
+                    int end = Math.min(start + BATCH_SIZE, users.size());
+                    this.computeBatch(executor, users.subList(start, end), author);
+                    this.savePendingUsers(pendingUsersFile, author, users.subList(end, users.size()));
+                    this.logger.info("Delegate approvers computed for [{}] users out of [{}].", end, users.size());
+                    this.progressManager.endStep(this);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = false;
+        } finally {
+            executor.shutdownNow();
+            this.progressManager.popLevelProgress(this);
+        }
+        if (result) {
+            this.clearPendingUsers(pendingUsersFile);
+        }
+        return result;
+    }
+
+    /**
+     * Retrieve the computations which have been interrupted.
+     *
+     * @return the requests to use to resume the interrupted computations, with the users remaining to be processed,
+     *     or an empty list if there's no interrupted computation
+     */
+    public List<DelegateApproversComputationRequest> getPendingComputations()
+    {
+        List<DelegateApproversComputationRequest> result = new ArrayList<>();
+        Path pendingComputationsDirectory = this.getPendingComputationsDirectory();
+        if (Files.isDirectory(pendingComputationsDirectory)) {
+            try (Stream<Path> files = Files.list(pendingComputationsDirectory)) {
+                for (Path file : files.sorted().collect(Collectors.toList())) {
+                    String fileName = file.getFileName().toString();
+                    if (fileName.endsWith(PENDING_USERS_FILE_EXTENSION)) {
+                        this.loadPendingComputation(file, StringUtils.removeEnd(fileName,
+                            PENDING_USERS_FILE_EXTENSION)).ifPresent(result::add);
+                    }
+                }
+            } catch (IOException e) {
+                this.logger.warn("Error while listing the pending computations of delegates: [{}]",
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+        return result;
+    }
+
+    private Optional<DelegateApproversComputationRequest> loadPendingComputation(Path file, String computationId)
+    {
+        Optional<DelegateApproversComputationRequest> result = Optional.empty();
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            // The first line contains the user on behalf of whom the computation is performed.
+            if (lines.size() > 1) {
+                DelegateApproversComputationRequest request = new DelegateApproversComputationRequest();
+                request.setComputationId(computationId);
+                if (!StringUtils.isEmpty(lines.get(0))) {
+                    request.setAuthor(this.documentReferenceResolver.resolve(lines.get(0)));
+                }
+                request.setEntityReferences(lines.subList(1, lines.size()).stream()
+                    .map(this.documentReferenceResolver::resolve)
+                    .collect(Collectors.toList()));
+                request.setDeep(false);
+                request.setInteractive(false);
+                result = Optional.of(request);
+            } else {
+                // All users have been processed: only the cleanup of the file was missing.
+                this.clearPendingUsers(file);
+            }
+        } catch (IOException e) {
+            this.logger.warn("Error while reading the users pending for delegate computation: [{}]",
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+        return result;
+    }
+
+    private void computeBatch(ExecutorService executor, List<DocumentReference> batch, DocumentReference author)
+        throws InterruptedException
+    {
+        List<Callable<Void>> tasks = new ArrayList<>(batch.size());
+        for (DocumentReference user : batch) {
+            tasks.add(() -> {
+                this.computeDelegates(user, author);
+                return null;
+            });
+        }
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                this.logger.error("Unexpected error while computing delegate approvers", e.getCause());
+            }
+        }
+    }
+
+    private void computeDelegates(DocumentReference user, DocumentReference author)
+    {
+        UserReference userReference = this.documentReferenceUserReferenceResolver.resolve(user);
+        try {
+            this.executionContextManager.initialize(new ExecutionContext());
+            XWikiContext context = this.contextProvider.get();
+            context.setWikiReference(user.getWikiReference());
+            context.setUserReference(author);
+            this.delegateApproverManager.computeDelegates(userReference);
+        } catch (ExecutionContextException | ChangeRequestException e) {
+            this.logger.error("Error while computing delegate for [{}]", userReference, e);
+        } finally {
+            this.execution.removeContext();
+        }
+    }
+
+    private void savePendingUsers(Path pendingUsersFile, DocumentReference author, List<DocumentReference> users)
+    {
+        List<String> lines = new ArrayList<>(users.size() + 1);
+        lines.add((author != null) ? this.entityReferenceSerializer.serialize(author) : "");
+        users.forEach(user -> lines.add(this.entityReferenceSerializer.serialize(user)));
+        try {
+            Files.createDirectories(pendingUsersFile.getParent());
+            // Write in a temporary file first, to never leave a partially written file if interrupted.
+            Path temporaryFile = Files.createTempFile(pendingUsersFile.getParent(), null, null);
+            Files.write(temporaryFile, lines, StandardCharsets.UTF_8);
+            Files.move(temporaryFile, pendingUsersFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            this.logger.warn("Error while storing the users pending for delegate computation: [{}]",
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private void clearPendingUsers(Path pendingUsersFile)
+    {
+        try {
+            Files.deleteIfExists(pendingUsersFile);
+        } catch (IOException e) {
+            this.logger.warn("Error while removing the users pending for delegate computation: [{}]",
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private Path getPendingComputationsDirectory()
+    {
+        return this.environment.getPermanentDirectory().toPath().resolve(PENDING_COMPUTATIONS_DIRECTORY);
+    }
+
+    private Path getPendingUsersFile(String computationId)
+    {
+        return this.getPendingComputationsDirectory().resolve(computationId + PENDING_USERS_FILE_EXTENSION);
+    }
+}
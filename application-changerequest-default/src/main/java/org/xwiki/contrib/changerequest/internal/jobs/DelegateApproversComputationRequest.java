@@ -19,6 +19,7 @@
  */
 package org.xwiki.contrib.changerequest.internal.jobs;
 
+import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.refactoring.job.EntityRequest;
 
 /**
@@ -33,4 +34,45 @@ public class DelegateApproversComputationRequest extends EntityRequest
      * Default type for those jobs.
      */
     public static final String DELEGATE_APPROVERS_COMPUTATION_JOB = "changerequest/delegateComputation";
+
+    private static final String COMPUTATION_ID_PROPERTY = "computationId";
+
+    private static final String AUTHOR_PROPERTY = "author";
+
+    /**
+     * @return the identifier of the computation, used to resume it if it's interrupted, or {@code null} if it's not
+     *         set
+     * @since 1.20
+     */
+    public String getComputationId()
+    {
+        return getProperty(COMPUTATION_ID_PROPERTY);
+    }
+
+    /**
+     * @param computationId the identifier of the computation, used to resume it if it's interrupted
+     * @since 1.20
+     */
+    public void setComputationId(String computationId)
+    {
+        setProperty(COMPUTATION_ID_PROPERTY, computationId);
+    }
+
+    /**
+     * @return the reference of the user on behalf of whom the delegates are computed, or {@code null} if it's not set
+     * @since 1.20
+     */
+    public DocumentReference getAuthor()
+    {
+        return getProperty(AUTHOR_PROPERTY);
+    }
+
+    /**
+     * @param author the reference of the user on behalf of whom the delegates are computed
+     * @since 1.20
+     */
+    public void setAuthor(DocumentReference author)
+    {
+        setProperty(AUTHOR_PROPERTY, author);
+    }
 }
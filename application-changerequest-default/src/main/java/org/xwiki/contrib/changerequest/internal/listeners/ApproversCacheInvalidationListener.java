@@ -0,0 +1,100 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.listeners;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.changerequest.internal.approvers.ApproversXClassInitializer;
+import org.xwiki.contrib.changerequest.internal.cache.ApproversCacheManager;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.model.reference.RegexEntityReference;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.event.XObjectAddedEvent;
+import com.xpn.xwiki.internal.event.XObjectDeletedEvent;
+import com.xpn.xwiki.internal.event.XObjectUpdatedEvent;
+import com.xpn.xwiki.objects.BaseObjectReference;
+
+/**
+ * Listener whose role is to properly invalidate entries of {@link ApproversCacheManager}: the entry of a document is
+ * invalidated when its approvers are modified, and all entries are invalidated when the members of a group are
+ * modified since groups can be nested.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@Component
+@Named(ApproversCacheInvalidationListener.NAME)
+@Singleton
+public class ApproversCacheInvalidationListener extends AbstractEventListener
+{
+    static final String NAME = "org.xwiki.contrib.changerequest.internal.listeners.ApproversCacheInvalidationListener";
+
+    static final RegexEntityReference APPROVERS_REFERENCE =
+        BaseObjectReference.any(ApproversXClassInitializer.APPROVERS_XCLASS.toString());
+
+    static final LocalDocumentReference GROUPS_XCLASS = new LocalDocumentReference("XWiki", "XWikiGroups");
+
+    static final RegexEntityReference GROUPS_REFERENCE = BaseObjectReference.any(GROUPS_XCLASS.toString());
+
+    private static final List<Event> EVENT_LIST = List.of(
+        new XObjectAddedEvent(APPROVERS_REFERENCE),
+        new XObjectUpdatedEvent(APPROVERS_REFERENCE),
+        new XObjectDeletedEvent(APPROVERS_REFERENCE),
+        new XObjectAddedEvent(GROUPS_REFERENCE),
+        new XObjectUpdatedEvent(GROUPS_REFERENCE),
+        new XObjectDeletedEvent(GROUPS_REFERENCE)
+    );
+
+    @Inject
+    private Provider<ApproversCacheManager> approversCacheManagerProvider;
+
+    /**
+     * Default constructor.
+     */
+    public ApproversCacheInvalidationListener()
+    {
+        super(NAME, EVENT_LIST);
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        XWikiDocument document = (XWikiDocument) source;
+        if (isGroup(document) || isGroup(document.getOriginalDocument())) {
+            this.approversCacheManagerProvider.get().invalidateAll();
+        } else {
+            this.approversCacheManagerProvider.get().invalidate(document.getDocumentReference());
+        }
+    }
+
+    private boolean isGroup(XWikiDocument document)
+    {
+        return document != null && document.getXObject(GROUPS_XCLASS) != null;
+    }
+}
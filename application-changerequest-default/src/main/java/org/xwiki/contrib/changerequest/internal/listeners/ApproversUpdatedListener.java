@@ -161,7 +161,7 @@ public class ApproversUpdatedListener extends AbstractLocalEventListener
     private void computeStatus(ChangeRequest changeRequest)
     {
         try {
-            this.changeRequestManagerProvider.get().computeReadyForMergingStatus(changeRequest);
+            this.changeRequestManagerProvider.get().computeReadyForMergingStatusAfterApprovalUpdate(changeRequest);
         } catch (ChangeRequestException e) {
             this.logger.error("Error while computing ready for merging status of [{}]", changeRequest, e);
         }
@@ -208,7 +208,9 @@ public class ApproversUpdatedListener extends AbstractLocalEventListener
             review.setValid(false);
             review.setSaved(false);
             review.setReviewInvalidationReason(ReviewInvalidationReason.UPDATED_APPROVERS);
-            this.reviewStorageManagerProvider.get().save(review);
+        }
+        if (!reviewsToInvalidate.isEmpty()) {
+            this.reviewStorageManagerProvider.get().saveAll(reviewsToInvalidate);
         }
     }
 
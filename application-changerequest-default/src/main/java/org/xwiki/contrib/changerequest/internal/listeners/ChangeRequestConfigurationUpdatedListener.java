@@ -22,6 +22,7 @@ package org.xwiki.contrib.changerequest.internal.listeners;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -35,6 +36,7 @@ import org.xwiki.contrib.changerequest.ChangeRequestConfiguration;
 import org.xwiki.contrib.changerequest.internal.ChangeRequestConfigurationSource;
 import org.xwiki.contrib.changerequest.internal.DefaultChangeRequestConfiguration;
 import org.xwiki.contrib.changerequest.internal.cache.DiffCacheManager;
+import org.xwiki.contrib.changerequest.internal.cache.RenderedDiffStore;
 import org.xwiki.contrib.changerequest.internal.jobs.DelegateApproversComputationRequest;
 import org.xwiki.job.JobException;
 import org.xwiki.job.JobExecutor;
@@ -48,6 +50,7 @@ import org.xwiki.query.Query;
 import org.xwiki.query.QueryException;
 import org.xwiki.query.QueryManager;
 
+import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.internal.event.XObjectUpdatedEvent;
 import com.xpn.xwiki.objects.BaseObject;
@@ -89,6 +92,12 @@ public class ChangeRequestConfigurationUpdatedListener extends AbstractLocalEven
     @Inject
     private Provider<DiffCacheManager> diffCacheManagerProvider;
 
+    @Inject
+    private Provider<RenderedDiffStore> renderedDiffStoreProvider;
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
     @Inject
     private Logger logger;
 
@@ -129,6 +138,7 @@ public class ChangeRequestConfigurationUpdatedListener extends AbstractLocalEven
         if (configurationDoc.getDocumentReference().getLocalDocumentReference()
             .equals(ChangeRequestConfigurationSource.DOC_REFERENCE)) {
             this.diffCacheManagerProvider.get().invalidateAll();
+            this.renderedDiffStoreProvider.get().invalidateAll();
         }
     }
 
@@ -137,6 +147,9 @@ public class ChangeRequestConfigurationUpdatedListener extends AbstractLocalEven
         if (!userList.isEmpty()) {
             DelegateApproversComputationRequest computationRequest = new DelegateApproversComputationRequest();
             computationRequest.setEntityReferences(userList);
+            // Store explicitly the author since it's needed to resume the computation after a restart.
+            computationRequest.setComputationId(UUID.randomUUID().toString());
+            computationRequest.setAuthor(this.contextProvider.get().getUserReference());
             computationRequest.setDeep(false);
             computationRequest.setInteractive(false);
             try {
@@ -0,0 +1,116 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.listeners;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.changerequest.ChangeRequestStatus;
+import org.xwiki.contrib.changerequest.internal.cache.ChangeRequestTargetIndexManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.RegexEntityReference;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.event.XObjectAddedEvent;
+import com.xpn.xwiki.internal.event.XObjectDeletedEvent;
+import com.xpn.xwiki.internal.event.XObjectUpdatedEvent;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseObjectReference;
+
+import static org.xwiki.contrib.changerequest.internal.storage.ChangeRequestXClassInitializer.CHANGED_DOCUMENTS_FIELD;
+import static org.xwiki.contrib.changerequest.internal.storage.ChangeRequestXClassInitializer.CHANGE_REQUEST_XCLASS;
+import static org.xwiki.contrib.changerequest.internal.storage.ChangeRequestXClassInitializer.STATUS_FIELD;
+
+/**
+ * Listener dedicated to keep the {@link ChangeRequestTargetIndexManager} up-to-date whenever a change request xobject
+ * is modified without using the storage manager, e.g. on another node of a cluster.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@Component
+@Singleton
+@Named(ChangeRequestTargetIndexListener.NAME)
+public class ChangeRequestTargetIndexListener extends AbstractEventListener
+{
+    static final String NAME = "org.xwiki.contrib.changerequest.internal.listeners.ChangeRequestTargetIndexListener";
+
+    static final RegexEntityReference REFERENCE =
+        BaseObjectReference.any(CHANGE_REQUEST_XCLASS.toString());
+
+    static final List<Event> EVENT_LIST = List.of(
+        new XObjectAddedEvent(REFERENCE),
+        new XObjectUpdatedEvent(REFERENCE),
+        new XObjectDeletedEvent(REFERENCE)
+    );
+
+    @Inject
+    @Named("changerequestid")
+    private Provider<EntityReferenceSerializer<String>> entityReferenceSerializerProvider;
+
+    @Inject
+    @Named("current")
+    private Provider<DocumentReferenceResolver<String>> documentReferenceResolverProvider;
+
+    @Inject
+    private Provider<ChangeRequestTargetIndexManager> targetIndexManagerProvider;
+
+    /**
+     * Default constructor.
+     */
+    public ChangeRequestTargetIndexListener()
+    {
+        super(NAME, EVENT_LIST);
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        XWikiDocument updatedDoc = (XWikiDocument) source;
+        WikiReference wikiReference = updatedDoc.getDocumentReference().getWikiReference();
+        String changeRequestId =
+            this.entityReferenceSerializerProvider.get().serialize(updatedDoc.getDocumentReference());
+        BaseObject xObject = updatedDoc.getXObject(CHANGE_REQUEST_XCLASS);
+
+        if (event instanceof XObjectDeletedEvent || xObject == null) {
+            this.targetIndexManagerProvider.get().remove(wikiReference, changeRequestId);
+        } else {
+            ChangeRequestStatus status =
+                ChangeRequestTargetIndexManager.getStatus(xObject.getStringValue(STATUS_FIELD));
+            DocumentReferenceResolver<String> resolver = this.documentReferenceResolverProvider.get();
+            List<String> changedDocuments = xObject.getListValue(CHANGED_DOCUMENTS_FIELD);
+            List<DocumentReference> targets = changedDocuments.stream()
+                .map(target -> resolver.resolve(target, wikiReference))
+                .collect(Collectors.toList());
+            this.targetIndexManagerProvider.get().update(wikiReference, changeRequestId, status, targets);
+        }
+    }
+}
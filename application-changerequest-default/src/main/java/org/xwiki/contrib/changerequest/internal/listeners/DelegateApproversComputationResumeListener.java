@@ -0,0 +1,87 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.listeners;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.xwiki.bridge.event.ApplicationReadyEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.changerequest.internal.jobs.DelegateApproversComputationManager;
+import org.xwiki.contrib.changerequest.internal.jobs.DelegateApproversComputationRequest;
+import org.xwiki.job.JobException;
+import org.xwiki.job.JobExecutor;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+
+/**
+ * Listener in charge of resuming at startup the computations of delegate approvers which have been interrupted.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@Component
+@Singleton
+@Named(DelegateApproversComputationResumeListener.NAME)
+public class DelegateApproversComputationResumeListener extends AbstractEventListener
+{
+    static final String NAME =
+        "org.xwiki.contrib.changerequest.internal.listeners.DelegateApproversComputationResumeListener";
+
+    private static final List<Event> EVENT_LIST = Collections.singletonList(new ApplicationReadyEvent());
+
+    @Inject
+    private Provider<DelegateApproversComputationManager> computationManagerProvider;
+
+    @Inject
+    private Provider<JobExecutor> jobExecutorProvider;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Default constructor.
+     */
+    public DelegateApproversComputationResumeListener()
+    {
+        super(NAME, EVENT_LIST);
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        for (DelegateApproversComputationRequest computationRequest
+            : this.computationManagerProvider.get().getPendingComputations()) {
+            try {
+                this.jobExecutorProvider.get()
+                    .execute(DelegateApproversComputationRequest.DELEGATE_APPROVERS_COMPUTATION_JOB,
+                        computationRequest);
+            } catch (JobException e) {
+                this.logger.error("Error when resuming the computation job for delegates", e);
+            }
+        }
+    }
+}
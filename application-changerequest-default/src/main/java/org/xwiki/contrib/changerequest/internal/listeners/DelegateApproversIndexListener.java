@@ -0,0 +1,86 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.listeners;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.changerequest.internal.approvers.DelegateApproversXClassInitializer;
+import org.xwiki.contrib.changerequest.internal.cache.DelegateApproversIndexManager;
+import org.xwiki.model.reference.RegexEntityReference;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.event.XObjectAddedEvent;
+import com.xpn.xwiki.internal.event.XObjectDeletedEvent;
+import com.xpn.xwiki.internal.event.XObjectUpdatedEvent;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseObjectReference;
+
+/**
+ * Listener dedicated to keep the {@link DelegateApproversIndexManager} up-to-date whenever a delegate approvers
+ * xobject is modified without computing the delegates, e.g. on another node of a cluster.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@Component
+@Singleton
+@Named(DelegateApproversIndexListener.NAME)
+public class DelegateApproversIndexListener extends AbstractEventListener
+{
+    static final String NAME = "org.xwiki.contrib.changerequest.internal.listeners.DelegateApproversIndexListener";
+
+    static final RegexEntityReference REFERENCE =
+        BaseObjectReference.any(DelegateApproversXClassInitializer.DELEGATE_APPROVERS_XCLASS.toString());
+
+    static final List<Event> EVENT_LIST = List.of(
+        new XObjectAddedEvent(REFERENCE),
+        new XObjectUpdatedEvent(REFERENCE),
+        new XObjectDeletedEvent(REFERENCE)
+    );
+
+    @Inject
+    private Provider<DelegateApproversIndexManager> delegateApproversIndexManagerProvider;
+
+    /**
+     * Default constructor.
+     */
+    public DelegateApproversIndexListener()
+    {
+        super(NAME, EVENT_LIST);
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        XWikiDocument userDoc = (XWikiDocument) source;
+        BaseObject xObject = userDoc.getXObject(DelegateApproversXClassInitializer.DELEGATE_APPROVERS_XCLASS);
+        String serializedDelegates = (xObject == null) ? null
+            : xObject.getLargeStringValue(DelegateApproversXClassInitializer.DELEGATED_USERS_PROPERTY);
+        this.delegateApproversIndexManagerProvider.get().update(userDoc.getDocumentReference(), serializedDelegates);
+    }
+}
@@ -27,17 +27,12 @@ import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
-import org.apache.commons.lang3.exception.ExceptionUtils;
-import org.slf4j.Logger;
 import org.xwiki.bridge.event.DocumentCreatedEvent;
 import org.xwiki.bridge.event.DocumentDeletedEvent;
 import org.xwiki.bridge.event.DocumentUpdatedEvent;
 import org.xwiki.component.annotation.Component;
-import org.xwiki.contrib.changerequest.ChangeRequest;
-import org.xwiki.contrib.changerequest.ChangeRequestException;
-import org.xwiki.contrib.changerequest.ChangeRequestManager;
+import org.xwiki.contrib.changerequest.internal.MergingStatusComputationScheduler;
 import org.xwiki.contrib.changerequest.internal.cache.MergeCacheManager;
-import org.xwiki.contrib.changerequest.storage.ChangeRequestStorageManager;
 import org.xwiki.job.Job;
 import org.xwiki.job.event.status.JobStatus;
 import org.xwiki.model.reference.DocumentReference;
@@ -69,10 +64,7 @@ public class DocumentUpdatedListener extends AbstractLocalEventListener
     );
 
     @Inject
-    private Provider<ChangeRequestStorageManager> storageManager;
-
-    @Inject
-    private Provider<ChangeRequestManager> changeRequestManager;
+    private Provider<MergingStatusComputationScheduler> computationScheduler;
 
     @Inject
     private Provider<MergeCacheManager> conflictCacheManager;
@@ -80,9 +72,6 @@ public class DocumentUpdatedListener extends AbstractLocalEventListener
     @Inject
     private Provider<XWikiContext> contextProvider;
 
-    @Inject
-    private Logger logger;
-
     /**
      * Default constructor.
      */
@@ -98,18 +87,9 @@ public class DocumentUpdatedListener extends AbstractLocalEventListener
         DocumentReference reference = sourceDoc.getDocumentReferenceWithLocale();
 
         // We ignore all updates occurring during a wiki initialization.
+        // The computation of the status is performed asynchronously to not slow down the save of the document.
         if (isWikiReady(reference.getWikiReference())) {
-            try {
-                List<ChangeRequest> changeRequests = this.storageManager.get().findChangeRequestTargeting(reference);
-                for (ChangeRequest changeRequest : changeRequests) {
-                    if (changeRequest.getStatus().isOpen()) {
-                        this.changeRequestManager.get().computeReadyForMergingStatus(changeRequest);
-                    }
-                }
-            } catch (ChangeRequestException e) {
-                logger.warn("Error while computing the merging status of change requests after update of [{}]: [{}]",
-                    reference, ExceptionUtils.getRootCauseMessage(e));
-            }
+            this.computationScheduler.get().schedule(reference, this.contextProvider.get().getUserReference());
         }
     }
 
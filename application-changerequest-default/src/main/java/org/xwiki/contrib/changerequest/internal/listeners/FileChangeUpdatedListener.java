@@ -34,6 +34,7 @@ import org.xwiki.contrib.changerequest.ReviewInvalidationReason;
 import org.xwiki.contrib.changerequest.events.ChangeRequestMergedEvent;
 import org.xwiki.contrib.changerequest.events.ChangeRequestUpdatedFileChangeEvent;
 import org.xwiki.contrib.changerequest.internal.cache.DiffCacheManager;
+import org.xwiki.contrib.changerequest.internal.cache.RenderedDiffStore;
 import org.xwiki.contrib.changerequest.internal.cache.MergeCacheManager;
 import org.xwiki.contrib.changerequest.internal.cache.ChangeRequestStorageCacheManager;
 import org.xwiki.observation.AbstractEventListener;
@@ -74,6 +75,9 @@ public class FileChangeUpdatedListener extends AbstractEventListener
     @Inject
     private Provider<DiffCacheManager> diffCacheManagerProvider;
 
+    @Inject
+    private Provider<RenderedDiffStore> renderedDiffStoreProvider;
+
     @Inject
     private RemoteObservationManagerContext remoteObservationManagerContext;
 
@@ -99,6 +103,7 @@ public class FileChangeUpdatedListener extends AbstractEventListener
             this.mergeCacheManager.get().invalidate(fileChange);
             this.changeRequestCacheManager.get().invalidate(changeRequestId);
             this.diffCacheManagerProvider.get().invalidate(fileChange);
+            this.renderedDiffStoreProvider.get().invalidate(fileChange);
             changeRequest = fileChange.getChangeRequest();
         } else if (data instanceof ChangeRequest) {
             changeRequest = (ChangeRequest) data;
@@ -106,6 +111,7 @@ public class FileChangeUpdatedListener extends AbstractEventListener
                 .forEach(fileChange -> this.mergeCacheManager.get().invalidate(fileChange));
             this.changeRequestCacheManager.get().invalidate(changeRequestId);
             this.diffCacheManagerProvider.get().invalidate(changeRequest);
+            this.renderedDiffStoreProvider.get().invalidate(changeRequest);
         }
         // This only needs to be perform for local events.
         if (event instanceof ChangeRequestUpdatedFileChangeEvent && changeRequest != null
@@ -0,0 +1,75 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.listeners;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.changerequest.FileChange;
+import org.xwiki.contrib.changerequest.events.ChangeRequestFileChangeAddedEvent;
+import org.xwiki.contrib.changerequest.internal.MergeResultPrecomputationScheduler;
+import org.xwiki.observation.event.AbstractLocalEventListener;
+import org.xwiki.observation.event.Event;
+
+import com.xpn.xwiki.XWikiContext;
+
+/**
+ * Listener in charge of scheduling the computation of the merge result of the file changes added to a change request,
+ * so that it's ready when a reviewer opens the change request.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@Component
+@Singleton
+@Named(MergeResultPrecomputationListener.NAME)
+public class MergeResultPrecomputationListener extends AbstractLocalEventListener
+{
+    static final String NAME = "org.xwiki.contrib.changerequest.internal.listeners.MergeResultPrecomputationListener";
+
+    private static final List<Event> EVENT_LIST = List.of(new ChangeRequestFileChangeAddedEvent());
+
+    @Inject
+    private Provider<MergeResultPrecomputationScheduler> precomputationSchedulerProvider;
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    /**
+     * Default constructor.
+     */
+    public MergeResultPrecomputationListener()
+    {
+        super(NAME, EVENT_LIST);
+    }
+
+    @Override
+    public void processLocalEvent(Event event, Object source, Object data)
+    {
+        FileChange fileChange = (FileChange) data;
+        this.precomputationSchedulerProvider.get()
+            .schedule(fileChange, this.contextProvider.get().getUserReference());
+    }
+}
@@ -19,6 +19,7 @@
  */
 package org.xwiki.contrib.changerequest.internal.listeners;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -105,19 +106,27 @@ public class RightsUpdatedListener extends AbstractLocalEventListener
                 Set<DocumentReference> ruleSubjects = this.computeRulesSubjects(securityRuleDiffList);
 
                 if (!changeRequests.isEmpty() && !ruleSubjects.isEmpty()) {
+                    List<ChangeRequest> changeRequestsToUpdate = new ArrayList<>();
                     for (ChangeRequest changeRequest : changeRequests) {
                         ChangeRequestStatus status = changeRequest.getStatus();
                         // if  the change request is merged, we don't want to edit its rights.
                         if (status == ChangeRequestStatus.MERGED) {
                             continue;
                         // if it's closed, we don't want to split it, we just edit the rights no matter the consequences
-                        } else if (status == ChangeRequestStatus.CLOSED || status == ChangeRequestStatus.STALE) {
-                            this.changeRequestRightsManager.get().applyChanges(changeRequest, securityRuleDiffList);
+                        // if it's open, we only edit the rights if they remain consistent, else we split it
+                        } else if (status == ChangeRequestStatus.CLOSED || status == ChangeRequestStatus.STALE
+                            || this.changeRequestRightsManager.get()
+                                .isViewAccessStillConsistent(changeRequest, ruleSubjects)) {
+                            changeRequestsToUpdate.add(changeRequest);
                         } else {
-                            this.handleOpenChangeRequest(changeRequest, ruleSubjects, entityReference,
-                                securityRuleDiffList);
+                            this.splitChangeRequest(changeRequest, entityReference);
                         }
                     }
+                    // the rights of all change requests are updated at once, to compute the changes only once
+                    if (!changeRequestsToUpdate.isEmpty()) {
+                        this.changeRequestRightsManager.get().applyChanges(changeRequestsToUpdate,
+                            securityRuleDiffList);
+                    }
                 }
             } catch (ChangeRequestException e) {
                 logger.warn("Error while trying to syncing rights after event [{}]: [{}]", event,
@@ -126,28 +135,23 @@ public class RightsUpdatedListener extends AbstractLocalEventListener
         }
     }
 
-    private void handleOpenChangeRequest(ChangeRequest changeRequest, Set<DocumentReference> ruleSubjects,
-        EntityReference reference, List<SecurityRuleDiff> securityRuleDiffList) throws ChangeRequestException
+    private void splitChangeRequest(ChangeRequest changeRequest, EntityReference reference)
+        throws ChangeRequestException
     {
-        if (this.changeRequestRightsManager.get().isViewAccessStillConsistent(changeRequest,
-            ruleSubjects)) {
-            this.changeRequestRightsManager.get().applyChanges(changeRequest, securityRuleDiffList);
-        } else {
-            List<ChangeRequest> splittedChangeRequests =
-                this.changeRequestStorageManager.get().split(changeRequest);
-            for (ChangeRequest splittedChangeRequest : splittedChangeRequests) {
-                boolean concernsIt = false;
-                for (DocumentReference modifiedDocument : splittedChangeRequest.getModifiedDocuments()) {
-                    if (modifiedDocument.equals(reference) || modifiedDocument.hasParent(reference)) {
-                        concernsIt = true;
-                        break;
-                    }
+        List<ChangeRequest> splittedChangeRequests =
+            this.changeRequestStorageManager.get().split(changeRequest);
+        for (ChangeRequest splittedChangeRequest : splittedChangeRequests) {
+            boolean concernsIt = false;
+            for (DocumentReference modifiedDocument : splittedChangeRequest.getModifiedDocuments()) {
+                if (modifiedDocument.equals(reference) || modifiedDocument.hasParent(reference)) {
+                    concernsIt = true;
+                    break;
                 }
+            }
 
-                if (concernsIt) {
-                    this.changeRequestRightsManager.get().copyViewRights(splittedChangeRequest,
-                        reference);
-                }
+            if (concernsIt) {
+                this.changeRequestRightsManager.get().copyViewRights(splittedChangeRequest,
+                    reference);
             }
         }
     }
@@ -21,6 +21,7 @@ package org.xwiki.contrib.changerequest.internal.listeners;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -42,11 +43,15 @@ import org.xwiki.user.UserReferenceResolver;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.internal.event.XObjectUpdatedEvent;
 import com.xpn.xwiki.internal.mandatory.XWikiUsersDocumentInitializer;
+import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.objects.BaseObjectReference;
+import com.xpn.xwiki.objects.BaseProperty;
+import com.xpn.xwiki.objects.PropertyInterface;
 
 /**
  * Listener in charge of updating the delegate approvers when the mechanism is enabled and some properties are set up
- * to compute the delegate approvers.
+ * to compute the delegate approvers. The delegate approvers are only computed again when one of those properties is
+ * updated.
  *
  * @version $Id$
  * @since 0.13
@@ -92,12 +97,42 @@ public class UsersUpdatedListener extends AbstractLocalEventListener
         if (this.configuration.isDelegateEnabled()
             && !this.configuration.getDelegateClassPropertyList().isEmpty()) {
             XWikiDocument userDoc = (XWikiDocument) source;
-            UserReference userReference = this.userReferenceResolver.resolve(userDoc.getDocumentReference());
-            try {
-                this.delegateApproverManagerProvider.get().computeDelegates(userReference);
-            } catch (ChangeRequestException e) {
-                logger.error("Error while computing delegate approvers for [{}]", userReference, e);
+            if (this.isDelegatePropertiesUpdated(userDoc)) {
+                UserReference userReference = this.userReferenceResolver.resolve(userDoc.getDocumentReference());
+                try {
+                    this.delegateApproverManagerProvider.get().computeDelegates(userReference);
+                } catch (ChangeRequestException e) {
+                    logger.error("Error while computing delegate approvers for [{}]", userReference, e);
+                }
             }
         }
     }
+
+    private boolean isDelegatePropertiesUpdated(XWikiDocument userDoc)
+    {
+        boolean result = false;
+        BaseObject userObject = userDoc.getXObject(XWikiUsersDocumentInitializer.XWIKI_USERS_DOCUMENT_REFERENCE);
+        XWikiDocument originalUserDoc = userDoc.getOriginalDocument();
+        BaseObject originalUserObject = (originalUserDoc != null)
+            ? originalUserDoc.getXObject(XWikiUsersDocumentInitializer.XWIKI_USERS_DOCUMENT_REFERENCE) : null;
+        if (userObject == null || originalUserObject == null) {
+            // We cannot know what changed.
+            result = true;
+        } else {
+            // Other properties, such as the avatar or the preferences, cannot have an impact on the delegates.
+            for (String property : this.configuration.getDelegateClassPropertyList()) {
+                if (!Objects.equals(getValue(userObject, property), getValue(originalUserObject, property))) {
+                    result = true;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Object getValue(BaseObject userObject, String property)
+    {
+        PropertyInterface propertyInterface = userObject.safeget(property);
+        return (propertyInterface instanceof BaseProperty) ? ((BaseProperty<?>) propertyInterface).getValue() : null;
+    }
 }
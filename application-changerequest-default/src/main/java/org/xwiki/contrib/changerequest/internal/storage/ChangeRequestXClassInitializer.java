@@ -59,8 +59,16 @@ public class ChangeRequestXClassInitializer extends AbstractMandatoryClassInitia
     public static final LocalDocumentReference CHANGE_REQUEST_XCLASS =
         new LocalDocumentReference(CHANGE_REQUEST_SPACE, "ChangeRequestClass");
 
-    static final String STATUS_FIELD = "status";
-    static final String CHANGED_DOCUMENTS_FIELD = "changedDocuments";
+    /**
+     * Name of the field holding the status of the change request.
+     */
+    public static final String STATUS_FIELD = "status";
+
+    /**
+     * Name of the field holding the list of documents modified by the change request.
+     */
+    public static final String CHANGED_DOCUMENTS_FIELD = "changedDocuments";
+
     static final String AUTHORS_FIELD = "authors";
     static final String STALE_DATE_FIELD = "staleDate";
 
@@ -21,15 +21,17 @@ package org.xwiki.contrib.changerequest.internal.storage;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.Deque;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -60,7 +62,10 @@ import org.xwiki.contrib.changerequest.events.ChangeRequestStatusChangedEvent;
 import org.xwiki.contrib.changerequest.events.SplitBeginChangeRequestEvent;
 import org.xwiki.contrib.changerequest.events.SplitEndChangeRequestEvent;
 import org.xwiki.contrib.changerequest.ChangeRequestException;
+import org.xwiki.contrib.changerequest.internal.cache.ChangeRequestCacheMetrics;
 import org.xwiki.contrib.changerequest.internal.cache.ChangeRequestStorageCacheManager;
+import org.xwiki.contrib.changerequest.internal.cache.ChangeRequestTargetIndexManager;
+import org.xwiki.contrib.changerequest.internal.cache.RenderedDiffStore;
 import org.xwiki.contrib.changerequest.storage.ChangeRequestIDGenerator;
 import org.xwiki.contrib.changerequest.storage.ChangeRequestStorageManager;
 import org.xwiki.contrib.changerequest.storage.FileChangeStorageManager;
@@ -113,6 +118,19 @@ public class DefaultChangeRequestStorageManager implements ChangeRequestStorageM
 {
     private static final String REFERENCE = "reference";
 
+    private static final String STATUSES = "statuses";
+
+    private static final String ORDER_BY_FULLNAME = " order by doc.fullName";
+
+    /**
+     * Values of the open statuses as stored in the change request xobjects: they are always bound as a parameter so
+     * that the text of the queries filtering on them never changes.
+     */
+    private static final List<String> OPEN_STATUSES = Arrays.stream(ChangeRequestStatus.values())
+        .filter(ChangeRequestStatus::isOpen)
+        .map(status -> status.name().toLowerCase(Locale.ROOT))
+        .collect(Collectors.toList());
+
     @Inject
     private Provider<XWikiContext> contextProvider;
 
@@ -166,6 +184,15 @@ public class DefaultChangeRequestStorageManager implements ChangeRequestStorageM
     @Inject
     private ChangeRequestStorageCacheManager changeRequestStorageCacheManager;
 
+    @Inject
+    private ChangeRequestCacheMetrics cacheMetrics;
+
+    @Inject
+    private ChangeRequestTargetIndexManager changeRequestTargetIndexManager;
+
+    @Inject
+    private RenderedDiffStore renderedDiffStore;
+
     @Inject
     @Named("document")
     private UserReferenceResolver<DocumentReference> userReferenceResolver;
@@ -242,7 +269,10 @@ public class DefaultChangeRequestStorageManager implements ChangeRequestStorageM
             throw new ChangeRequestException(
                 String.format("Error while saving the change request [%s]", changeRequest), e);
         }
-        this.changeRequestStorageCacheManager.invalidate(changeRequest.getId());
+        // Publish the saved state so that the next loads don't need to read it back.
+        this.changeRequestStorageCacheManager.cacheChangeRequest(changeRequest);
+        this.changeRequestTargetIndexManager.update(reference.getWikiReference(), changeRequest.getId(),
+            changeRequest.getStatus(), changeRequest.getModifiedDocuments());
     }
 
     private void prepareChangeRequestDocument(ChangeRequest changeRequest, XWikiDocument document) throws XWikiException
@@ -319,51 +349,79 @@ public class DefaultChangeRequestStorageManager implements ChangeRequestStorageM
     {
         Optional<ChangeRequest> result = this.changeRequestStorageCacheManager.getChangeRequest(changeRequestId);
 
+        if (result.isEmpty()) {
+            ChangeRequest changeRequest = new ChangeRequest();
+            changeRequest.setId(changeRequestId);
+            DocumentReference reference = this.changeRequestDocumentReferenceResolver.resolve(changeRequest);
+            result = this.loadFromDocument(changeRequest, reference);
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<ChangeRequest> loadMetadata(String changeRequestId) throws ChangeRequestException
+    {
+        // A cached change request is cheap to get: its content is only copied when accessed.
+        Optional<ChangeRequest> result = this.changeRequestStorageCacheManager.getChangeRequest(changeRequestId);
+
         if (result.isEmpty()) {
             ChangeRequest changeRequest = new ChangeRequest();
             changeRequest.setId(changeRequestId);
             DocumentReference reference = this.changeRequestDocumentReferenceResolver.resolve(changeRequest);
             XWikiContext context = this.contextProvider.get();
-            XWiki wiki = context.getWiki();
             try {
-                XWikiDocument document = wiki.getDocument(reference, context);
+                XWikiDocument document = context.getWiki().getDocument(reference, context);
                 BaseObject xObject = document.getXObject(CHANGE_REQUEST_XCLASS);
+                // The change request is not cached since it doesn't contain any file change nor review.
                 if (!document.isNew() && xObject != null) {
-                    ChangeRequestStatus status = ChangeRequestStatus.valueOf(
-                        xObject.getStringValue(STATUS_FIELD).toUpperCase());
-                    Date staleDate = xObject.getDateValue(STALE_DATE_FIELD);
-                    changeRequest
-                        .setTitle(document.getTitle())
-                        .setDescription(document.getContent())
-                        .setCreator(document.getAuthors().getCreator())
-                        .setStatus(status)
-                        .setCreationDate(document.getCreationDate())
-                        .setStaleDate(staleDate)
-                        .setUpdateDate(document.getDate());
-                    List<String> changedDocuments = xObject.getListValue(CHANGED_DOCUMENTS_FIELD);
-
-                    for (String changedDocument : changedDocuments) {
-                        DocumentReference changedDocumentReference =
-                            this.documentReferenceResolver.resolve(changedDocument);
-                        List<FileChange> fileChanges =
-                            this.fileChangeStorageManager.load(changeRequest, changedDocumentReference);
-                        for (FileChange fileChange : fileChanges) {
-                            changeRequest.addFileChange(fileChange);
-                        }
-                    }
-
-                    this.reviewStorageManager.load(changeRequest);
-                    result = Optional.of(changeRequest);
-                    this.changeRequestStorageCacheManager.cacheChangeRequest(changeRequest);
+                    result = Optional.of(fillMetadata(changeRequest, document, xObject));
                 }
             } catch (XWikiException e) {
                 throw new ChangeRequestException(
-                    String.format("Error while trying to load change request of id [%s]", changeRequestId), e);
+                    String.format("Error while trying to load metadata of change request of id [%s]",
+                        changeRequestId), e);
             }
         }
         return result;
     }
 
+    private Optional<ChangeRequest> loadFromDocument(ChangeRequest changeRequest, DocumentReference reference)
+        throws ChangeRequestException
+    {
+        Optional<ChangeRequest> result = Optional.empty();
+        XWikiContext context = this.contextProvider.get();
+        XWiki wiki = context.getWiki();
+        long start = System.nanoTime();
+        try {
+            XWikiDocument document = wiki.getDocument(reference, context);
+            BaseObject xObject = document.getXObject(CHANGE_REQUEST_XCLASS);
+            if (!document.isNew() && xObject != null) {
+                fillMetadata(changeRequest, document, xObject);
+                List<String> changedDocuments = xObject.getListValue(CHANGED_DOCUMENTS_FIELD);
+
+                for (String changedDocument : changedDocuments) {
+                    DocumentReference changedDocumentReference =
+                        this.documentReferenceResolver.resolve(changedDocument);
+                    List<FileChange> fileChanges =
+                        this.fileChangeStorageManager.load(changeRequest, changedDocumentReference);
+                    for (FileChange fileChange : fileChanges) {
+                        changeRequest.addFileChange(fileChange);
+                    }
+                }
+
+                this.reviewStorageManager.load(changeRequest);
+                result = Optional.of(changeRequest);
+                this.changeRequestStorageCacheManager.cacheChangeRequest(changeRequest);
+                this.cacheMetrics.recordLoadTime(ChangeRequestStorageCacheManager.CACHE_NAME,
+                    System.nanoTime() - start);
+            }
+        } catch (XWikiException e) {
+            throw new ChangeRequestException(
+                String.format("Error while trying to load change request of id [%s]", changeRequest.getId()), e);
+        }
+        return result;
+    }
+
     @Override
     public void merge(ChangeRequest changeRequest) throws ChangeRequestException
     {
@@ -407,16 +465,16 @@ public class DefaultChangeRequestStorageManager implements ChangeRequestStorageM
     public List<DocumentReference> getOpenChangeRequestMatchingName(String title) throws ChangeRequestException
     {
         String statement = String.format(", BaseObject as obj , StringProperty as obj_status where "
-            + "(doc.fullName like :reference or doc.title like :title) and obj_status.value in %s and "
+            + "(doc.fullName like :reference or doc.title like :title) and obj_status.value in (:statuses) and "
             + "doc.fullName=obj.name and obj.className='%s' and obj_status.id.id=obj.id and obj_status.id.name='%s'",
-            getInOpenStatusesStatement(), this.entityReferenceSerializer.serialize(CHANGE_REQUEST_XCLASS),
-            STATUS_FIELD);
+            this.entityReferenceSerializer.serialize(CHANGE_REQUEST_XCLASS), STATUS_FIELD);
         SpaceReference changeRequestSpaceLocation = this.configuration.getChangeRequestSpaceLocation();
         try {
             Query query = this.queryManager.createQuery(statement, Query.HQL);
             query.bindValue(REFERENCE, String.format("%s.%%%s%%",
                 this.localEntityReferenceSerializer.serialize(changeRequestSpaceLocation), title));
             query.bindValue("title", String.format("%%%s%%", title));
+            query.bindValue(STATUSES, OPEN_STATUSES);
             List<String> changeRequestDocuments = query.execute();
             return changeRequestDocuments.stream()
                 .map(this.documentReferenceResolver::resolve).collect(Collectors.toList());
@@ -430,12 +488,18 @@ public class DefaultChangeRequestStorageManager implements ChangeRequestStorageM
     public List<ChangeRequest> findChangeRequestTargeting(DocumentReference documentReference)
         throws ChangeRequestException
     {
-        List<ChangeRequest> result = new ArrayList<>();
-        List<DocumentReference> changeRequestReferences = this.findChangeRequestReferenceTargeting(documentReference);
-        for (DocumentReference crReference : changeRequestReferences) {
-            this.load(crReference.getLastSpaceReference().getName()).ifPresent(result::add);
-        }
-        return result;
+        Set<String> changeRequestIds = this.changeRequestTargetIndexManager.getChangeRequestIds(documentReference);
+        return this.loadAll(new TreeSet<>(changeRequestIds));
+    }
+
+    @Override
+    public List<ChangeRequest> findOpenChangeRequestTargeting(DocumentReference documentReference)
+        throws ChangeRequestException
+    {
+        Set<String> changeRequestIds = this.changeRequestTargetIndexManager.getOpenChangeRequestIds(documentReference);
+        return this.loadAll(changeRequestIds).stream()
+            .filter(changeRequest -> changeRequest.getStatus().isOpen())
+            .collect(Collectors.toList());
     }
 
     @Override
@@ -443,19 +507,9 @@ public class DefaultChangeRequestStorageManager implements ChangeRequestStorageM
         throws ChangeRequestException
     {
         List<DocumentReference> result = new ArrayList<>();
-        String statement = String.format("from doc.object(%s) as obj where :reference member of obj.%s",
-            this.entityReferenceSerializer.serialize(CHANGE_REQUEST_XCLASS), CHANGED_DOCUMENTS_FIELD);
-        try {
-            Query query = this.queryManager.createQuery(statement, Query.XWQL);
-            query.bindValue(REFERENCE, this.localEntityReferenceSerializer.serialize(documentReference));
-            List<String> changeRequestDocuments = query.execute();
-            for (String changeRequestDocument : changeRequestDocuments) {
-                DocumentReference crReference = this.documentReferenceResolver.resolve(changeRequestDocument);
-                result.add(crReference);
-            }
-        } catch (QueryException e) {
-            throw new ChangeRequestException(
-                String.format("Error while trying to get change request for document [%s]", documentReference), e);
+        for (String changeRequestId
+            : new TreeSet<>(this.changeRequestTargetIndexManager.getChangeRequestIds(documentReference))) {
+            result.add(this.changeRequestDocumentReferenceResolver.resolve(new ChangeRequest().setId(changeRequestId)));
         }
         return result;
     }
@@ -464,98 +518,108 @@ public class DefaultChangeRequestStorageManager implements ChangeRequestStorageM
     public List<ChangeRequest> findChangeRequestTargeting(SpaceReference spaceReference)
         throws ChangeRequestException
     {
-        List<ChangeRequest> result = new ArrayList<>();
-        String statement = String.format(", BaseObject as obj, DBStringListProperty as prop join prop.list list "
-            + "where obj.name=doc.fullName and obj.className='%s' and obj.id=prop.id.id and "
-            + "prop.id.name='%s' and list like :reference order by doc.creationDate desc",
-            this.entityReferenceSerializer.serialize(CHANGE_REQUEST_XCLASS), CHANGED_DOCUMENTS_FIELD);
-        try {
-            Query query = this.queryManager.createQuery(statement, Query.HQL);
-            query.bindValue(REFERENCE,
-                String.format("%%%s%%", this.localEntityReferenceSerializer.serialize(spaceReference)));
-            List<String> changeRequestDocuments = query.execute();
-            for (String changeRequestDocument : changeRequestDocuments) {
-                DocumentReference crReference = this.documentReferenceResolver.resolve(changeRequestDocument);
-                this.load(crReference.getLastSpaceReference().getName()).ifPresent(result::add);
-            }
-        } catch (QueryException e) {
-            throw new ChangeRequestException(
-                String.format("Error while trying to get change request for space [%s]", spaceReference), e);
-        }
-
+        List<ChangeRequest> result =
+            this.loadAll(this.changeRequestTargetIndexManager.getChangeRequestIds(spaceReference));
+        // Most recent change requests first.
+        result.sort(Comparator.comparing(ChangeRequest::getCreationDate,
+            Comparator.nullsLast(Comparator.reverseOrder())));
         return result;
     }
 
-    private String getInOpenStatusesStatement()
+    private List<String> getChangeRequestIds(List<DocumentReference> changeRequestReferences)
     {
-        List<ChangeRequestStatus> openStatuses =
-            Arrays.stream(ChangeRequestStatus.values()).filter(ChangeRequestStatus::isOpen)
-                .collect(Collectors.toList());
+        return changeRequestReferences.stream()
+            .map(crReference -> crReference.getLastSpaceReference().getName())
+            .collect(Collectors.toList());
+    }
 
-        StringBuilder statusStatement = new StringBuilder("(");
-        Iterator<ChangeRequestStatus> iterator = openStatuses.iterator();
-        char apos = '\'';
-        while (iterator.hasNext()) {
-            ChangeRequestStatus status = iterator.next();
-            statusStatement.append(apos);
-            statusStatement.append(status.name().toLowerCase());
-            statusStatement.append(apos);
-            if (iterator.hasNext()) {
-                statusStatement.append(",");
-            }
-        }
-        statusStatement.append(")");
-        return statusStatement.toString();
+    private List<String> getChangeRequestIdsFromDocuments(List<String> changeRequestDocuments)
+    {
+        return getChangeRequestIds(changeRequestDocuments.stream()
+            .map(this.documentReferenceResolver::resolve)
+            .collect(Collectors.toList()));
     }
 
-    @Override
-    public List<ChangeRequest> findOpenChangeRequestsByDate(Date limitDate, boolean considerCreationDate)
-        throws ChangeRequestException
+    private String getOpenChangeRequestsByDateStatement(boolean considerCreationDate)
     {
         String columnDate = (considerCreationDate) ? "creationDate" : "date";
-        String statement = String.format(", BaseObject as obj , StringProperty as obj_status where "
-            + "doc.%s < :limitDate and obj_status.value in %s and "
+        return String.format(", BaseObject as obj , StringProperty as obj_status where "
+            + "doc.%s < :limitDate and obj_status.value in (:statuses) and "
             + "doc.fullName=obj.name and obj.className='%s' and obj_status.id.id=obj.id and obj_status.id.name='%s'",
-            columnDate, getInOpenStatusesStatement(), this.entityReferenceSerializer.serialize(CHANGE_REQUEST_XCLASS),
-            STATUS_FIELD);
-
-        return this.findChangeRequestWithStatementAndLimitDate(statement, limitDate);
+            columnDate, this.entityReferenceSerializer.serialize(CHANGE_REQUEST_XCLASS), STATUS_FIELD);
     }
 
-    @Override
-    public List<ChangeRequest> findChangeRequestsStaledBefore(Date limitDate) throws ChangeRequestException
+    private String getChangeRequestsStaledBeforeStatement()
     {
-        String statement = String.format(", BaseObject as obj , StringProperty as obj_status, "
+        return String.format(", BaseObject as obj , StringProperty as obj_status, "
                 + "DateProperty as obj_staled where "
-                + "obj_staled.value < :limitDate and obj_status.value in %s and "
+                + "obj_staled.value < :limitDate and obj_status.value in (:statuses) and "
                 + "doc.fullName=obj.name and obj.className='%s' "
                 + "and obj_status.id.id=obj.id and obj_status.id.name='%s' "
                 + "and obj_staled.id.id=obj.id and obj_staled.id.name='%s'",
-            getInOpenStatusesStatement(), this.entityReferenceSerializer.serialize(CHANGE_REQUEST_XCLASS),
-            STATUS_FIELD, STALE_DATE_FIELD);
+            this.entityReferenceSerializer.serialize(CHANGE_REQUEST_XCLASS), STATUS_FIELD, STALE_DATE_FIELD);
+    }
+
+    @Override
+    public List<ChangeRequest> findOpenChangeRequestsByDate(Date limitDate, boolean considerCreationDate)
+        throws ChangeRequestException
+    {
+        String statement = getOpenChangeRequestsByDateStatement(considerCreationDate);
+        return this.loadAll(this.findChangeRequestIdsWithStatementAndLimitDate(statement, limitDate, 0, -1));
+    }
+
+    @Override
+    public List<String> findNotStaledChangeRequestIdsByDate(Date limitDate, boolean considerCreationDate,
+        int offset, int limit) throws ChangeRequestException
+    {
+        String statement = getOpenChangeRequestsByDateStatement(considerCreationDate)
+            + String.format(" and not exists (select staled.id.id from DateProperty as staled where "
+                + "staled.id.id=obj.id and staled.id.name='%s' and staled.value is not null)", STALE_DATE_FIELD)
+            + ORDER_BY_FULLNAME;
+        return this.findChangeRequestIdsWithStatementAndLimitDate(statement, limitDate, offset, limit);
+    }
 
-        return this.findChangeRequestWithStatementAndLimitDate(statement, limitDate);
+    @Override
+    public List<String> findOpenChangeRequestIdsByDate(Date limitDate, boolean considerCreationDate, int offset,
+        int limit) throws ChangeRequestException
+    {
+        String statement = getOpenChangeRequestsByDateStatement(considerCreationDate) + ORDER_BY_FULLNAME;
+        return this.findChangeRequestIdsWithStatementAndLimitDate(statement, limitDate, offset, limit);
+    }
+
+    @Override
+    public List<ChangeRequest> findChangeRequestsStaledBefore(Date limitDate) throws ChangeRequestException
+    {
+        String statement = getChangeRequestsStaledBeforeStatement();
+        return this.loadAll(this.findChangeRequestIdsWithStatementAndLimitDate(statement, limitDate, 0, -1));
     }
 
-    private List<ChangeRequest> findChangeRequestWithStatementAndLimitDate(String statement, Date limitDate)
+    @Override
+    public List<String> findChangeRequestIdsStaledBefore(Date limitDate, int offset, int limit)
         throws ChangeRequestException
     {
-        List<ChangeRequest> result = new ArrayList<>();
+        String statement = getChangeRequestsStaledBeforeStatement() + ORDER_BY_FULLNAME;
+        return this.findChangeRequestIdsWithStatementAndLimitDate(statement, limitDate, offset, limit);
+    }
+
+    private List<String> findChangeRequestIdsWithStatementAndLimitDate(String statement, Date limitDate, int offset,
+        int limit) throws ChangeRequestException
+    {
         try {
             Query query = this.queryManager.createQuery(statement, Query.HQL);
             query.bindValue("limitDate", limitDate);
-            List<String> changeRequestDocuments = query.execute();
-            for (String changeRequestDocument : changeRequestDocuments) {
-                DocumentReference crReference = this.documentReferenceResolver.resolve(changeRequestDocument);
-                this.load(crReference.getLastSpaceReference().getName()).ifPresent(result::add);
+            query.bindValue(STATUSES, OPEN_STATUSES);
+            if (limit > 0) {
+                query.setOffset(offset);
+                query.setLimit(limit);
             }
+            List<String> changeRequestDocuments = query.execute();
+            return getChangeRequestIdsFromDocuments(changeRequestDocuments);
         } catch (QueryException e) {
             throw new ChangeRequestException(
                 String.format("Error while querying change requests with statement [%s] and limitDate [%s]",
                     statement, limitDate), e);
         }
-
-        return result;
     }
 
     @Override
@@ -584,6 +648,7 @@ public class DefaultChangeRequestStorageManager implements ChangeRequestStorageM
 
             // Handle the reviews
             for (ChangeRequest splittedChangeRequest : result) {
+                List<ChangeRequestReview> clonedReviews = new ArrayList<>();
                 for (ChangeRequestReview review : changeRequest.getReviews()) {
                     ChangeRequestReview clonedReview = review.cloneWithChangeRequest(splittedChangeRequest);
 
@@ -594,8 +659,9 @@ public class DefaultChangeRequestStorageManager implements ChangeRequestStorageM
                     clonedReview.setId(review.getId());
 
                     splittedChangeRequest.addReview(clonedReview);
-                    this.reviewStorageManager.save(clonedReview);
+                    clonedReviews.add(clonedReview);
                 }
+                this.reviewStorageManager.saveAll(clonedReviews);
             }
 
             // Handle the approvers
@@ -686,11 +752,10 @@ public class DefaultChangeRequestStorageManager implements ChangeRequestStorageM
         String statement;
         if (onlyOpen) {
             statement = String.format(", BaseObject as obj , StringProperty as obj_status "
-                    + "where obj_status.value in %s and "
+                    + "where obj_status.value in (:statuses) and "
                     + "doc.fullName=obj.name and obj.className='%s' "
                     + "and obj_status.id.id=obj.id and obj_status.id.name='%s' ",
-                getInOpenStatusesStatement(), this.entityReferenceSerializer.serialize(CHANGE_REQUEST_XCLASS),
-                STATUS_FIELD);
+                this.entityReferenceSerializer.serialize(CHANGE_REQUEST_XCLASS), STATUS_FIELD);
         } else {
             statement = String.format(", BaseObject as obj , StringProperty as obj_status "
                     + "where doc.fullName=obj.name and obj.className='%s' ",
@@ -699,12 +764,20 @@ public class DefaultChangeRequestStorageManager implements ChangeRequestStorageM
         return statement;
     }
 
+    private Query createAllChangeRequestQuery(boolean onlyOpen) throws QueryException
+    {
+        Query query = this.queryManager.createQuery(getAllChangeRequestQueryStatement(onlyOpen), Query.HQL);
+        if (onlyOpen) {
+            query.bindValue(STATUSES, OPEN_STATUSES);
+        }
+        return query;
+    }
+
     @Override
     public long countChangeRequests(boolean onlyOpen) throws ChangeRequestException
     {
-        String statement = getAllChangeRequestQueryStatement(onlyOpen);
         try {
-            List<Long> result = this.queryManager.createQuery(statement, Query.HQL)
+            List<Long> result = createAllChangeRequestQuery(onlyOpen)
                 .addFilter(this.countQueryFilter)
                 .execute();
             return result.get(0);
@@ -717,9 +790,8 @@ public class DefaultChangeRequestStorageManager implements ChangeRequestStorageM
     public List<DocumentReference> getChangeRequestsReferences(boolean onlyOpen, int offset, int limit)
         throws ChangeRequestException
     {
-        String statement = getAllChangeRequestQueryStatement(onlyOpen);
         try {
-            List<String> crDocuments = this.queryManager.createQuery(statement, Query.HQL)
+            List<String> crDocuments = createAllChangeRequestQuery(onlyOpen)
                 .setOffset(offset)
                 .setLimit(limit)
                 .execute();
@@ -740,12 +812,7 @@ public class DefaultChangeRequestStorageManager implements ChangeRequestStorageM
         throws ChangeRequestException
     {
         List<DocumentReference> changeRequestsReferences = this.getChangeRequestsReferences(onlyOpen, offset, limit);
-        List<ChangeRequest> result = new ArrayList<>();
-
-        for (DocumentReference changeRequestsReference : changeRequestsReferences) {
-            this.load(changeRequestsReference.getLastSpaceReference().getName()).ifPresent(result::add);
-        }
-        return result;
+        return this.loadAll(getChangeRequestIds(changeRequestsReferences));
     }
 
     @Override
@@ -772,5 +839,21 @@ public class DefaultChangeRequestStorageManager implements ChangeRequestStorageM
                     changeRequestDocument),
                 e);
         }
+        this.changeRequestTargetIndexManager.remove(changeRequestDocument.getWikiReference(), changeRequest.getId());
+        // The diffs are stored on the filesystem, so they're not removed with the change request document.
+        this.renderedDiffStore.invalidate(changeRequest);
+    }
+
+    private static ChangeRequest fillMetadata(ChangeRequest changeRequest, XWikiDocument document, BaseObject xObject)
+    {
+        ChangeRequestStatus status = ChangeRequestStatus.valueOf(xObject.getStringValue(STATUS_FIELD).toUpperCase());
+        return changeRequest
+            .setTitle(document.getTitle())
+            .setDescription(document.getContent())
+            .setCreator(document.getAuthors().getCreator())
+            .setStatus(status)
+            .setCreationDate(document.getCreationDate())
+            .setStaleDate(xObject.getDateValue(STALE_DATE_FIELD))
+            .setUpdateDate(document.getDate());
     }
 }
@@ -33,6 +33,7 @@ import javax.inject.Provider;
 import javax.inject.Singleton;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.xwiki.bridge.DocumentModelBridge;
 import org.xwiki.component.annotation.Component;
@@ -308,23 +309,36 @@ public class DefaultFileChangeStorageManager implements FileChangeStorageManager
     }
 
     private boolean loadDocumentFromAttachment(FileChange fileChange, XWikiDocument changeRequestDocument)
-        throws XWikiException
     {
         boolean result = false;
         String filename = getFileChangeFileName(fileChange.getId());
         XWikiAttachment attachment = changeRequestDocument.getAttachment(filename);
         if (attachment != null) {
-            XWikiDocument document = new XWikiDocument(null);
+            // The attachment is only parsed when the document is needed: most of the time only the latest file changes
+            // are used, so there's no need to keep in memory the documents of all the previous ones.
+            fileChange.setModifiedDocumentSupplier(() -> this.parseDocumentFromAttachment(fileChange, attachment));
+            result = true;
+        } else {
+            logger.debug("Cannot find attachment for filechange with filename [{}]. ", filename);
+        }
+        return result;
+    }
+
+    private DocumentModelBridge parseDocumentFromAttachment(FileChange fileChange, XWikiAttachment attachment)
+    {
+        DocumentModelBridge result = null;
+        XWikiDocument document = new XWikiDocument(null);
+        try {
             document.fromXML(attachment.getContentInputStream(contextProvider.get()));
             // The isNew flag is not saved in the XML, so ensure to flag it properly.
             if (fileChange.getType() != FileChange.FileChangeType.CREATION) {
                 document.setNew(false);
             }
-            fileChange
-                .setModifiedDocument(document);
-            result = true;
-        } else {
-            logger.debug("Cannot find attachment for filechange with filename [{}]. ", filename);
+            result = document;
+        } catch (XWikiException e) {
+            // The document is loaded lazily by many callers which expect a null document in case of problem.
+            this.logger.error("Error while loading the document of file change [{}] from attachment [{}]: [{}]",
+                fileChange.getId(), attachment.getFilename(), ExceptionUtils.getRootCauseMessage(e));
         }
         return result;
     }
@@ -648,7 +662,12 @@ public class DefaultFileChangeStorageManager implements FileChangeStorageManager
                     break;
 
                 case FILECHANGE:
-                    result = ((XWikiDocument) fileChange.getModifiedDocument()).clone();
+                    XWikiDocument modifiedDocument = (XWikiDocument) fileChange.getModifiedDocument();
+                    if (modifiedDocument == null) {
+                        throw new ChangeRequestException(
+                            String.format("The document of the file change [%s] cannot be loaded", fileChange));
+                    }
+                    result = modifiedDocument.clone();
                     // we ensure to update the RCS version to not compare with the same version as previous version.
                     result.setRCSVersion(result.getRCSVersion().next());
                     break;
@@ -19,8 +19,12 @@
  */
 package org.xwiki.contrib.changerequest.internal.storage;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -38,6 +42,7 @@ import org.xwiki.contrib.changerequest.internal.UserReferenceConverter;
 import org.xwiki.contrib.changerequest.storage.ReviewStorageManager;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.user.CurrentUserReference;
 import org.xwiki.user.UserReference;
 import org.xwiki.user.UserReferenceResolver;
 
@@ -82,51 +87,90 @@ public class DefaultReviewStorageManager implements ReviewStorageManager
     @Inject
     private UserReferenceConverter userReferenceConverter;
 
+    @Inject
+    private UserReferenceResolver<CurrentUserReference> currentUserReferenceResolver;
+
     @Inject
     private Logger logger;
 
     @Override
     public void save(ChangeRequestReview review) throws ChangeRequestException
     {
-        if (!review.isSaved()) {
-            ChangeRequest changeRequest = review.getChangeRequest();
-            DocumentReference changeRequestDocReference =
-                this.changeRequestDocumentReferenceResolver.resolve(changeRequest);
-
-            XWikiContext context = contextProvider.get();
-            try {
-                XWikiDocument changeRequestDoc = context.getWiki().getDocument(changeRequestDocReference, context)
-                    .clone();
+        // A review is saved on behalf of its author.
+        this.saveAll(List.of(review), true);
+    }
+
+    @Override
+    public void saveAll(Collection<ChangeRequestReview> reviews) throws ChangeRequestException
+    {
+        // The reviews are updated by a change of the current user, e.g. they're invalidated by a new change.
+        this.saveAll(reviews, false);
+    }
+
+    private void saveAll(Collection<ChangeRequestReview> reviews, boolean saveAsReviewAuthor)
+        throws ChangeRequestException
+    {
+        Map<DocumentReference, List<ChangeRequestReview>> reviewsByDocument = new LinkedHashMap<>();
+        for (ChangeRequestReview review : reviews) {
+            if (!review.isSaved()) {
+                DocumentReference changeRequestDocReference =
+                    this.changeRequestDocumentReferenceResolver.resolve(review.getChangeRequest());
+                reviewsByDocument.computeIfAbsent(changeRequestDocReference, key -> new ArrayList<>()).add(review);
+            }
+        }
+        for (Map.Entry<DocumentReference, List<ChangeRequestReview>> entry : reviewsByDocument.entrySet()) {
+            List<ChangeRequestReview> documentReviews = entry.getValue();
+            UserReference author = (saveAsReviewAuthor) ? documentReviews.get(0).getAuthor()
+                : this.currentUserReferenceResolver.resolve(CurrentUserReference.INSTANCE);
+            this.saveReviews(entry.getKey(), documentReviews, author);
+        }
+    }
+
+    private void saveReviews(DocumentReference changeRequestDocReference, List<ChangeRequestReview> reviews,
+        UserReference author) throws ChangeRequestException
+    {
+        XWikiContext context = contextProvider.get();
+        try {
+            XWikiDocument changeRequestDoc = context.getWiki().getDocument(changeRequestDocReference, context)
+                .clone();
+            boolean onlyUpdates = true;
+            for (ChangeRequestReview review : reviews) {
                 BaseObject xObject;
-                // FIXME: use localization
-                String saveComment = "Add new review";
                 if (StringUtils.isEmpty(review.getId())) {
                     int xObjectNumber = changeRequestDoc.createXObject(REVIEW_XCLASS, context);
                     xObject = changeRequestDoc.getXObject(REVIEW_XCLASS, xObjectNumber);
                     review.setId(String.format(ID_FORMAT, xObjectNumber));
+                    onlyUpdates = false;
                 } else if (review.isNew()) {
                     int xObjectNumber = Integer.parseInt(review.getId().split(REVIEW_ID_SEPARATOR)[1]);
                     xObject = changeRequestDoc.getXObject(REVIEW_XCLASS, xObjectNumber, true, context);
+                    onlyUpdates = false;
                 } else {
                     int xObjectNumber = Integer.parseInt(review.getId().split(REVIEW_ID_SEPARATOR)[1]);
                     xObject = changeRequestDoc.getXObject(REVIEW_XCLASS, xObjectNumber);
-                    saveComment = "Update existing review";
                 }
                 this.fillXObjectValues(xObject, review);
-                changeRequestDoc.getAuthors().setOriginalMetadataAuthor(review.getAuthor());
+            }
+            changeRequestDoc.getAuthors().setOriginalMetadataAuthor(author);
 
-                // Bulletproofing: ensure to not save if there's no change
-                if (changeRequestDoc.isMetaDataDirty()) {
-                    context.getWiki().saveDocument(changeRequestDoc, saveComment, context);
-                } else {
-                    this.logger.error("Trying to save a review without performing any change: [{}]",
-                        (Object) Thread.currentThread().getStackTrace());
-                }
+            // FIXME: use localization
+            String saveComment = (onlyUpdates) ? "Update existing review" : "Add new review";
+            if (reviews.size() > 1) {
+                saveComment += "s";
+            }
+            // Bulletproofing: ensure to not save if there's no change
+            if (changeRequestDoc.isMetaDataDirty()) {
+                context.getWiki().saveDocument(changeRequestDoc, saveComment, context);
+            } else {
+                this.logger.error("Trying to save a review without performing any change: [{}]",
+                    (Object) Thread.currentThread().getStackTrace());
+            }
+            for (ChangeRequestReview review : reviews) {
                 review.setSaved(true);
                 review.setNew(false);
-            } catch (XWikiException e) {
-                throw new ChangeRequestException("Error while saving review", e);
             }
+        } catch (XWikiException e) {
+            throw new ChangeRequestException("Error while saving review", e);
         }
     }
 
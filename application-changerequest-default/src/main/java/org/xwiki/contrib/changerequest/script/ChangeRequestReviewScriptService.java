@@ -164,7 +164,7 @@ public class ChangeRequestReviewScriptService implements ScriptService
             }
             review.setSaved(false);
             this.reviewStorageManager.save(review);
-            this.changeRequestManager.computeReadyForMergingStatus(review.getChangeRequest());
+            this.changeRequestManager.computeReadyForMergingStatusAfterApprovalUpdate(review.getChangeRequest());
             return true;
         }
         return false;
@@ -23,11 +23,13 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -268,15 +270,33 @@ public class ChangeRequestScriptService implements ScriptService
     public Map<DocumentReference, List<ChangeRequest>> getOpenChangeRequestsTargetingSame(ChangeRequest changeRequest)
         throws ChangeRequestException
     {
-        Map<DocumentReference, List<ChangeRequest>> result = new HashMap<>();
-
+        Map<DocumentReference, List<String>> changeRequestIdsByDocument = new HashMap<>();
+        Set<String> changeRequestIds = new HashSet<>();
         for (DocumentReference modifiedDocument : changeRequest.getModifiedDocuments()) {
-            List<ChangeRequest> changeRequests = getOpenChangeRequestWithChangesFor(modifiedDocument)
+            List<String> foundIds = this.changeRequestStorageManager
+                .findChangeRequestReferenceTargeting(modifiedDocument)
                 .stream()
-                .filter(foundCR -> !foundCR.getId().equals(changeRequest.getId()))
+                .map(crReference -> crReference.getLastSpaceReference().getName())
+                .filter(foundId -> !foundId.equals(changeRequest.getId()))
+                .collect(Collectors.toList());
+            changeRequestIdsByDocument.put(modifiedDocument, foundIds);
+            changeRequestIds.addAll(foundIds);
+        }
+
+        // Load all change requests at once, since the same ones are often targeting several documents.
+        Map<String, ChangeRequest> openChangeRequests = this.changeRequestStorageManager.loadAll(changeRequestIds)
+            .stream()
+            .filter(foundCR -> foundCR.getStatus().isOpen())
+            .collect(Collectors.toMap(ChangeRequest::getId, Function.identity()));
+
+        Map<DocumentReference, List<ChangeRequest>> result = new HashMap<>();
+        for (Map.Entry<DocumentReference, List<String>> entry : changeRequestIdsByDocument.entrySet()) {
+            List<ChangeRequest> changeRequests = entry.getValue().stream()
+                .filter(openChangeRequests::containsKey)
+                .map(openChangeRequests::get)
                 .collect(Collectors.toList());
             if (!changeRequests.isEmpty()) {
-                result.put(modifiedDocument, changeRequests);
+                result.put(entry.getKey(), changeRequests);
             }
         }
 
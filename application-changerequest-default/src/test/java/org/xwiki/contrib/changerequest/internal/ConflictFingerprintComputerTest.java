@@ -0,0 +1,159 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.bridge.DocumentModelBridge;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseProperty;
+import com.xpn.xwiki.objects.classes.BaseClass;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ConflictFingerprintComputer}.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@ComponentTest
+class ConflictFingerprintComputerTest
+{
+    private static final DocumentReference COMMENTS_CLASS = new DocumentReference("xwiki", "XWiki", "XWikiComments");
+
+    private static final DocumentReference USER = new DocumentReference("xwiki", "XWiki", "User");
+
+    @InjectMockComponents
+    private ConflictFingerprintComputer computer;
+
+    private XWikiDocument mockDocument(String title, String content, Map<DocumentReference, List<BaseObject>> objects)
+    {
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getTitle()).thenReturn(title);
+        when(document.getContent()).thenReturn(content);
+        when(document.getXObjects()).thenReturn(objects);
+        return document;
+    }
+
+    private BaseObject mockComment(int number, String comment)
+    {
+        BaseObject object = mock(BaseObject.class);
+        when(object.getNumber()).thenReturn(number);
+        when(object.getPropertyList()).thenReturn(Set.of("comment"));
+        BaseProperty<?> property = mock(BaseProperty.class);
+        when(property.toText()).thenReturn(comment);
+        when(object.getField("comment")).thenReturn(property);
+        return object;
+    }
+
+    @Test
+    void computeFingerprint()
+    {
+        XWikiDocument previousDoc = mockDocument("Title", "Content", Collections.emptyMap());
+        XWikiDocument nextDoc = mockDocument("Title", "Content modified in the change request", Collections.emptyMap());
+        XWikiDocument currentDoc = mockDocument("Title", "Content", Collections.emptyMap());
+
+        Optional<String> fingerprint = this.computer.computeFingerprint(previousDoc, nextDoc, currentDoc, USER);
+        assertTrue(fingerprint.isPresent());
+
+        // Changes of the current document on parts not modified by the change request keep the same fingerprint.
+        XWikiDocument commentedDoc = mockDocument("New title", "Content",
+            Map.of(COMMENTS_CLASS, List.of(mockComment(0, "A comment"))));
+        assertEquals(fingerprint, this.computer.computeFingerprint(previousDoc, nextDoc, commentedDoc, USER));
+
+        XWikiDocument otherCommentedDoc = mockDocument("New title", "Content",
+            Map.of(COMMENTS_CLASS, List.of(mockComment(0, "A comment"), mockComment(1, "Another comment"))));
+        assertEquals(fingerprint, this.computer.computeFingerprint(previousDoc, nextDoc, otherCommentedDoc, USER));
+
+        // Changes on the part modified by the change request lead to another fingerprint.
+        XWikiDocument editedDoc = mockDocument("Title", "Content modified in the wiki", Collections.emptyMap());
+        assertNotEquals(fingerprint, this.computer.computeFingerprint(previousDoc, nextDoc, editedDoc, USER));
+
+        // Changes in the change request lead to another fingerprint.
+        XWikiDocument otherNextDoc = mockDocument("Title", "Other content", Collections.emptyMap());
+        assertNotEquals(fingerprint, this.computer.computeFingerprint(previousDoc, otherNextDoc, currentDoc, USER));
+    }
+
+    @Test
+    void computeFingerprintForOtherUserAndDocument()
+    {
+        XWikiDocument previousDoc = mockDocument("Title", "Content", Collections.emptyMap());
+        XWikiDocument nextDoc = mockDocument("Title", "Content modified in the change request", Collections.emptyMap());
+        XWikiDocument currentDoc = mockDocument("Title", "Content", Collections.emptyMap());
+        when(nextDoc.getDocumentReference()).thenReturn(new DocumentReference("xwiki", "Space", "Page"));
+
+        Optional<String> fingerprint = this.computer.computeFingerprint(previousDoc, nextDoc, currentDoc, USER);
+        assertTrue(fingerprint.isPresent());
+
+        // The conflict decisions depend on the user and the document: they lead to another fingerprint.
+        assertNotEquals(fingerprint, this.computer.computeFingerprint(previousDoc, nextDoc, currentDoc,
+            new DocumentReference("xwiki", "XWiki", "OtherUser")));
+
+        XWikiDocument otherPageDoc =
+            mockDocument("Title", "Content modified in the change request", Collections.emptyMap());
+        when(otherPageDoc.getDocumentReference()).thenReturn(new DocumentReference("xwiki", "Space", "OtherPage"));
+        assertNotEquals(fingerprint, this.computer.computeFingerprint(previousDoc, otherPageDoc, currentDoc, USER));
+    }
+
+    @Test
+    void computeFingerprintWithModifiedObjects()
+    {
+        XWikiDocument previousDoc = mockDocument("Title", "Content", Collections.emptyMap());
+        XWikiDocument nextDoc = mockDocument("Title", "Content",
+            Map.of(COMMENTS_CLASS, List.of(mockComment(0, "A comment"))));
+        XWikiDocument currentDoc = mockDocument("New title", "Content", Collections.emptyMap());
+
+        Optional<String> fingerprint = this.computer.computeFingerprint(previousDoc, nextDoc, currentDoc, USER);
+        assertTrue(fingerprint.isPresent());
+
+        XWikiDocument commentedDoc = mockDocument("Title", "Content",
+            Map.of(COMMENTS_CLASS, List.of(mockComment(0, "Another comment"))));
+        assertNotEquals(fingerprint, this.computer.computeFingerprint(previousDoc, nextDoc, commentedDoc, USER));
+    }
+
+    @Test
+    void computeFingerprintWhenNotComputable()
+    {
+        XWikiDocument previousDoc = mockDocument("Title", "Content", Collections.emptyMap());
+        XWikiDocument nextDoc = mockDocument("Title", "Content", Collections.emptyMap());
+        XWikiDocument currentDoc = mockDocument("Title", "Content", Collections.emptyMap());
+
+        assertEquals(Optional.empty(),
+            this.computer.computeFingerprint(previousDoc, nextDoc, mock(DocumentModelBridge.class), USER));
+
+        when(nextDoc.getXClass()).thenReturn(mock(BaseClass.class));
+        assertEquals(Optional.empty(), this.computer.computeFingerprint(previousDoc, nextDoc, currentDoc, USER));
+    }
+}
@@ -62,6 +62,10 @@ class DefaultChangeRequestConfigurationTest
     @Named("changerequest")
     private ConfigurationSource configurationSource;
 
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource xwikiPropertiesSource;
+
     @RegisterExtension
     LogCaptureExtension logCapture = new LogCaptureExtension(LogLevel.WARN);
 
@@ -105,4 +109,35 @@ class DefaultChangeRequestConfigurationTest
         when(this.configurationSource.getProperty("durationUnit")).thenReturn("hours");
         assertEquals(ChronoUnit.HOURS, this.configuration.getDurationUnit());
     }
+
+    @Test
+    void getMergingStatusComputationDelay()
+    {
+        when(this.xwikiPropertiesSource.getProperty("changerequest.mergingStatusComputationDelay", 1000L))
+            .thenReturn(42L);
+        assertEquals(42L, this.configuration.getMergingStatusComputationDelay());
+    }
+
+    @Test
+    void getConflictCheckThreads()
+    {
+        when(this.xwikiPropertiesSource.getProperty("changerequest.conflictCheckThreads", 4)).thenReturn(8);
+        assertEquals(8, this.configuration.getConflictCheckThreads());
+    }
+
+    @Test
+    void getSchedulerJobPageSize()
+    {
+        when(this.xwikiPropertiesSource.getProperty("changerequest.schedulerJobPageSize", 100)).thenReturn(500);
+        assertEquals(500, this.configuration.getSchedulerJobPageSize());
+    }
+
+    @Test
+    void getCacheSizeAndLifespan()
+    {
+        when(this.xwikiPropertiesSource.getProperty("changerequest.cache.titles.size", 1000)).thenReturn(10);
+        when(this.xwikiPropertiesSource.getProperty("changerequest.cache.titles.lifespan", 0)).thenReturn(60);
+        assertEquals(10, this.configuration.getCacheSize("titles", 1000));
+        assertEquals(60, this.configuration.getCacheLifespan("titles"));
+    }
 }
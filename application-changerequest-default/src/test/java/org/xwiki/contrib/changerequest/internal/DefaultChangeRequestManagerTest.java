@@ -19,10 +19,12 @@
  */
 package org.xwiki.contrib.changerequest.internal;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -41,6 +43,7 @@ import org.xwiki.contrib.changerequest.ChangeRequestReview;
 import org.xwiki.contrib.changerequest.ChangeRequestStatus;
 import org.xwiki.contrib.changerequest.FileChange;
 import org.xwiki.contrib.changerequest.MergeApprovalStrategy;
+import org.xwiki.contrib.changerequest.ReviewInvalidationReason;
 import org.xwiki.contrib.changerequest.events.ChangeRequestStatusChangedEvent;
 import org.xwiki.contrib.changerequest.storage.ChangeRequestStorageManager;
 import org.xwiki.contrib.changerequest.storage.FileChangeStorageManager;
@@ -217,6 +220,89 @@ class DefaultChangeRequestManagerTest
         verify(changeRequest, times(2)).updateDate();
     }
 
+    @Test
+    void computeReadyForMergingStatusAfterApprovalUpdate() throws Exception
+    {
+        ChangeRequest changeRequest = mock(ChangeRequest.class);
+        when(changeRequest.getId()).thenReturn("someId");
+        when(changeRequest.getStatus()).thenReturn(ChangeRequestStatus.READY_FOR_MERGING);
+        String approvalStrategyHint = "approve";
+        when(this.configuration.getMergeApprovalStrategy()).thenReturn(approvalStrategyHint);
+        MergeApprovalStrategy strategy =
+            this.componentManager.registerMockComponent(MergeApprovalStrategy.class, approvalStrategyHint);
+
+        // The status is not changed: nothing is saved and the conflicts are not checked again.
+        when(strategy.canBeMerged(changeRequest)).thenReturn(true);
+        this.manager.computeReadyForMergingStatusAfterApprovalUpdate(changeRequest);
+        verify(this.changeRequestStorageManager, never()).save(any(), any());
+        verify(this.observationManager, never()).notify(any(ChangeRequestStatusChangedEvent.class), any(), any());
+        verifyNoInteractions(this.changeRequestMergeManager);
+
+        when(strategy.canBeMerged(changeRequest)).thenReturn(false);
+        when(changeRequest.setStatus(ChangeRequestStatus.READY_FOR_REVIEW)).thenReturn(changeRequest);
+        this.manager.computeReadyForMergingStatusAfterApprovalUpdate(changeRequest);
+        verify(changeRequest).setStatus(ChangeRequestStatus.READY_FOR_REVIEW);
+        verify(this.changeRequestStorageManager).save(changeRequest, "Update status");
+        verify(this.observationManager).notify(any(ChangeRequestStatusChangedEvent.class), eq("someId"),
+            eq(new ChangeRequestStatus[] {
+                ChangeRequestStatus.READY_FOR_MERGING, ChangeRequestStatus.READY_FOR_REVIEW }));
+        verifyNoInteractions(this.changeRequestMergeManager);
+
+        // When the change request is not ready for merging yet, the conflicts need to be checked.
+        when(changeRequest.getStatus()).thenReturn(ChangeRequestStatus.READY_FOR_REVIEW);
+        when(strategy.canBeMerged(changeRequest)).thenReturn(true);
+        when(this.changeRequestMergeManager.hasConflict(changeRequest)).thenReturn(true);
+        this.manager.computeReadyForMergingStatusAfterApprovalUpdate(changeRequest);
+        verify(this.changeRequestMergeManager).hasConflict(changeRequest);
+        verify(this.changeRequestStorageManager, times(1)).save(any(), any());
+    }
+
+    @Test
+    void computeReadyForMergingStatusAfterDocumentUpdate() throws Exception
+    {
+        DocumentReference documentReference = new DocumentReference("xwiki", "Space", "Page");
+        ChangeRequest changeRequest = mock(ChangeRequest.class);
+        when(changeRequest.getId()).thenReturn("someId");
+        when(changeRequest.getStatus()).thenReturn(ChangeRequestStatus.READY_FOR_MERGING);
+        FileChange fileChange = mock(FileChange.class);
+        when(changeRequest.getLatestFileChangeFor(documentReference)).thenReturn(Optional.of(fileChange));
+        String approvalStrategyHint = "approve";
+        when(this.configuration.getMergeApprovalStrategy()).thenReturn(approvalStrategyHint);
+        MergeApprovalStrategy strategy =
+            this.componentManager.registerMockComponent(MergeApprovalStrategy.class, approvalStrategyHint);
+
+        // The status is not changed: nothing is saved and only the updated document is checked.
+        this.manager.computeReadyForMergingStatusAfterDocumentUpdate(changeRequest, documentReference);
+        verify(this.changeRequestMergeManager).hasConflict(fileChange);
+        verify(this.changeRequestMergeManager, never()).hasConflict(changeRequest);
+        verifyNoInteractions(strategy);
+        verify(this.changeRequestStorageManager, never()).save(any(), any());
+        verify(this.observationManager, never()).notify(any(ChangeRequestStatusChangedEvent.class), any(), any());
+
+        when(this.changeRequestMergeManager.hasConflict(fileChange)).thenReturn(true);
+        when(changeRequest.setStatus(ChangeRequestStatus.READY_FOR_REVIEW)).thenReturn(changeRequest);
+        this.manager.computeReadyForMergingStatusAfterDocumentUpdate(changeRequest, documentReference);
+        verify(changeRequest).setStatus(ChangeRequestStatus.READY_FOR_REVIEW);
+        verify(this.changeRequestStorageManager).save(changeRequest, "Update status");
+        verify(this.observationManager).notify(any(ChangeRequestStatusChangedEvent.class), eq("someId"),
+            eq(new ChangeRequestStatus[] {
+                ChangeRequestStatus.READY_FOR_MERGING, ChangeRequestStatus.READY_FOR_REVIEW }));
+
+        // The updated document still has conflicts: the rest of the change request doesn't need to be checked.
+        when(changeRequest.getStatus()).thenReturn(ChangeRequestStatus.READY_FOR_REVIEW);
+        this.manager.computeReadyForMergingStatusAfterDocumentUpdate(changeRequest, documentReference);
+        verifyNoInteractions(strategy);
+        verify(this.changeRequestMergeManager, never()).hasConflict(changeRequest);
+        verify(this.changeRequestStorageManager, times(1)).save(any(), any());
+
+        // The conflict has been fixed: the whole change request is checked.
+        when(this.changeRequestMergeManager.hasConflict(fileChange)).thenReturn(false);
+        when(strategy.canBeMerged(changeRequest)).thenReturn(false);
+        this.manager.computeReadyForMergingStatusAfterDocumentUpdate(changeRequest, documentReference);
+        verify(strategy).canBeMerged(changeRequest);
+        verify(this.changeRequestStorageManager, times(1)).save(any(), any());
+    }
+
     @Test
     void updateStatus() throws ChangeRequestException
     {
@@ -255,6 +341,38 @@ class DefaultChangeRequestManagerTest
         verify(changeRequest).updateDate();
     }
 
+    @Test
+    void invalidateReviews() throws ChangeRequestException
+    {
+        ChangeRequest changeRequest = mock(ChangeRequest.class);
+        UserReference userReference = mock(UserReference.class);
+        List<ChangeRequestReview> reviews = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            reviews.add(new ChangeRequestReview(changeRequest, true, userReference).setSaved(true));
+        }
+        ChangeRequestReview rejection = new ChangeRequestReview(changeRequest, false, userReference).setSaved(true);
+        ChangeRequestReview invalidApproval = new ChangeRequestReview(changeRequest, true, userReference)
+            .setValid(false)
+            .setSaved(true);
+        List<ChangeRequestReview> allReviews = new ArrayList<>(reviews);
+        allReviews.add(rejection);
+        allReviews.add(invalidApproval);
+        when(changeRequest.getReviews()).thenReturn(allReviews);
+
+        this.manager.invalidateReviews(changeRequest, ReviewInvalidationReason.NEW_CHANGE);
+
+        // All reviews are saved at once.
+        verify(this.reviewStorageManager).saveAll(reviews);
+        verify(this.reviewStorageManager, never()).save(any());
+        for (ChangeRequestReview review : reviews) {
+            assertFalse(review.isValid());
+            assertEquals(ReviewInvalidationReason.NEW_CHANGE, review.getReviewInvalidationReason());
+        }
+        assertTrue(rejection.isValid());
+        assertTrue(rejection.isSaved());
+        assertTrue(invalidApproval.isSaved());
+    }
+
     @Test
     void isFileChangeOutdated() throws ChangeRequestException
     {
@@ -19,15 +19,22 @@
  */
 package org.xwiki.contrib.changerequest.internal;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Provider;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.xwiki.bridge.DocumentModelBridge;
 import org.xwiki.contrib.changerequest.ChangeRequest;
+import org.xwiki.contrib.changerequest.ChangeRequestConfiguration;
 import org.xwiki.contrib.changerequest.ChangeRequestException;
 import org.xwiki.contrib.changerequest.ChangeRequestManager;
 import org.xwiki.contrib.changerequest.ChangeRequestMergeDocumentResult;
@@ -55,10 +62,17 @@ import com.xpn.xwiki.doc.merge.MergeConfiguration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -105,6 +119,12 @@ class DefaultChangeRequestMergeManagerTest
     @MockComponent
     private ContextualLocalizationManager contextualLocalizationManager;
 
+    @MockComponent
+    private ChangeRequestConfiguration configuration;
+
+    @MockComponent
+    private ConflictFingerprintComputer conflictFingerprintComputer;
+
     private XWikiContext context;
     private ChangeRequestManager changeRequestManager;
 
@@ -118,6 +138,88 @@ class DefaultChangeRequestMergeManagerTest
         when(this.changeRequestManagerProvider.get()).thenReturn(this.changeRequestManager);
     }
 
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        this.crMergeManager.dispose();
+    }
+
+    private ChangeRequest mockChangeRequestWithSlowMerges(int documents, long mergeDelay, int conflictIndex)
+        throws ChangeRequestException
+    {
+        ChangeRequest changeRequest = new ChangeRequest();
+        for (int i = 0; i < documents; i++) {
+            FileChange fileChange = mock(FileChange.class);
+            when(fileChange.getTargetEntity()).thenReturn(new DocumentReference("xwiki", "Space", "Page" + i));
+            when(fileChange.getType()).thenReturn(FileChange.FileChangeType.EDITION);
+            DocumentModelBridge modifiedDoc = mock(DocumentModelBridge.class);
+            DocumentModelBridge currentDoc = mock(DocumentModelBridge.class);
+            DocumentModelBridge previousDoc = mock(DocumentModelBridge.class);
+            when(this.fileChangeStorageManager.getModifiedDocumentFromFileChange(fileChange)).thenReturn(modifiedDoc);
+            when(this.fileChangeStorageManager.getCurrentDocumentFromFileChange(fileChange)).thenReturn(currentDoc);
+            when(this.fileChangeStorageManager.getPreviousDocumentFromFileChange(fileChange))
+                .thenReturn(Optional.of(previousDoc));
+
+            MergeDocumentResult mergeDocumentResult = mock(MergeDocumentResult.class);
+            when(mergeDocumentResult.hasConflicts()).thenReturn(i == conflictIndex);
+            long delay = (i == conflictIndex) ? 0 : mergeDelay;
+            when(this.mergeManager
+                .mergeDocument(eq(previousDoc), eq(currentDoc), eq(modifiedDoc), any(MergeConfiguration.class)))
+                .thenAnswer(invocationOnMock -> {
+                    Thread.sleep(delay);
+                    return mergeDocumentResult;
+                });
+            changeRequest.addFileChange(fileChange);
+        }
+        return changeRequest;
+    }
+
+    @Test
+    void hasConflictForChangeRequestChecksDocumentsInParallel() throws Exception
+    {
+        when(this.configuration.getConflictCheckThreads()).thenReturn(8);
+        when(this.mergeCacheManager.hasConflict(any())).thenReturn(Optional.empty());
+        ChangeRequest changeRequest = mockChangeRequestWithSlowMerges(8, 300, -1);
+
+        long start = System.currentTimeMillis();
+        assertFalse(this.crMergeManager.hasConflict(changeRequest));
+        long duration = System.currentTimeMillis() - start;
+
+        // The wall time scales with the slowest document (300ms) rather than with the sum of the merges (2400ms).
+        assertTrue(duration < 1200, String.format("Conflict check took [%s] ms", duration));
+        verify(this.mergeManager, times(8)).mergeDocument(any(), any(), any(), any(MergeConfiguration.class));
+        verify(this.mergeCacheManager, times(8)).setConflictStatus(any(), eq(false));
+    }
+
+    @Test
+    void hasConflictForChangeRequestStopsOnFirstConflict() throws Exception
+    {
+        when(this.configuration.getConflictCheckThreads()).thenReturn(8);
+        when(this.mergeCacheManager.hasConflict(any())).thenReturn(Optional.empty());
+        ChangeRequest changeRequest = mockChangeRequestWithSlowMerges(8, 2000, 0);
+
+        long start = System.currentTimeMillis();
+        assertTrue(this.crMergeManager.hasConflict(changeRequest));
+        long duration = System.currentTimeMillis() - start;
+
+        // The result is returned as soon as the conflict is found, without waiting for the slow checks.
+        assertTrue(duration < 1500, String.format("Conflict check took [%s] ms", duration));
+        verify(this.mergeCacheManager).setConflictStatus(any(), eq(true));
+    }
+
+    @Test
+    void hasConflictForChangeRequestUsesCache() throws Exception
+    {
+        when(this.configuration.getConflictCheckThreads()).thenReturn(8);
+        ChangeRequest changeRequest = mockChangeRequestWithSlowMerges(8, 0, -1);
+        FileChange conflictingFileChange = changeRequest.getLastFileChanges().get(5);
+        when(this.mergeCacheManager.hasConflict(any())).thenReturn(Optional.empty());
+        when(this.mergeCacheManager.hasConflict(conflictingFileChange)).thenReturn(Optional.of(true));
+
+        assertTrue(this.crMergeManager.hasConflict(changeRequest));
+        verifyNoInteractions(this.mergeManager);
+    }
+
     @Test
     void hasConflictWithEdition() throws ChangeRequestException
     {
@@ -161,6 +263,59 @@ class DefaultChangeRequestMergeManagerTest
         verify(this.mergeCacheManager).setConflictStatus(fileChange, true);
     }
 
+    @Test
+    void hasConflictWithEditionUsesFingerprint() throws ChangeRequestException
+    {
+        Map<String, Boolean> fingerprintCache = new ConcurrentHashMap<>();
+        when(this.mergeCacheManager.getFingerprintConflictStatus(any()))
+            .then(invocationOnMock -> Optional.ofNullable(fingerprintCache.get(invocationOnMock.getArgument(0))));
+        doAnswer(invocationOnMock -> fingerprintCache.put(invocationOnMock.getArgument(0),
+            invocationOnMock.getArgument(1))).when(this.mergeCacheManager).setFingerprintConflictStatus(any(),
+            anyBoolean());
+        when(this.mergeCacheManager.hasConflict(any())).thenReturn(Optional.empty());
+        DocumentReference userReference = new DocumentReference("xwiki", "XWiki", "User");
+        when(this.context.getUserReference()).thenReturn(userReference);
+
+        FileChange fileChange = mock(FileChange.class);
+        when(fileChange.getType()).thenReturn(FileChange.FileChangeType.EDITION);
+        XWikiDocument modifiedDoc = mock(XWikiDocument.class);
+        XWikiDocument currentDoc = mock(XWikiDocument.class);
+        XWikiDocument previousDoc = mock(XWikiDocument.class);
+        when(this.fileChangeStorageManager.getModifiedDocumentFromFileChange(fileChange)).thenReturn(modifiedDoc);
+        when(this.fileChangeStorageManager.getCurrentDocumentFromFileChange(fileChange)).thenReturn(currentDoc);
+        when(this.fileChangeStorageManager.getPreviousDocumentFromFileChange(fileChange))
+            .thenReturn(Optional.of(previousDoc));
+        when(this.conflictFingerprintComputer.computeFingerprint(previousDoc, modifiedDoc, currentDoc, userReference))
+            .thenReturn(Optional.of("fingerprint1"));
+
+        MergeDocumentResult mergeDocumentResult = mock(MergeDocumentResult.class);
+        when(this.mergeManager.mergeDocument(any(), any(), any(), any(MergeConfiguration.class)))
+            .thenReturn(mergeDocumentResult);
+        assertFalse(this.crMergeManager.hasConflict(fileChange));
+        verify(this.mergeManager)
+            .mergeDocument(eq(previousDoc), eq(currentDoc), eq(modifiedDoc), any(MergeConfiguration.class));
+
+        // The target document is saved with changes not related to the change request, e.g. a new comment: the
+        // fingerprint is the same and the merge is not performed again.
+        XWikiDocument commentedDoc = mock(XWikiDocument.class);
+        when(this.fileChangeStorageManager.getCurrentDocumentFromFileChange(fileChange)).thenReturn(commentedDoc);
+        when(this.conflictFingerprintComputer.computeFingerprint(previousDoc, modifiedDoc, commentedDoc, userReference))
+            .thenReturn(Optional.of("fingerprint1"));
+        assertFalse(this.crMergeManager.hasConflict(fileChange));
+        verify(this.mergeManager, times(1)).mergeDocument(any(), any(), any(), any(MergeConfiguration.class));
+
+        // The target document is modified on the parts changed by the change request: the merge is performed.
+        XWikiDocument editedDoc = mock(XWikiDocument.class);
+        when(this.fileChangeStorageManager.getCurrentDocumentFromFileChange(fileChange)).thenReturn(editedDoc);
+        when(this.conflictFingerprintComputer.computeFingerprint(previousDoc, modifiedDoc, editedDoc, userReference))
+            .thenReturn(Optional.of("fingerprint2"));
+        when(mergeDocumentResult.hasConflicts()).thenReturn(true);
+        assertTrue(this.crMergeManager.hasConflict(fileChange));
+        verify(this.mergeManager)
+            .mergeDocument(eq(previousDoc), eq(editedDoc), eq(modifiedDoc), any(MergeConfiguration.class));
+        verify(this.mergeCacheManager).setFingerprintConflictStatus("fingerprint2", true);
+    }
+
     @Test
     void getMergeDocumentResult() throws Exception
     {
@@ -240,6 +395,113 @@ class DefaultChangeRequestMergeManagerTest
         verify(documentAuthors).setOriginalMetadataAuthor(authorRef);
     }
 
+    @Test
+    void getMergeDocumentResultAfterPrecomputation() throws Exception
+    {
+        Map<FileChange, ChangeRequestMergeDocumentResult> cache = new ConcurrentHashMap<>();
+        when(this.mergeCacheManager.getChangeRequestMergeDocumentResult(any()))
+            .thenAnswer(invocationOnMock -> Optional.ofNullable(cache.get(invocationOnMock.getArgument(0))));
+        doAnswer(invocationOnMock -> cache.put(invocationOnMock.getArgument(0), invocationOnMock.getArgument(1)))
+            .when(this.mergeCacheManager).setChangeRequestMergeDocumentResult(any(), any());
+
+        FileChange fileChange = mock(FileChange.class);
+        when(fileChange.getType()).thenReturn(FileChange.FileChangeType.EDITION);
+        when(fileChange.getTargetEntity()).thenReturn(new DocumentReference("xwiki", "Space", "Page"));
+        XWikiDocument currentDoc = mock(XWikiDocument.class, "currentDoc");
+        XWikiDocument previousDoc = mock(XWikiDocument.class, "previousDoc");
+        XWikiDocument nextDoc = mock(XWikiDocument.class, "nextDoc");
+        when(this.fileChangeStorageManager.getCurrentDocumentFromFileChange(fileChange)).thenReturn(currentDoc);
+        when(this.fileChangeStorageManager.getPreviousDocumentFromFileChange(fileChange))
+            .thenReturn(Optional.of(previousDoc));
+        when(this.fileChangeStorageManager.getModifiedDocumentFromFileChange(fileChange)).thenReturn(nextDoc);
+
+        MergeDocumentResult mergeDocumentResult = mock(MergeDocumentResult.class);
+        XWikiDocument mergeResult = mock(XWikiDocument.class, "mergeResult");
+        when(mergeDocumentResult.getMergeResult()).thenReturn(mergeResult);
+        when(mergeResult.getAuthors()).thenReturn(mock(DocumentAuthors.class));
+        when(this.mergeManager.mergeDocument(eq(previousDoc), eq(nextDoc), eq(currentDoc), any()))
+            .thenReturn(mergeDocumentResult);
+
+        // Computation performed by the background precomputation.
+        ChangeRequestMergeDocumentResult precomputedResult = CompletableFuture.supplyAsync(() -> {
+            try {
+                return this.crMergeManager.getMergeDocumentResult(fileChange);
+            } catch (ChangeRequestException e) {
+                throw new RuntimeException(e);
+            }
+        }).get();
+        verify(this.mergeManager).mergeDocument(eq(previousDoc), eq(nextDoc), eq(currentDoc), any());
+        clearInvocations(this.mergeManager);
+
+        // A reviewer opening the change request doesn't perform any merge.
+        assertSame(precomputedResult, this.crMergeManager.getMergeDocumentResult(fileChange));
+        verifyNoInteractions(this.mergeManager);
+    }
+
+    @Test
+    void getMergeDocumentResultWithConflicts() throws Exception
+    {
+        FileChange fileChange = mock(FileChange.class);
+        UserReference authorRef = mock(UserReference.class, "author");
+        when(fileChange.getAuthor()).thenReturn(authorRef);
+        when(fileChange.getType()).thenReturn(FileChange.FileChangeType.EDITION);
+        when(fileChange.getTargetEntity()).thenReturn(new DocumentReference("xwiki", "Space", "Page"));
+        XWikiDocument currentDoc = mock(XWikiDocument.class, "currentDoc");
+        XWikiDocument previousDoc = mock(XWikiDocument.class, "previousDoc");
+        XWikiDocument nextDoc = mock(XWikiDocument.class, "nextDoc");
+        when(this.fileChangeStorageManager.getCurrentDocumentFromFileChange(fileChange)).thenReturn(currentDoc);
+        when(this.fileChangeStorageManager.getPreviousDocumentFromFileChange(fileChange))
+            .thenReturn(Optional.of(previousDoc));
+        when(this.fileChangeStorageManager.getModifiedDocumentFromFileChange(fileChange)).thenReturn(nextDoc);
+
+        MergeDocumentResult mergeDocumentResult = mock(MergeDocumentResult.class, "currentFallback");
+        XWikiDocument mergeResult = mock(XWikiDocument.class, "mergeResult");
+        when(mergeDocumentResult.getMergeResult()).thenReturn(mergeResult);
+        when(mergeResult.getAuthors()).thenReturn(mock(DocumentAuthors.class));
+        when(mergeDocumentResult.hasConflicts()).thenReturn(true);
+
+        MergeDocumentResult mergeDocumentResultWithCRFallback = mock(MergeDocumentResult.class, "nextFallback");
+        XWikiDocument mergeResultWithCRFallback = mock(XWikiDocument.class, "mergeResultWithCRFallback");
+        when(mergeDocumentResultWithCRFallback.getMergeResult()).thenReturn(mergeResultWithCRFallback);
+        DocumentAuthors documentAuthors = mock(DocumentAuthors.class);
+        when(mergeResultWithCRFallback.getAuthors()).thenReturn(documentAuthors);
+
+        List<MergeConfiguration> mergeConfigurations = new ArrayList<>();
+        when(this.mergeManager.mergeDocument(eq(previousDoc), eq(nextDoc), eq(currentDoc), any()))
+            .thenAnswer(invocationOnMock -> {
+                MergeConfiguration mergeConfiguration = invocationOnMock.getArgument(3);
+                mergeConfigurations.add(mergeConfiguration);
+                if (mergeConfiguration.getConflictFallbackVersion()
+                    == MergeConfiguration.ConflictFallbackVersion.NEXT) {
+                    return mergeDocumentResultWithCRFallback;
+                } else {
+                    return mergeDocumentResult;
+                }
+            });
+
+        ChangeRequestMergeDocumentResult result = this.crMergeManager.getMergeDocumentResult(fileChange);
+        assertTrue(result.hasConflicts());
+        assertSame(mergeDocumentResult, result.getWrappedResult());
+        // A single merge is performed to display the change request and the default view of the conflict modal.
+        assertEquals(FileChange.FileChangeType.EDITION, result.getType());
+        assertFalse(result.hasOnlyContentConflicts());
+        assertSame(mergeResult, result.getWrappedResult().getMergeResult());
+        verify(this.mergeManager, times(1)).mergeDocument(any(), any(), any(), any());
+
+        // The merge with the change request fallback is only performed when needed, and only once.
+        assertSame(mergeDocumentResultWithCRFallback, result.getWrappedResultWithCRFallback());
+        assertSame(mergeDocumentResultWithCRFallback, result.getWrappedResultWithCRFallback());
+        verify(this.mergeManager, times(2)).mergeDocument(any(), any(), any(), any());
+        verify(documentAuthors).setOriginalMetadataAuthor(authorRef);
+
+        // The configuration of the first merge is not modified by the merge with the change request fallback.
+        assertNotSame(mergeConfigurations.get(0), mergeConfigurations.get(1));
+        assertNotEquals(MergeConfiguration.ConflictFallbackVersion.NEXT,
+            mergeConfigurations.get(0).getConflictFallbackVersion());
+        assertEquals(new DocumentReference("xwiki", "Space", "Page"),
+            mergeConfigurations.get(1).getConcernedDocument());
+    }
+
     @Test
     void mergeWithConflictDecisionEditionNoCustom() throws ChangeRequestException
     {
@@ -24,6 +24,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -181,6 +182,7 @@ class DefaultChangeRequestRightsManagerTest
         DocumentReference docRef2 = mock(DocumentReference.class);
 
         when(changeRequest.getModifiedDocuments()).thenReturn(Stream.of(docRef1, docRef2).collect(Collectors.toSet()));
+        mockDistinctRules(docRef1, docRef2, newChangeReference);
 
         List<ReadableSecurityRule> rulesDoc1 = mock(List.class);
         List<ReadableSecurityRule> rulesDoc2 = mock(List.class);
@@ -250,7 +252,7 @@ class DefaultChangeRequestRightsManagerTest
     }
 
     @Test
-    void isViewAccessStillConsistent() throws ChangeRequestException
+    void isViewAccessStillConsistent() throws ChangeRequestException, AuthorizationException
     {
         ChangeRequest changeRequest = mock(ChangeRequest.class);
 
@@ -259,6 +261,7 @@ class DefaultChangeRequestRightsManagerTest
         DocumentReference doc3 = mock(DocumentReference.class);
 
         when(changeRequest.getModifiedDocuments()).thenReturn(Stream.of(doc1, doc2, doc3).collect(Collectors.toSet()));
+        mockDistinctRules(doc1, doc2, doc3);
 
         DocumentReference user1 = mock(DocumentReference.class);
         DocumentReference user2 = mock(DocumentReference.class);
@@ -309,6 +312,73 @@ class DefaultChangeRequestRightsManagerTest
         assertFalse(this.rightsManager.isViewAccessStillConsistent(changeRequest, userSet));
     }
 
+    @Test
+    void isViewAccessStillConsistentEvaluatesEachRuleSetOnce() throws ChangeRequestException, AuthorizationException
+    {
+        // 200 documents spread in 3 spaces, each space having its own rules.
+        ChangeRequest changeRequest = mock(ChangeRequest.class);
+        Set<DocumentReference> documents = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            documents.add(new DocumentReference("xwiki", "Space" + (i % 3), "Page" + i));
+        }
+        when(changeRequest.getModifiedDocuments()).thenReturn(documents);
+        for (int i = 0; i < 3; i++) {
+            SpaceReference spaceReference = new SpaceReference("xwiki", "Space" + i);
+            ReadableSecurityRule rule = mock(ReadableSecurityRule.class);
+            when(rule.getState()).thenReturn(RuleState.ALLOW);
+            when(rule.getGroups()).thenReturn(List.of(new DocumentReference("xwiki", "XWiki", "Group" + i)));
+            when(this.rightsReader.getRules(spaceReference, true)).thenReturn(List.of(rule));
+        }
+
+        Set<DocumentReference> subjects = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            subjects.add(new DocumentReference("xwiki", "XWiki", "User" + i));
+        }
+        when(this.authorizationManager.hasAccess(eq(Right.VIEW), any(DocumentReference.class), any()))
+            .thenReturn(true);
+
+        assertTrue(this.rightsManager.isViewAccessStillConsistent(changeRequest, subjects));
+        // The access is evaluated once per subject and space, instead of once per subject and document.
+        verify(this.authorizationManager, times(150)).hasAccess(eq(Right.VIEW), any(DocumentReference.class), any());
+        // The rules of each level of the hierarchy are read once: 200 documents, 3 spaces and the wiki.
+        verify(this.rightsReader, times(204)).getRules(any(), eq(true));
+        verify(this.rightsReader).getRules(new SpaceReference("xwiki", "Space0"), true);
+
+        DocumentReference user = new DocumentReference("xwiki", "XWiki", "User0");
+        when(this.authorizationManager.hasAccess(eq(Right.VIEW), eq(user), any())).thenAnswer(invocationOnMock ->
+            !"Space2".equals(((DocumentReference) invocationOnMock.getArgument(2)).getLastSpaceReference().getName()));
+        assertFalse(this.rightsManager.isViewAccessStillConsistent(changeRequest, subjects));
+    }
+
+    @Test
+    void isViewAccessStillConsistentWithImpliedRules() throws ChangeRequestException, AuthorizationException
+    {
+        // User profile pages only have implied rules, giving each user rights on its own profile.
+        ChangeRequest changeRequest = mock(ChangeRequest.class);
+        DocumentReference profile1 = new DocumentReference("xwiki", "XWiki", "User1");
+        DocumentReference profile2 = new DocumentReference("xwiki", "XWiki", "User2");
+        when(changeRequest.getModifiedDocuments()).thenReturn(new LinkedHashSet<>(List.of(profile1, profile2)));
+        for (DocumentReference profile : List.of(profile1, profile2)) {
+            ReadableSecurityRule rule = mock(ReadableSecurityRule.class);
+            when(rule.getState()).thenReturn(RuleState.ALLOW);
+            when(rule.getUsers()).thenReturn(List.of(profile));
+            when(this.rightsReader.getRules(profile, true)).thenReturn(List.of(rule));
+        }
+
+        DocumentReference user = new DocumentReference("xwiki", "XWiki", "Subject");
+        when(this.authorizationManager.hasAccess(Right.VIEW, user, profile1)).thenReturn(true);
+        assertFalse(this.rightsManager.isViewAccessStillConsistent(changeRequest, Set.of(user)));
+    }
+
+    private void mockDistinctRules(DocumentReference... documentReferences) throws AuthorizationException
+    {
+        for (DocumentReference documentReference : documentReferences) {
+            ReadableSecurityRule rule = mock(ReadableSecurityRule.class);
+            when(rule.getUsers()).thenReturn(List.of(mock(DocumentReference.class)));
+            when(this.rightsReader.getRules(documentReference, true)).thenReturn(List.of(rule));
+        }
+    }
+
     @Test
     void copyViewRights() throws AuthorizationException, ChangeRequestException, XWikiException
     {
@@ -585,6 +655,49 @@ class DefaultChangeRequestRightsManagerTest
         verify(this.rightsWriter).saveRules(any(), eq(changeRequestSpaceRef));
     }
 
+    @Test
+    void applyChangesWithoutChanges() throws AuthorizationException, ChangeRequestException, XWikiException
+    {
+        DocumentReference buzUserRef = new DocumentReference("xwiki", "XWiki", "Buz");
+
+        // diff: Add allow view on XWiki.Buz
+        SecurityRuleDiff diff = mock(SecurityRuleDiff.class);
+        when(diff.getChangeType()).thenReturn(SecurityRuleDiff.ChangeType.RULE_ADDED);
+        ReadableSecurityRule currentRule = mock(ReadableSecurityRule.class);
+        when(diff.getCurrentRule()).thenReturn(currentRule);
+        when(currentRule.getUsers()).thenReturn(Collections.singletonList(buzUserRef));
+        when(currentRule.getRights()).thenReturn(new RightSet(Right.VIEW));
+        when(currentRule.getState()).thenReturn(RuleState.ALLOW);
+        when(currentRule.match(Right.VIEW)).thenReturn(true);
+
+        when(this.rightsWriter.createRule(any())).thenAnswer(invocationOnMock -> {
+            ReadableSecurityRule readableSecurityRule = invocationOnMock.getArgument(0);
+            return new WritableSecurityRuleImpl(
+                readableSecurityRule.getGroups(),
+                readableSecurityRule.getUsers(),
+                readableSecurityRule.getRights(),
+                readableSecurityRule.getState());
+        });
+
+        // All change requests already allow view on XWiki.Buz.
+        List<ChangeRequest> changeRequests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ChangeRequest changeRequest = mock(ChangeRequest.class);
+            DocumentReference changeRequestDocRef = new DocumentReference("xwiki", "CR" + i, "WebHome");
+            when(this.changeRequestDocumentReferenceResolver.resolve(changeRequest)).thenReturn(changeRequestDocRef);
+            List<ReadableSecurityRule> rules = List.of(new WritableSecurityRuleImpl(Collections.emptyList(),
+                Collections.singletonList(buzUserRef), new RightSet(Right.VIEW, Right.EDIT), RuleState.ALLOW));
+            when(this.rightsReader.getRules(changeRequestDocRef.getLastSpaceReference(), false)).thenReturn(rules);
+            when(this.ruleAbacus.normalizeRulesBySubject(rules)).thenReturn(rules);
+            changeRequests.add(changeRequest);
+        }
+
+        this.rightsManager.applyChanges(changeRequests, List.of(diff));
+
+        verify(this.rightsReader, times(3)).getRules(any(), eq(false));
+        verify(this.rightsWriter, never()).saveRules(any(), any());
+    }
+
     @Test
     void isAuthorizedToMergeWithoutMergeUser() throws ChangeRequestException
     {
@@ -0,0 +1,135 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal;
+
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.contrib.changerequest.ChangeRequest;
+import org.xwiki.contrib.changerequest.ChangeRequestConfiguration;
+import org.xwiki.contrib.changerequest.ChangeRequestMergeManager;
+import org.xwiki.contrib.changerequest.FileChange;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link MergeResultPrecomputationScheduler}.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@ComponentTest
+class MergeResultPrecomputationSchedulerTest
+{
+    @InjectMockComponents
+    private MergeResultPrecomputationScheduler scheduler;
+
+    @MockComponent
+    private ChangeRequestMergeManager mergeManager;
+
+    @MockComponent
+    private ChangeRequestConfiguration configuration;
+
+    @MockComponent
+    private ExecutionContextManager executionContextManager;
+
+    @MockComponent
+    private Execution execution;
+
+    @MockComponent
+    private Provider<XWikiContext> contextProvider;
+
+    private XWikiContext context;
+
+    @BeforeEach
+    void setup()
+    {
+        this.context = mock(XWikiContext.class);
+        when(this.contextProvider.get()).thenReturn(this.context);
+        when(this.configuration.getMergingStatusComputationDelay()).thenReturn(500L);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        this.scheduler.dispose();
+    }
+
+    private FileChange mockFileChange(String id)
+    {
+        ChangeRequest changeRequest = mock(ChangeRequest.class);
+        when(changeRequest.getId()).thenReturn("CR1");
+        FileChange fileChange = mock(FileChange.class);
+        when(fileChange.getId()).thenReturn(id);
+        when(fileChange.getChangeRequest()).thenReturn(changeRequest);
+        when(fileChange.getTargetEntity()).thenReturn(new DocumentReference("foo", "Space", "Page"));
+        return fileChange;
+    }
+
+    @Test
+    void scheduleCoalescesRequests() throws Exception
+    {
+        DocumentReference userReference = new DocumentReference("foo", "XWiki", "User");
+        FileChange fileChange1 = mockFileChange("filechange1");
+        FileChange fileChange2 = mockFileChange("filechange2");
+
+        for (int i = 0; i < 10; i++) {
+            this.scheduler.schedule(fileChange1, userReference);
+        }
+        this.scheduler.schedule(fileChange2, userReference);
+        // The caller is never blocked by the computation.
+        verify(this.mergeManager, never()).getMergeDocumentResult(any());
+
+        verify(this.mergeManager, timeout(5000)).getMergeDocumentResult(fileChange1);
+        verify(this.mergeManager, timeout(5000)).getMergeDocumentResult(fileChange2);
+        verify(this.execution, timeout(5000).times(2)).removeContext();
+
+        Thread.sleep(700);
+        verify(this.mergeManager, times(1)).getMergeDocumentResult(fileChange1);
+        verify(this.context, times(2)).setWikiReference(new WikiReference("foo"));
+        verify(this.context, times(2)).setUserReference(userReference);
+    }
+
+    @Test
+    void scheduleAfterDispose() throws Exception
+    {
+        this.scheduler.dispose();
+        this.scheduler.schedule(mockFileChange("filechange1"), null);
+        Thread.sleep(700);
+        verify(this.mergeManager, never()).getMergeDocumentResult(any());
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal;
+
+import java.util.List;
+import java.util.Optional;
+
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.contrib.changerequest.ChangeRequest;
+import org.xwiki.contrib.changerequest.ChangeRequestConfiguration;
+import org.xwiki.contrib.changerequest.ChangeRequestManager;
+import org.xwiki.contrib.changerequest.ChangeRequestStatus;
+import org.xwiki.contrib.changerequest.FileChange;
+import org.xwiki.contrib.changerequest.storage.ChangeRequestStorageManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link MergingStatusComputationScheduler}.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@ComponentTest
+class MergingStatusComputationSchedulerTest
+{
+    @InjectMockComponents
+    private MergingStatusComputationScheduler scheduler;
+
+    @MockComponent
+    private ChangeRequestStorageManager storageManager;
+
+    @MockComponent
+    private ChangeRequestManager changeRequestManager;
+
+    @MockComponent
+    private MergeResultPrecomputationScheduler mergeResultPrecomputationScheduler;
+
+    @MockComponent
+    private ChangeRequestConfiguration configuration;
+
+    @MockComponent
+    private ExecutionContextManager executionContextManager;
+
+    @MockComponent
+    private Execution execution;
+
+    @MockComponent
+    private Provider<XWikiContext> contextProvider;
+
+    private XWikiContext context;
+
+    @BeforeEach
+    void setup()
+    {
+        this.context = mock(XWikiContext.class);
+        when(this.contextProvider.get()).thenReturn(this.context);
+        when(this.configuration.getMergingStatusComputationDelay()).thenReturn(500L);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        this.scheduler.dispose();
+    }
+
+    @Test
+    void scheduleCoalescesUpdates() throws Exception
+    {
+        DocumentReference documentReference = new DocumentReference("foo", "Space", "Page");
+        DocumentReference userReference = new DocumentReference("foo", "XWiki", "User");
+        ChangeRequest changeRequest1 = mock(ChangeRequest.class, "cr1");
+        ChangeRequest changeRequest2 = mock(ChangeRequest.class, "cr2");
+        when(changeRequest1.getStatus()).thenReturn(ChangeRequestStatus.READY_FOR_REVIEW);
+        when(changeRequest2.getStatus()).thenReturn(ChangeRequestStatus.DRAFT);
+        FileChange fileChange = mock(FileChange.class);
+        when(changeRequest1.getLatestFileChangeFor(documentReference)).thenReturn(Optional.of(fileChange));
+        when(this.storageManager.findOpenChangeRequestTargeting(documentReference))
+            .thenReturn(List.of(changeRequest1, changeRequest2));
+
+        for (int i = 0; i < 100; i++) {
+            this.scheduler.schedule(documentReference, userReference);
+        }
+        // The saves are never blocked by the computation.
+        verify(this.changeRequestManager, never()).computeReadyForMergingStatusAfterDocumentUpdate(any(), any());
+
+        verify(this.changeRequestManager, timeout(5000))
+            .computeReadyForMergingStatusAfterDocumentUpdate(changeRequest1, documentReference);
+        verify(this.changeRequestManager, timeout(5000))
+            .computeReadyForMergingStatusAfterDocumentUpdate(changeRequest2, documentReference);
+        verify(this.storageManager, timeout(5000)).findOpenChangeRequestTargeting(documentReference);
+        verify(this.execution, timeout(5000)).removeContext();
+        verify(this.mergeResultPrecomputationScheduler).schedule(fileChange, userReference);
+
+        // Wait for any possible other computation before checking they were all coalesced.
+        Thread.sleep(700);
+        verify(this.storageManager, times(1)).findOpenChangeRequestTargeting(documentReference);
+        verify(this.changeRequestManager, times(1))
+            .computeReadyForMergingStatusAfterDocumentUpdate(changeRequest1, documentReference);
+        verify(this.changeRequestManager, times(1))
+            .computeReadyForMergingStatusAfterDocumentUpdate(changeRequest2, documentReference);
+        verify(this.context).setWikiReference(new WikiReference("foo"));
+        verify(this.context).setUserReference(userReference);
+
+        // A new update after the computation triggers a new one.
+        this.scheduler.schedule(documentReference, userReference);
+        verify(this.changeRequestManager, timeout(5000).times(2))
+            .computeReadyForMergingStatusAfterDocumentUpdate(changeRequest1, documentReference);
+    }
+
+    @Test
+    void scheduleAfterDispose() throws Exception
+    {
+        this.scheduler.dispose();
+        DocumentReference documentReference = new DocumentReference("foo", "Space", "Page");
+        this.scheduler.schedule(documentReference, null);
+        Thread.sleep(700);
+        verify(this.storageManager, never()).findOpenChangeRequestTargeting(any());
+    }
+}
@@ -20,8 +20,13 @@
 package org.xwiki.contrib.changerequest.internal.approvers;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Provider;
@@ -29,6 +34,7 @@ import javax.inject.Provider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.xwiki.contrib.changerequest.internal.UserReferenceConverter;
+import org.xwiki.contrib.changerequest.internal.cache.ApproversCacheManager;
 import org.xwiki.contrib.changerequest.rights.ChangeRequestApproveRight;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.DocumentReferenceResolver;
@@ -53,6 +59,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -104,6 +111,9 @@ class XWikiDocumentApproversManagerTest
     @MockComponent
     private UserReferenceResolver<CurrentUserReference> currentUserReferenceUserReferenceResolver;
 
+    @MockComponent
+    private ApproversCacheManager approversCacheManager;
+
     private XWikiContext context;
     private XWiki wiki;
 
@@ -223,6 +233,62 @@ class XWikiDocumentApproversManagerTest
         assertFalse(this.manager.isApprover(CurrentUserReference.INSTANCE, xWikiDocument, true));
     }
 
+    @Test
+    void isApproverComputesGroupMembersOnce() throws Exception
+    {
+        // In-memory stand-in of the cache.
+        Map<List<Object>, Set<UserReference>> cache = new HashMap<>();
+        when(this.approversCacheManager.getApprovers(any(), any(), any())).thenAnswer(invocationOnMock ->
+            Optional.ofNullable(cache.get(Arrays.asList(invocationOnMock.getArguments()))));
+        doAnswer(invocationOnMock -> {
+            Object[] arguments = invocationOnMock.getArguments();
+            cache.put(Arrays.asList(arguments[0], arguments[1], arguments[2]), invocationOnMock.getArgument(3));
+            return null;
+        }).when(this.approversCacheManager).setApprovers(any(), any(), any(), any());
+
+        XWikiDocument xWikiDocument = mock(XWikiDocument.class);
+        DocumentReference documentReference = new DocumentReference("xwiki", "Space", "Page");
+        when(xWikiDocument.getDocumentReference()).thenReturn(documentReference);
+        BaseObject xobject = mock(BaseObject.class);
+        when(xWikiDocument.getXObject(ApproversXClassInitializer.APPROVERS_XCLASS, false, this.context))
+            .thenReturn(xobject);
+        when(xobject.getLargeStringValue(ApproversXClassInitializer.USERS_APPROVERS_PROPERTY)).thenReturn("Foo");
+        when(xobject.getLargeStringValue(ApproversXClassInitializer.GROUPS_APPROVERS_PROPERTY))
+            .thenReturn("GroupA,GroupB");
+        UserReference user1 = mock(UserReference.class);
+        when(this.stringUserReferenceResolver.resolve("Foo")).thenReturn(user1);
+
+        DocumentReference groupARef = mock(DocumentReference.class);
+        DocumentReference groupBRef = mock(DocumentReference.class);
+        when(this.documentReferenceResolver.resolve("GroupA")).thenReturn(groupARef);
+        when(this.documentReferenceResolver.resolve("GroupB")).thenReturn(groupBRef);
+        DocumentReference userARef = mock(DocumentReference.class);
+        DocumentReference userBRef = mock(DocumentReference.class);
+        when(this.groupManager.getMembers(groupARef, true)).thenReturn(List.of(userARef));
+        when(this.groupManager.getMembers(groupBRef, true)).thenReturn(List.of(userBRef));
+        UserReference user2 = mock(UserReference.class);
+        UserReference user3 = mock(UserReference.class);
+        when(this.documentReferenceUserReferenceResolver.resolve(userARef)).thenReturn(user2);
+        when(this.documentReferenceUserReferenceResolver.resolve(userBRef)).thenReturn(user3);
+        UserReference user4 = mock(UserReference.class);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(this.manager.isApprover(user1, xWikiDocument, true));
+            assertTrue(this.manager.isApprover(user2, xWikiDocument, true));
+            assertTrue(this.manager.isApprover(user3, xWikiDocument, true));
+            assertFalse(this.manager.isApprover(user4, xWikiDocument, true));
+        }
+        verify(this.groupManager).getMembers(groupARef, true);
+        verify(this.groupManager).getMembers(groupBRef, true);
+
+        // The cached value is not used anymore when the approvers are modified.
+        when(xobject.getLargeStringValue(ApproversXClassInitializer.GROUPS_APPROVERS_PROPERTY)).thenReturn("GroupA");
+        assertFalse(this.manager.isApprover(user3, xWikiDocument, true));
+        assertTrue(this.manager.isApprover(user2, xWikiDocument, true));
+        verify(this.groupManager, times(2)).getMembers(groupARef, true);
+        verify(this.groupManager).getMembers(groupBRef, true);
+    }
+
     @Test
     void setUsersApprovers() throws Exception
     {
@@ -19,10 +19,14 @@
  */
 package org.xwiki.contrib.changerequest.internal.approvers;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Named;
@@ -39,6 +43,7 @@ import org.xwiki.contrib.changerequest.ApproversManager;
 import org.xwiki.contrib.changerequest.ChangeRequestConfiguration;
 import org.xwiki.contrib.changerequest.ChangeRequestException;
 import org.xwiki.contrib.changerequest.internal.UserReferenceConverter;
+import org.xwiki.contrib.changerequest.internal.cache.DelegateApproversIndexManager;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
@@ -64,7 +69,10 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -101,6 +109,9 @@ class XWikiDocumentDelegateApproverManagerTest
     @MockComponent
     private CacheManager cacheManager;
 
+    @MockComponent
+    private DelegateApproversIndexManager delegateApproversIndexManager;
+
     private XWikiContext context;
     private XWiki wiki;
     private ApproversManager<XWikiDocument> approversManager;
@@ -198,6 +209,72 @@ class XWikiDocumentDelegateApproverManagerTest
             anyString());
         verify(wiki).saveDocument(userDoc, "Computation of delegate approvers", context);
         verify(delegateCache).set("XWiki.Current", expectedResult);
+        verify(this.delegateApproversIndexManager).update(eq(userDocRef), anyString());
+    }
+
+    @Test
+    void computeDelegatesOnlySavesChangedUsers() throws ChangeRequestException, XWikiException
+    {
+        when(this.configuration.isDelegateEnabled()).thenReturn(true);
+        when(this.configuration.getDelegateClassPropertyList()).thenReturn(List.of("delegate"));
+        Map<String, UserReference> delegates = new HashMap<>();
+        when(this.stringUserReferenceResolver.resolve(anyString())).thenAnswer(invocation ->
+            delegates.computeIfAbsent(invocation.getArgument(0), key -> mock(UserReference.class)));
+        when(this.userReferenceSerializer.serialize(any())).thenReturn("XWiki.User");
+
+        // All users have the same delegates, but only one user out of 10 has them already stored.
+        BaseObject userObj = mock(BaseObject.class);
+        ListProperty delegateProp = mock(ListProperty.class);
+        when(userObj.get("delegate")).thenReturn(delegateProp);
+        when(delegateProp.getList()).thenReturn(List.of("XWiki.Foo", "XWiki.Bar"));
+        BaseObject upToDateObj = mock(BaseObject.class);
+        when(upToDateObj.getLargeStringValue(DelegateApproversXClassInitializer.DELEGATED_USERS_PROPERTY))
+            .thenReturn("XWiki.Bar,XWiki.Foo");
+        BaseObject outdatedObj = mock(BaseObject.class);
+        when(outdatedObj.getLargeStringValue(DelegateApproversXClassInitializer.DELEGATED_USERS_PROPERTY))
+            .thenReturn("XWiki.Foo");
+        BaseObject newObj = mock(BaseObject.class);
+
+        Map<UserReference, DocumentReference> userDocReferences = new HashMap<>();
+        Map<DocumentReference, XWikiDocument> userDocs = new HashMap<>();
+        when(this.userReferenceConverter.convert(any())).thenAnswer(invocation ->
+            userDocReferences.get(invocation.getArgument(0)));
+        when(this.wiki.getDocument(any(DocumentReference.class), eq(this.context))).thenAnswer(invocation ->
+            userDocs.get(invocation.getArgument(0)));
+        List<UserReference> users = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            UserReference userReference = mock(UserReference.class);
+            DocumentReference userDocReference = new DocumentReference("xwiki", "XWiki", "User" + i);
+            XWikiDocument userDoc = mock(XWikiDocument.class);
+            when(userDoc.getXObject(XWikiUsersDocumentInitializer.XWIKI_USERS_DOCUMENT_REFERENCE)).thenReturn(userObj);
+            List<BaseObject> delegateObjects;
+            if (i % 10 == 0) {
+                delegateObjects = Arrays.asList(null, outdatedObj);
+            } else {
+                delegateObjects = Arrays.asList(null, upToDateObj);
+            }
+            when(userDoc.getXObjects(DelegateApproversXClassInitializer.DELEGATE_APPROVERS_XCLASS))
+                .thenReturn(delegateObjects);
+            when(userDoc.getXObject(DelegateApproversXClassInitializer.DELEGATE_APPROVERS_XCLASS, 0))
+                .thenReturn(newObj);
+            userDocReferences.put(userReference, userDocReference);
+            userDocs.put(userDocReference, userDoc);
+            users.add(userReference);
+        }
+
+        Set<UserReference> expectedResult = Set.of(delegates.get("XWiki.Foo"), delegates.get("XWiki.Bar"));
+        for (UserReference user : users) {
+            assertEquals(expectedResult, this.delegateApproverManager.computeDelegates(user));
+        }
+
+        verify(this.wiki, times(500)).saveDocument(any(XWikiDocument.class),
+            eq("Computation of delegate approvers"), eq(this.context));
+        verify(this.delegateApproversIndexManager, times(500)).update(any(), anyString());
+        verify(userDocs.get(new DocumentReference("xwiki", "XWiki", "User4990")))
+            .removeXObjects(DelegateApproversXClassInitializer.DELEGATE_APPROVERS_XCLASS);
+        verify(userDocs.get(new DocumentReference("xwiki", "XWiki", "User4999")), never())
+            .removeXObjects(DelegateApproversXClassInitializer.DELEGATE_APPROVERS_XCLASS);
+        verify(this.delegateCache, times(5000)).set("XWiki.User", expectedResult);
     }
 
     @Test
@@ -258,31 +335,27 @@ class XWikiDocumentDelegateApproverManagerTest
         XWikiDocument document = mock(XWikiDocument.class);
         when(this.configuration.isDelegateEnabled()).thenReturn(false);
         assertFalse(this.delegateApproverManager.isDelegateApproverOf(inputReference, document));
+        verifyNoInteractions(this.delegateApproversIndexManager);
 
         when(this.configuration.isDelegateEnabled()).thenReturn(true);
 
-        String foo = "XWiki.Foo";
-        String bar = "XWiki.Bar";
-        String buz = "XWiki.Buz";
-
-        UserReference fooRef = mock(UserReference.class);
-        UserReference barRef = mock(UserReference.class);
-        UserReference buzRef = mock(UserReference.class);
-
-        when(this.userReferenceSerializer.serialize(fooRef)).thenReturn(foo);
-        when(this.userReferenceSerializer.serialize(barRef)).thenReturn(bar);
-        when(this.userReferenceSerializer.serialize(buzRef)).thenReturn(buz);
-
-        when(this.approversManager.getAllApprovers(document, false))
-            .thenReturn(new HashSet<>(List.of(fooRef, barRef, buzRef)));
-        when(this.delegateCache.get(foo)).thenReturn(Collections.singleton(mock(UserReference.class)));
-        when(this.delegateCache.get(bar)).thenReturn(Collections.singleton(mock(UserReference.class)));
-        when(this.delegateCache.get(buz)).thenReturn(Collections.singleton(mock(UserReference.class)));
-
+        // 500 approvers, the input user being the delegate of the last one only.
+        Set<UserReference> approvers = new LinkedHashSet<>();
+        for (int i = 0; i < 500; i++) {
+            approvers.add(mock(UserReference.class));
+        }
+        when(this.approversManager.getAllApprovers(document, false)).thenReturn(approvers);
         assertFalse(this.delegateApproverManager.isDelegateApproverOf(inputReference, document));
 
-        when(this.delegateCache.get(bar)).thenReturn(Collections.singleton(inputReference));
+        UserReference lastApprover = List.copyOf(approvers).get(499);
+        when(this.delegateApproversIndexManager.getPrincipals(inputReference, approvers))
+            .thenReturn(Set.of(lastApprover));
+        assertTrue(this.delegateApproverManager.isDelegateApproverOf(inputReference, document));
         assertTrue(this.delegateApproverManager.isDelegateApproverOf(inputReference, document));
+
+        // The documents of the approvers are never loaded.
+        verify(this.wiki, never()).getDocument(any(DocumentReference.class), any(XWikiContext.class));
+        verify(this.delegateCache, never()).get(anyString());
     }
 
     @Test
@@ -296,26 +369,22 @@ class XWikiDocumentDelegateApproverManagerTest
 
         when(this.configuration.isDelegateEnabled()).thenReturn(true);
 
-        String foo = "XWiki.Foo";
-        String bar = "XWiki.Bar";
-        String buz = "XWiki.Buz";
-
         UserReference fooRef = mock(UserReference.class);
         UserReference barRef = mock(UserReference.class);
         UserReference buzRef = mock(UserReference.class);
 
-        when(this.userReferenceSerializer.serialize(fooRef)).thenReturn(foo);
-        when(this.userReferenceSerializer.serialize(barRef)).thenReturn(bar);
-        when(this.userReferenceSerializer.serialize(buzRef)).thenReturn(buz);
-
         when(this.approversManager.getAllApprovers(document, false))
             .thenReturn(new HashSet<>(List.of(fooRef, barRef)));
-        when(this.delegateCache.get(foo)).thenReturn(Collections.singleton(mock(UserReference.class)));
-        when(this.delegateCache.get(bar)).thenReturn(Collections.singleton(inputReference));
+        when(this.delegateApproversIndexManager.getPrincipals(inputReference, Set.of(barRef)))
+            .thenReturn(Set.of(barRef));
 
         assertFalse(this.delegateApproverManager.isDelegateApproverOf(inputReference, document, fooRef));
         assertFalse(this.delegateApproverManager.isDelegateApproverOf(inputReference, document, buzRef));
         assertTrue(this.delegateApproverManager.isDelegateApproverOf(inputReference, document, barRef));
+
+        // The delegates are retrieved from the reverse index, without loading the document of the approver.
+        verify(this.delegateApproversIndexManager, never()).getPrincipals(inputReference, Set.of(buzRef));
+        verify(this.delegateCache, never()).get(anyString());
     }
 
     @Test
@@ -329,25 +398,17 @@ class XWikiDocumentDelegateApproverManagerTest
 
         when(this.configuration.isDelegateEnabled()).thenReturn(true);
 
-        String foo = "XWiki.Foo";
-        String bar = "XWiki.Bar";
-        String buz = "XWiki.Buz";
-
         UserReference fooRef = mock(UserReference.class);
         UserReference barRef = mock(UserReference.class);
         UserReference buzRef = mock(UserReference.class);
 
-        when(this.userReferenceSerializer.serialize(fooRef)).thenReturn(foo);
-        when(this.userReferenceSerializer.serialize(barRef)).thenReturn(bar);
-        when(this.userReferenceSerializer.serialize(buzRef)).thenReturn(buz);
-
-        when(this.approversManager.getAllApprovers(document, false))
-            .thenReturn(new HashSet<>(List.of(fooRef, barRef, buzRef)));
-        when(this.delegateCache.get(foo)).thenReturn(Collections.emptySet());
-        when(this.delegateCache.get(bar)).thenReturn(Collections.singleton(inputReference));
-        when(this.delegateCache.get(buz)).thenReturn(new HashSet<>(List.of(mock(UserReference.class), inputReference)));
+        Set<UserReference> approvers = new HashSet<>(List.of(fooRef, barRef, buzRef));
+        when(this.approversManager.getAllApprovers(document, false)).thenReturn(approvers);
+        when(this.delegateApproversIndexManager.getPrincipals(inputReference, approvers))
+            .thenReturn(Set.of(barRef, buzRef));
 
         assertEquals(new HashSet<>(List.of(barRef, buzRef)),
             this.delegateApproverManager.getOriginalApprovers(inputReference, document));
+        verify(this.delegateCache, never()).get(anyString());
     }
 }
@@ -0,0 +1,192 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.bridge.DocumentModelBridge;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.contrib.changerequest.ChangeRequest;
+import org.xwiki.contrib.changerequest.ChangeRequestReview;
+import org.xwiki.contrib.changerequest.ChangeRequestStatus;
+import org.xwiki.contrib.changerequest.FileChange;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.user.UserReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ChangeRequestStorageCacheManager}.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@ComponentTest
+class ChangeRequestStorageCacheManagerTest
+{
+    private static final String ID = "cr1";
+
+    private static final int NUMBER_OF_READERS = 8;
+
+    private static final int NUMBER_OF_UPDATES = 200;
+
+    @InjectMockComponents
+    private ChangeRequestStorageCacheManager cacheManager;
+
+    @MockComponent
+    private CacheManager xwikiCacheManager;
+
+    @BeforeComponent
+    void beforeComponent() throws CacheException
+    {
+        Map<String, ChangeRequest> cacheContent = new ConcurrentHashMap<>();
+        Cache<ChangeRequest> cache = mock(Cache.class);
+        when(cache.get(any())).then(invocationOnMock -> cacheContent.get(invocationOnMock.<String>getArgument(0)));
+        doAnswer(invocationOnMock -> cacheContent.put(invocationOnMock.getArgument(0),
+            invocationOnMock.getArgument(1))).when(cache).set(any(), any());
+        doAnswer(invocationOnMock -> cacheContent.remove(invocationOnMock.<String>getArgument(0)))
+            .when(cache).remove(any());
+        when(this.xwikiCacheManager.createNewCache(any())).thenReturn((Cache) cache);
+    }
+
+    @Test
+    void getChangeRequestReturnsCopies()
+    {
+        ChangeRequest changeRequest = new ChangeRequest().setId(ID).setTitle("Title");
+        this.cacheManager.cacheChangeRequest(changeRequest);
+
+        // Modifications performed after caching are not visible.
+        changeRequest.setTitle("Other title");
+        ChangeRequest cachedChangeRequest = this.cacheManager.getChangeRequest(ID).get();
+        assertEquals("Title", cachedChangeRequest.getTitle());
+
+        // Modifications performed on a retrieved instance are not visible either.
+        cachedChangeRequest.setStatus(ChangeRequestStatus.MERGED);
+        ChangeRequest otherCachedChangeRequest = this.cacheManager.getChangeRequest(ID).get();
+        assertNotSame(cachedChangeRequest, otherCachedChangeRequest);
+        assertEquals(ChangeRequestStatus.DRAFT, otherCachedChangeRequest.getStatus());
+
+        this.cacheManager.invalidate(ID);
+        assertEquals(Optional.empty(), this.cacheManager.getChangeRequest(ID));
+    }
+
+    @Test
+    void getChangeRequestLoadsDocumentsOnce()
+    {
+        ChangeRequest changeRequest = new ChangeRequest().setId(ID);
+        AtomicInteger loadings = new AtomicInteger();
+        changeRequest.addFileChange(new FileChange(changeRequest)
+            .setTargetEntity(new DocumentReference("xwiki", "Space", "Page"))
+            .setId("fc1")
+            .setModifiedDocumentSupplier(() -> {
+                loadings.incrementAndGet();
+                return mock(DocumentModelBridge.class);
+            }));
+        this.cacheManager.cacheChangeRequest(changeRequest);
+
+        DocumentModelBridge document =
+            this.cacheManager.getChangeRequest(ID).get().getFileChangeById("fc1").get().getModifiedDocument();
+        DocumentModelBridge otherDocument =
+            this.cacheManager.getChangeRequest(ID).get().getFileChangeById("fc1").get().getModifiedDocument();
+        assertSame(document, otherDocument);
+        assertEquals(1, loadings.get());
+    }
+
+    @Test
+    void concurrentReadsAndWrites() throws Exception
+    {
+        DocumentReference target = new DocumentReference("xwiki", "Space", "Page");
+        this.cacheManager.cacheChangeRequest(new ChangeRequest().setId(ID).setTitle("0"));
+
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_READERS; i++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    start.await();
+                    while (writing.get()) {
+                        ChangeRequest changeRequest = this.cacheManager.getChangeRequest(ID).get();
+                        // The title, the file changes and the reviews are always updated together.
+                        int version = Integer.parseInt(changeRequest.getTitle());
+                        int fileChanges = 0;
+                        for (FileChange fileChange : changeRequest.getAllFileChanges()) {
+                            assertSame(changeRequest, fileChange.getChangeRequest());
+                            fileChanges++;
+                        }
+                        assertEquals(version, fileChanges);
+                        assertEquals(version, changeRequest.getReviews().size());
+                        // Readers are free to modify their own instance.
+                        changeRequest.addFileChange(new FileChange(changeRequest).setTargetEntity(target));
+                        changeRequest.setTitle("reader");
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        start.countDown();
+        for (int i = 1; i <= NUMBER_OF_UPDATES; i++) {
+            ChangeRequest changeRequest = this.cacheManager.getChangeRequest(ID).get();
+            changeRequest.addFileChange(new FileChange(changeRequest).setTargetEntity(target).setId("fc" + i));
+            changeRequest.addReview(new ChangeRequestReview(changeRequest, true, mock(UserReference.class)));
+            changeRequest.setTitle(String.valueOf(i));
+            this.cacheManager.cacheChangeRequest(changeRequest);
+        }
+        writing.set(false);
+        for (Thread reader : readers) {
+            reader.join(TimeUnit.SECONDS.toMillis(30));
+            assertFalse(reader.isAlive());
+        }
+
+        assertEquals(List.of(), errors);
+        ChangeRequest changeRequest = this.cacheManager.getChangeRequest(ID).get();
+        assertEquals(String.valueOf(NUMBER_OF_UPDATES), changeRequest.getTitle());
+        assertEquals(NUMBER_OF_UPDATES, changeRequest.getAllFileChanges().size());
+        assertEquals(NUMBER_OF_UPDATES, changeRequest.getReviews().size());
+    }
+}
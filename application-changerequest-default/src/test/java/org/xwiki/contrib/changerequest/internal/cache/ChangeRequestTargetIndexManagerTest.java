@@ -0,0 +1,208 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.cache;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.contrib.changerequest.ChangeRequestException;
+import org.xwiki.contrib.changerequest.ChangeRequestStatus;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.SpaceReference;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ChangeRequestTargetIndexManager}.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@ComponentTest
+class ChangeRequestTargetIndexManagerTest
+{
+    private static final WikiReference WIKI = new WikiReference("foo");
+
+    @InjectMockComponents
+    private ChangeRequestTargetIndexManager targetIndexManager;
+
+    @MockComponent
+    private QueryManager queryManager;
+
+    @MockComponent
+    @Named("current")
+    private DocumentReferenceResolver<String> documentReferenceResolver;
+
+    private Query query;
+
+    private DocumentReference page1;
+
+    private DocumentReference page2;
+
+    private DocumentReference page3;
+
+    @BeforeEach
+    void setup() throws QueryException
+    {
+        this.query = mock(Query.class);
+        when(this.queryManager.createQuery(anyString(), any())).thenReturn(this.query);
+
+        this.page1 = new DocumentReference("foo", "Space", "Page1");
+        this.page2 = new DocumentReference("foo", "Space", "Page2");
+        this.page3 = new DocumentReference("foo", "Other", "Page3");
+        when(this.documentReferenceResolver.resolve("ChangeRequest.CR1.WebHome", WIKI))
+            .thenReturn(new DocumentReference("foo", List.of("ChangeRequest", "CR1"), "WebHome"));
+        when(this.documentReferenceResolver.resolve("ChangeRequest.CR2.WebHome", WIKI))
+            .thenReturn(new DocumentReference("foo", List.of("ChangeRequest", "CR2"), "WebHome"));
+        when(this.documentReferenceResolver.resolve("ChangeRequest.CR4.WebHome", WIKI))
+            .thenReturn(new DocumentReference("foo", List.of("ChangeRequest", "CR4"), "WebHome"));
+        when(this.documentReferenceResolver.resolve("Space.Page1", WIKI)).thenReturn(this.page1);
+        when(this.documentReferenceResolver.resolve("Space.Page2", WIKI)).thenReturn(this.page2);
+
+        when(this.query.execute()).thenReturn(List.of(
+            new Object[] { "ChangeRequest.CR1.WebHome", "draft", "Space.Page1" },
+            new Object[] { "ChangeRequest.CR1.WebHome", "draft", "Space.Page2" },
+            new Object[] { "ChangeRequest.CR2.WebHome", "ready_for_review", "Space.Page2" },
+            new Object[] { "ChangeRequest.CR4.WebHome", "merged", "Space.Page2" }
+        ));
+    }
+
+    @Test
+    void getOpenChangeRequestIds() throws Exception
+    {
+        assertEquals(Set.of("CR1"), this.targetIndexManager.getOpenChangeRequestIds(this.page1));
+        assertEquals(Set.of("CR1", "CR2"), this.targetIndexManager.getOpenChangeRequestIds(this.page2));
+        assertEquals(Set.of("CR1"),
+            this.targetIndexManager.getOpenChangeRequestIds(new DocumentReference(this.page1, Locale.FRENCH)));
+
+        // Miss path: the index is already built so no query is performed.
+        assertEquals(Collections.emptySet(), this.targetIndexManager.getOpenChangeRequestIds(this.page3));
+
+        verify(this.queryManager, times(1)).createQuery(anyString(), any());
+        verify(this.query).setWiki("foo");
+    }
+
+    @Test
+    void getChangeRequestIds() throws Exception
+    {
+        assertEquals(Set.of("CR1"), this.targetIndexManager.getChangeRequestIds(this.page1));
+        assertEquals(Set.of("CR1", "CR2", "CR4"), this.targetIndexManager.getChangeRequestIds(this.page2));
+        assertEquals(Collections.emptySet(), this.targetIndexManager.getChangeRequestIds(this.page3));
+
+        SpaceReference space = new SpaceReference("foo", "Space");
+        assertEquals(Set.of("CR1", "CR2", "CR4"), this.targetIndexManager.getChangeRequestIds(space));
+        assertEquals(Collections.emptySet(),
+            this.targetIndexManager.getChangeRequestIds(new SpaceReference("foo", "Other")));
+
+        // Documents of nested spaces are found from all their parent spaces.
+        DocumentReference nestedPage = new DocumentReference("foo", List.of("Other", "Nested"), "Page");
+        this.targetIndexManager.update(WIKI, "CR3", ChangeRequestStatus.MERGED, List.of(nestedPage));
+        assertEquals(Set.of("CR3"), this.targetIndexManager.getChangeRequestIds(new SpaceReference("foo", "Other")));
+        assertEquals(Set.of("CR3"),
+            this.targetIndexManager.getChangeRequestIds(new SpaceReference("foo", List.of("Other", "Nested"))));
+        assertEquals(Collections.emptySet(), this.targetIndexManager.getOpenChangeRequestIds(nestedPage));
+
+        this.targetIndexManager.update(WIKI, "CR1", ChangeRequestStatus.MERGED, List.of(this.page3));
+        assertEquals(Set.of("CR2", "CR4"), this.targetIndexManager.getChangeRequestIds(space));
+        assertEquals(Set.of("CR1", "CR3"),
+            this.targetIndexManager.getChangeRequestIds(new SpaceReference("foo", "Other")));
+
+        this.targetIndexManager.remove(WIKI, "CR3");
+        assertEquals(Set.of("CR1"), this.targetIndexManager.getChangeRequestIds(new SpaceReference("foo", "Other")));
+
+        verify(this.queryManager, times(1)).createQuery(anyString(), any());
+    }
+
+    @Test
+    void updateAndRemove() throws Exception
+    {
+        // Nothing is recorded as long as the index is not built.
+        this.targetIndexManager.update(WIKI, "CR3", ChangeRequestStatus.READY_FOR_REVIEW, List.of(this.page3));
+        assertEquals(Collections.emptySet(), this.targetIndexManager.getOpenChangeRequestIds(this.page3));
+
+        // Saving a new change request
+        this.targetIndexManager.update(WIKI, "CR3", ChangeRequestStatus.READY_FOR_REVIEW, List.of(this.page3));
+        assertEquals(Set.of("CR3"), this.targetIndexManager.getOpenChangeRequestIds(this.page3));
+
+        // Saving an existing change request which doesn't target anymore a document
+        this.targetIndexManager.update(WIKI, "CR1", ChangeRequestStatus.DRAFT, List.of(this.page1, this.page3));
+        assertEquals(Set.of("CR1"), this.targetIndexManager.getOpenChangeRequestIds(this.page1));
+        assertEquals(Set.of("CR2"), this.targetIndexManager.getOpenChangeRequestIds(this.page2));
+        assertEquals(Set.of("CR1", "CR3"), this.targetIndexManager.getOpenChangeRequestIds(this.page3));
+
+        // Merging a change request
+        this.targetIndexManager.update(WIKI, "CR1", ChangeRequestStatus.MERGED, List.of(this.page1, this.page3));
+        assertEquals(Collections.emptySet(), this.targetIndexManager.getOpenChangeRequestIds(this.page1));
+        assertEquals(Set.of("CR3"), this.targetIndexManager.getOpenChangeRequestIds(this.page3));
+
+        // Deleting a change request
+        this.targetIndexManager.remove(WIKI, "CR2");
+        assertEquals(Collections.emptySet(), this.targetIndexManager.getOpenChangeRequestIds(this.page2));
+
+        verify(this.queryManager, times(1)).createQuery(anyString(), any());
+
+        // The index is rebuilt after being invalidated.
+        this.targetIndexManager.invalidateAll();
+        assertEquals(Set.of("CR1", "CR2"), this.targetIndexManager.getOpenChangeRequestIds(this.page2));
+        verify(this.queryManager, times(2)).createQuery(anyString(), any());
+    }
+
+    @Test
+    void getOpenChangeRequestIdsWithQueryError() throws Exception
+    {
+        when(this.query.execute()).thenThrow(new QueryException("error", null, null));
+        ChangeRequestException exception = assertThrows(ChangeRequestException.class,
+            () -> this.targetIndexManager.getOpenChangeRequestIds(this.page1));
+        assertEquals(String.format("Error while building the index of change request targets for wiki [%s]", WIKI),
+            exception.getMessage());
+    }
+
+    @Test
+    void getStatus()
+    {
+        assertEquals(ChangeRequestStatus.READY_FOR_REVIEW,
+            ChangeRequestTargetIndexManager.getStatus("ready_for_review"));
+        assertNull(ChangeRequestTargetIndexManager.getStatus(""));
+        assertNull(ChangeRequestTargetIndexManager.getStatus("unknown"));
+    }
+}
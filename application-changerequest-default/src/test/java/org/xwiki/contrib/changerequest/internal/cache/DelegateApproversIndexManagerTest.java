@@ -0,0 +1,196 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.contrib.changerequest.internal.UserReferenceConverter;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.user.UserReference;
+import org.xwiki.user.UserReferenceResolver;
+import org.xwiki.user.UserReferenceSerializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link DelegateApproversIndexManager}.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@ComponentTest
+class DelegateApproversIndexManagerTest
+{
+    private static final WikiReference WIKI = new WikiReference("foo");
+
+    @InjectMockComponents
+    private DelegateApproversIndexManager indexManager;
+
+    @MockComponent
+    private QueryManager queryManager;
+
+    @MockComponent
+    @Named("current")
+    private DocumentReferenceResolver<String> documentReferenceResolver;
+
+    @MockComponent
+    @Named("document")
+    private UserReferenceResolver<DocumentReference> documentReferenceUserReferenceResolver;
+
+    @MockComponent
+    @Named("current")
+    private UserReferenceResolver<String> stringUserReferenceResolver;
+
+    @MockComponent
+    private UserReferenceSerializer<String> userReferenceSerializer;
+
+    @MockComponent
+    private UserReferenceConverter userReferenceConverter;
+
+    private Query query;
+
+    private final Map<String, UserReference> users = new HashMap<>();
+
+    private final Map<UserReference, String> userNames = new HashMap<>();
+
+    private List<UserReference> approvers;
+
+    @BeforeEach
+    void setup() throws QueryException
+    {
+        this.query = mock(Query.class);
+        when(this.queryManager.createQuery(anyString(), any())).thenReturn(this.query);
+
+        // Users are all located in the XWiki space of the foo wiki.
+        when(this.documentReferenceResolver.resolve(anyString(), eq(WIKI))).thenAnswer(invocationOnMock ->
+            new DocumentReference("foo", "XWiki", ((String) invocationOnMock.getArgument(0)).substring(6)));
+        when(this.documentReferenceUserReferenceResolver.resolve(any())).thenAnswer(invocationOnMock ->
+            getUser(((DocumentReference) invocationOnMock.getArgument(0)).getName()));
+        when(this.stringUserReferenceResolver.resolve(anyString())).thenAnswer(invocationOnMock ->
+            getUser(((String) invocationOnMock.getArgument(0)).substring(6)));
+        when(this.userReferenceSerializer.serialize(any())).thenAnswer(invocationOnMock ->
+            "foo:XWiki." + this.userNames.get(invocationOnMock.getArgument(0)));
+        when(this.userReferenceConverter.convert(any())).thenAnswer(invocationOnMock -> {
+            String name = this.userNames.get(invocationOnMock.getArgument(0));
+            return (name == null) ? null : new DocumentReference("foo", "XWiki", name);
+        });
+
+        // 500 approvers, each having one of 5 delegates.
+        List<Object[]> rows = new ArrayList<>();
+        this.approvers = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            rows.add(new Object[] { "XWiki.User" + i, "XWiki.Delegate" + (i % 5) });
+            this.approvers.add(getUser("User" + i));
+        }
+        rows.add(new Object[] { "XWiki.Manager", "XWiki.Delegate1,XWiki.Delegate2" });
+        rows.add(new Object[] { "XWiki.Nobody", null });
+        when(this.query.execute()).thenReturn(rows);
+    }
+
+    private UserReference getUser(String name)
+    {
+        return this.users.computeIfAbsent(name, key -> {
+            UserReference userReference = mock(UserReference.class, name);
+            this.userNames.put(userReference, name);
+            return userReference;
+        });
+    }
+
+    private Set<UserReference> getApprovers(int delegateIndex)
+    {
+        Set<UserReference> result = new LinkedHashSet<>();
+        for (int i = delegateIndex; i < 500; i += 5) {
+            result.add(this.approvers.get(i));
+        }
+        return result;
+    }
+
+    @Test
+    void getPrincipals() throws Exception
+    {
+        UserReference delegate1 = getUser("Delegate1");
+        assertEquals(getApprovers(1), this.indexManager.getPrincipals(delegate1, this.approvers));
+
+        // Warm calls only perform lookups in the index.
+        for (int i = 0; i < 10; i++) {
+            assertEquals(getApprovers(1), this.indexManager.getPrincipals(delegate1, this.approvers));
+        }
+        assertEquals(Set.of(getUser("Manager")),
+            this.indexManager.getPrincipals(getUser("Delegate2"), List.of(getUser("Manager"), getUser("Nobody"))));
+        assertEquals(Collections.emptySet(),
+            this.indexManager.getPrincipals(getUser("Unknown"), this.approvers));
+        assertEquals(Collections.emptySet(),
+            this.indexManager.getPrincipals(delegate1, List.of(mock(UserReference.class))));
+
+        verify(this.queryManager, times(1)).createQuery(anyString(), any());
+        verify(this.query).setWiki("foo");
+    }
+
+    @Test
+    void update() throws Exception
+    {
+        DocumentReference user1DocReference = new DocumentReference("foo", "XWiki", "User1");
+        // The index is not built yet: the update is ignored, and it's built from the query.
+        this.indexManager.update(user1DocReference, "XWiki.Delegate3");
+        verify(this.queryManager, never()).createQuery(anyString(), any());
+        UserReference delegate1 = getUser("Delegate1");
+        UserReference delegate3 = getUser("Delegate3");
+        UserReference user1 = getUser("User1");
+        assertEquals(Set.of(user1), this.indexManager.getPrincipals(delegate1, List.of(user1)));
+
+        this.indexManager.update(user1DocReference, "XWiki.Delegate3");
+        assertEquals(Collections.emptySet(), this.indexManager.getPrincipals(delegate1, List.of(user1)));
+        assertEquals(Set.of(user1), this.indexManager.getPrincipals(delegate3, List.of(user1)));
+        assertEquals(getApprovers(1).size() - 1, this.indexManager.getPrincipals(delegate1, this.approvers).size());
+
+        this.indexManager.update(user1DocReference, null);
+        assertEquals(Collections.emptySet(), this.indexManager.getPrincipals(delegate3, List.of(user1)));
+
+        this.indexManager.invalidateAll();
+        assertEquals(Set.of(user1), this.indexManager.getPrincipals(delegate1, List.of(user1)));
+        verify(this.queryManager, times(2)).createQuery(anyString(), any());
+    }
+}
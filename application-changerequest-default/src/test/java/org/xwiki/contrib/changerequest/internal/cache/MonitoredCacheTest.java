@@ -0,0 +1,200 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.cache.event.CacheEntryEvent;
+import org.xwiki.cache.event.CacheEntryListener;
+import org.xwiki.contrib.changerequest.ChangeRequestConfiguration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link MonitoredCache} and {@link ChangeRequestCacheMetrics}.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+class MonitoredCacheTest
+{
+    private CacheManager cacheManager;
+
+    private ChangeRequestConfiguration configuration;
+
+    private ChangeRequestCacheMetrics metrics;
+
+    private List<CacheConfiguration> cacheConfigurations;
+
+    /**
+     * Minimal LRU cache relying on the maximum number of entries of the configuration.
+     */
+    private static final class LRUCache<T> implements Cache<T>
+    {
+        private final int maxEntries;
+
+        private final List<CacheEntryListener<T>> listeners = new ArrayList<>();
+
+        private final Map<String, T> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        LRUCache(int maxEntries)
+        {
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        public void set(String key, T value)
+        {
+            this.entries.put(key, value);
+            if (this.entries.size() > this.maxEntries) {
+                this.remove(this.entries.keySet().iterator().next());
+            }
+        }
+
+        @Override
+        public T get(String key)
+        {
+            return this.entries.get(key);
+        }
+
+        @Override
+        public void remove(String key)
+        {
+            if (this.entries.remove(key) != null) {
+                CacheEntryEvent<T> event = mock(CacheEntryEvent.class);
+                this.listeners.forEach(listener -> listener.cacheEntryRemoved(event));
+            }
+        }
+
+        @Override
+        public void removeAll()
+        {
+            new ArrayList<>(this.entries.keySet()).forEach(this::remove);
+        }
+
+        @Override
+        public void addCacheEntryListener(CacheEntryListener<T> listener)
+        {
+            this.listeners.add(listener);
+        }
+
+        @Override
+        public void removeCacheEntryListener(CacheEntryListener<T> listener)
+        {
+            this.listeners.remove(listener);
+        }
+
+        @Override
+        public void dispose()
+        {
+            this.entries.clear();
+        }
+    }
+
+    @BeforeEach
+    void setup() throws Exception
+    {
+        this.cacheConfigurations = new ArrayList<>();
+        this.cacheManager = mock(CacheManager.class);
+        when(this.cacheManager.createNewCache(any())).then(invocationOnMock -> {
+            LRUCacheConfiguration cacheConfiguration = invocationOnMock.getArgument(0);
+            this.cacheConfigurations.add(cacheConfiguration);
+            return new LRUCache<>(cacheConfiguration.getLRUEvictionConfiguration().getMaxEntries());
+        });
+        this.configuration = mock(ChangeRequestConfiguration.class);
+        this.metrics = new ChangeRequestCacheMetrics();
+    }
+
+    @Test
+    void evictionsAndHitRatio() throws Exception
+    {
+        when(this.configuration.getCacheSize("titles", 1000)).thenReturn(2);
+        when(this.configuration.getCacheLifespan("titles")).thenReturn(60);
+        Cache<String> cache =
+            MonitoredCache.create(this.cacheManager, this.configuration, this.metrics, "titles", 1000);
+
+        LRUCacheConfiguration cacheConfiguration = (LRUCacheConfiguration) this.cacheConfigurations.get(0);
+        assertEquals("changerequest.titles", cacheConfiguration.getConfigurationId());
+        assertEquals(2, cacheConfiguration.getLRUEvictionConfiguration().getMaxEntries());
+        assertEquals(60, cacheConfiguration.getLRUEvictionConfiguration().getLifespan());
+
+        cache.set("a", "A");
+        cache.set("b", "B");
+        // Hit: "a" becomes the most recently used entry.
+        assertEquals("A", cache.get("a"));
+        // Evicts "b".
+        cache.set("c", "C");
+        // Miss
+        assertNull(cache.get("b"));
+        this.metrics.recordLoadTime("titles", 42);
+        // Evicts "a".
+        cache.set("b", "B");
+        // Hits
+        assertEquals("B", cache.get("b"));
+        assertEquals("C", cache.get("c"));
+        // Explicit invalidations are not evictions.
+        cache.remove("b");
+        cache.removeAll();
+        // Miss
+        assertNull(cache.get("c"));
+
+        CacheStatistics statistics = this.metrics.getStatistics("titles").get();
+        assertEquals(3, statistics.getHitCount());
+        assertEquals(2, statistics.getMissCount());
+        assertEquals(0.6, statistics.getHitRatio(), 0.0001);
+        assertEquals(2, statistics.getEvictionCount());
+        assertEquals(1, statistics.getLoadCount());
+        assertEquals(42, statistics.getTotalLoadTime());
+    }
+
+    @Test
+    void defaultSizeAndSeveralCaches() throws Exception
+    {
+        when(this.configuration.getCacheSize(any(), anyInt())).then(invocationOnMock ->
+            invocationOnMock.getArgument(1));
+        MonitoredCache.create(this.cacheManager, this.configuration, this.metrics, "changerequests", 100);
+        Cache<String> delegateCache =
+            MonitoredCache.create(this.cacheManager, this.configuration, this.metrics, "delegate", 0);
+
+        assertEquals(100,
+            ((LRUCacheConfiguration) this.cacheConfigurations.get(0)).getLRUEvictionConfiguration().getMaxEntries());
+        assertEquals("changerequest.delegate", this.cacheConfigurations.get(1).getConfigurationId());
+        assertEquals(Set.of("changerequests", "delegate"), this.metrics.getAllStatistics().keySet());
+
+        assertNull(delegateCache.get("foo"));
+        assertEquals(0, this.metrics.getStatistics("delegate").get().getHitRatio());
+        assertEquals(0, this.metrics.getStatistics("changerequests").get().getMissCount());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.cache;
+
+import java.io.File;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xwiki.contrib.changerequest.ChangeRequest;
+import org.xwiki.contrib.changerequest.FileChange;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link RenderedDiffStore}.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@ComponentTest
+class RenderedDiffStoreTest
+{
+    @InjectMockComponents
+    private RenderedDiffStore renderedDiffStore;
+
+    @MockComponent
+    private Environment environment;
+
+    @TempDir
+    File permanentDirectory;
+
+    private ChangeRequest changeRequest;
+
+    private FileChange fileChange1;
+
+    private FileChange fileChange2;
+
+    @BeforeEach
+    void setup()
+    {
+        when(this.environment.getPermanentDirectory()).thenReturn(this.permanentDirectory);
+
+        this.changeRequest = mock(ChangeRequest.class);
+        when(this.changeRequest.getId()).thenReturn("CR1");
+        this.fileChange1 = mockFileChange("filechange1-1.1", new DocumentReference("foo", "Space", "Page1"));
+        this.fileChange2 = mockFileChange("filechange2-1.1", new DocumentReference("foo", "Space", "Page2"));
+        when(this.changeRequest.getAllFileChanges()).thenReturn(List.of(this.fileChange1, this.fileChange2));
+    }
+
+    private FileChange mockFileChange(String id, DocumentReference target)
+    {
+        FileChange fileChange = mock(FileChange.class);
+        when(fileChange.getId()).thenReturn(id);
+        when(fileChange.getTargetEntity()).thenReturn(target);
+        when(fileChange.getChangeRequest()).thenReturn(this.changeRequest);
+        return fileChange;
+    }
+
+    @Test
+    void storeAndGet()
+    {
+        assertEquals(Optional.empty(), this.renderedDiffStore.get(this.fileChange1, "default"));
+
+        this.renderedDiffStore.store(this.fileChange1, "default", "<p>diff</p>");
+        this.renderedDiffStore.store(this.fileChange1, "restricted", "<p>restricted diff</p>");
+        this.renderedDiffStore.store(this.fileChange2, null, "<p>other diff</p>");
+
+        assertEquals(Optional.of("<p>diff</p>"), this.renderedDiffStore.get(this.fileChange1, "default"));
+        assertEquals(Optional.of("<p>restricted diff</p>"),
+            this.renderedDiffStore.get(this.fileChange1, "restricted"));
+        assertEquals(Optional.of("<p>other diff</p>"), this.renderedDiffStore.get(this.fileChange2, "default"));
+
+        this.renderedDiffStore.store(this.fileChange1, "default", "<p>new diff</p>");
+        assertEquals(Optional.of("<p>new diff</p>"), this.renderedDiffStore.get(this.fileChange1, "default"));
+    }
+
+    @Test
+    void unsavedFileChangeIsNotStored()
+    {
+        FileChange unsavedFileChange = mockFileChange(null, new DocumentReference("foo", "Space", "Page3"));
+        this.renderedDiffStore.store(unsavedFileChange, "default", "<p>diff</p>");
+        assertEquals(Optional.empty(), this.renderedDiffStore.get(unsavedFileChange, "default"));
+        assertEquals(0, this.permanentDirectory.list().length);
+    }
+
+    @Test
+    void invalidate()
+    {
+        this.renderedDiffStore.store(this.fileChange1, "default", "<p>diff1</p>");
+        this.renderedDiffStore.store(this.fileChange1, "restricted", "<p>diff1</p>");
+        this.renderedDiffStore.store(this.fileChange2, "default", "<p>diff2</p>");
+
+        this.renderedDiffStore.invalidate(this.fileChange1);
+        assertEquals(Optional.empty(), this.renderedDiffStore.get(this.fileChange1, "default"));
+        assertEquals(Optional.empty(), this.renderedDiffStore.get(this.fileChange1, "restricted"));
+        assertEquals(Optional.of("<p>diff2</p>"), this.renderedDiffStore.get(this.fileChange2, "default"));
+
+        this.renderedDiffStore.invalidate(this.changeRequest);
+        assertEquals(Optional.empty(), this.renderedDiffStore.get(this.fileChange2, "default"));
+
+        this.renderedDiffStore.store(this.fileChange1, "default", "<p>diff1</p>");
+        this.renderedDiffStore.invalidateAll();
+        assertEquals(Optional.empty(), this.renderedDiffStore.get(this.fileChange1, "default"));
+    }
+}
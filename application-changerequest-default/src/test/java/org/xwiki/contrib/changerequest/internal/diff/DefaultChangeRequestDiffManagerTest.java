@@ -19,6 +19,9 @@
  */
 package org.xwiki.contrib.changerequest.internal.diff;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.inject.Named;
@@ -32,10 +35,22 @@ import org.xwiki.contrib.changerequest.ChangeRequestException;
 import org.xwiki.contrib.changerequest.FileChange;
 import org.xwiki.contrib.changerequest.diff.ChangeRequestDiffRenderContent;
 import org.xwiki.contrib.changerequest.internal.cache.DiffCacheManager;
+import org.xwiki.contrib.changerequest.internal.cache.RenderedDiffStore;
 import org.xwiki.contrib.changerequest.storage.FileChangeStorageManager;
 import org.xwiki.diff.DiffException;
 import org.xwiki.diff.xml.XMLDiffConfiguration;
 import org.xwiki.diff.xml.XMLDiffManager;
+import org.xwiki.model.reference.AttachmentReference;
+import org.xwiki.model.reference.AttachmentReferenceResolver;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.block.ImageBlock;
+import org.xwiki.rendering.block.LinkBlock;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.block.ParagraphBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.listener.reference.ResourceReference;
+import org.xwiki.rendering.listener.reference.ResourceType;
+import org.xwiki.store.TemporaryAttachmentSessionsManager;
 import org.xwiki.test.annotation.BeforeComponent;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
@@ -43,6 +58,8 @@ import org.xwiki.test.junit5.mockito.MockComponent;
 import org.xwiki.test.mockito.MockitoComponentManager;
 
 import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiAttachment;
+import com.xpn.xwiki.doc.XWikiAttachmentContent;
 import com.xpn.xwiki.doc.XWikiDocument;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -50,6 +67,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -80,12 +98,22 @@ class DefaultChangeRequestDiffManagerTest
     @MockComponent
     private DiffCacheManager diffCacheManager;
 
+    @MockComponent
+    private RenderedDiffStore renderedDiffStore;
+
+    @MockComponent
+    private TemporaryAttachmentSessionsManager temporaryAttachmentSessionsManager;
+
     @MockComponent
     private ChangeRequestConfiguration configuration;
 
     @MockComponent
     private ChangeRequestDiffRenderContent diffRenderContent;
 
+    @MockComponent
+    @Named("current")
+    private AttachmentReferenceResolver<String> attachmentReferenceResolver;
+
     private XMLDiffConfiguration xmlDiffConfiguration;
 
     @BeforeComponent
@@ -258,4 +286,131 @@ class DefaultChangeRequestDiffManagerTest
         assertEquals("", this.diffManager.getHtmlDiff(fileChange));
         verify(this.diffCacheManager).setRenderedDiff(fileChange, "");
     }
-}
\ No newline at end of file
+
+    @Test
+    void getHtmlDiffFromRenderedDiffStore() throws Exception
+    {
+        when(this.configuration.getRenderedDiffComponent()).thenReturn("default");
+        FileChange fileChange = mock(FileChange.class);
+        when(fileChange.getType()).thenReturn(FileChange.FileChangeType.CREATION);
+        // The memory cache is always empty to simulate a cache clear between the calls.
+        when(this.diffCacheManager.getRenderedDiff(fileChange)).thenReturn(Optional.empty());
+        when(this.renderedDiffStore.get(fileChange, "default")).thenReturn(Optional.empty());
+
+        XWikiDocument modifiedDoc = mock(XWikiDocument.class, "modifiedDoc");
+        when(this.fileChangeStorageManager.getModifiedDocumentFromFileChange(fileChange)).thenReturn(modifiedDoc);
+        String modifiedDocHtml = "modified doc html";
+        when(this.diffRenderContent.getRenderedContent(modifiedDoc, fileChange)).thenReturn(modifiedDocHtml);
+        String expectedResult = "real diff";
+        when(this.xmlDiffManager.diff("", modifiedDocHtml, this.xmlDiffConfiguration)).thenReturn(expectedResult);
+
+        assertEquals(expectedResult, this.diffManager.getHtmlDiff(fileChange));
+        verify(this.renderedDiffStore).store(fileChange, "default", expectedResult);
+
+        when(this.renderedDiffStore.get(fileChange, "default")).thenReturn(Optional.of(expectedResult));
+        assertEquals(expectedResult, this.diffManager.getHtmlDiff(fileChange));
+
+        // No rendering is performed for the second call.
+        verify(this.xmlDiffManager, times(1)).diff(any(), any(), any());
+        verify(this.diffRenderContent, times(1)).getRenderedContent(modifiedDoc, fileChange);
+        verify(this.renderedDiffStore, times(1)).store(any(), any(), any());
+        verify(this.diffCacheManager, times(2)).setRenderedDiff(fileChange, expectedResult);
+    }
+
+    @Test
+    void getHtmlDiffOnlyAttachesReferencedAttachments() throws Exception
+    {
+        FileChange fileChange = mock(FileChange.class);
+        when(fileChange.getType()).thenReturn(FileChange.FileChangeType.EDITION);
+        XWikiDocument modifiedDoc = mock(XWikiDocument.class, "modifiedDoc");
+        DocumentReference documentReference = new DocumentReference("xwiki", "Space", "Page");
+        when(modifiedDoc.getDocumentReference()).thenReturn(documentReference);
+        when(this.fileChangeStorageManager.getModifiedDocumentFromFileChange(fileChange)).thenReturn(modifiedDoc);
+
+        List<XWikiAttachment> attachments = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            XWikiAttachment attachment = mock(XWikiAttachment.class);
+            when(attachment.getFilename()).thenReturn(String.format("large file %s.zip", i));
+            when(attachment.getLongSize()).thenReturn(100L * 1024 * 1024);
+            attachments.add(attachment);
+        }
+        when(modifiedDoc.getAttachmentList()).thenReturn(attachments);
+
+        // Nothing is attached when the diff is already rendered.
+        when(this.diffCacheManager.getRenderedDiff(fileChange)).thenReturn(Optional.of("<p>some changes</p>"));
+        assertEquals("<p>some changes</p>", this.diffManager.getHtmlDiff(fileChange));
+        verifyNoInteractions(this.temporaryAttachmentSessionsManager);
+        verify(this.fileChangeStorageManager, never()).getModifiedDocumentFromFileChange(fileChange);
+
+        // Only the attachment displayed by the content is attached for rendering the diff.
+        when(this.diffCacheManager.getRenderedDiff(fileChange)).thenReturn(Optional.empty());
+        ResourceReference imageReference = new ResourceReference("large file 3.zip", ResourceType.ATTACHMENT);
+        ResourceReference otherPageReference =
+            new ResourceReference("Space.Other@large file 4.zip", ResourceType.ATTACHMENT);
+        ResourceReference urlReference = new ResourceReference("https://www.xwiki.org", ResourceType.URL);
+        when(modifiedDoc.getXDOM()).thenReturn(new XDOM(List.of(new ParagraphBlock(List.of(
+            new ImageBlock(imageReference, false),
+            new LinkBlock(List.of(), otherPageReference, false),
+            new LinkBlock(List.of(), urlReference, false))))));
+        when(this.attachmentReferenceResolver.resolve("large file 3.zip", documentReference))
+            .thenReturn(new AttachmentReference("large file 3.zip", documentReference));
+        when(this.attachmentReferenceResolver.resolve("Space.Other@large file 4.zip", documentReference))
+            .thenReturn(new AttachmentReference("large file 4.zip", new DocumentReference("xwiki", "Space", "Other")));
+        XWikiDocument previousDoc = mock(XWikiDocument.class, "previousDoc");
+        when(this.fileChangeStorageManager.getPreviousDocumentFromFileChange(fileChange))
+            .thenReturn(Optional.of(previousDoc));
+        XWikiAttachment clonedAttachment = mock(XWikiAttachment.class);
+        when(clonedAttachment.getAttachment_content()).thenReturn(mock(XWikiAttachmentContent.class));
+        when(attachments.get(3).clone()).thenReturn(clonedAttachment);
+        when(this.xmlDiffManager.diff(any(), any(), any())).thenReturn("real diff");
+
+        assertEquals("real diff", this.diffManager.getHtmlDiff(fileChange));
+        verify(this.temporaryAttachmentSessionsManager).temporarilyAttach(clonedAttachment, documentReference);
+        verify(this.temporaryAttachmentSessionsManager, times(1)).temporarilyAttach(any(), any());
+        verify(this.temporaryAttachmentSessionsManager).removeUploadedAttachments(documentReference);
+    }
+
+    @Test
+    void getHtmlDiffAttachesAttachmentsReferencedByMacros() throws Exception
+    {
+        FileChange fileChange = mock(FileChange.class);
+        when(fileChange.getType()).thenReturn(FileChange.FileChangeType.EDITION);
+        XWikiDocument modifiedDoc = mock(XWikiDocument.class, "modifiedDoc");
+        DocumentReference documentReference = new DocumentReference("xwiki", "Space", "Page");
+        when(modifiedDoc.getDocumentReference()).thenReturn(documentReference);
+        when(this.fileChangeStorageManager.getModifiedDocumentFromFileChange(fileChange)).thenReturn(modifiedDoc);
+        when(this.fileChangeStorageManager.getPreviousDocumentFromFileChange(fileChange))
+            .thenReturn(Optional.of(mock(XWikiDocument.class, "previousDoc")));
+        when(this.diffCacheManager.getRenderedDiff(fileChange)).thenReturn(Optional.empty());
+        when(this.xmlDiffManager.diff(any(), any(), any())).thenReturn("real diff");
+
+        List<XWikiAttachment> attachments = new ArrayList<>();
+        List<XWikiAttachment> clonedAttachments = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            XWikiAttachment attachment = mock(XWikiAttachment.class);
+            when(attachment.getFilename()).thenReturn(String.format("image%s.png", i));
+            XWikiAttachment clonedAttachment = mock(XWikiAttachment.class);
+            when(clonedAttachment.getAttachment_content()).thenReturn(mock(XWikiAttachmentContent.class));
+            when(attachment.clone()).thenReturn(clonedAttachment);
+            attachments.add(attachment);
+            clonedAttachments.add(clonedAttachment);
+        }
+        when(modifiedDoc.getAttachmentList()).thenReturn(attachments);
+
+        // The image macro references an attachment with a parameter, and the gallery macro with its content.
+        when(modifiedDoc.getXDOM()).thenReturn(new XDOM(List.of(
+            new MacroBlock("image", Map.of("reference", "image0.png", "width", "100px"), false),
+            new MacroBlock("gallery", Map.of(), "[[image:image2.png]]", false))));
+        when(this.attachmentReferenceResolver.resolve("image0.png", documentReference))
+            .thenReturn(new AttachmentReference("image0.png", documentReference));
+        when(this.attachmentReferenceResolver.resolve("100px", documentReference))
+            .thenReturn(new AttachmentReference("100px", documentReference));
+
+        assertEquals("real diff", this.diffManager.getHtmlDiff(fileChange));
+        verify(this.temporaryAttachmentSessionsManager).temporarilyAttach(clonedAttachments.get(0),
+            documentReference);
+        verify(this.temporaryAttachmentSessionsManager).temporarilyAttach(clonedAttachments.get(2),
+            documentReference);
+        verify(this.temporaryAttachmentSessionsManager, times(2)).temporarilyAttach(any(), any());
+    }
+}
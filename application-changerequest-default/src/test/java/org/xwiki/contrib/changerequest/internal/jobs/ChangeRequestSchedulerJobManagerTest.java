@@ -21,8 +21,16 @@ package org.xwiki.contrib.changerequest.internal.jobs;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -47,10 +55,14 @@ import org.xwiki.user.UserReference;
 import com.xpn.xwiki.XWikiContext;
 
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -95,6 +107,7 @@ class ChangeRequestSchedulerJobManagerTest
         this.context = mock(XWikiContext.class);
         when(this.contextProvider.get()).thenReturn(this.context);
         when(configuration.getDurationUnit()).thenReturn(ChronoUnit.DAYS);
+        when(this.configuration.getSchedulerJobPageSize()).thenReturn(100);
     }
 
     @Test
@@ -104,7 +117,8 @@ class ChangeRequestSchedulerJobManagerTest
         this.schedulerJobManager.notifyStaleChangeRequests();
 
         // when duration is set to 0 the feature is entirely disabled
-        verify(this.changeRequestStorageManager, never()).findOpenChangeRequestsByDate(any(), anyBoolean());
+        verify(this.changeRequestStorageManager, never())
+            .findNotStaledChangeRequestIdsByDate(any(), anyBoolean(), anyInt(), anyInt());
 
         when(this.configuration.getStaleChangeRequestDurationForNotifying()).thenReturn(2L);
         when(this.configuration.useCreationDateForStaleDurations()).thenReturn(true);
@@ -119,8 +133,8 @@ class ChangeRequestSchedulerJobManagerTest
 
         ChangeRequest changeRequest1 = mock(ChangeRequest.class);
         ChangeRequest changeRequest2 = mock(ChangeRequest.class);
-        when(this.changeRequestStorageManager.findOpenChangeRequestsByDate(any(Date.class), eq(true)))
-            .thenAnswer(invocationOnMock -> {
+        when(this.changeRequestStorageManager.findNotStaledChangeRequestIdsByDate(any(Date.class), eq(true), eq(0),
+            eq(100))).thenAnswer(invocationOnMock -> {
                 Date requestedDate = invocationOnMock.getArgument(0);
                 Instant requestedInstant = requestedDate.toInstant();
                 // if the test is fast enough, both date could be equals
@@ -129,8 +143,10 @@ class ChangeRequestSchedulerJobManagerTest
                         String.format("%s should be after %s", requestedInstant, beforeExpectedDate));
                 }
                 assertTrue(requestedInstant.isBefore(afterExpectedDate));
-                return Arrays.asList(changeRequest1, changeRequest2);
+                return Arrays.asList("CR1", "CR2");
         });
+        when(this.changeRequestStorageManager.loadMetadata("CR1")).thenReturn(Optional.of(changeRequest1));
+        when(this.changeRequestStorageManager.loadMetadata("CR2")).thenReturn(Optional.of(changeRequest2));
 
         when(changeRequest1.getStaleDate()).thenReturn(new Date(42));
         when(changeRequest2.getId()).thenReturn("CR2");
@@ -143,6 +159,38 @@ class ChangeRequestSchedulerJobManagerTest
         verify(changeRequest1, never()).setStaleDate(any(Date.class));
         verify(this.changeRequestStorageManager).saveStaleDate(changeRequest2);
         verify(this.changeRequestStorageManager, never()).saveStaleDate(changeRequest1);
+        // Only the metadata of the change requests are needed to notify them.
+        verify(this.changeRequestStorageManager, never()).load(anyString());
+    }
+
+    @Test
+    void notifyStaleChangeRequestsStillMatchingAfterProcessing() throws ChangeRequestException
+    {
+        when(this.configuration.getStaleChangeRequestDurationForNotifying()).thenReturn(2L);
+        when(this.configuration.getSchedulerJobPageSize()).thenReturn(2);
+
+        // The storage keeps returning the processed change requests, e.g. because it's not updated yet.
+        List<Integer> requestedOffsets = new ArrayList<>();
+        List<String> staleChangeRequests = List.of("CR1", "CR2", "CR3", "CR4", "CR5");
+        when(this.changeRequestStorageManager.findNotStaledChangeRequestIdsByDate(any(Date.class), anyBoolean(),
+            anyInt(), anyInt())).thenAnswer(invocationOnMock -> {
+                int offset = invocationOnMock.getArgument(2);
+                int limit = invocationOnMock.getArgument(3);
+                requestedOffsets.add(offset);
+                return staleChangeRequests.stream().skip(offset).limit(limit).collect(Collectors.toList());
+            });
+        when(this.changeRequestStorageManager.loadMetadata(anyString())).thenAnswer(invocationOnMock -> {
+            ChangeRequest changeRequest = mock(ChangeRequest.class);
+            when(changeRequest.getId()).thenReturn(invocationOnMock.getArgument(0));
+            return Optional.of(changeRequest);
+        });
+
+        this.schedulerJobManager.notifyStaleChangeRequests();
+
+        // Each change request is processed once and the processing ends.
+        verify(this.changeRequestStorageManager, times(5)).loadMetadata(anyString());
+        verify(this.changeRequestStorageManager, times(5)).saveStaleDate(any());
+        assertEquals(List.of(0, 0, 2, 2, 4), requestedOffsets);
     }
 
     @Test
@@ -152,8 +200,9 @@ class ChangeRequestSchedulerJobManagerTest
         this.schedulerJobManager.closeStaleChangeRequests();
 
         // when duration is set to 0 the feature is entirely disabled
-        verify(this.changeRequestStorageManager, never()).findOpenChangeRequestsByDate(any(), anyBoolean());
-        verify(this.changeRequestStorageManager, never()).findChangeRequestsStaledBefore(any());
+        verify(this.changeRequestStorageManager, never())
+            .findOpenChangeRequestIdsByDate(any(), anyBoolean(), anyInt(), anyInt());
+        verify(this.changeRequestStorageManager, never()).findChangeRequestIdsStaledBefore(any(), anyInt(), anyInt());
 
         when(this.configuration.getStaleChangeRequestDurationForClosing()).thenReturn(5L);
         when(this.configuration.getStaleChangeRequestDurationForNotifying()).thenReturn(2L);
@@ -169,7 +218,7 @@ class ChangeRequestSchedulerJobManagerTest
 
         ChangeRequest changeRequest1 = mock(ChangeRequest.class);
         ChangeRequest changeRequest2 = mock(ChangeRequest.class);
-        when(this.changeRequestStorageManager.findChangeRequestsStaledBefore(any(Date.class)))
+        when(this.changeRequestStorageManager.findChangeRequestIdsStaledBefore(any(Date.class), eq(0), eq(100)))
             .thenAnswer(invocationOnMock -> {
                 Date requestedDate = invocationOnMock.getArgument(0);
                 Instant requestedInstant = requestedDate.toInstant();
@@ -179,8 +228,10 @@ class ChangeRequestSchedulerJobManagerTest
                         String.format("%s should be after %s", requestedInstant, beforeExpectedDate));
                 }
                 assertTrue(requestedInstant.isBefore(afterExpectedDate));
-                return Arrays.asList(changeRequest1, changeRequest2);
+                return Arrays.asList("CR1", "CR2");
             });
+        when(this.changeRequestStorageManager.load("CR1")).thenReturn(Optional.of(changeRequest1));
+        when(this.changeRequestStorageManager.load("CR2")).thenReturn(Optional.of(changeRequest2));
         this.schedulerJobManager.closeStaleChangeRequests();
 
         verify(this.context).setUserReference(userDocReference);
@@ -196,8 +247,8 @@ class ChangeRequestSchedulerJobManagerTest
 
         ChangeRequest changeRequest3 = mock(ChangeRequest.class);
         ChangeRequest changeRequest4 = mock(ChangeRequest.class);
-        when(this.changeRequestStorageManager.findOpenChangeRequestsByDate(any(Date.class), eq(false)))
-            .thenAnswer(invocationOnMock -> {
+        when(this.changeRequestStorageManager.findOpenChangeRequestIdsByDate(any(Date.class), eq(false), eq(0),
+            eq(100))).thenAnswer(invocationOnMock -> {
                 Date requestedDate = invocationOnMock.getArgument(0);
                 Instant requestedInstant = requestedDate.toInstant();
                 // if the test is fast enough, both date could be equals
@@ -206,13 +257,71 @@ class ChangeRequestSchedulerJobManagerTest
                         String.format("%s should be after %s", requestedInstant, beforeExpectedDate2));
                 }
                 assertTrue(requestedInstant.isBefore(afterExpectedDate2));
-                return Arrays.asList(changeRequest3, changeRequest4);
+                return Arrays.asList("CR3", "CR4");
             });
+        when(this.changeRequestStorageManager.load("CR3")).thenReturn(Optional.of(changeRequest3));
+        when(this.changeRequestStorageManager.load("CR4")).thenReturn(Optional.of(changeRequest4));
         this.schedulerJobManager.closeStaleChangeRequests();
         verify(this.context, times(2)).setUserReference(userDocReference);
         verify(this.changeRequestManager).updateStatus(changeRequest3, ChangeRequestStatus.STALE);
         verify(this.changeRequestManager).updateStatus(changeRequest4, ChangeRequestStatus.STALE);
-        verify(this.changeRequestStorageManager).findChangeRequestsStaledBefore(any());
-        verify(this.changeRequestStorageManager).findOpenChangeRequestsByDate(any(), anyBoolean());
+        verify(this.changeRequestStorageManager).findChangeRequestIdsStaledBefore(any(), anyInt(), anyInt());
+        verify(this.changeRequestStorageManager).findOpenChangeRequestIdsByDate(any(), anyBoolean(), anyInt(),
+            anyInt());
+        // The change requests are never all loaded at once.
+        verify(this.changeRequestStorageManager, never()).findChangeRequestsStaledBefore(any());
+        verify(this.changeRequestStorageManager, never()).findOpenChangeRequestsByDate(any(), anyBoolean());
+    }
+
+    @Test
+    void closeStaleChangeRequestsByPages() throws ChangeRequestException
+    {
+        when(this.configuration.getStaleChangeRequestDurationForClosing()).thenReturn(5L);
+        when(this.configuration.getStaleChangeRequestDurationForNotifying()).thenReturn(2L);
+        int pageSize = 250;
+        when(this.configuration.getSchedulerJobPageSize()).thenReturn(pageSize);
+
+        // In-memory stand-in of the storage: 10,000 stale change requests, which are not stale anymore once closed.
+        TreeSet<String> staleChangeRequests = new TreeSet<>();
+        for (int i = 0; i < 10000; i++) {
+            staleChangeRequests.add(String.format("CR%05d", i));
+        }
+        // One change request cannot be closed: it's kept in the results and must be skipped.
+        String failingChangeRequest = "CR00042";
+        List<Integer> requestedLimits = new ArrayList<>();
+        when(this.changeRequestStorageManager.findChangeRequestIdsStaledBefore(any(Date.class), anyInt(), anyInt()))
+            .thenAnswer(invocationOnMock -> {
+                int offset = invocationOnMock.getArgument(1);
+                int limit = invocationOnMock.getArgument(2);
+                requestedLimits.add(limit);
+                return staleChangeRequests.stream().skip(offset).limit(limit).collect(Collectors.toList());
+            });
+        AtomicInteger retainedChangeRequests = new AtomicInteger();
+        AtomicInteger peakRetainedChangeRequests = new AtomicInteger();
+        when(this.changeRequestStorageManager.load(anyString())).thenAnswer(invocationOnMock -> {
+            ChangeRequest changeRequest = mock(ChangeRequest.class);
+            when(changeRequest.getId()).thenReturn(invocationOnMock.getArgument(0));
+            peakRetainedChangeRequests.accumulateAndGet(retainedChangeRequests.incrementAndGet(), Math::max);
+            return Optional.of(changeRequest);
+        });
+        doAnswer(invocationOnMock -> {
+            ChangeRequest changeRequest = invocationOnMock.getArgument(0);
+            retainedChangeRequests.decrementAndGet();
+            if (failingChangeRequest.equals(changeRequest.getId())) {
+                throw new ChangeRequestException("Cannot close the change request");
+            }
+            staleChangeRequests.remove(changeRequest.getId());
+            return null;
+        }).when(this.changeRequestManager).updateStatus(any(), eq(ChangeRequestStatus.STALE));
+
+        this.schedulerJobManager.closeStaleChangeRequests();
+
+        assertEquals(Set.of(failingChangeRequest), staleChangeRequests);
+        verify(this.changeRequestManager, times(10000)).updateStatus(any(), eq(ChangeRequestStatus.STALE));
+        // Each page is requested with the configured size and only a single change request is loaded at a time.
+        assertEquals(10000 / pageSize + 1, requestedLimits.size());
+        assertEquals(Set.of(pageSize), new HashSet<>(requestedLimits));
+        assertEquals(1, peakRetainedChangeRequests.get());
+        verify(this.changeRequestStorageManager, never()).findChangeRequestsStaledBefore(any());
     }
 }
@@ -0,0 +1,203 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.jobs;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xwiki.contrib.changerequest.DelegateApproverManager;
+import org.xwiki.environment.Environment;
+import org.xwiki.job.event.status.JobProgressManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.user.UserReference;
+import org.xwiki.user.UserReferenceResolver;
+
+import com.xpn.xwiki.XWikiContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link DelegateApproversComputationManager}.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@ComponentTest
+class DelegateApproversComputationManagerTest
+{
+    @InjectMockComponents
+    private DelegateApproversComputationManager computationManager;
+
+    @MockComponent
+    private DelegateApproverManager<DocumentReference> delegateApproverManager;
+
+    @MockComponent
+    @Named("document")
+    private UserReferenceResolver<DocumentReference> documentReferenceUserReferenceResolver;
+
+    @MockComponent
+    private EntityReferenceSerializer<String> entityReferenceSerializer;
+
+    @MockComponent
+    private DocumentReferenceResolver<String> documentReferenceResolver;
+
+    @MockComponent
+    private Environment environment;
+
+    @MockComponent
+    private JobProgressManager progressManager;
+
+    @MockComponent
+    private Provider<XWikiContext> contextProvider;
+
+    @TempDir
+    File permanentDirectory;
+
+    private final List<DocumentReference> users = new ArrayList<>();
+
+    private final Map<DocumentReference, UserReference> userReferences = new HashMap<>();
+
+    private final Map<UserReference, AtomicInteger> computations = new ConcurrentHashMap<>();
+
+    private final DocumentReference author = new DocumentReference("xwiki", "XWiki", "Admin");
+
+    private XWikiContext context;
+
+    @BeforeEach
+    void setup() throws Exception
+    {
+        when(this.environment.getPermanentDirectory()).thenReturn(this.permanentDirectory);
+        this.context = mock(XWikiContext.class);
+        when(this.contextProvider.get()).thenReturn(this.context);
+        when(this.entityReferenceSerializer.serialize(any())).thenAnswer(invocationOnMock ->
+            ((DocumentReference) invocationOnMock.getArgument(0)).getName());
+        when(this.documentReferenceResolver.resolve(anyString())).thenAnswer(invocationOnMock ->
+            new DocumentReference("xwiki", "XWiki", invocationOnMock.getArgument(0)));
+
+        for (int i = 0; i < 5000; i++) {
+            DocumentReference userDocReference = new DocumentReference("xwiki", "XWiki", String.format("User%04d", i));
+            this.users.add(userDocReference);
+            this.userReferences.put(userDocReference, mock(UserReference.class));
+        }
+        when(this.documentReferenceUserReferenceResolver.resolve(any())).thenAnswer(invocationOnMock ->
+            this.userReferences.get(invocationOnMock.getArgument(0)));
+        when(this.delegateApproverManager.computeDelegates(any())).thenAnswer(invocationOnMock -> {
+            this.computations.computeIfAbsent(invocationOnMock.getArgument(0), key -> new AtomicInteger())
+                .incrementAndGet();
+            return Collections.emptySet();
+        });
+    }
+
+    private DelegateApproversComputationRequest createRequest(String computationId, List<DocumentReference> users)
+    {
+        DelegateApproversComputationRequest request = new DelegateApproversComputationRequest();
+        request.setComputationId(computationId);
+        request.setAuthor(this.author);
+        request.setEntityReferences(new ArrayList<>(users));
+        return request;
+    }
+
+    @Test
+    void computeDelegates()
+    {
+        assertTrue(this.computationManager.computeDelegates(createRequest("computation", this.users), () -> false));
+
+        assertEquals(5000, this.computations.size());
+        assertEquals(Collections.emptyList(), this.computationManager.getPendingComputations());
+        verify(this.progressManager).pushLevelProgress(50, this.computationManager);
+        verify(this.progressManager, times(50)).startStep(this.computationManager);
+        verify(this.progressManager).popLevelProgress(this.computationManager);
+        verify(this.context, times(5000)).setUserReference(this.author);
+    }
+
+    @Test
+    void computeDelegatesAfterRestart()
+    {
+        // Simulate an interruption after 10 batches.
+        AtomicInteger batches = new AtomicInteger();
+        assertFalse(this.computationManager.computeDelegates(createRequest("computation", this.users),
+            () -> batches.incrementAndGet() > 10));
+        assertEquals(1000, this.computations.size());
+        List<DelegateApproversComputationRequest> pendingComputations =
+            this.computationManager.getPendingComputations();
+        assertEquals(1, pendingComputations.size());
+        DelegateApproversComputationRequest pendingComputation = pendingComputations.get(0);
+        assertEquals("computation", pendingComputation.getComputationId());
+        assertEquals(this.users.subList(1000, 5000), pendingComputation.getEntityReferences());
+        // The author is kept since the resumed job doesn't have any context user.
+        assertEquals(this.author, pendingComputation.getAuthor());
+
+        // The computation is resumed from the last processed batch after the restart.
+        assertTrue(this.computationManager.computeDelegates(pendingComputation, () -> false));
+
+        assertEquals(5000, this.computations.size());
+        this.computations.values().forEach(computation -> assertEquals(1, computation.get()));
+        assertEquals(Collections.emptyList(), this.computationManager.getPendingComputations());
+    }
+
+    @Test
+    void computeDelegatesWithConcurrentComputations()
+    {
+        // Two computations interrupted at the same time don't overwrite their pending users.
+        assertFalse(this.computationManager.computeDelegates(createRequest("computation1",
+            this.users.subList(0, 1000)), () -> true));
+        assertFalse(this.computationManager.computeDelegates(createRequest("computation2",
+            this.users.subList(1000, 1500)), () -> true));
+
+        List<DelegateApproversComputationRequest> pendingComputations =
+            this.computationManager.getPendingComputations();
+        assertEquals(2, pendingComputations.size());
+        assertEquals("computation1", pendingComputations.get(0).getComputationId());
+        assertEquals(this.users.subList(0, 1000), pendingComputations.get(0).getEntityReferences());
+        assertEquals("computation2", pendingComputations.get(1).getComputationId());
+        assertEquals(this.users.subList(1000, 1500), pendingComputations.get(1).getEntityReferences());
+
+        assertTrue(this.computationManager.computeDelegates(pendingComputations.get(1), () -> false));
+        assertEquals(List.of("computation1"), this.computationManager.getPendingComputations().stream()
+            .map(DelegateApproversComputationRequest::getComputationId)
+            .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.changerequest.internal.listeners;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.contrib.changerequest.internal.approvers.ApproversXClassInitializer;
+import org.xwiki.contrib.changerequest.internal.cache.ApproversCacheManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.event.XObjectDeletedEvent;
+import com.xpn.xwiki.internal.event.XObjectUpdatedEvent;
+import com.xpn.xwiki.objects.BaseObject;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ApproversCacheInvalidationListener}.
+ *
+ * @version $Id$
+ * @since 1.20
+ */
+@ComponentTest
+class ApproversCacheInvalidationListenerTest
+{
+    @InjectMockComponents
+    private ApproversCacheInvalidationListener listener;
+
+    @MockComponent
+    private ApproversCacheManager approversCacheManager;
+
+    @Test
+    void onApproversUpdated()
+    {
+        XWikiDocument document = mock(XWikiDocument.class);
+        DocumentReference documentReference = new DocumentReference("xwiki", "Space", "Page");
+        when(document.getDocumentReference()).thenReturn(documentReference);
+        when(document.getXObject(ApproversXClassInitializer.APPROVERS_XCLASS)).thenReturn(mock(BaseObject.class));
+        when(document.getOriginalDocument()).thenReturn(mock(XWikiDocument.class));
+
+        this.listener.onEvent(new XObjectUpdatedEvent(), document, null);
+
+        verify(this.approversCacheManager).invalidate(documentReference);
+        verify(this.approversCacheManager, never()).invalidateAll();
+    }
+
+    @Test
+    void onGroupUpdated()
+    {
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getXObject(ApproversCacheInvalidationListener.GROUPS_XCLASS))
+            .thenReturn(mock(BaseObject.class));
+
+        this.listener.onEvent(new XObjectUpdatedEvent(), document, null);
+
+        verify(this.approversCacheManager).invalidateAll();
+        verify(this.approversCacheManager, never()).invalidate(any());
+    }
+
+    @Test
+    void onGroupDeleted()
+    {
+        XWikiDocument document = mock(XWikiDocument.class);
+        XWikiDocument originalDocument = mock(XWikiDocument.class);
+        when(document.getOriginalDocument()).thenReturn(originalDocument);
+        when(originalDocument.getXObject(ApproversCacheInvalidationListener.GROUPS_XCLASS))
+            .thenReturn(mock(BaseObject.class));
+
+        this.listener.onEvent(new XObjectDeletedEvent(), document, null);
+
+        verify(this.approversCacheManager).invalidateAll();
+    }
+}
@@ -22,6 +22,7 @@ package org.xwiki.contrib.changerequest.internal.listeners;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import javax.inject.Named;
@@ -50,6 +51,8 @@ import org.xwiki.user.group.GroupManager;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -200,27 +203,27 @@ class ApproversUpdatedListenerTest
         this.listener.onEvent(event, sourceDoc, data);
         verify(cr1Review1, never()).setValid(false);
         verify(cr1Review1, never()).setSaved(false);
-        verify(this.reviewStorageManager, never()).save(cr1Review1);
 
         verify(cr1Review2).setValid(false);
         verify(cr1Review2).setSaved(false);
-        verify(this.reviewStorageManager).save(cr1Review2);
 
         verify(cr1Review3, never()).setValid(false);
         verify(cr1Review3, never()).setSaved(false);
-        verify(this.reviewStorageManager, never()).save(cr1Review3);
 
         verify(cr2Review1).setValid(false);
         verify(cr2Review1).setSaved(false);
-        verify(this.reviewStorageManager).save(cr2Review1);
 
         verify(cr2Review2, never()).setValid(false);
         verify(cr2Review2, never()).setSaved(false);
-        verify(this.reviewStorageManager, never()).save(cr2Review2);
 
         verify(cr2Review3).setValid(false);
         verify(cr2Review3).setSaved(false);
-        verify(this.reviewStorageManager).save(cr2Review3);
+
+        // The reviews of a same change request are invalidated together.
+        verify(this.reviewStorageManager).saveAll(List.of(cr1Review2));
+        verify(this.reviewStorageManager).saveAll(argThat(reviews -> reviews.size() == 2
+            && reviews.containsAll(List.of(cr2Review1, cr2Review3))));
+        verify(this.reviewStorageManager, never()).save(any());
 
         verify(this.changeRequestApproversManager).setUsersApprovers(Collections.singleton(user2Ref), changeRequest1);
         verify(this.changeRequestApproversManager).setUsersApprovers(Collections.singleton(user2Ref), changeRequest2);
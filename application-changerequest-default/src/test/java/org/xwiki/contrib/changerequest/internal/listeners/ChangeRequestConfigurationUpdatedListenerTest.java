@@ -39,11 +39,13 @@ import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
 
+import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -76,6 +78,9 @@ class ChangeRequestConfigurationUpdatedListenerTest
     @MockComponent
     private Provider<JobExecutor> jobExecutorProvider;
 
+    @MockComponent
+    private Provider<XWikiContext> contextProvider;
+
     @Test
     void onEventNoRecomputation()
     {
@@ -171,11 +176,17 @@ class ChangeRequestConfigurationUpdatedListenerTest
 
         JobExecutor jobExecutor = mock(JobExecutor.class);
         when(jobExecutorProvider.get()).thenReturn(jobExecutor);
+        XWikiContext context = mock(XWikiContext.class);
+        when(this.contextProvider.get()).thenReturn(context);
+        DocumentReference userReference = new DocumentReference("xwiki", "XWiki", "Admin");
+        when(context.getUserReference()).thenReturn(userReference);
 
         when(jobExecutor.execute(eq(DelegateApproversComputationRequest.DELEGATE_APPROVERS_COMPUTATION_JOB), any()))
             .then(invocation -> {
                 DelegateApproversComputationRequest request = invocation.getArgument(1);
                 assertEquals(List.of(fooRef, barRef, buzRef), request.getEntityReferences());
+                assertEquals(userReference, request.getAuthor());
+                assertNotNull(request.getComputationId());
                 assertFalse(request.isDeep());
                 assertFalse(request.isInteractive());
                 return null;
@@ -19,19 +19,13 @@
  */
 package org.xwiki.contrib.changerequest.internal.listeners;
 
-import java.util.Arrays;
-
-import javax.inject.Inject;
 import javax.inject.Provider;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.xwiki.bridge.event.DocumentUpdatedEvent;
-import org.xwiki.contrib.changerequest.ChangeRequest;
-import org.xwiki.contrib.changerequest.ChangeRequestException;
 import org.xwiki.contrib.changerequest.ChangeRequestManager;
-import org.xwiki.contrib.changerequest.ChangeRequestStatus;
-import org.xwiki.contrib.changerequest.storage.ChangeRequestStorageManager;
+import org.xwiki.contrib.changerequest.internal.MergingStatusComputationScheduler;
 import org.xwiki.job.Job;
 import org.xwiki.job.event.status.JobStatus;
 import org.xwiki.model.reference.DocumentReference;
@@ -44,9 +38,9 @@ import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.doc.XWikiDocument;
 
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -62,7 +56,7 @@ class DocumentUpdatedListenerTest
     private DocumentUpdatedListener listener;
 
     @MockComponent
-    private ChangeRequestStorageManager storageManager;
+    private MergingStatusComputationScheduler computationScheduler;
 
     @MockComponent
     private ChangeRequestManager changeRequestManager;
@@ -80,27 +74,18 @@ class DocumentUpdatedListenerTest
     }
 
     @Test
-    void processLocalEvent() throws ChangeRequestException
+    void processLocalEvent()
     {
         XWikiDocument sourceDoc = mock(XWikiDocument.class);
         DocumentReference documentReference = new DocumentReference("foo", "XWiki", "Document");
+        DocumentReference userReference = new DocumentReference("foo", "XWiki", "User");
         when(sourceDoc.getDocumentReferenceWithLocale()).thenReturn(documentReference);
         when(this.context.getMainXWiki()).thenReturn("foo");
-
-        ChangeRequest changeRequest1 = mock(ChangeRequest.class);
-        ChangeRequest changeRequest2 = mock(ChangeRequest.class);
-
-        when(this.storageManager.findChangeRequestTargeting(documentReference)).thenReturn(Arrays.asList(
-            changeRequest1,
-            changeRequest2
-        ));
-        when(changeRequest1.getStatus()).thenReturn(ChangeRequestStatus.MERGED);
-        when(changeRequest2.getStatus()).thenReturn(ChangeRequestStatus.READY_FOR_MERGING);
+        when(this.context.getUserReference()).thenReturn(userReference);
 
         this.listener.processLocalEvent(new DocumentUpdatedEvent(), sourceDoc, null);
 
-        verify(this.changeRequestManager, never()).computeReadyForMergingStatus(changeRequest1);
-        verify(this.changeRequestManager).computeReadyForMergingStatus(changeRequest2);
+        verify(this.computationScheduler).schedule(documentReference, userReference);
 
         when(this.context.getMainXWiki()).thenReturn("bar");
         XWiki wiki = mock(XWiki.class);
@@ -110,8 +95,7 @@ class DocumentUpdatedListenerTest
         // this will do nothing
         this.listener.processLocalEvent(new DocumentUpdatedEvent(), sourceDoc, null);
 
-        verify(this.changeRequestManager, never()).computeReadyForMergingStatus(changeRequest1);
-        verify(this.changeRequestManager).computeReadyForMergingStatus(changeRequest2);
+        verify(this.computationScheduler).schedule(documentReference, userReference);
 
         Job job = mock(Job.class);
         when(wiki.getWikiInitializerJob("foo")).thenReturn(job);
@@ -122,15 +106,14 @@ class DocumentUpdatedListenerTest
         // this will do nothing
         this.listener.processLocalEvent(new DocumentUpdatedEvent(), sourceDoc, null);
 
-        verify(this.changeRequestManager, never()).computeReadyForMergingStatus(changeRequest1);
-        verify(this.changeRequestManager).computeReadyForMergingStatus(changeRequest2);
+        verify(this.computationScheduler).schedule(documentReference, userReference);
 
         when(jobStatus.getState()).thenReturn(JobStatus.State.FINISHED);
 
         // this will be process again the event
         this.listener.processLocalEvent(new DocumentUpdatedEvent(), sourceDoc, null);
 
-        verify(this.changeRequestManager, never()).computeReadyForMergingStatus(changeRequest1);
-        verify(this.changeRequestManager, times(2)).computeReadyForMergingStatus(changeRequest2);
+        verify(this.computationScheduler, times(2)).schedule(documentReference, userReference);
+        verifyNoInteractions(this.changeRequestManager);
     }
 }
@@ -20,6 +20,7 @@
 package org.xwiki.contrib.changerequest.internal.listeners;
 
 import java.util.Collections;
+import java.util.List;
 
 import javax.inject.Named;
 import javax.inject.Provider;
@@ -38,8 +39,14 @@ import org.xwiki.user.UserReference;
 import org.xwiki.user.UserReferenceResolver;
 
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.mandatory.XWikiUsersDocumentInitializer;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseProperty;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -117,4 +124,47 @@ class UsersUpdatedListenerTest
 
         verify(this.delegateApproverManager).computeDelegates(userReference);
     }
+
+    @Test
+    void onEventWithoutDelegatePropertiesUpdate() throws ChangeRequestException
+    {
+        when(this.configuration.isDelegateEnabled()).thenReturn(true);
+        when(this.configuration.getDelegateClassPropertyList()).thenReturn(List.of("delegate", "manager"));
+
+        XWikiDocument source = mock(XWikiDocument.class);
+        XWikiDocument originalSource = mock(XWikiDocument.class);
+        when(source.getOriginalDocument()).thenReturn(originalSource);
+        BaseObject userObject = mock(BaseObject.class);
+        BaseObject originalUserObject = mock(BaseObject.class);
+        when(source.getXObject(XWikiUsersDocumentInitializer.XWIKI_USERS_DOCUMENT_REFERENCE)).thenReturn(userObject);
+        when(originalSource.getXObject(XWikiUsersDocumentInitializer.XWIKI_USERS_DOCUMENT_REFERENCE))
+            .thenReturn(originalUserObject);
+
+        // Only the avatar and the last login are updated.
+        when(userObject.safeget("delegate")).thenReturn(mockProperty(List.of("XWiki.Foo", "XWiki.Bar")));
+        when(originalUserObject.safeget("delegate")).thenReturn(mockProperty(List.of("XWiki.Foo", "XWiki.Bar")));
+        when(userObject.safeget("avatar")).thenReturn(mockProperty("avatar2.png"));
+        when(originalUserObject.safeget("avatar")).thenReturn(mockProperty("avatar1.png"));
+        when(userObject.safeget("lastLogin")).thenReturn(mockProperty("2026-10-16"));
+        when(originalUserObject.safeget("lastLogin")).thenReturn(mockProperty("2026-10-15"));
+
+        this.usersUpdatedListener.onEvent(null, source, null);
+        verify(this.delegateApproverManager, never()).computeDelegates(any());
+
+        DocumentReference documentReference = mock(DocumentReference.class);
+        when(source.getDocumentReference()).thenReturn(documentReference);
+        UserReference userReference = mock(UserReference.class);
+        when(this.userReferenceResolver.resolve(documentReference)).thenReturn(userReference);
+        when(originalUserObject.safeget("manager")).thenReturn(mockProperty("XWiki.Buz"));
+        this.usersUpdatedListener.onEvent(null, source, null);
+
+        verify(this.delegateApproverManager).computeDelegates(userReference);
+    }
+
+    private BaseProperty<?> mockProperty(Object value)
+    {
+        BaseProperty<?> property = mock(BaseProperty.class);
+        doReturn(value).when(property).getValue();
+        return property;
+    }
 }
@@ -19,6 +19,7 @@
  */
 package org.xwiki.contrib.changerequest.internal.storage;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -47,6 +48,8 @@ import org.xwiki.contrib.changerequest.discussions.ChangeRequestDiscussionServic
 import org.xwiki.contrib.changerequest.events.SplitEndChangeRequestEvent;
 import org.xwiki.contrib.changerequest.internal.UserReferenceConverter;
 import org.xwiki.contrib.changerequest.internal.cache.ChangeRequestStorageCacheManager;
+import org.xwiki.contrib.changerequest.internal.cache.ChangeRequestTargetIndexManager;
+import org.xwiki.contrib.changerequest.internal.cache.RenderedDiffStore;
 import org.xwiki.contrib.changerequest.storage.ChangeRequestIDGenerator;
 import org.xwiki.contrib.changerequest.storage.FileChangeStorageManager;
 import org.xwiki.contrib.changerequest.storage.ReviewStorageManager;
@@ -80,13 +83,18 @@ import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.xwiki.contrib.changerequest.internal.storage.ChangeRequestXClassInitializer.CHANGE_REQUEST_XCLASS;
 
@@ -99,6 +107,9 @@ import static org.xwiki.contrib.changerequest.internal.storage.ChangeRequestXCla
 @ComponentTest
 class DefaultChangeRequestStorageManagerTest
 {
+    private static final String EXISTING_CHANGE_REQUESTS_STATEMENT =
+        "select doc.fullName from XWikiDocument as doc, BaseObject as obj ";
+
     @InjectMockComponents
     private DefaultChangeRequestStorageManager storageManager;
 
@@ -137,6 +148,12 @@ class DefaultChangeRequestStorageManagerTest
     @MockComponent
     private ChangeRequestStorageCacheManager changeRequestStorageCacheManager;
 
+    @MockComponent
+    private ChangeRequestTargetIndexManager changeRequestTargetIndexManager;
+
+    @MockComponent
+    private RenderedDiffStore renderedDiffStore;
+
     @MockComponent
     @Named("document")
     private UserReferenceResolver<DocumentReference> userReferenceResolver;
@@ -231,7 +248,8 @@ class DefaultChangeRequestStorageManagerTest
         verify(this.fileChangeStorageManager).save(fileChange1);
         verify(this.fileChangeStorageManager).save(fileChange2);
         verify(this.wiki).saveDocument(document, "Creation of change request", this.context);
-        verify(this.changeRequestStorageCacheManager).invalidate("id42");
+        verify(this.changeRequestStorageCacheManager).cacheChangeRequest(changeRequest);
+        verify(this.changeRequestTargetIndexManager).update(any(), eq("id42"), eq(ChangeRequestStatus.DRAFT), any());
         verify(document).clone();
     }
 
@@ -309,20 +327,54 @@ class DefaultChangeRequestStorageManagerTest
     }
 
     @Test
-    void findChangeRequestTargetingDocument() throws Exception
+    void loadMetadata() throws Exception
     {
-        DocumentReference targetReference = mock(DocumentReference.class);
-        when(this.localEntityReferenceSerializer.serialize(targetReference)).thenReturn("Foo.MyPage");
+        String id = "myId";
+        DocumentReference documentReference = mock(DocumentReference.class);
+        when(this.changeRequestDocumentReferenceResolver.resolve(any())).thenReturn(documentReference);
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(this.wiki.getDocument(documentReference, this.context)).thenReturn(document);
+        BaseObject xobject = mock(BaseObject.class);
+        when(document.getXObject(CHANGE_REQUEST_XCLASS)).thenReturn(xobject);
 
-        when(this.entityReferenceSerializer.serialize(CHANGE_REQUEST_XCLASS))
-            .thenReturn("ChangeRequest.ChangeRequestClass");
-        String expectedStatement =
-            "from doc.object(ChangeRequest.ChangeRequestClass) as obj where :reference member of obj.changedDocuments";
-        Query query = mock(Query.class);
-        when(queryManager.createQuery(expectedStatement, Query.XWQL)).thenReturn(query);
+        when(document.isNew()).thenReturn(true);
+        assertEquals(Optional.empty(), this.storageManager.loadMetadata(id));
+
+        when(document.isNew()).thenReturn(false);
+        when(document.getTitle()).thenReturn("sometitle");
+        DocumentAuthors documentAuthors = mock(DocumentAuthors.class);
+        when(document.getAuthors()).thenReturn(documentAuthors);
+        UserReference userReference = mock(UserReference.class);
+        when(documentAuthors.getCreator()).thenReturn(userReference);
+        when(xobject.getStringValue("status")).thenReturn("ready_for_review");
+        when(xobject.getDateValue(ChangeRequestXClassInitializer.STALE_DATE_FIELD)).thenReturn(new Date(42));
+
+        ChangeRequest changeRequest = this.storageManager.loadMetadata(id).get();
+        assertEquals(id, changeRequest.getId());
+        assertEquals("sometitle", changeRequest.getTitle());
+        assertEquals(ChangeRequestStatus.READY_FOR_REVIEW, changeRequest.getStatus());
+        assertEquals(new Date(42), changeRequest.getStaleDate());
+        assertSame(userReference, changeRequest.getCreator());
+
+        // Neither the file changes nor the reviews are loaded, and the incomplete change request is not cached.
+        verify(this.fileChangeStorageManager, never()).load(any(), any());
+        verify(this.reviewStorageManager, never()).load(any());
+        verify(this.changeRequestStorageCacheManager, never()).cacheChangeRequest(any());
+
+        // A cached change request is used when available.
+        ChangeRequest cachedChangeRequest = mock(ChangeRequest.class);
+        when(this.changeRequestStorageCacheManager.getChangeRequest(id)).thenReturn(Optional.of(cachedChangeRequest));
+        assertEquals(Optional.of(cachedChangeRequest), this.storageManager.loadMetadata(id));
+    }
 
+    @Test
+    void findChangeRequestTargetingDocument() throws Exception
+    {
+        DocumentReference targetReference = mock(DocumentReference.class);
+        // The change requests are retrieved from the index of targets.
+        when(this.changeRequestTargetIndexManager.getChangeRequestIds(targetReference))
+            .thenReturn(Set.of("Space3", "Space1", "Space2"));
 
-        when(query.execute()).thenReturn(Arrays.asList("Space1.ref1", "Space2.ref2", "Space3.ref3"));
         DocumentReference ref1 = new DocumentReference("xwiki", "Space1", "ref1");
         DocumentReference ref2 = new DocumentReference("xwiki", "Space2", "ref2");
         DocumentReference ref3 = new DocumentReference("xwiki", "Space3", "ref3");
@@ -347,6 +399,11 @@ class DefaultChangeRequestStorageManagerTest
             return null;
         });
 
+        Query existingQuery = mock(Query.class);
+        when(this.queryManager.createQuery(startsWith(EXISTING_CHANGE_REQUESTS_STATEMENT), eq(Query.HQL)))
+            .thenReturn(existingQuery);
+        when(existingQuery.execute()).thenReturn(Arrays.asList("Space1.ref1", "Space2.ref2", "Space3.ref3"));
+
         // skip ref1
         XWikiDocument doc1 = mock(XWikiDocument.class);
         when(this.wiki.getDocument(ref1, this.context)).thenReturn(doc1);
@@ -409,24 +466,161 @@ class DefaultChangeRequestStorageManagerTest
             .setUpdateDate(new Date(17));
 
         assertEquals(Arrays.asList(cr2, cr3), this.storageManager.findChangeRequestTargeting(targetReference));
-        verify(query).bindValue("reference", "Foo.MyPage");
+        assertEquals(Arrays.asList(ref1, ref2, ref3),
+            this.storageManager.findChangeRequestReferenceTargeting(targetReference));
+        // Only the existence of the change requests is checked with a query.
+        verify(this.queryManager, times(1)).createQuery(anyString(), anyString());
     }
 
     @Test
-    void findChangeRequestTargetingSpace() throws Exception
+    void findOpenChangeRequestTargeting() throws Exception
     {
-        SpaceReference targetReference = mock(SpaceReference.class);
-        when(this.localEntityReferenceSerializer.serialize(targetReference)).thenReturn("Foo.MySpace");
+        DocumentReference targetReference = new DocumentReference("xwiki", "Foo", "MyPage");
+        DocumentReference otherReference = new DocumentReference("xwiki", "Foo", "OtherPage");
+
+        // Miss path: the index doesn't contain any entry so there's no query and no document loaded.
+        when(this.changeRequestTargetIndexManager.getOpenChangeRequestIds(otherReference)).thenReturn(Set.of());
+        assertEquals(List.of(), this.storageManager.findOpenChangeRequestTargeting(otherReference));
+        verifyNoInteractions(this.queryManager);
+        verifyNoInteractions(this.wiki);
+
+        ChangeRequest cr1 = new ChangeRequest().setId("cr1").setStatus(ChangeRequestStatus.READY_FOR_REVIEW);
+        ChangeRequest cr2 = new ChangeRequest().setId("cr2").setStatus(ChangeRequestStatus.MERGED);
+        when(this.changeRequestTargetIndexManager.getOpenChangeRequestIds(targetReference))
+            .thenReturn(Set.of("cr1", "cr2"));
+        when(this.changeRequestStorageCacheManager.getChangeRequest("cr1")).thenReturn(Optional.of(cr1));
+        when(this.changeRequestStorageCacheManager.getChangeRequest("cr2")).thenReturn(Optional.of(cr2));
+
+        assertEquals(List.of(cr1), this.storageManager.findOpenChangeRequestTargeting(targetReference));
+        verifyNoInteractions(this.queryManager);
+    }
+
+    @Test
+    void findOpenChangeRequestsByDateWithBoundedQueries() throws Exception
+    {
+        // In-memory stand-in of the query manager: it records all performed queries.
+        List<String> performedQueries = new ArrayList<>();
+        List<String> existingDocuments = new ArrayList<>();
+        when(this.queryManager.createQuery(anyString(), anyString())).thenAnswer(invocationOnMock -> {
+            performedQueries.add(invocationOnMock.getArgument(0));
+            Query query = mock(Query.class);
+            when(query.bindValue(anyString(), any())).thenReturn(query);
+            when(query.execute()).thenAnswer(executeInvocation -> new ArrayList<>(existingDocuments));
+            return query;
+        });
+
+        when(this.changeRequestDocumentReferenceResolver.resolve(any())).thenAnswer(invocationOnMock -> {
+            ChangeRequest changeRequest = invocationOnMock.getArgument(0);
+            return new DocumentReference("xwiki", List.of("ChangeRequest", changeRequest.getId()), "WebHome");
+        });
+        when(this.documentReferenceResolver.resolve(anyString())).thenAnswer(invocationOnMock -> {
+            String serializedReference = invocationOnMock.getArgument(0);
+            return new DocumentReference("xwiki", List.of("ChangeRequest", serializedReference.split("\\.")[1]),
+                "WebHome");
+        });
+        List<DocumentReference> loadedDocuments = new ArrayList<>();
+        when(this.wiki.getDocument(any(DocumentReference.class), eq(this.context))).thenAnswer(invocationOnMock -> {
+            DocumentReference reference = invocationOnMock.getArgument(0);
+            loadedDocuments.add(reference);
+            XWikiDocument document = mock(XWikiDocument.class);
+            // Missing change requests are returned as new documents.
+            when(document.isNew()).thenReturn(!existingDocuments.contains(
+                String.format("ChangeRequest.%s.WebHome", reference.getLastSpaceReference().getName())));
+            BaseObject xobject = mock(BaseObject.class);
+            when(document.getXObject(CHANGE_REQUEST_XCLASS)).thenReturn(xobject);
+            when(xobject.getStringValue("status")).thenReturn("ready_for_review");
+            when(document.getAuthors()).thenReturn(mock(DocumentAuthors.class));
+            return document;
+        });
+
+        for (int numberOfChangeRequests : List.of(10, 100)) {
+            performedQueries.clear();
+            loadedDocuments.clear();
+            existingDocuments.clear();
+            for (int i = 0; i < numberOfChangeRequests; i++) {
+                existingDocuments.add(String.format("ChangeRequest.CR%s.WebHome", i));
+            }
 
+            List<ChangeRequest> changeRequests = this.storageManager.findOpenChangeRequestsByDate(new Date(), true);
+            assertEquals(numberOfChangeRequests, changeRequests.size());
+            assertEquals("CR0", changeRequests.get(0).getId());
+            // A single query to find the change requests.
+            assertEquals(1, performedQueries.size());
+            assertEquals(numberOfChangeRequests, loadedDocuments.size());
+        }
+
+        // Cached change requests are not loaded, and missing change requests are ignored without any query.
+        performedQueries.clear();
+        loadedDocuments.clear();
+        ChangeRequest cachedChangeRequest = new ChangeRequest().setId("CR3");
+        when(this.changeRequestStorageCacheManager.getChangeRequest("CR3"))
+            .thenReturn(Optional.of(cachedChangeRequest));
+        List<ChangeRequest> changeRequests = this.storageManager.loadAll(List.of("CR3", "CR4", "CR3", "CR1000"));
+        assertEquals(2, changeRequests.size());
+        assertSame(cachedChangeRequest, changeRequests.get(0));
+        assertEquals("CR4", changeRequests.get(1).getId());
+        assertEquals(List.of(), performedQueries);
+        assertEquals(List.of(new DocumentReference("xwiki", List.of("ChangeRequest", "CR4"), "WebHome"),
+            new DocumentReference("xwiki", List.of("ChangeRequest", "CR1000"), "WebHome")), loadedDocuments);
+    }
+
+    @Test
+    void statusFilteredQueriesUseStableStatements() throws Exception
+    {
+        // In-memory stand-in of the query manager: it records all performed statements and their bound values.
+        List<String> performedQueries = new ArrayList<>();
+        List<Map<String, Object>> boundValues = new ArrayList<>();
+        when(this.queryManager.createQuery(anyString(), anyString())).thenAnswer(invocationOnMock -> {
+            performedQueries.add(invocationOnMock.getArgument(0));
+            Map<String, Object> queryBoundValues = new HashMap<>();
+            boundValues.add(queryBoundValues);
+            Query query = mock(Query.class);
+            when(query.bindValue(anyString(), any())).thenAnswer(bindInvocation -> {
+                queryBoundValues.put(bindInvocation.getArgument(0), bindInvocation.getArgument(1));
+                return query;
+            });
+            when(query.addFilter(any())).thenReturn(query);
+            // Count queries return a number, the other ones don't find any change request.
+            when(query.execute()).thenAnswer(executeInvocation ->
+                (queryBoundValues.containsKey("limitDate")) ? List.of() : List.of(0L));
+            return query;
+        });
         when(this.entityReferenceSerializer.serialize(CHANGE_REQUEST_XCLASS))
             .thenReturn("ChangeRequest.ChangeRequestClass");
-        String expectedStatement = ", BaseObject as obj, DBStringListProperty as prop join prop.list list "
-            + "where obj.name=doc.fullName and obj.className='ChangeRequest.ChangeRequestClass' and obj.id=prop.id.id "
-            + "and prop.id.name='changedDocuments' and list like :reference order by doc.creationDate desc";
-        Query query = mock(Query.class);
-        when(queryManager.createQuery(expectedStatement, Query.HQL)).thenReturn(query);
 
-        when(query.execute()).thenReturn(Arrays.asList("Space1.ref1", "Space2.ref2", "Space3.ref3"));
+        for (int i = 0; i < 3; i++) {
+            this.storageManager.countChangeRequests(true);
+        }
+        assertEquals(3, performedQueries.size());
+        assertEquals(1, new HashSet<>(performedQueries).size());
+
+        performedQueries.clear();
+        this.storageManager.findChangeRequestsStaledBefore(new Date(42));
+        this.storageManager.findChangeRequestsStaledBefore(new Date(43));
+        assertEquals(2, performedQueries.size());
+        assertEquals(1, new HashSet<>(performedQueries).size());
+
+        performedQueries.clear();
+        this.storageManager.findOpenChangeRequestsByDate(new Date(42), true);
+        this.storageManager.findOpenChangeRequestsByDate(new Date(43), true);
+        assertEquals(2, performedQueries.size());
+        assertEquals(1, new HashSet<>(performedQueries).size());
+
+        // The statuses are never part of the statements: they are always bound.
+        List<String> openStatuses = List.of("draft", "ready_for_review", "ready_for_merging");
+        for (Map<String, Object> queryBoundValues : boundValues) {
+            assertEquals(openStatuses, queryBoundValues.get("statuses"));
+        }
+    }
+
+    @Test
+    void findChangeRequestTargetingSpace() throws Exception
+    {
+        SpaceReference targetReference = mock(SpaceReference.class);
+        // The change requests are retrieved from the index of targets.
+        when(this.changeRequestTargetIndexManager.getChangeRequestIds(targetReference))
+            .thenReturn(Set.of("Space1", "Space3", "Space2"));
+
         DocumentReference ref1 = new DocumentReference("xwiki", "Space1", "ref1");
         DocumentReference ref2 = new DocumentReference("xwiki", "Space2", "ref2");
         DocumentReference ref3 = new DocumentReference("xwiki", "Space3", "ref3");
@@ -451,6 +645,11 @@ class DefaultChangeRequestStorageManagerTest
             return null;
         });
 
+        Query existingQuery = mock(Query.class);
+        when(this.queryManager.createQuery(startsWith(EXISTING_CHANGE_REQUESTS_STATEMENT), eq(Query.HQL)))
+            .thenReturn(existingQuery);
+        when(existingQuery.execute()).thenReturn(Arrays.asList("Space1.ref1", "Space2.ref2", "Space3.ref3"));
+
         // skip ref1
         XWikiDocument doc1 = mock(XWikiDocument.class);
         when(this.wiki.getDocument(ref1, this.context)).thenReturn(doc1);
@@ -512,8 +711,10 @@ class DefaultChangeRequestStorageManagerTest
             .setCreationDate(new Date(16))
             .setUpdateDate(new Date(18));
 
+        // Most recent change requests first.
         assertEquals(Arrays.asList(cr2, cr3), this.storageManager.findChangeRequestTargeting(targetReference));
-        verify(query).bindValue("reference", "%Foo.MySpace%");
+        // Only the existence of the change requests is checked with a query.
+        verify(this.queryManager, times(1)).createQuery(anyString(), anyString());
     }
 
     @Test
@@ -884,49 +1085,43 @@ class DefaultChangeRequestStorageManagerTest
         verify(review1CloneCR1).setValid(false);
         verify(review1CloneCR1).setId(review1Id);
         verify(changeRequest1).addReview(review1CloneCR1);
-        verify(this.reviewStorageManager).save(review1CloneCR1);
 
         verify(review2CloneCR1).setValid(false);
         verify(review2CloneCR1).setId(review2Id);
         verify(changeRequest1).addReview(review2CloneCR1);
-        verify(this.reviewStorageManager).save(review2CloneCR1);
 
         verify(review3CloneCR1).setValid(false);
         verify(review3CloneCR1).setId(review3Id);
         verify(changeRequest1).addReview(review3CloneCR1);
-        verify(this.reviewStorageManager).save(review3CloneCR1);
+        verify(this.reviewStorageManager).saveAll(List.of(review1CloneCR1, review2CloneCR1, review3CloneCR1));
 
         // CR2
         verify(review1CloneCR2).setValid(false);
         verify(review1CloneCR2).setId(review1Id);
         verify(changeRequest2).addReview(review1CloneCR2);
-        verify(this.reviewStorageManager).save(review1CloneCR2);
 
         verify(review2CloneCR2).setValid(false);
         verify(review2CloneCR2).setId(review2Id);
         verify(changeRequest2).addReview(review2CloneCR2);
-        verify(this.reviewStorageManager).save(review2CloneCR2);
 
         verify(review3CloneCR2).setValid(false);
         verify(review3CloneCR2).setId(review3Id);
         verify(changeRequest2).addReview(review3CloneCR2);
-        verify(this.reviewStorageManager).save(review3CloneCR2);
+        verify(this.reviewStorageManager).saveAll(List.of(review1CloneCR2, review2CloneCR2, review3CloneCR2));
 
         // CR3
         verify(review1CloneCR3).setValid(false);
         verify(review1CloneCR3).setId(review1Id);
         verify(changeRequest3).addReview(review1CloneCR3);
-        verify(this.reviewStorageManager).save(review1CloneCR3);
 
         verify(review2CloneCR3).setValid(false);
         verify(review2CloneCR3).setId(review2Id);
         verify(changeRequest3).addReview(review2CloneCR3);
-        verify(this.reviewStorageManager).save(review2CloneCR3);
 
         verify(review3CloneCR3).setValid(false);
         verify(review3CloneCR3).setId(review3Id);
         verify(changeRequest3).addReview(review3CloneCR3);
-        verify(this.reviewStorageManager).save(review3CloneCR3);
+        verify(this.reviewStorageManager).saveAll(List.of(review1CloneCR3, review2CloneCR3, review3CloneCR3));
 
         verify(this.discussionService).moveDiscussions(changeRequest,
             List.of(changeRequest1, changeRequest2, changeRequest3, changeRequest4));
@@ -947,6 +1142,7 @@ class DefaultChangeRequestStorageManagerTest
 
         verify(this.jobExecutor).execute(RefactoringJobs.DELETE, deleteRequest);
         verify(deletionJob).join();
+        verify(this.renderedDiffStore).invalidate(changeRequest);
 
         verify(this.observationManager).notify(any(SplitEndChangeRequestEvent.class), eq(changeRequestId),
             eq(List.of(changeRequest1, changeRequest2, changeRequest3, changeRequest4)));
@@ -1236,33 +1432,29 @@ class DefaultChangeRequestStorageManagerTest
         verify(review1CloneCR1).setValid(false);
         verify(review1CloneCR1).setId(review1Id);
         verify(changeRequest1).addReview(review1CloneCR1);
-        verify(this.reviewStorageManager).save(review1CloneCR1);
 
         verify(review2CloneCR1).setValid(false);
         verify(review2CloneCR1).setId(review2Id);
         verify(changeRequest1).addReview(review2CloneCR1);
-        verify(this.reviewStorageManager).save(review2CloneCR1);
 
         verify(review3CloneCR1).setValid(false);
         verify(review3CloneCR1).setId(review3Id);
         verify(changeRequest1).addReview(review3CloneCR1);
-        verify(this.reviewStorageManager).save(review3CloneCR1);
+        verify(this.reviewStorageManager).saveAll(List.of(review1CloneCR1, review2CloneCR1, review3CloneCR1));
 
         // CR3
         verify(review1CloneCR3).setValid(false);
         verify(review1CloneCR3).setId(review1Id);
         verify(changeRequest3).addReview(review1CloneCR3);
-        verify(this.reviewStorageManager).save(review1CloneCR3);
 
         verify(review2CloneCR3).setValid(false);
         verify(review2CloneCR3).setId(review2Id);
         verify(changeRequest3).addReview(review2CloneCR3);
-        verify(this.reviewStorageManager).save(review2CloneCR3);
 
         verify(review3CloneCR3).setValid(false);
         verify(review3CloneCR3).setId(review3Id);
         verify(changeRequest3).addReview(review3CloneCR3);
-        verify(this.reviewStorageManager).save(review3CloneCR3);
+        verify(this.reviewStorageManager).saveAll(List.of(review1CloneCR3, review2CloneCR3, review3CloneCR3));
 
         verify(this.discussionService).moveDiscussions(changeRequest,
             List.of(changeRequest1, changeRequest3, changeRequest4));
@@ -1309,6 +1501,8 @@ class DefaultChangeRequestStorageManagerTest
 
         verify(this.jobExecutor).execute(RefactoringJobs.DELETE, deleteRequest);
         verify(deletionJob).join();
+        verify(this.changeRequestTargetIndexManager).remove(any(), any());
+        verify(this.renderedDiffStore).invalidate(changeRequest);
     }
 
     @Test
@@ -1318,7 +1512,7 @@ class DefaultChangeRequestStorageManagerTest
         when(this.entityReferenceSerializer.serialize(CHANGE_REQUEST_XCLASS)).thenReturn(serializedXClass);
 
         String expectedQuery = ", BaseObject as obj , StringProperty as obj_status "
-            + "where obj_status.value in ('draft','ready_for_review','ready_for_merging') and "
+            + "where obj_status.value in (:statuses) and "
             + "doc.fullName=obj.name and obj.className='" + serializedXClass +"' "
             + "and obj_status.id.id=obj.id and obj_status.id.name='status' ";
         Query query = mock(Query.class);
@@ -1329,6 +1523,7 @@ class DefaultChangeRequestStorageManagerTest
 
         assertEquals(expectedValue, this.storageManager.countChangeRequests(true));
         verify(query).addFilter(this.countQueryFilter);
+        verify(query).bindValue("statuses", List.of("draft", "ready_for_review", "ready_for_merging"));
 
         expectedQuery = ", BaseObject as obj , StringProperty as obj_status "
             + "where doc.fullName=obj.name and obj.className='" + serializedXClass + "' ";
@@ -1351,7 +1546,7 @@ class DefaultChangeRequestStorageManagerTest
         int offset = 12;
         int limit = 25;
         String expectedQuery = ", BaseObject as obj , StringProperty as obj_status "
-            + "where obj_status.value in ('draft','ready_for_review','ready_for_merging') and "
+            + "where obj_status.value in (:statuses) and "
             + "doc.fullName=obj.name and obj.className='" + serializedXClass +"' "
             + "and obj_status.id.id=obj.id and obj_status.id.name='status' ";
         Query query = mock(Query.class);
@@ -1376,6 +1571,7 @@ class DefaultChangeRequestStorageManagerTest
             this.storageManager.getChangeRequestsReferences(true, offset, limit));
         verify(query).setLimit(limit);
         verify(query).setOffset(offset);
+        verify(query).bindValue("statuses", List.of("draft", "ready_for_review", "ready_for_merging"));
 
         limit = 32;
         offset = 2232;
@@ -27,6 +27,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Named;
 import javax.inject.Provider;
@@ -35,6 +36,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.suigeneris.jrcs.rcs.Version;
+import org.xwiki.bridge.DocumentModelBridge;
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.context.Execution;
 import org.xwiki.contrib.changerequest.ChangeRequest;
@@ -105,6 +107,9 @@ import com.xpn.xwiki.web.Utils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -509,6 +514,85 @@ class DefaultFileChangeStorageManagerTest
         assertEquals(expected, fileChanges);
     }
 
+    @Test
+    void loadParsesOnlyUsedDocuments() throws Exception
+    {
+        ChangeRequest changeRequest = new ChangeRequest();
+        DocumentReference changedDocument = new DocumentReference("xwiki", "Space", "Document");
+        DocumentReference changeRequestDocReference = new DocumentReference("xwiki", "ChangeRequest", "Doc");
+        when(this.changeRequestDocumentReferenceResolver.resolve(changeRequest)).thenReturn(changeRequestDocReference);
+        DocumentReference fileStorageReference = new DocumentReference("5:xwiki5:Space8:Document0:",
+            changeRequestDocReference.getLastSpaceReference());
+        XWikiDocument fileStorageDoc = mock(XWikiDocument.class);
+        when(this.xWiki.getDocument(fileStorageReference, this.context)).thenReturn(fileStorageDoc);
+
+        // 50 successive editions of the same document
+        int numberOfFileChanges = 50;
+        AtomicInteger parsedAttachments = new AtomicInteger();
+        List<BaseObject> fileChangeObjects = new ArrayList<>();
+        for (int i = 1; i <= numberOfFileChanges; i++) {
+            BaseObject fileChangeObject = mock(BaseObject.class);
+            String filename = String.format("file%s.xml", i);
+            when(fileChangeObject.getStringValue(FileChangeXClassInitializer.REFERENCE_PROPERTY))
+                .thenReturn("xwiki:Space.Document");
+            when(fileChangeObject.getStringValue(FileChangeXClassInitializer.REFERENCE_LOCALE_PROPERTY))
+                .thenReturn(Locale.GERMAN.toString());
+            when(fileChangeObject.getStringValue(FileChangeXClassInitializer.FILENAME_PROPERTY)).thenReturn(filename);
+            when(fileChangeObject.getStringValue(FileChangeXClassInitializer.VERSION_PROPERTY))
+                .thenReturn("filechange-3." + i);
+            when(fileChangeObject.getStringValue(FileChangeXClassInitializer.TYPE_PROPERTY)).thenReturn("edition");
+            when(fileChangeObject.getDateValue(FileChangeXClassInitializer.CREATION_DATE_PROPERTY))
+                .thenReturn(new Date(i));
+            fileChangeObjects.add(fileChangeObject);
+
+            XWikiAttachment attachment = mock(XWikiAttachment.class);
+            when(fileStorageDoc.getAttachment(filename)).thenReturn(attachment);
+            when(attachment.getFilename()).thenReturn(filename);
+            if (i == 1) {
+                // The content of the first attachment cannot be read.
+                when(attachment.getContentInputStream(this.context)).thenThrow(new XWikiException());
+            } else {
+                when(attachment.getContentInputStream(this.context)).thenAnswer(invocationOnMock -> {
+                    parsedAttachments.incrementAndGet();
+                    return getClass().getClassLoader().getResourceAsStream("filechange.xml");
+                });
+            }
+        }
+        when(fileStorageDoc.getXObjects(FileChangeXClassInitializer.FILECHANGE_XCLASS)).thenReturn(fileChangeObjects);
+
+        List<FileChange> fileChanges = this.fileChangeStorageManager.load(changeRequest, changedDocument);
+        assertEquals(numberOfFileChanges, fileChanges.size());
+        assertEquals("filechange-3.50", fileChanges.get(numberOfFileChanges - 1).getVersion());
+        assertEquals(0, parsedAttachments.get());
+
+        for (FileChange fileChange : fileChanges) {
+            changeRequest.addFileChange(fileChange);
+        }
+
+        // Only the latest file change is needed for computing the merge status.
+        DocumentReference targetEntity = new DocumentReference(changedDocument, Locale.GERMAN);
+        FileChange latestFileChange = changeRequest.getLatestFileChangeFor(targetEntity).get();
+        assertEquals("filechange-3.50", latestFileChange.getVersion());
+        DocumentModelBridge modifiedDocument = latestFileChange.getModifiedDocument();
+        assertNotNull(modifiedDocument);
+        assertFalse(modifiedDocument.isNew());
+        assertSame(modifiedDocument, changeRequest.getLatestFileChangeFor(targetEntity).get().getModifiedDocument());
+        assertEquals(1, parsedAttachments.get());
+
+        // Errors when parsing a document are logged, and callers of the file change get a null document as when
+        // the document was loaded eagerly.
+        assertNull(fileChanges.get(0).getModifiedDocument());
+        assertEquals(1, this.logCapture.size());
+        assertTrue(this.logCapture.getMessage(0).startsWith(
+            "Error while loading the document of file change [file1] from attachment [file1.xml]: [XWikiException"));
+
+        // The storage API reports the error to its caller.
+        ChangeRequestException exception = assertThrows(ChangeRequestException.class,
+            () -> this.fileChangeStorageManager.getModifiedDocumentFromFileChange(fileChanges.get(0)));
+        assertEquals(String.format("The document of the file change [%s] cannot be loaded", fileChanges.get(0)),
+            exception.getMessage());
+    }
+
     @Test
     void mergeEdition() throws Exception
     {
@@ -19,6 +19,7 @@
  */
 package org.xwiki.contrib.changerequest.internal.storage;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -31,6 +32,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.xwiki.contrib.changerequest.ChangeRequest;
 import org.xwiki.contrib.changerequest.ChangeRequestReview;
+import org.xwiki.contrib.changerequest.ReviewInvalidationReason;
 import org.xwiki.contrib.changerequest.internal.UserReferenceConverter;
 import org.xwiki.model.document.DocumentAuthors;
 import org.xwiki.model.reference.DocumentReference;
@@ -38,6 +40,7 @@ import org.xwiki.model.reference.DocumentReferenceResolver;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.user.CurrentUserReference;
 import org.xwiki.user.UserReference;
 import org.xwiki.user.UserReferenceResolver;
 
@@ -48,7 +51,11 @@ import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -78,6 +85,9 @@ class DefaultReviewStorageManagerTest
     @MockComponent
     private UserReferenceConverter userReferenceConverter;
 
+    @MockComponent
+    private UserReferenceResolver<CurrentUserReference> currentUserReferenceResolver;
+
     private XWikiContext context;
 
     @BeforeEach
@@ -145,6 +155,72 @@ class DefaultReviewStorageManagerTest
         verify(xWikiDocument, times(2)).clone();
     }
 
+    @Test
+    void saveAll() throws Exception
+    {
+        ChangeRequest changeRequest = mock(ChangeRequest.class);
+        DocumentReference changeRequestDocRef = mock(DocumentReference.class);
+        when(this.changeRequestDocumentReferenceResolver.resolve(changeRequest)).thenReturn(changeRequestDocRef);
+
+        XWikiDocument xWikiDocument = mock(XWikiDocument.class);
+        when(xWikiDocument.clone()).thenReturn(xWikiDocument);
+        XWiki xWiki = mock(XWiki.class);
+        when(this.context.getWiki()).thenReturn(xWiki);
+        when(xWiki.getDocument(changeRequestDocRef, this.context)).thenReturn(xWikiDocument);
+        DocumentAuthors documentAuthors = mock(DocumentAuthors.class);
+        when(xWikiDocument.getAuthors()).thenReturn(documentAuthors);
+        when(xWikiDocument.isMetaDataDirty()).thenReturn(true);
+        UserReference currentUser = mock(UserReference.class);
+        when(this.currentUserReferenceResolver.resolve(CurrentUserReference.INSTANCE)).thenReturn(currentUser);
+
+        UserReference userReference = mock(UserReference.class);
+        List<ChangeRequestReview> reviews = new ArrayList<>();
+        List<BaseObject> xObjects = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            ChangeRequestReview review = new ChangeRequestReview(changeRequest, true, userReference)
+                .setId("xobject_" + i)
+                .setValid(false)
+                .setReviewInvalidationReason(ReviewInvalidationReason.NEW_CHANGE);
+            reviews.add(review);
+            BaseObject xObject = mock(BaseObject.class);
+            when(xWikiDocument.getXObject(ReviewXClassInitializer.REVIEW_XCLASS, i)).thenReturn(xObject);
+            xObjects.add(xObject);
+        }
+        // Already saved reviews are ignored.
+        ChangeRequestReview savedReview = mock(ChangeRequestReview.class);
+        when(savedReview.isSaved()).thenReturn(true);
+        reviews.add(savedReview);
+
+        this.storageManager.saveAll(reviews);
+
+        verify(xWiki).saveDocument(xWikiDocument, "Update existing reviews", this.context);
+        verify(xWiki, times(1)).saveDocument(any(XWikiDocument.class), anyString(), any(XWikiContext.class));
+        verify(xWikiDocument, times(1)).clone();
+        // The batch is saved on behalf of the current user.
+        verify(documentAuthors).setOriginalMetadataAuthor(currentUser);
+        verify(documentAuthors, times(1)).setOriginalMetadataAuthor(any());
+        for (BaseObject xObject : xObjects) {
+            verify(xObject).set(ReviewXClassInitializer.VALID_PROPERTY, 0, this.context);
+            verify(xObject).set(ReviewXClassInitializer.INVALIDATION_REASON_PROPERTY, "NEW_CHANGE", this.context);
+        }
+        for (ChangeRequestReview review : reviews.subList(0, 30)) {
+            assertTrue(review.isSaved());
+        }
+        verify(savedReview, never()).getChangeRequest();
+
+        // A single invalidated review is also saved on behalf of the current user, and not of the review author.
+        ChangeRequestReview singleReview = new ChangeRequestReview(changeRequest, true, userReference)
+            .setId("xobject_3")
+            .setValid(false)
+            .setReviewInvalidationReason(ReviewInvalidationReason.NEW_CHANGE);
+        this.storageManager.saveAll(List.of(singleReview));
+
+        verify(xWiki).saveDocument(xWikiDocument, "Update existing review", this.context);
+        verify(documentAuthors, times(2)).setOriginalMetadataAuthor(currentUser);
+        verify(documentAuthors, never()).setOriginalMetadataAuthor(userReference);
+        assertTrue(singleReview.isSaved());
+    }
+
     @Test
     void load() throws Exception
     {